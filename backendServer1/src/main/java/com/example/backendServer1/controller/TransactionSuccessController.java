@@ -1,18 +1,35 @@
 package com.example.backendServer1.controller;
 
+import com.example.backendServer1.dto.TransactionSuccessBatchDTO;
 import com.example.backendServer1.dto.TransactionSuccessDTO;
 import com.example.backendServer1.dto.TransactionSuccessResponseDTO;
+import com.example.backendServer1.service.AccountChangeFeed;
+import com.example.backendServer1.service.AccountVersions;
 import com.example.backendServer1.service.TransactionSuccessService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.constraints.NotEmpty;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The {@code TransactionSuccessController} class handles HTTP requests related to successful transactions.
@@ -20,6 +37,13 @@ import java.util.List;
  * This controller is responsible for interacting with the {@link TransactionSuccessService} to fetch and
  * transform the data before sending it as a response.
  *
+ * Responses are negotiated from the {@code Accept} header: JSON by default, or the binary Smile encoding of the same
+ * DTOs when the client asks for {@code application/x-jackson-smile}. The transaction list carries the account's
+ * version, computed from the rows returned, as its {@code ETag}, and a request whose {@code If-None-Match} names the
+ * current version, read from the database index, is answered with {@code 304 Not Modified} without reading the
+ * transactions. Every write is announced on a server-sent event stream of account numbers, so a caching client can
+ * drop exactly the changed accounts.
+ *
  * @author prapti
  */
 @RestController
@@ -32,14 +56,36 @@ public class TransactionSuccessController {
      */
     private final TransactionSuccessService service;
 
+    /**
+     * The {@link ObjectMapper} used to write streamed transactions as JSON lines.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The per-account versions exposed as entity tags.
+     */
+    private final AccountVersions accountVersions;
+
+    /**
+     * The feed announcing every write to an account.
+     */
+    private final AccountChangeFeed changeFeed;
+
     /**
      * Constructs a new {@code TransactionSuccessController} with the specified {@link TransactionSuccessService}.
      *
-     * @param service The {@code TransactionSuccessService} instance to be used by this controller.
+     * @param service         The {@code TransactionSuccessService} instance to be used by this controller.
+     * @param objectMapper    The {@code ObjectMapper} used to write streamed transactions.
+     * @param accountVersions The per-account versions exposed as entity tags.
+     * @param changeFeed      The feed announcing every write to an account.
      */
     @Autowired
-    public TransactionSuccessController(TransactionSuccessService service) {
+    public TransactionSuccessController(TransactionSuccessService service, ObjectMapper objectMapper,
+                                        AccountVersions accountVersions, AccountChangeFeed changeFeed) {
         this.service = service;
+        this.objectMapper = objectMapper;
+        this.accountVersions = accountVersions;
+        this.changeFeed = changeFeed;
     }
 
     /**
@@ -47,8 +93,8 @@ public class TransactionSuccessController {
      *
      * @param accountNumber The account number for which successful transactions are to be retrieved.
      * @return A {@link ResponseEntity} containing the {@link TransactionSuccessResponseDTO} with the
-     *         account number and a list of successful transactions, or a bad request response if the account
-     *         number is empty or null.
+     *         account number and a list of successful transactions, tagged with the account's version, or a bad
+     *         request response if the account number is empty, null or does not exist in the database.
      */
     @GetMapping("/success/{accountNumber}")
     public ResponseEntity<TransactionSuccessResponseDTO> getSuccessTransactions(
@@ -56,10 +102,115 @@ public class TransactionSuccessController {
         if (accountNumber == null || accountNumber.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
-        List<TransactionSuccessDTO> successTransactions = service.getSuccessTransactionsDTO(accountNumber);
+        TransactionSuccessBatchDTO successTransactions = service.findSuccessTransactionsDTO(accountNumber);
+        if (!successTransactions.isFound()) {
+            return ResponseEntity.badRequest().build();
+        }
         TransactionSuccessResponseDTO responseDTO = new TransactionSuccessResponseDTO();
         responseDTO.setAccountNumber(accountNumber);
-        responseDTO.setSuccess(successTransactions);
-        return ResponseEntity.ok(responseDTO);
+        responseDTO.setSuccess(successTransactions.getTransactions());
+        return ResponseEntity.ok().eTag(accountVersions.eTagOf(successTransactions.getVersion())).body(responseDTO);
+    }
+
+    /**
+     * Revalidates a client's copy of the successful transactions of the specified account number. Selected instead
+     * of the unconditional endpoint whenever an {@code If-None-Match} header is sent: if it names the account's
+     * current version, no transaction is read and {@code 304 Not Modified} is returned; otherwise the transactions
+     * are returned as usual.
+     *
+     * @param accountNumber The account number for which successful transactions are to be retrieved.
+     * @param ifNoneMatch   The entity tags of the client's copies.
+     * @return A {@link ResponseEntity} with status 304 and the current tag, or the tagged transactions.
+     */
+    @GetMapping(value = "/success/{accountNumber}", headers = HttpHeaders.IF_NONE_MATCH, params = "!limit")
+    public ResponseEntity<TransactionSuccessResponseDTO> getSuccessTransactionsIfChanged(
+            @PathVariable @NotEmpty(message = "Account number cannot be empty") String accountNumber,
+            @RequestHeader(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        String eTag = accountVersions.eTag(accountNumber);
+        if (accountVersions.matches(eTag, ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return getSuccessTransactions(accountNumber);
+    }
+
+    /**
+     * Retrieves one page of the successful transactions of the specified account number. Selected instead of the
+     * unpaged endpoint whenever a {@code limit} is given; the next page is requested with the returned
+     * {@code nextCursor}, which is absent on the last page.
+     *
+     * @param accountNumber The account number for which successful transactions are to be retrieved.
+     * @param limit         The maximum number of transactions in the page.
+     * @param cursor        The cursor returned with the previous page; omitted for the first page.
+     * @return A {@link ResponseEntity} containing the page and the cursor of the next one.
+     * @throws IllegalArgumentException If the account number, limit or cursor is invalid.
+     */
+    @GetMapping(value = "/success/{accountNumber}", params = "limit")
+    public ResponseEntity<TransactionSuccessResponseDTO> getSuccessTransactionsPage(
+            @PathVariable @NotEmpty(message = "Account number cannot be empty") String accountNumber,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(service.getSuccessTransactionsPage(accountNumber, limit, cursor));
+    }
+
+    /**
+     * Streams the successful transactions of the specified account number as newline-delimited JSON, one transaction
+     * per line, writing each row as the database delivers it so neither side holds the whole history in memory.
+     * With {@code order=date} the transactions are written newest first.
+     *
+     * @param accountNumber The account number for which successful transactions are to be streamed.
+     * @param order         "date" to stream the transactions newest first; omitted for storage order.
+     * @return A {@link ResponseEntity} whose body streams the transactions, or a bad request response if the
+     *         account number is empty.
+     * @throws IllegalArgumentException If the account number does not exist in the database.
+     */
+    @GetMapping(value = "/success/{accountNumber}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSuccessTransactions(
+            @PathVariable @NotEmpty(message = "Account number cannot be empty") String accountNumber,
+            @RequestParam(required = false) String order) {
+        if (accountNumber == null || accountNumber.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (order != null && !order.equalsIgnoreCase("date")) {
+            throw new IllegalArgumentException("Unsupported order: " + order);
+        }
+        service.validateAccountNumber(accountNumber);
+        ObjectWriter writer = objectMapper.writerFor(TransactionSuccessDTO.class);
+        StreamingResponseBody body = outputStream -> service.streamSuccessTransactionsDTO(accountNumber, order != null, transaction -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(transaction));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Retrieves the successful transactions of several account numbers with a single database query. Each requested
+     * account number is mapped to its transactions, or marked as not found, so one unknown account does not turn
+     * the whole batch into a bad request.
+     *
+     * @param accountNumbers The account numbers for which successful transactions are to be retrieved.
+     * @return A {@link ResponseEntity} containing each requested account number mapped to its result.
+     * @throws IllegalArgumentException If the list is empty, contains a null account number, or is too large.
+     */
+    @PostMapping("/success/batch")
+    public ResponseEntity<Map<String, TransactionSuccessBatchDTO>> getSuccessTransactionsBatch(@RequestBody List<String> accountNumbers) {
+        return ResponseEntity.ok(service.getSuccessTransactionsBatchDTO(accountNumbers));
+    }
+
+    /**
+     * Subscribes to the account numbers of successful transactions written from now on, as server-sent
+     * {@code change} events. A subscriber reconnecting with {@code Last-Event-ID} first receives the events it
+     * missed, or a {@code reset} event if they are no longer kept, after which it must forget everything it cached.
+     *
+     * @param lastEventId The identifier of the last event received before reconnecting; omitted on first connection.
+     * @return The emitter of the subscription.
+     */
+    @GetMapping(value = "/success/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToSuccessChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return changeFeed.subscribe(lastEventId);
     }
 }
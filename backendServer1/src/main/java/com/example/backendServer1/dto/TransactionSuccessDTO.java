@@ -30,6 +30,27 @@ public class TransactionSuccessDTO {
      */
     private String date;
 
+    /**
+     * Constructs an empty {@code TransactionSuccessDTO}.
+     */
+    public TransactionSuccessDTO() {
+    }
+
+    /**
+     * Constructs a {@code TransactionSuccessDTO} with all attributes; used by the streaming repository projection.
+     *
+     * @param transactionId The transaction identifier.
+     * @param status        The transaction status.
+     * @param amount        The transaction amount.
+     * @param date          The transaction date.
+     */
+    public TransactionSuccessDTO(String transactionId, String status, String amount, String date) {
+        this.transactionId = transactionId;
+        this.status = status;
+        this.amount = amount;
+        this.date = date;
+    }
+
     /**
      * Gets the unique identifier for the transaction.
      *
@@ -1,5 +1,7 @@
 package com.example.backendServer1.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 /**
@@ -23,6 +25,13 @@ public class TransactionSuccessResponseDTO {
      */
     private List<TransactionSuccessDTO> success;
 
+    /**
+     * Opaque cursor of the next page when the successful transactions are paged; {@code null} on the last page
+     * and when the transactions are not paged.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
     /**
      * Gets the account number for which successful transactions are being retrieved.
      *
@@ -58,4 +67,22 @@ public class TransactionSuccessResponseDTO {
     public void setSuccess(List<TransactionSuccessDTO> success) {
         this.success = success;
     }
+
+    /**
+     * Gets the cursor of the next page.
+     *
+     * @return The next page's cursor, or {@code null} if there is no further page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Sets the cursor of the next page.
+     *
+     * @param nextCursor The next page's cursor, or {@code null} if there is no further page.
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -1,19 +1,27 @@
 package com.example.backendServer1.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 /**
  * The {@code TransactionSuccess} class represents an entity for storing information about successful transactions
  * in a persistent data store. It is annotated with JPA (Java Persistence API) annotations to specify the mapping
  * between the entity and the database table. Instances of this class are used to store and retrieve data related
- * to successful transactions in the backend server.
+ * to successful transactions in the backend server. Every update increments the row's {@code version}, part of
+ * the account's version, and every write is announced through {@link TransactionSuccessListener}.
  *
  * @author prapti
  */
 @Entity
+@EntityListeners(TransactionSuccessListener.class)
+@Table(indexes = @Index(name = "idx_transaction_success_account_id_version", columnList = "accountNumber, id, version"))
 public class TransactionSuccess {
 
     /**
@@ -48,6 +56,14 @@ public class TransactionSuccess {
      */
     private String accountNumber;
 
+    /**
+     * The number of times the row was updated, incremented by JPA on every update. Rows inserted outside JPA
+     * start at 0; writers updating rows outside JPA must increment it themselves.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     /**
      * Gets the unique identifier for the transaction success entity.
      *
@@ -155,4 +171,22 @@ public class TransactionSuccess {
     public void setAccountNumber(String accountNumber) {
         this.accountNumber = accountNumber;
     }
+
+    /**
+     * Gets the number of times the row was updated.
+     *
+     * @return The row version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the number of times the row was updated.
+     *
+     * @param version The row version to be set.
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
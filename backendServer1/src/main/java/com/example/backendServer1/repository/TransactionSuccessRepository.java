@@ -1,9 +1,18 @@
 package com.example.backendServer1.repository;
 
 import com.example.backendServer1.entity.TransactionSuccess;
+import com.example.backendServer1.dto.TransactionSuccessDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * The {@code TransactionSuccessRepository} interface extends {@link JpaRepository} and serves as a data access
@@ -31,4 +40,66 @@ public interface TransactionSuccessRepository extends JpaRepository<TransactionS
      * @return {@code true} if successful transactions exist for the specified account number, {@code false} otherwise.
      */
     boolean existsByAccountNumber(String accountNumber);
+
+    /**
+     * Streams the successful transactions of the specified account number as DTOs, one database row at a time.
+     * The projection keeps the rows out of the persistence context and the minimal fetch size makes the MySQL
+     * driver stream the result set instead of buffering it, so memory stays flat however long the history is.
+     * The stream must be consumed inside a transaction and closed afterwards.
+     *
+     * @param accountNumber The account number for which successful transactions are to be streamed.
+     * @return A stream of {@link TransactionSuccessDTO} objects.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select new com.example.backendServer1.dto.TransactionSuccessDTO(t.transactionId, t.status, t.amount, t.date) "
+            + "from TransactionSuccess t where t.accountNumber = :accountNumber")
+    Stream<TransactionSuccessDTO> streamByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Streams the successful transactions of the specified account number as DTOs, newest first. Dates are stored as
+     * {@code dd-MM-yyyy} strings, so the rows are ordered by year, month and day, then by descending identifier
+     * for transactions of the same day. Like {@link #streamByAccountNumber(String)}, the rows are streamed one at a
+     * time and the stream must be consumed inside a transaction and closed afterwards.
+     *
+     * @param accountNumber The account number for which successful transactions are to be streamed.
+     * @return A stream of {@link TransactionSuccessDTO} objects, newest first.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select new com.example.backendServer1.dto.TransactionSuccessDTO(t.transactionId, t.status, t.amount, t.date) "
+            + "from TransactionSuccess t where t.accountNumber = :accountNumber "
+            + "order by substring(t.date, 7, 4) desc, substring(t.date, 4, 2) desc, substring(t.date, 1, 2) desc, t.id desc")
+    Stream<TransactionSuccessDTO> streamByAccountNumberNewestFirst(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Retrieves the successful transactions of all the specified account numbers with a single {@code IN} query.
+     *
+     * @param accountNumbers The account numbers for which successful transactions are to be retrieved.
+     * @return A list of {@link TransactionSuccess} entities belonging to any of the specified account numbers.
+     */
+    List<TransactionSuccess> findByAccountNumberIn(Collection<String> accountNumbers);
+
+    /**
+     * Retrieves one page of the successful transactions of the specified account number by seeking past the last
+     * row of the previous page, in ascending identifier order. The {@code (accountNumber, id)} index lets the
+     * database start reading at the seek position, so every page costs the same however deep it is.
+     *
+     * @param accountNumber The account number for which successful transactions are to be retrieved.
+     * @param id            The identifier of the last row of the previous page, or 0 for the first page.
+     * @param limit         The maximum number of rows to return.
+     * @return A list of at most {@code limit} {@link TransactionSuccess} entities following the given identifier.
+     */
+    List<TransactionSuccess> findByAccountNumberAndIdGreaterThanOrderByIdAsc(String accountNumber, Long id, Limit limit);
+
+    /**
+     * Gets the version of the successful transactions of the specified account number: the number of its rows, the
+     * highest of their identifiers and the sum of their row versions, all read from the
+     * {@code (accountNumber, id, version)} index. Inserts and deletes change the first two, in-place updates the
+     * last.
+     *
+     * @param accountNumber The account number whose version is to be read.
+     * @return The version, e.g. {@code "12-4711-3"}, or {@code "0-0-0"} for an account without transactions.
+     */
+    @Query("select concat(str(count(t)), '-', str(coalesce(max(t.id), 0)), '-', str(coalesce(sum(t.version), 0))) "
+            + "from TransactionSuccess t where t.accountNumber = :accountNumber")
+    String findVersionByAccountNumber(@Param("accountNumber") String accountNumber);
 }
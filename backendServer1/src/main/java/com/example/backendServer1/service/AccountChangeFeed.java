@@ -0,0 +1,241 @@
+package com.example.backendServer1.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The {@code AccountChangeFeed} class publishes a change event, carrying the account number, whenever the
+ * transactions of an account are written, to every subscriber of the server-sent event stream. Subscribers such as
+ * the main server's cache evict exactly the accounts that changed instead of waiting for their copies to expire.
+ * <p>
+ * Every event has an identifier made of an epoch chosen at startup and a sequence number. The most recent events
+ * are kept, so a subscriber reconnecting with {@code Last-Event-ID} receives the events it missed. When the missed
+ * events are no longer available, or on a subscriber's first connection, a {@code reset} event tells it to drop
+ * everything it derived from earlier events.
+ * <p>
+ * Events are written outside the feed's lock, so a slow subscriber never holds up the writes being published. While
+ * nothing is written, a comment is sent every {@code backend.change-feed.heartbeat-interval}, so that subscribers
+ * and proxies can tell an idle feed from a dead connection.
+ *
+ * @author prapti
+ */
+@Component
+public class AccountChangeFeed {
+
+    /**
+     * Name of the event announcing a write to an account.
+     */
+    public static final String CHANGE_EVENT = "change";
+
+    /**
+     * Name of the event telling a subscriber that events were lost.
+     */
+    public static final String RESET_EVENT = "reset";
+
+    /**
+     * Text of the comment sent to idle subscribers.
+     */
+    static final String HEARTBEAT_COMMENT = "heartbeat";
+
+    /**
+     * Number of recent events kept for subscribers that reconnect.
+     */
+    static final int REPLAY_CAPACITY = 1024;
+
+    private static final Logger log = LoggerFactory.getLogger(AccountChangeFeed.class);
+
+    /**
+     * Identifies this run of the application, so that identifiers issued before a restart are never resumed.
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * The most recent events, oldest first.
+     */
+    private final Deque<ChangeEvent> recent = new ArrayDeque<>();
+
+    /**
+     * The open subscriptions.
+     */
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Sequence number of the latest event; 0 before the first one.
+     */
+    private long sequence;
+
+    /**
+     * Opens a subscription, first sending the events missed since the given identifier, or a {@code reset} event if
+     * they cannot be replayed.
+     *
+     * @param lastEventId The identifier of the last event the subscriber received, or {@code null}.
+     * @return The emitter of the subscription.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter();
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(emitter));
+        synchronized (this) {
+            // The emitter is not returned to the container yet, so these sends are only buffered and never block.
+            List<ChangeEvent> missed = eventsSince(lastEventId);
+            try {
+                if (missed == null) {
+                    emitter.send(SseEmitter.event().id(currentId()).name(RESET_EVENT).data(""));
+                } else {
+                    for (ChangeEvent event : missed) {
+                        emitter.send(event.toSse());
+                    }
+                }
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+                return emitter;
+            }
+            subscribers.add(emitter);
+        }
+        return emitter;
+    }
+
+    /**
+     * Publishes a change event for an account once the current transaction completes, or at once outside a
+     * transaction. Publishing after completion keeps a subscriber from refetching before the write is visible; a
+     * rolled back write only costs one needless refetch.
+     *
+     * @param accountNumber The account number whose transactions were written.
+     */
+    public void publishAfterCompletion(String accountNumber) {
+        if (accountNumber == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(accountNumber);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                publish(accountNumber);
+            }
+        });
+    }
+
+    /**
+     * Publishes a change event for an account to every subscriber. The event is recorded under the feed's lock
+     * together with the subscribers it goes to, and written after the lock is released; a subscriber opened later
+     * receives it as a missed event instead. A subscriber that cannot be written to is dropped; it will catch up
+     * from the recent events when it reconnects.
+     *
+     * @param accountNumber The account number whose transactions were written.
+     */
+    public void publish(String accountNumber) {
+        ChangeEvent event;
+        List<SseEmitter> recipients;
+        synchronized (this) {
+            event = new ChangeEvent(++sequence, epoch + "-" + sequence, accountNumber);
+            recent.addLast(event);
+            if (recent.size() > REPLAY_CAPACITY) {
+                recent.removeFirst();
+            }
+            recipients = List.copyOf(subscribers);
+        }
+        for (SseEmitter subscriber : recipients) {
+            send(subscriber, event.toSse());
+        }
+    }
+
+    /**
+     * Sends a heartbeat comment to every subscriber, keeping idle connections from timing out.
+     */
+    @Scheduled(fixedRateString = "${backend.change-feed.heartbeat-interval:PT30S}")
+    public void heartbeat() {
+        for (SseEmitter subscriber : subscribers) {
+            send(subscriber, SseEmitter.event().comment(HEARTBEAT_COMMENT));
+        }
+    }
+
+    /**
+     * Sends an event to one subscriber, dropping the subscriber if it cannot be written to.
+     *
+     * @param subscriber The subscriber.
+     * @param event      The event.
+     */
+    private void send(SseEmitter subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.send(event);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping change feed subscriber", e);
+            subscribers.remove(subscriber);
+            subscriber.completeWithError(e);
+        }
+    }
+
+    /**
+     * Gets the events following the given identifier.
+     *
+     * @param lastEventId The identifier of the last event received, or {@code null}.
+     * @return The events following it, oldest first, or {@code null} if the identifier is missing, from another
+     *         run, or older than the recent events kept.
+     */
+    synchronized List<ChangeEvent> eventsSince(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(epoch + "-")) {
+            return null;
+        }
+        long last;
+        try {
+            last = Long.parseLong(lastEventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        long oldest = recent.isEmpty() ? sequence + 1 : recent.getFirst().sequence();
+        if (last > sequence || last < oldest - 1) {
+            return null;
+        }
+        List<ChangeEvent> missed = new ArrayList<>();
+        for (ChangeEvent event : recent) {
+            if (event.sequence() > last) {
+                missed.add(event);
+            }
+        }
+        return missed;
+    }
+
+    /**
+     * Gets the identifier of the latest event, which a subscriber resumes from after a {@code reset}.
+     *
+     * @return The identifier.
+     */
+    synchronized String currentId() {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * One published change event.
+     *
+     * @param sequence      The event's sequence number.
+     * @param id            The event's identifier.
+     * @param accountNumber The account number whose transactions were written.
+     */
+    record ChangeEvent(long sequence, String id, String accountNumber) {
+
+        /**
+         * Converts the event into a server-sent event.
+         *
+         * @return The server-sent event.
+         */
+        SseEmitter.SseEventBuilder toSse() {
+            return SseEmitter.event().id(id).name(CHANGE_EVENT).data(accountNumber);
+        }
+    }
+}
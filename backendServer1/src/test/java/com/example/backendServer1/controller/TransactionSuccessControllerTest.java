@@ -1,7 +1,11 @@
 package com.example.backendServer1.controller;
 
 import com.example.backendServer1.dto.TransactionSuccessResponseDTO;
+import com.example.backendServer1.dto.TransactionSuccessBatchDTO;
 import com.example.backendServer1.dto.TransactionSuccessDTO;
+import com.example.backendServer1.repository.TransactionSuccessRepository;
+import com.example.backendServer1.service.AccountChangeFeed;
+import com.example.backendServer1.service.AccountVersions;
 import com.example.backendServer1.service.TransactionSuccessService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,13 +15,33 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.mockito.Spy;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.function.Consumer;
+import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 /**
  * The {@code TransactionSuccessControllerTest} class contains unit tests for the {@code TransactionSuccessController}.
  * It utilizes the Mockito framework for mocking dependencies and JUnit for test assertions. The test cases cover
@@ -34,6 +58,23 @@ class TransactionSuccessControllerTest {
     @Mock
     private TransactionSuccessService service;
 
+    /**
+     * The mapper used by the controller to write streamed transactions.
+     */
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * The mocked repository the account versions are read from.
+     */
+    private TransactionSuccessRepository repository = mock(TransactionSuccessRepository.class);
+
+    /**
+     * The per-account versions used by the controller as entity tags.
+     */
+    @Spy
+    private AccountVersions accountVersions = new AccountVersions(repository);
+
     /**
      * The instance of {@code TransactionSuccessController} with injected mock dependencies.
      */
@@ -59,7 +100,7 @@ class TransactionSuccessControllerTest {
 
         assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
         assertNull(responseEntity.getBody());
-        verify(service, times(0)).getSuccessTransactionsDTO(any());
+        verify(service, times(0)).findSuccessTransactionsDTO(any());
     }
 
     /**
@@ -73,7 +114,7 @@ class TransactionSuccessControllerTest {
 
         assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
         assertNull(responseEntity.getBody());
-        verify(service, times(0)).getSuccessTransactionsDTO(any());
+        verify(service, times(0)).findSuccessTransactionsDTO(any());
     }
 
     /**
@@ -85,14 +126,29 @@ class TransactionSuccessControllerTest {
 
         String validAccountNumber = "123456789";
         List<TransactionSuccessDTO> successTransactions = createSampleSuccessTransactions(validAccountNumber);
-        when(service.getSuccessTransactionsDTO(validAccountNumber)).thenReturn(successTransactions);
+        when(service.findSuccessTransactionsDTO(validAccountNumber)).thenReturn(found(successTransactions));
 
         ResponseEntity<TransactionSuccessResponseDTO> responseEntity = controller.getSuccessTransactions(validAccountNumber);
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(validAccountNumber, responseEntity.getBody().getAccountNumber());
         assertEquals(successTransactions.size(), responseEntity.getBody().getSuccess().size());
-        verify(service, times(1)).getSuccessTransactionsDTO(validAccountNumber);
+        verify(service, times(1)).findSuccessTransactionsDTO(validAccountNumber);
+    }
+
+    /**
+     * Tests the behavior of the controller when the account number does not exist in the database.
+     * It should return a BAD_REQUEST response from the lookup's result, without an exception being thrown.
+     */
+    @Test
+    void getSuccessTransactions_NonExistentAccountNumber_ReturnsBadRequest() {
+
+        when(service.findSuccessTransactionsDTO("999999999")).thenReturn(new TransactionSuccessBatchDTO());
+
+        ResponseEntity<TransactionSuccessResponseDTO> responseEntity = controller.getSuccessTransactions("999999999");
+
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        assertNull(responseEntity.getBody());
     }
 
     /**
@@ -104,10 +160,23 @@ class TransactionSuccessControllerTest {
 
         String validAccountNumber = "555555555";
         List<TransactionSuccessDTO> successTransactions = createSampleSuccessTransactions(validAccountNumber);
-        when(service.getSuccessTransactionsDTO(validAccountNumber)).thenReturn(successTransactions);
+        when(service.findSuccessTransactionsDTO(validAccountNumber)).thenReturn(found(successTransactions));
 
         Assertions.assertDoesNotThrow(() -> controller.getSuccessTransactions(validAccountNumber));
-        verify(service, times(1)).getSuccessTransactionsDTO(validAccountNumber);
+        verify(service, times(1)).findSuccessTransactionsDTO(validAccountNumber);
+    }
+
+    /**
+     * Helper method to wrap transactions in the result of a lookup that found the account.
+     *
+     * @param transactions The account's transactions.
+     * @return The lookup result.
+     */
+    private static TransactionSuccessBatchDTO found(List<TransactionSuccessDTO> transactions) {
+        TransactionSuccessBatchDTO result = new TransactionSuccessBatchDTO();
+        result.setFound(true);
+        result.setTransactions(transactions);
+        return result;
     }
 
     /**
@@ -136,4 +205,164 @@ class TransactionSuccessControllerTest {
 
         return successTransactions;
     }
+
+    /**
+     * Tests that the streaming endpoint validates the account number and writes one JSON line per transaction.
+     */
+    @Test
+    void streamSuccessTransactions_WritesOneJsonLinePerTransaction() throws IOException {
+        TransactionSuccessDTO first = new TransactionSuccessDTO("T1", "success", "100", "30-05-2023");
+        TransactionSuccessDTO second = new TransactionSuccessDTO("T2", "success", "200", "31-05-2023");
+        doAnswer(invocation -> {
+            Consumer<TransactionSuccessDTO> action = invocation.getArgument(2);
+            action.accept(first);
+            action.accept(second);
+            return null;
+        }).when(service).streamSuccessTransactionsDTO(eq("123"), eq(false), any());
+
+        ResponseEntity<StreamingResponseBody> responseEntity = controller.streamSuccessTransactions("123", null);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(output);
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, responseEntity.getHeaders().getContentType());
+        assertEquals(2, lines.length);
+        assertEquals("T1", objectMapper.readTree(lines[0]).get("transactionId").asText());
+        assertEquals("T2", objectMapper.readTree(lines[1]).get("transactionId").asText());
+        verify(service).validateAccountNumber("123");
+    }
+
+    /**
+     * Tests that the batch endpoint returns the per-account results of the service.
+     */
+    @Test
+    void getSuccessTransactionsBatch_ReturnsPerAccountResults() {
+        List<String> accountNumbers = List.of("111111", "222222");
+        Map<String, TransactionSuccessBatchDTO> results = Map.of("111111", new TransactionSuccessBatchDTO(), "222222", new TransactionSuccessBatchDTO());
+        when(service.getSuccessTransactionsBatchDTO(accountNumbers)).thenReturn(results);
+
+        ResponseEntity<Map<String, TransactionSuccessBatchDTO>> responseEntity = controller.getSuccessTransactionsBatch(accountNumbers);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(results, responseEntity.getBody());
+    }
+
+    /**
+     * Tests that the paged endpoint passes the limit and cursor through and returns the page with its next cursor.
+     */
+    @Test
+    void getSuccessTransactionsPage_ReturnsPageWithNextCursor() {
+        TransactionSuccessResponseDTO page = new TransactionSuccessResponseDTO();
+        page.setAccountNumber("111111");
+        page.setNextCursor("Mg");
+        when(service.getSuccessTransactionsPage("111111", 2, "MQ")).thenReturn(page);
+
+        ResponseEntity<TransactionSuccessResponseDTO> responseEntity = controller.getSuccessTransactionsPage("111111", 2, "MQ");
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals("Mg", responseEntity.getBody().getNextCursor());
+    }
+
+    /**
+     * Tests that a client preferring Smile receives the transactions in Smile, while a JSON client still gets JSON.
+     */
+    @Test
+    void getSuccessTransactions_SmileAccepted_NegotiatesSmile() throws Exception {
+        when(service.findSuccessTransactionsDTO("123")).thenReturn(found(List.of(new TransactionSuccessDTO("T1", "success", "100", "30-05-2023"))));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        byte[] smile = mockMvc.perform(get("/backendserver1/success/123")
+                        .header(HttpHeaders.ACCEPT, "application/x-jackson-smile, application/json;q=0.9"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        mockMvc.perform(get("/backendserver1/success/123").accept(MediaType.APPLICATION_JSON))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+
+        TransactionSuccessResponseDTO decoded = new SmileMapper().readValue(smile, TransactionSuccessResponseDTO.class);
+        assertEquals("T1", decoded.getSuccess().get(0).getTransactionId());
+    }
+
+    /**
+     * Tests that a full read is tagged from the rows it returned without querying the version, that revalidating
+     * with that tag returns 304 after a single version query and without calling the service, and that an in-place
+     * update of a row makes the revalidation return the transactions again, tagged from the rows read.
+     */
+    @Test
+    void getSuccessTransactions_IfNoneMatchCurrent_ReturnsNotModifiedUntilWritten() throws Exception {
+        TransactionSuccessBatchDTO current = found(List.of(new TransactionSuccessDTO("T1", "success", "100", "30-05-2023")));
+        current.setVersion("1-7-0");
+        when(service.findSuccessTransactionsDTO("123")).thenReturn(current);
+        when(repository.findVersionByAccountNumber("123")).thenReturn("1-7-0");
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        String eTag = mockMvc.perform(get("/backendserver1/success/123"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        verify(repository, never()).findVersionByAccountNumber("123");
+        mockMvc.perform(get("/backendserver1/success/123").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        verify(service, times(1)).findSuccessTransactionsDTO("123");
+        verify(repository, times(1)).findVersionByAccountNumber("123");
+
+        assertEquals("W/\"1-7-0\"", eTag);
+
+        TransactionSuccessBatchDTO updated = found(List.of(new TransactionSuccessDTO("T1", "success", "100", "30-05-2023")));
+        updated.setVersion("1-7-1");
+        when(service.findSuccessTransactionsDTO("123")).thenReturn(updated);
+        when(repository.findVersionByAccountNumber("123")).thenReturn("1-7-1");
+        mockMvc.perform(get("/backendserver1/success/123").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-7-1\""));
+        verify(service, times(2)).findSuccessTransactionsDTO("123");
+        verify(repository, times(2)).findVersionByAccountNumber("123");
+    }
+
+    /**
+     * Tests that a new subscriber to the change feed is first told to reset, then receives the account number of
+     * every write, and that a subscriber resuming from the last event it saw receives only what it missed.
+     */
+    @Test
+    void subscribeToSuccessChanges_StreamsWrittenAccounts() throws Exception {
+        AccountChangeFeed changeFeed = new AccountChangeFeed();
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+                new TransactionSuccessController(service, objectMapper, accountVersions, changeFeed)).build();
+
+        MockHttpServletResponse response = mockMvc.perform(get("/backendserver1/success/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        changeFeed.publishAfterCompletion("123");
+
+        String events = response.getContentAsString();
+        assertTrue(events.contains("event:reset"));
+        assertTrue(events.contains("event:change\ndata:123"));
+        String lastEventId = events.substring(events.lastIndexOf("id:") + 3, events.indexOf('\n', events.lastIndexOf("id:")));
+
+        changeFeed.publishAfterCompletion("456");
+        String missed = mockMvc.perform(get("/backendserver1/success/changes").header("Last-Event-ID", lastEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse().getContentAsString();
+        assertFalse(missed.contains("event:reset"));
+        assertFalse(missed.contains("data:123"));
+        assertTrue(missed.contains("event:change\ndata:456"));
+    }
+
+    /**
+     * Tests that an idle subscriber to the change feed receives heartbeat comments.
+     */
+    @Test
+    void subscribeToSuccessChanges_ReceivesHeartbeats() throws Exception {
+        AccountChangeFeed changeFeed = new AccountChangeFeed();
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+                new TransactionSuccessController(service, objectMapper, accountVersions, changeFeed)).build();
+
+        MockHttpServletResponse response = mockMvc.perform(get("/backendserver1/success/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        changeFeed.heartbeat();
+
+        assertTrue(response.getContentAsString().contains(":heartbeat\n"));
+    }
 }
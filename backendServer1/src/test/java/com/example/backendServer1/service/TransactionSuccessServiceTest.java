@@ -1,21 +1,36 @@
 package com.example.backendServer1.service;
 
+import com.example.backendServer1.dto.TransactionSuccessResponseDTO;
 import com.example.backendServer1.entity.TransactionSuccess;
 import com.example.backendServer1.repository.TransactionSuccessRepository;
+import com.example.backendServer1.dto.TransactionSuccessBatchDTO;
 import com.example.backendServer1.dto.TransactionSuccessDTO;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
 
+import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 /**
  * The {@code TransactionSuccessServiceTest} class contains unit tests for the {@code TransactionSuccessService}.
  * It utilizes the Mockito framework for mocking dependencies and JUnit for test assertions. The test cases cover
@@ -32,6 +47,17 @@ class TransactionSuccessServiceTest {
     @Mock
     private TransactionSuccessRepository repository;
 
+    /**
+     * In-memory registry recording the service's timers.
+     */
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Registry observing the service's queries and mapping, timing them into {@link #meterRegistry}.
+     */
+    @Spy
+    private ObservationRegistry observationRegistry = ObservationRegistry.create();
+
     /**
      * The instance of {@code TransactionSuccessService} with injected mock dependencies.
      */
@@ -43,24 +69,24 @@ class TransactionSuccessServiceTest {
      */
     @BeforeEach
     void setUp() {
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
         MockitoAnnotations.openMocks(this);
     }
 
     /**
      * Tests the successful retrieval of {@code TransactionSuccessDTO} objects for a valid account number.
-     * It should return a list of DTOs and invoke the repository methods accordingly.
+     * It should return a list of DTOs with a single query, without a separate existence check.
      */
     @Test
     void getSuccessTransactionsDTO_ValidAccountNumber_ReturnsDTOList() {
 
         String validAccountNumber = "123456789";
         List<TransactionSuccess> successTransactions = createSampleSuccessTransactions(validAccountNumber);
-        when(repository.existsByAccountNumber(validAccountNumber)).thenReturn(true);
         when(repository.findByAccountNumber(validAccountNumber)).thenReturn(successTransactions);
 
         List<TransactionSuccessDTO> result = service.getSuccessTransactionsDTO(validAccountNumber);
         assertEquals(successTransactions.size(), result.size());
-        verify(repository, times(1)).existsByAccountNumber(validAccountNumber);
+        verify(repository, never()).existsByAccountNumber(any());
         verify(repository, times(1)).findByAccountNumber(validAccountNumber);
     }
 
@@ -90,17 +116,56 @@ class TransactionSuccessServiceTest {
 
     /**
      * Tests the behavior of the service when a non-existent account number is provided.
-     * It should throw an {@code IllegalArgumentException} and invoke the repository method to check account existence.
+     * It should throw an {@code IllegalArgumentException}, telling the account's absence from the empty result of the
+     * single query.
      */
     @Test
     void getSuccessTransactionsDTO_NonExistentAccountNumber_ThrowsIllegalArgumentException() {
 
         String nonExistentAccountNumber = "999999999";
-        when(repository.existsByAccountNumber(nonExistentAccountNumber)).thenReturn(false);
+        when(repository.findByAccountNumber(nonExistentAccountNumber)).thenReturn(new ArrayList<>());
 
         assertThrows(IllegalArgumentException.class, () -> service.getSuccessTransactionsDTO(nonExistentAccountNumber));
-        verify(repository, times(1)).existsByAccountNumber(nonExistentAccountNumber);
-        verify(repository, never()).findByAccountNumber(any());
+        verify(repository, never()).existsByAccountNumber(any());
+        verify(repository, times(1)).findByAccountNumber(nonExistentAccountNumber);
+    }
+
+    /**
+     * Tests that looking up an account with a single query returns its transactions as found, and reports an unknown
+     * account as not found instead of throwing.
+     */
+    @Test
+    void findSuccessTransactionsDTO_SingleQuery_MarksUnknownAccountAsNotFound() {
+
+        when(repository.findByAccountNumber("123456789")).thenReturn(createSampleSuccessTransactions("123456789"));
+        when(repository.findByAccountNumber("999999999")).thenReturn(new ArrayList<>());
+
+        TransactionSuccessBatchDTO found = service.findSuccessTransactionsDTO("123456789");
+        TransactionSuccessBatchDTO unknown = service.findSuccessTransactionsDTO("999999999");
+
+        assertTrue(found.isFound());
+        assertEquals(2, found.getTransactions().size());
+        assertFalse(unknown.isFound());
+        assertTrue(unknown.getTransactions().isEmpty());
+        verify(repository, never()).existsByAccountNumber(any());
+    }
+
+    /**
+     * Tests that a found account is tagged with the version of the rows read, which changes when a row is updated in
+     * place, and that an unknown account carries no version.
+     */
+    @Test
+    void findSuccessTransactionsDTO_TagsResultWithVersionOfRows() {
+        TransactionSuccess first = row(5);
+        TransactionSuccess second = row(9);
+        second.setVersion(2);
+        when(repository.findByAccountNumber("111111")).thenReturn(List.of(first, second));
+        when(repository.findByAccountNumber("999999")).thenReturn(new ArrayList<>());
+
+        assertEquals("2-9-2", service.findSuccessTransactionsDTO("111111").getVersion());
+        second.setVersion(3);
+        assertEquals("2-9-3", service.findSuccessTransactionsDTO("111111").getVersion());
+        assertNull(service.findSuccessTransactionsDTO("999999").getVersion());
     }
 
     /**
@@ -112,12 +177,14 @@ class TransactionSuccessServiceTest {
     private List<TransactionSuccess> createSampleSuccessTransactions(String accountNumber) {
 
         TransactionSuccess transaction1 = new TransactionSuccess();
+        transaction1.setId(1L);
         transaction1.setTransactionId("123");
         transaction1.setStatus("success");
         transaction1.setAmount("500");
         transaction1.setDate("30-05-2023");
 
         TransactionSuccess transaction2 = new TransactionSuccess();
+        transaction2.setId(2L);
         transaction2.setTransactionId("456");
         transaction2.setStatus("success");
         transaction2.setAmount("100");
@@ -125,4 +192,147 @@ class TransactionSuccessServiceTest {
 
         return Arrays.asList(transaction1, transaction2);
     }
+
+    /**
+     * Tests that streaming passes every row to the action in order and closes the database stream.
+     */
+    @Test
+    void streamSuccessTransactionsDTO_PassesEachRowAndClosesStream() {
+        AtomicBoolean closed = new AtomicBoolean();
+        TransactionSuccessDTO first = new TransactionSuccessDTO("T1", "success", "100", "30-05-2023");
+        TransactionSuccessDTO second = new TransactionSuccessDTO("T2", "success", "200", "31-05-2023");
+        when(repository.streamByAccountNumber("123")).thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+
+        List<TransactionSuccessDTO> received = new ArrayList<>();
+        service.streamSuccessTransactionsDTO("123", received::add);
+
+        assertEquals(List.of(first, second), received);
+        assertTrue(closed.get());
+    }
+
+    /**
+     * Tests that a batch lookup runs a single query, groups the rows by account in request order and marks accounts
+     * without rows as not found instead of failing.
+     */
+    @Test
+    void getSuccessTransactionsBatchDTO_GroupsRowsAndMarksMissingAccounts() {
+        TransactionSuccess first = new TransactionSuccess();
+        first.setAccountNumber("111111");
+        first.setTransactionId("T1");
+        TransactionSuccess second = new TransactionSuccess();
+        second.setAccountNumber("111111");
+        second.setTransactionId("T2");
+        when(repository.findByAccountNumberIn(List.of("222222", "111111"))).thenReturn(List.of(first, second));
+
+        Map<String, TransactionSuccessBatchDTO> results = service.getSuccessTransactionsBatchDTO(List.of("222222", "111111", "222222", " "));
+
+        assertEquals(List.of("222222", "111111", " "), new ArrayList<>(results.keySet()));
+        assertFalse(results.get("222222").isFound());
+        assertTrue(results.get("222222").getTransactions().isEmpty());
+        assertTrue(results.get("111111").isFound());
+        assertEquals("T1", results.get("111111").getTransactions().get(0).getTransactionId());
+        assertEquals("T2", results.get("111111").getTransactions().get(1).getTransactionId());
+        assertFalse(results.get(" ").isFound());
+        verify(repository, times(1)).findByAccountNumberIn(any());
+        verify(repository, never()).existsByAccountNumber(any());
+    }
+
+    /**
+     * Tests that an empty batch is rejected without querying the repository.
+     */
+    @Test
+    void getSuccessTransactionsBatchDTO_EmptyList_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> service.getSuccessTransactionsBatchDTO(List.of()));
+        verify(repository, never()).findByAccountNumberIn(any());
+    }
+
+    /**
+     * Tests that a page reads one extra row to detect a further page, and that its cursor seeks past the page's last row.
+     */
+    @Test
+    void getSuccessTransactionsPage_SeeksPastCursorAndReturnsNextCursor() {
+        when(repository.findByAccountNumberAndIdGreaterThanOrderByIdAsc("111111", 0L, Limit.of(3)))
+                .thenReturn(List.of(row(1L), row(2L), row(3L)));
+        when(repository.findByAccountNumberAndIdGreaterThanOrderByIdAsc("111111", 2L, Limit.of(3)))
+                .thenReturn(List.of(row(3L)));
+
+        TransactionSuccessResponseDTO first = service.getSuccessTransactionsPage("111111", 2, null);
+        TransactionSuccessResponseDTO last = service.getSuccessTransactionsPage("111111", 2, first.getNextCursor());
+
+        assertEquals(2, first.getSuccess().size());
+        assertEquals(1, last.getSuccess().size());
+        assertNull(last.getNextCursor());
+        verify(repository, never()).existsByAccountNumber(any());
+    }
+
+    /**
+     * Tests that an empty first page means an unknown account, while an empty page past a cursor only means one when
+     * the account no longer exists.
+     */
+    @Test
+    void getSuccessTransactionsPage_EmptyPage_ChecksExistenceOnlyPastACursor() {
+        when(repository.findByAccountNumberAndIdGreaterThanOrderByIdAsc(any(), any(), any())).thenReturn(List.of());
+        when(repository.existsByAccountNumber("111111")).thenReturn(true);
+
+        assertThrows(IllegalArgumentException.class, () -> service.getSuccessTransactionsPage("999999", 2, null));
+        verify(repository, never()).existsByAccountNumber(any());
+
+        TransactionSuccessResponseDTO page = service.getSuccessTransactionsPage("111111", 2, TransactionSuccessService.encodeCursor(5L));
+        assertTrue(page.getSuccess().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> service.getSuccessTransactionsPage("999999", 2, TransactionSuccessService.encodeCursor(5L)));
+    }
+
+    /**
+     * Tests that a malformed cursor or an out-of-range limit is rejected without reading a page.
+     */
+    @Test
+    void getSuccessTransactionsPage_InvalidCursorOrLimit_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> service.getSuccessTransactionsPage("111111", 10, "not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> service.getSuccessTransactionsPage("111111", 0, null));
+        verify(repository, never()).findByAccountNumberAndIdGreaterThanOrderByIdAsc(any(), any(), any());
+    }
+
+    /**
+     * Creates a row of the account used by the paging tests.
+     *
+     * @param id The row identifier.
+     * @return The row.
+     */
+    private static TransactionSuccess row(long id) {
+        TransactionSuccess row = new TransactionSuccess();
+        row.setId(id);
+        row.setAccountNumber("111111");
+        return row;
+    }
+
+    /**
+     * Tests that streaming newest first reads the date-ordered query instead of the storage-ordered one.
+     */
+    @Test
+    void streamSuccessTransactionsDTO_NewestFirst_UsesDateOrderedQuery() {
+        TransactionSuccessDTO newest = new TransactionSuccessDTO("T2", "success", "200", "31-05-2023");
+        TransactionSuccessDTO oldest = new TransactionSuccessDTO("T1", "success", "100", "30-05-2023");
+        when(repository.streamByAccountNumberNewestFirst("123")).thenReturn(Stream.of(newest, oldest));
+
+        List<TransactionSuccessDTO> received = new ArrayList<>();
+        service.streamSuccessTransactionsDTO("123", true, received::add);
+
+        assertEquals(List.of(newest, oldest), received);
+        verify(repository, never()).streamByAccountNumber(any());
+    }
+
+    /**
+     * Tests that the account lookup times its single database query and the mapping of the rows separately.
+     */
+    @Test
+    void getSuccessTransactionsDTO_RecordsQueryAndMappingTimes() {
+
+        when(repository.findByAccountNumber("123")).thenReturn(createSampleSuccessTransactions("123"));
+
+        service.getSuccessTransactionsDTO("123");
+
+        assertNull(meterRegistry.find("backend.transactions.query").tag("operation", "validate").timer());
+        assertEquals(1, meterRegistry.get("backend.transactions.query").tag("operation", "get").timer().count());
+        assertEquals(1, meterRegistry.get("backend.transactions.mapping").tag("operation", "get").timer().count());
+    }
 }
@@ -1,18 +1,35 @@
 package com.example.backendServer2.controller;
 
 import com.example.backendServer2.dto.TransactionFailureResponseDTO;
+import com.example.backendServer2.dto.TransactionFailureBatchDTO;
 import com.example.backendServer2.dto.TransactionFailureDTO;
+import com.example.backendServer2.service.AccountChangeFeed;
+import com.example.backendServer2.service.AccountVersions;
 import com.example.backendServer2.service.TransactionFailureService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.constraints.NotEmpty;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The {@code TransactionFailureController} class is a Spring MVC controller responsible for handling HTTP requests
@@ -26,6 +43,11 @@ import java.util.List;
  * is done in the {@code getFailureTransactions} method, which invokes the service to retrieve failure transactions and
  * constructs a response entity with the appropriate data.
  *
+ * The response body follows content negotiation: a client accepting {@code application/x-jackson-smile} receives the
+ * compact binary Smile form of the DTOs instead of JSON, which remains the default. Each transaction list is tagged
+ * with its account's version, so a client revalidating it with {@code If-None-Match} gets {@code 304 Not Modified}
+ * while the account is unchanged, without any row being read.
+ *
  * @author prapti
  */
 @RestController
@@ -39,26 +61,148 @@ public class TransactionFailureController {
     @Autowired
     private TransactionFailureService service;
 
+    /**
+     * The mapper used to write streamed transactions as JSON lines.
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * The per-account versions sent as entity tags.
+     */
+    @Autowired
+    private AccountVersions accountVersions;
+
+    /**
+     * The feed announcing every write to an account.
+     */
+    @Autowired
+    private AccountChangeFeed changeFeed;
+
     /**
      * Handles the GET request to retrieve a list of failed transactions for the specified account number.
      *
      * @param accountNumber The account number for which failed transactions are to be retrieved.
      * @return A {@code ResponseEntity} containing a {@code TransactionFailureResponseDTO} with details about the
-     *         failed transactions or a BAD_REQUEST response if the account number is empty.
+     *         failed transactions or a BAD_REQUEST response if the account number is empty or does not exist in the
+     *         database.
      */
     @GetMapping("/failure/{accountNumber}")
     public ResponseEntity<TransactionFailureResponseDTO> getFailureTransactions(@PathVariable @NotEmpty(message = "Account number cannot be empty") String accountNumber) {
         if (accountNumber.isEmpty()) {
             return ResponseEntity.badRequest().body(null);
         }
-        List<TransactionFailureDTO> failureTransactions = service.getFailureTransactionsDTO(accountNumber);
+        TransactionFailureBatchDTO failureTransactions = service.findFailureTransactionsDTO(accountNumber);
+        if (!failureTransactions.isFound()) {
+            return ResponseEntity.badRequest().body(null);
+        }
 
         TransactionFailureResponseDTO responseDTO = new TransactionFailureResponseDTO();
         responseDTO.setAccountNumber(accountNumber);
-        responseDTO.setFailure(failureTransactions);
+        responseDTO.setFailure(failureTransactions.getTransactions());
 
-        return ResponseEntity.ok(responseDTO);
+        return ResponseEntity.ok().eTag(accountVersions.eTagOf(failureTransactions.getVersion())).body(responseDTO);
     }
 
+    /**
+     * Handles a conditional GET request revalidating a client's copy of the failed transactions of the specified
+     * account number. When the {@code If-None-Match} header names the account's current version the answer is
+     * {@code 304 Not Modified} and no transaction is read; otherwise the transactions are returned as usual.
+     *
+     * @param accountNumber The account number for which failed transactions are to be retrieved.
+     * @param ifNoneMatch   The entity tags of the client's copies.
+     * @return A {@code ResponseEntity} with status 304 and the current tag, or the tagged transactions.
+     */
+    @GetMapping(value = "/failure/{accountNumber}", headers = HttpHeaders.IF_NONE_MATCH, params = "!limit")
+    public ResponseEntity<TransactionFailureResponseDTO> getFailureTransactionsIfChanged(
+            @PathVariable @NotEmpty(message = "Account number cannot be empty") String accountNumber,
+            @RequestHeader(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        String eTag = accountVersions.eTag(accountNumber);
+        if (accountVersions.matches(eTag, ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return getFailureTransactions(accountNumber);
+    }
 
+    /**
+     * Retrieves one page of the failed transactions of the specified account number. Selected instead of the
+     * unpaged endpoint whenever a {@code limit} is given; the next page is requested with the returned
+     * {@code nextCursor}, which is absent on the last page.
+     *
+     * @param accountNumber The account number for which failed transactions are to be retrieved.
+     * @param limit         The maximum number of transactions in the page.
+     * @param cursor        The cursor returned with the previous page; omitted for the first page.
+     * @return A {@link ResponseEntity} containing the page and the cursor of the next one.
+     * @throws IllegalArgumentException If the account number, limit or cursor is invalid.
+     */
+    @GetMapping(value = "/failure/{accountNumber}", params = "limit")
+    public ResponseEntity<TransactionFailureResponseDTO> getFailureTransactionsPage(
+            @PathVariable @NotEmpty(message = "Account number cannot be empty") String accountNumber,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(service.getFailureTransactionsPage(accountNumber, limit, cursor));
+    }
+
+    /**
+     * Streams the failed transactions of the specified account number as newline-delimited JSON, one transaction
+     * per line, writing each row as the database delivers it so neither side holds the whole history in memory.
+     * With {@code order=date} the transactions are written newest first.
+     *
+     * @param accountNumber The account number for which failed transactions are to be streamed.
+     * @param order         "date" to stream the transactions newest first; omitted for storage order.
+     * @return A {@link ResponseEntity} whose body streams the transactions, or a bad request response if the
+     *         account number is empty.
+     * @throws IllegalArgumentException If the account number does not exist in the database.
+     */
+    @GetMapping(value = "/failure/{accountNumber}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamFailureTransactions(
+            @PathVariable @NotEmpty(message = "Account number cannot be empty") String accountNumber,
+            @RequestParam(required = false) String order) {
+        if (accountNumber == null || accountNumber.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (order != null && !order.equalsIgnoreCase("date")) {
+            throw new IllegalArgumentException("Unsupported order: " + order);
+        }
+        service.validateAccountNumber(accountNumber);
+        ObjectWriter writer = objectMapper.writerFor(TransactionFailureDTO.class);
+        StreamingResponseBody body = outputStream -> service.streamFailureTransactionsDTO(accountNumber, order != null, transaction -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(transaction));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Retrieves the failed transactions of several account numbers with a single database query. Each requested
+     * account number is mapped to its transactions, or marked as not found, so one unknown account does not turn
+     * the whole batch into a bad request.
+     *
+     * @param accountNumbers The account numbers for which failed transactions are to be retrieved.
+     * @return A {@link ResponseEntity} containing each requested account number mapped to its result.
+     * @throws IllegalArgumentException If the list is empty, contains a null account number, or is too large.
+     */
+    @PostMapping("/failure/batch")
+    public ResponseEntity<Map<String, TransactionFailureBatchDTO>> getFailureTransactionsBatch(@RequestBody List<String> accountNumbers) {
+        return ResponseEntity.ok(service.getFailureTransactionsBatchDTO(accountNumbers));
+    }
+
+    /**
+     * Handles a subscription to the account numbers of failed transactions written from now on, streamed as
+     * server-sent {@code change} events. A subscriber reconnecting with {@code Last-Event-ID} first receives the
+     * events it missed, or a {@code reset} event if they are no longer kept, after which it must forget everything
+     * it cached.
+     *
+     * @param lastEventId The identifier of the last event received before reconnecting; omitted on first connection.
+     * @return The emitter of the subscription.
+     */
+    @GetMapping(value = "/failure/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToFailureChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return changeFeed.subscribe(lastEventId);
+    }
 }
@@ -0,0 +1,87 @@
+package com.example.backendServer2.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code TransactionFailureBatchDTO} class represents the result of looking up one account's failed transactions,
+ * alone or as an entry of a batch lookup. An account without failed transactions is reported with {@code found}
+ * set to {@code false} instead of failing the lookup or the whole batch.
+ *
+ * @author prapti
+ */
+public class TransactionFailureBatchDTO {
+
+    /**
+     * Whether the account has failed transactions.
+     */
+    private boolean found;
+
+    /**
+     * The failed transactions of the account; empty if the account was not found.
+     */
+    private List<TransactionFailureDTO> transactions = new ArrayList<>();
+
+    /**
+     * The version of the account's rows that were read, or {@code null} if the account was not found. It backs
+     * the entity tag of a single-account lookup and is not part of the response body.
+     */
+    @JsonIgnore
+    private String version;
+
+    /**
+     * Indicates whether the account has failed transactions.
+     *
+     * @return {@code true} if the account was found.
+     */
+    public boolean isFound() {
+        return found;
+    }
+
+    /**
+     * Sets whether the account has failed transactions.
+     *
+     * @param found {@code true} if the account was found.
+     */
+    public void setFound(boolean found) {
+        this.found = found;
+    }
+
+    /**
+     * Retrieves the failed transactions of the account.
+     *
+     * @return The transactions.
+     */
+    public List<TransactionFailureDTO> getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Sets the failed transactions of the account.
+     *
+     * @param transactions The transactions to be set.
+     */
+    public void setTransactions(List<TransactionFailureDTO> transactions) {
+        this.transactions = transactions;
+    }
+
+    /**
+     * Gets the version of the account's rows that were read.
+     *
+     * @return The version, or {@code null} if the account was not found.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the account's rows that were read.
+     *
+     * @param version The version to be set.
+     */
+    public void setVersion(String version) {
+        this.version = version;
+    }
+}
@@ -30,6 +30,27 @@ public class TransactionFailureDTO {
      */
     private String date;
 
+    /**
+     * Constructs an empty {@code TransactionFailureDTO}.
+     */
+    public TransactionFailureDTO() {
+    }
+
+    /**
+     * Constructs a {@code TransactionFailureDTO} with all attributes; used by the streaming repository projection.
+     *
+     * @param transactionId The transaction identifier.
+     * @param status        The transaction status.
+     * @param amount        The transaction amount.
+     * @param date          The transaction date.
+     */
+    public TransactionFailureDTO(String transactionId, String status, String amount, String date) {
+        this.transactionId = transactionId;
+        this.status = status;
+        this.amount = amount;
+        this.date = date;
+    }
+
     /**
      * Gets the unique identifier for the failed transaction.
      *
@@ -1,5 +1,7 @@
 package com.example.backendServer2.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 /**
@@ -21,6 +23,13 @@ public class TransactionFailureResponseDTO {
      */
     private List<TransactionFailureDTO> failure;
 
+    /**
+     * Opaque cursor of the next page when the failed transactions are paged; {@code null} on the last page
+     * and when the transactions are not paged.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
     /**
      * Gets the account number associated with the failed transactions.
      *
@@ -56,4 +65,22 @@ public class TransactionFailureResponseDTO {
     public void setFailure(List<TransactionFailureDTO> failure) {
         this.failure = failure;
     }
+
+    /**
+     * Gets the cursor of the next page.
+     *
+     * @return The next page's cursor, or {@code null} if there is no further page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Sets the cursor of the next page.
+     *
+     * @param nextCursor The next page's cursor, or {@code null} if there is no further page.
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -1,9 +1,14 @@
 package com.example.backendServer2.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 /**
  * The {@code TransactionFailure} class represents an entity in the backend server, mapping to a table in the
@@ -13,10 +18,14 @@ import jakarta.persistence.Id;
  * specify the primary key generation strategy.
  *
  * This class is used for persisting and retrieving information about failed transactions in the backend server.
+ * Every update increments the row's {@code version}, part of the account's version, and every write is announced
+ * through {@link TransactionFailureListener}.
  *
  * @author prapti
  */
 @Entity
+@EntityListeners(TransactionFailureListener.class)
+@Table(indexes = @Index(name = "idx_transaction_failure_account_id_version", columnList = "accountNumber, id, version"))
 public class TransactionFailure {
 
     /**
@@ -51,6 +60,14 @@ public class TransactionFailure {
      */
     private String accountNumber;
 
+    /**
+     * The number of times the row was updated, incremented by JPA on every update. Rows inserted outside JPA
+     * start at 0; writers updating rows outside JPA must increment it themselves.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     /**
      * Gets the unique identifier for the failed transaction.
      *
@@ -158,4 +175,22 @@ public class TransactionFailure {
     public void setAccountNumber(String accountNumber) {
         this.accountNumber = accountNumber;
     }
+
+    /**
+     * Gets the number of times the row was updated.
+     *
+     * @return The row version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the number of times the row was updated.
+     *
+     * @param version The row version to be set.
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,102 @@
+package com.example.backendServer2.service;
+
+import com.example.backendServer2.entity.TransactionFailure;
+import com.example.backendServer2.repository.TransactionFailureRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * The {@code AccountVersions} class derives the version of an account's failed transactions from the database
+ * and turns it into the entity tag of the account's transaction list.
+ * <p>
+ * A client holding the list of an unchanged account can revalidate it with {@code If-None-Match} and receive a
+ * {@code 304 Not Modified} without any transaction row being read. The version is the number of the account's rows,
+ * the highest of their identifiers and the sum of their row versions, which JPA increments on every update. It is
+ * answered from the {@code (accountNumber, id, version)} index when revalidating, and computed from the rows
+ * themselves when they are read anyway, so every replica tags the same rows alike, tags survive restarts, and
+ * inserts, deletes and in-place updates all change the tag.
+ *
+ * @author prapti
+ */
+@Component
+public class AccountVersions {
+
+    /**
+     * The repository the versions are read from.
+     */
+    private final TransactionFailureRepository repository;
+
+    /**
+     * Constructs a new {@code AccountVersions}.
+     *
+     * @param repository The repository the versions are read from.
+     */
+    @Autowired
+    public AccountVersions(TransactionFailureRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Reads the entity tag of the current version of an account's transactions from the database.
+     *
+     * @param accountNumber The account number.
+     * @return The weak entity tag, e.g. {@code W/"12-4711-3"}.
+     */
+    public String eTag(String accountNumber) {
+        return eTagOf(repository.findVersionByAccountNumber(accountNumber));
+    }
+
+    /**
+     * Turns a version into its entity tag. The tag is weak because the same version is served in several encodings
+     * (JSON or Smile, gzip or not), and because the servlet container does not compress responses carrying a strong
+     * tag.
+     *
+     * @param version The version, as returned by {@link #versionOf(Collection)}.
+     * @return The weak entity tag, e.g. {@code W/"12-4711-3"}.
+     */
+    public String eTagOf(String version) {
+        return "W/\"" + version + "\"";
+    }
+
+    /**
+     * Computes the version of an account from all of its rows, the same way the database does.
+     *
+     * @param rows Every row of the account.
+     * @return The version, e.g. {@code "12-4711-3"}, or {@code "0-0-0"} for an account without transactions.
+     */
+    public static String versionOf(Collection<TransactionFailure> rows) {
+        long maxId = 0;
+        long versions = 0;
+        for (TransactionFailure row : rows) {
+            maxId = Math.max(maxId, row.getId());
+            versions += row.getVersion();
+        }
+        return rows.size() + "-" + maxId + "-" + versions;
+    }
+
+    /**
+     * Indicates whether an {@code If-None-Match} header names the given entity tag, comparing weakly.
+     *
+     * @param eTag        The current entity tag, as returned by {@link #eTag(String)}.
+     * @param ifNoneMatch The {@code If-None-Match} header, or {@code null}.
+     * @return {@code true} if the client's copy is current.
+     */
+    public boolean matches(String eTag, String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String current = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,13 +1,25 @@
 package com.example.backendServer2.service;
 
+import com.example.backendServer2.dto.TransactionFailureBatchDTO;
 import com.example.backendServer2.dto.TransactionFailureDTO;
+import com.example.backendServer2.dto.TransactionFailureResponseDTO;
 import com.example.backendServer2.repository.TransactionFailureRepository;
 import com.example.backendServer2.entity.TransactionFailure;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 /**
@@ -16,25 +28,60 @@ import java.util.stream.Collectors;
  * {@code TransactionFailure} entities to corresponding DTOs ({@code TransactionFailureDTO}).
  *
  * This service class is designed to interact with the {@code TransactionFailureRepository} for data access.
+ * <p>
+ * Database queries and the mapping of rows to DTOs are observed separately, per operation, as the
+ * {@value #QUERY_TIMER} and {@value #MAPPING_TIMER} timers and as spans of the request's trace.
  *
  * @author prapti
  */
 @Service
 public class TransactionFailureService {
 
+    /**
+     * Maximum number of account numbers accepted in one batch lookup.
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Maximum number of transactions returned in one page.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Name of the observation of the database queries, tagged with the operation they serve.
+     */
+    static final String QUERY_TIMER = "backend.transactions.query";
+
+    /**
+     * Name of the observation of the conversion of rows into DTOs, tagged with the operation it serves.
+     */
+    static final String MAPPING_TIMER = "backend.transactions.mapping";
+
+    /**
+     * Message of the rejection of an account number without transactions.
+     */
+    private static final String UNKNOWN_ACCOUNT = "Account number does not exist in the database";
+
     /**
      * The repository responsible for data access operations on failed transactions.
      */
     private final TransactionFailureRepository repository;
 
+    /**
+     * The registry observing the queries and the mapping of transactions.
+     */
+    private final ObservationRegistry observationRegistry;
+
     /**
      * Constructs a new instance of {@code TransactionFailureService} with the specified repository dependency.
      *
      * @param repository The {@code TransactionFailureRepository} used for data access operations.
+     * @param observationRegistry The registry observing the queries and the mapping of transactions.
      */
     @Autowired
-    public TransactionFailureService(TransactionFailureRepository repository) {
+    public TransactionFailureService(TransactionFailureRepository repository, ObservationRegistry observationRegistry) {
         this.repository = repository;
+        this.observationRegistry = observationRegistry;
     }
 
     /**
@@ -45,31 +92,230 @@ public class TransactionFailureService {
      * @throws IllegalArgumentException If the account number is null, empty, or does not exist in the database.
      */
     public List<TransactionFailureDTO> getFailureTransactionsDTO(String accountNumber) {
-        validateAccountNumber(accountNumber);
-        List<TransactionFailure> failureTransactions = repository.findByAccountNumber(accountNumber);
-        return failureTransactions.stream()
-                .map(this::convertToDTO)
+        TransactionFailureBatchDTO result = findFailureTransactionsDTO(accountNumber);
+        if (!result.isFound()) {
+            throw new IllegalArgumentException(UNKNOWN_ACCOUNT);
+        }
+        return result.getTransactions();
+    }
+
+    /**
+     * Looks up the failed transactions of the specified account number with a single query. An account exists
+     * exactly when it has failed transactions, so an unknown account is told apart by the empty result instead
+     * of a separate existence query, and is reported as not found rather than thrown. A found result carries the
+     * version of the rows read, so the caller can tag it without querying the version again.
+     *
+     * @param accountNumber The account number for which failed transactions are to be retrieved.
+     * @return The account's failed transactions, or a result marked as not found if the account does not exist.
+     * @throws IllegalArgumentException If the account number is null or empty.
+     */
+    public TransactionFailureBatchDTO findFailureTransactionsDTO(String accountNumber) {
+        if (accountNumber == null || accountNumber.trim().isEmpty()) {
+            throw new IllegalArgumentException("Account number cannot be null or empty");
+        }
+        List<TransactionFailure> failureTransactions = observation(QUERY_TIMER, "get").observe(() -> repository.findByAccountNumber(accountNumber));
+        TransactionFailureBatchDTO result = new TransactionFailureBatchDTO();
+        if (!failureTransactions.isEmpty()) {
+            result.setFound(true);
+            result.setVersion(AccountVersions.versionOf(failureTransactions));
+            result.setTransactions(observation(MAPPING_TIMER, "get").observe(() -> failureTransactions.stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList())));
+        }
+        return result;
+    }
+
+    /**
+     * Streams the failed transactions of the specified account number to the given action, one row at a time,
+     * without collecting them in memory. The account number must have been validated with
+     * {@link #validateAccountNumber(String)} beforehand.
+     *
+     * @param accountNumber The account number for which failed transactions are to be streamed.
+     * @param action        The action receiving each transaction in turn.
+     */
+    @Transactional(readOnly = true)
+    public void streamFailureTransactionsDTO(String accountNumber, Consumer<TransactionFailureDTO> action) {
+        streamFailureTransactionsDTO(accountNumber, false, action);
+    }
+
+    /**
+     * Streams the failed transactions of the specified account number to the given action, one row at a time,
+     * optionally newest first. The account number must have been validated with
+     * {@link #validateAccountNumber(String)} beforehand.
+     *
+     * @param accountNumber The account number for which failed transactions are to be streamed.
+     * @param newestFirst   {@code true} to stream the transactions ordered by descending date.
+     * @param action        The action receiving each transaction in turn.
+     */
+    @Transactional(readOnly = true)
+    public void streamFailureTransactionsDTO(String accountNumber, boolean newestFirst, Consumer<TransactionFailureDTO> action) {
+        observation(QUERY_TIMER, "stream").observe(() -> {
+            try (Stream<TransactionFailureDTO> transactions = newestFirst
+                    ? repository.streamByAccountNumberNewestFirst(accountNumber)
+                    : repository.streamByAccountNumber(accountNumber)) {
+                transactions.forEach(action);
+            }
+        });
+    }
+
+    /**
+     * Retrieves one page of the failed transactions of the specified account number using keyset pagination.
+     * Only {@code limit + 1} rows are read, the extra one telling whether a further page exists, so memory use is
+     * bounded by the page size however long the history is. The account's existence is told from the page itself;
+     * only an empty page past a cursor needs a further query to tell an exhausted history from an unknown account.
+     *
+     * @param accountNumber The account number for which failed transactions are to be retrieved.
+     * @param limit         The maximum number of transactions in the page.
+     * @param cursor        The cursor returned with the previous page, or {@code null} for the first page.
+     * @return The page, carrying the cursor of the next page or {@code null} on the last page.
+     * @throws IllegalArgumentException If the account number is invalid, the limit is outside 1 to
+     *                                  {@link #MAX_PAGE_SIZE}, or the cursor is malformed.
+     */
+    @Transactional(readOnly = true)
+    public TransactionFailureResponseDTO getFailureTransactionsPage(String accountNumber, int limit, String cursor) {
+        if (accountNumber == null || accountNumber.trim().isEmpty()) {
+            throw new IllegalArgumentException("Account number cannot be null or empty");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long afterId = decodeCursor(cursor);
+        List<TransactionFailure> rows = observation(QUERY_TIMER, "page").observe(() -> repository.findByAccountNumberAndIdGreaterThanOrderByIdAsc(
+                accountNumber, afterId, Limit.of(limit + 1)));
+        if (rows.isEmpty() && (afterId == 0L || !accountExists(accountNumber))) {
+            throw new IllegalArgumentException(UNKNOWN_ACCOUNT);
+        }
+        boolean hasMore = rows.size() > limit;
+        List<TransactionFailure> page = hasMore ? rows.subList(0, limit) : rows;
+
+        TransactionFailureResponseDTO response = new TransactionFailureResponseDTO();
+        response.setAccountNumber(accountNumber);
+        response.setFailure(observation(MAPPING_TIMER, "page").observe(() -> page.stream().map(this::convertToDTO).collect(Collectors.toList())));
+        response.setNextCursor(hasMore ? encodeCursor(page.get(limit - 1).getId()) : null);
+        return response;
+    }
+
+    /**
+     * Encodes the identifier of a page's last row as an opaque, URL-safe cursor.
+     *
+     * @param id The identifier of the page's last row.
+     * @return The cursor.
+     */
+    static String encodeCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a cursor into the identifier of the previous page's last row.
+     *
+     * @param cursor The cursor, or {@code null} or empty for the first page.
+     * @return The identifier to seek past; 0 for the first page.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            long id = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+            if (id < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return id;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Retrieves the failed transactions of several account numbers with one set-based query, grouping the rows
+     * by account in a single pass. Every requested account number appears in the result, in request order; accounts
+     * without failed transactions, including blank account numbers, are marked as not found instead of failing the
+     * whole batch.
+     *
+     * @param accountNumbers The account numbers for which failed transactions are to be retrieved.
+     * @return A map from each distinct requested account number to its result.
+     * @throws IllegalArgumentException If the list is null or empty, contains a null account number, or holds more
+     *                                  than {@link #MAX_BATCH_SIZE} account numbers.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, TransactionFailureBatchDTO> getFailureTransactionsBatchDTO(List<String> accountNumbers) {
+        if (accountNumbers == null || accountNumbers.isEmpty()) {
+            throw new IllegalArgumentException("Account numbers cannot be null or empty");
+        }
+        if (accountNumbers.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch cannot contain more than " + MAX_BATCH_SIZE + " account numbers");
+        }
+        Map<String, TransactionFailureBatchDTO> results = new LinkedHashMap<>();
+        for (String accountNumber : accountNumbers) {
+            if (accountNumber == null) {
+                throw new IllegalArgumentException("Account number cannot be null");
+            }
+            results.putIfAbsent(accountNumber, new TransactionFailureBatchDTO());
+        }
+        List<String> queried = results.keySet().stream()
+                .filter(accountNumber -> !accountNumber.trim().isEmpty())
                 .collect(Collectors.toList());
+        if (queried.isEmpty()) {
+            return results;
+        }
+        List<TransactionFailure> rows = observation(QUERY_TIMER, "batch").observe(() -> repository.findByAccountNumberIn(queried));
+        observation(MAPPING_TIMER, "batch").observe(() -> {
+            for (TransactionFailure transaction : rows) {
+                TransactionFailureBatchDTO result = results.get(transaction.getAccountNumber());
+                if (result != null) {
+                    result.setFound(true);
+                    result.getTransactions().add(convertToDTO(transaction));
+                }
+            }
+        });
+        return results;
     }
 
     /**
-     * Validates the specified account number by checking for null, empty, and existence in the database.
+     * Validates the specified account number by checking for null, empty, and existence in the database. Only needed
+     * where the outcome must be known before the transactions are read, such as a streamed response whose status is
+     * sent before the first row.
      *
      * @param accountNumber The account number to be validated.
      * @throws IllegalArgumentException If the account number is null, empty, or does not exist in the database.
      */
-    private void validateAccountNumber(String accountNumber) {
+    public void validateAccountNumber(String accountNumber) {
 
         if (accountNumber == null || accountNumber.trim().isEmpty()) {
             throw new IllegalArgumentException("Account number cannot be null or empty");
         }
 
-        if (!repository.existsByAccountNumber(accountNumber)) {
-            throw new IllegalArgumentException("Account number does not exist in the database");
+        if (!accountExists(accountNumber)) {
+            throw new IllegalArgumentException(UNKNOWN_ACCOUNT);
         }
 
     }
 
+    /**
+     * Checks whether the specified account number has failed transactions, with an existence query.
+     *
+     * @param accountNumber The account number to be checked.
+     * @return {@code true} if the account exists in the database.
+     */
+    private boolean accountExists(String accountNumber) {
+        return observation(QUERY_TIMER, "validate").observe(() -> repository.existsByAccountNumber(accountNumber));
+    }
+
+    /**
+     * Creates the observation of one stage of the given operation, traced as a child of the current observation,
+     * such as the incoming request.
+     *
+     * @param name      The name of the observation, {@link #QUERY_TIMER} or {@link #MAPPING_TIMER}.
+     * @param operation The operation the stage serves.
+     * @return The observation, not yet started.
+     */
+    private Observation observation(String name, String operation) {
+        return Observation.createNotStarted(name, observationRegistry)
+                .contextualName(name.substring(name.lastIndexOf('.') + 1) + " " + operation)
+                .lowCardinalityKeyValue("operation", operation);
+    }
+
     /**
      * Converts a {@code TransactionFailure} entity to a corresponding {@code TransactionFailureDTO}.
      *
@@ -1,6 +1,10 @@
 package com.example.backendServer2.controller;
+import com.example.backendServer2.dto.TransactionFailureBatchDTO;
 import com.example.backendServer2.dto.TransactionFailureDTO;
 import com.example.backendServer2.dto.TransactionFailureResponseDTO;
+import com.example.backendServer2.repository.TransactionFailureRepository;
+import com.example.backendServer2.service.AccountChangeFeed;
+import com.example.backendServer2.service.AccountVersions;
 import com.example.backendServer2.service.TransactionFailureService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,13 +13,33 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.mockito.Spy;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.function.Consumer;
+import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * The {@code TransactionFailureControllerTest} class contains unit tests for the {@code TransactionFailureController}.
@@ -34,6 +58,29 @@ class TransactionFailureControllerTest {
     @Mock
     private TransactionFailureService service;
 
+    /**
+     * The mapper used by the controller to write streamed transactions.
+     */
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * The mocked repository the account versions are read from.
+     */
+    private TransactionFailureRepository repository = mock(TransactionFailureRepository.class);
+
+    /**
+     * The per-account versions the controller sends as entity tags.
+     */
+    @Spy
+    private AccountVersions accountVersions = new AccountVersions(repository);
+
+    /**
+     * The feed the controller's subscribers receive account changes from.
+     */
+    @Spy
+    private AccountChangeFeed changeFeed = new AccountChangeFeed();
+
     /**
      * The instance of {@code TransactionFailureController} under test, with mocked dependencies injected.
      */
@@ -56,14 +103,28 @@ class TransactionFailureControllerTest {
 
         String validAccountNumber = "123456789";
         List<TransactionFailureDTO> failureTransactions = createSampleFailureTransactions(validAccountNumber);
-        when(service.getFailureTransactionsDTO(validAccountNumber)).thenReturn(failureTransactions);
+        when(service.findFailureTransactionsDTO(validAccountNumber)).thenReturn(found(failureTransactions));
 
         ResponseEntity<TransactionFailureResponseDTO> responseEntity = controller.getFailureTransactions(validAccountNumber);
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(validAccountNumber, responseEntity.getBody().getAccountNumber());
         assertEquals(failureTransactions.size(), responseEntity.getBody().getFailure().size());
-        verify(service, times(1)).getFailureTransactionsDTO(validAccountNumber);
+        verify(service, times(1)).findFailureTransactionsDTO(validAccountNumber);
+    }
+
+    /**
+     * Tests the scenario where the account number does not exist in the database, and the controller returns a
+     * BAD_REQUEST status from the lookup's result without an exception being thrown.
+     */
+    @Test
+    void getFailureTransactions_NonExistentAccountNumber_ReturnsBadRequest() {
+        when(service.findFailureTransactionsDTO("999999999")).thenReturn(new TransactionFailureBatchDTO());
+
+        ResponseEntity<TransactionFailureResponseDTO> responseEntity = controller.getFailureTransactions("999999999");
+
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        assertNull(responseEntity.getBody());
     }
 
     /**
@@ -75,7 +136,7 @@ class TransactionFailureControllerTest {
 
         assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
         assertNull(responseEntity.getBody());
-        verify(service, never()).getFailureTransactionsDTO(any());
+        verify(service, never()).findFailureTransactionsDTO(any());
     }
 
     /**
@@ -86,14 +147,14 @@ class TransactionFailureControllerTest {
     void getSuccessTransactions_ValidAccountNumber_Success() {
         String validAccountNumber = "123456789";
         List<TransactionFailureDTO> failureTransactions = createSampleFailureTransactions(validAccountNumber);
-        when(service.getFailureTransactionsDTO(validAccountNumber)).thenReturn(failureTransactions);
+        when(service.findFailureTransactionsDTO(validAccountNumber)).thenReturn(found(failureTransactions));
 
         ResponseEntity<TransactionFailureResponseDTO> responseEntity = controller.getFailureTransactions(validAccountNumber);
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(validAccountNumber, responseEntity.getBody().getAccountNumber());
         assertEquals(failureTransactions.size(), responseEntity.getBody().getFailure().size());
-        verify(service, times(1)).getFailureTransactionsDTO(validAccountNumber);
+        verify(service, times(1)).findFailureTransactionsDTO(validAccountNumber);
     }
 
     /**
@@ -105,10 +166,10 @@ class TransactionFailureControllerTest {
 
         String validAccountNumber = "555555555";
         List<TransactionFailureDTO> successTransactions = createSampleFailureTransactions(validAccountNumber);
-        when(service.getFailureTransactionsDTO(validAccountNumber)).thenReturn(successTransactions);
+        when(service.findFailureTransactionsDTO(validAccountNumber)).thenReturn(found(successTransactions));
 
         assertDoesNotThrow(() -> controller.getFailureTransactions(validAccountNumber));
-        verify(service, times(1)).getFailureTransactionsDTO(validAccountNumber);
+        verify(service, times(1)).findFailureTransactionsDTO(validAccountNumber);
     }
 
     /**
@@ -137,5 +198,173 @@ class TransactionFailureControllerTest {
 
         return failureTransactions;
     }
-}
 
+    /**
+     * Wraps transactions in the result of a lookup that found the account.
+     *
+     * @param transactions The account's transactions.
+     * @return The lookup result.
+     */
+    private static TransactionFailureBatchDTO found(List<TransactionFailureDTO> transactions) {
+        TransactionFailureBatchDTO result = new TransactionFailureBatchDTO();
+        result.setFound(true);
+        result.setTransactions(transactions);
+        return result;
+    }
+
+    /**
+     * Tests that the streaming endpoint validates the account number and writes one JSON line per transaction.
+     */
+    @Test
+    void streamFailureTransactions_WritesOneJsonLinePerTransaction() throws IOException {
+        TransactionFailureDTO first = new TransactionFailureDTO("T1", "failure", "100", "30-05-2023");
+        TransactionFailureDTO second = new TransactionFailureDTO("T2", "failure", "200", "31-05-2023");
+        doAnswer(invocation -> {
+            Consumer<TransactionFailureDTO> action = invocation.getArgument(2);
+            action.accept(first);
+            action.accept(second);
+            return null;
+        }).when(service).streamFailureTransactionsDTO(eq("123"), eq(false), any());
+
+        ResponseEntity<StreamingResponseBody> responseEntity = controller.streamFailureTransactions("123", null);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(output);
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, responseEntity.getHeaders().getContentType());
+        assertEquals(2, lines.length);
+        assertEquals("T1", objectMapper.readTree(lines[0]).get("transactionId").asText());
+        assertEquals("T2", objectMapper.readTree(lines[1]).get("transactionId").asText());
+        verify(service).validateAccountNumber("123");
+    }
+
+    /**
+     * Tests that the batch endpoint returns the per-account results of the service.
+     */
+    @Test
+    void getFailureTransactionsBatch_ReturnsPerAccountResults() {
+        List<String> accountNumbers = List.of("111111", "222222");
+        Map<String, TransactionFailureBatchDTO> results = Map.of("111111", new TransactionFailureBatchDTO(), "222222", new TransactionFailureBatchDTO());
+        when(service.getFailureTransactionsBatchDTO(accountNumbers)).thenReturn(results);
+
+        ResponseEntity<Map<String, TransactionFailureBatchDTO>> responseEntity = controller.getFailureTransactionsBatch(accountNumbers);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(results, responseEntity.getBody());
+    }
+
+    /**
+     * Tests that the paged endpoint passes the limit and cursor through and returns the page with its next cursor.
+     */
+    @Test
+    void getFailureTransactionsPage_ReturnsPageWithNextCursor() {
+        TransactionFailureResponseDTO page = new TransactionFailureResponseDTO();
+        page.setAccountNumber("111111");
+        page.setNextCursor("Mg");
+        when(service.getFailureTransactionsPage("111111", 2, "MQ")).thenReturn(page);
+
+        ResponseEntity<TransactionFailureResponseDTO> responseEntity = controller.getFailureTransactionsPage("111111", 2, "MQ");
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals("Mg", responseEntity.getBody().getNextCursor());
+    }
+
+    /**
+     * Tests that a client preferring Smile receives the transactions in Smile, while a JSON client still gets JSON.
+     */
+    @Test
+    void getFailureTransactions_SmileAccepted_NegotiatesSmile() throws Exception {
+        when(service.findFailureTransactionsDTO("123")).thenReturn(found(List.of(new TransactionFailureDTO("T1", "failure", "100", "30-05-2023"))));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        byte[] smile = mockMvc.perform(get("/backendserver2/failure/123")
+                        .header(HttpHeaders.ACCEPT, "application/x-jackson-smile, application/json;q=0.9"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        mockMvc.perform(get("/backendserver2/failure/123").accept(MediaType.APPLICATION_JSON))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+
+        TransactionFailureResponseDTO decoded = new SmileMapper().readValue(smile, TransactionFailureResponseDTO.class);
+        assertEquals("T1", decoded.getFailure().get(0).getTransactionId());
+    }
+
+    /**
+     * Tests that a full read is tagged from the rows it returned without querying the version, that revalidating
+     * with that tag returns 304 after a single version query and without calling the service, and that an in-place
+     * update of a row makes the revalidation return the transactions again, tagged from the rows read.
+     */
+    @Test
+    void getFailureTransactions_IfNoneMatchCurrent_ReturnsNotModifiedUntilWritten() throws Exception {
+        TransactionFailureBatchDTO current = found(List.of(new TransactionFailureDTO("T1", "failure", "100", "30-05-2023")));
+        current.setVersion("1-7-0");
+        when(service.findFailureTransactionsDTO("123")).thenReturn(current);
+        when(repository.findVersionByAccountNumber("123")).thenReturn("1-7-0");
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        String eTag = mockMvc.perform(get("/backendserver2/failure/123"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        verify(repository, never()).findVersionByAccountNumber("123");
+        mockMvc.perform(get("/backendserver2/failure/123").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        verify(service, times(1)).findFailureTransactionsDTO("123");
+        verify(repository, times(1)).findVersionByAccountNumber("123");
+
+        assertEquals("W/\"1-7-0\"", eTag);
+
+        TransactionFailureBatchDTO updated = found(List.of(new TransactionFailureDTO("T1", "failure", "100", "30-05-2023")));
+        updated.setVersion("1-7-1");
+        when(service.findFailureTransactionsDTO("123")).thenReturn(updated);
+        when(repository.findVersionByAccountNumber("123")).thenReturn("1-7-1");
+        mockMvc.perform(get("/backendserver2/failure/123").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-7-1\""));
+        verify(service, times(2)).findFailureTransactionsDTO("123");
+        verify(repository, times(2)).findVersionByAccountNumber("123");
+    }
+
+    /**
+     * Tests that a new subscriber to the change feed is first told to reset, then receives every published account
+     * number, and that a subscriber resuming from the last event it saw receives only what it missed.
+     */
+    @Test
+    void subscribeToFailureChanges_StreamsWrittenAccounts() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        MockHttpServletResponse response = mockMvc.perform(get("/backendserver2/failure/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        changeFeed.publish("123");
+
+        String events = response.getContentAsString();
+        assertTrue(events.contains("event:reset"));
+        assertTrue(events.contains("event:change\ndata:123"));
+        String lastEventId = events.substring(events.lastIndexOf("id:") + 3, events.indexOf('\n', events.lastIndexOf("id:")));
+
+        changeFeed.publish("456");
+        String missed = mockMvc.perform(get("/backendserver2/failure/changes").header("Last-Event-ID", lastEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse().getContentAsString();
+        assertFalse(missed.contains("event:reset"));
+        assertFalse(missed.contains("data:123"));
+        assertTrue(missed.contains("event:change\ndata:456"));
+    }
+
+    /**
+     * Tests that an idle subscriber to the change feed receives heartbeat comments.
+     */
+    @Test
+    void subscribeToFailureChanges_ReceivesHeartbeats() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        MockHttpServletResponse response = mockMvc.perform(get("/backendserver2/failure/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        changeFeed.heartbeat();
+
+        assertTrue(response.getContentAsString().contains(":heartbeat\n"));
+    }
+}
@@ -1,21 +1,37 @@
 package com.example.backendServer2.service;
 
+import com.example.backendServer2.dto.TransactionFailureBatchDTO;
 import com.example.backendServer2.dto.TransactionFailureDTO;
+import com.example.backendServer2.dto.TransactionFailureResponseDTO;
 import com.example.backendServer2.entity.TransactionFailure;
 import com.example.backendServer2.repository.TransactionFailureRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
 
+import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * The {@code TransactionFailureServiceTest} class contains unit tests for the {@code TransactionFailureService}.
@@ -34,6 +50,17 @@ class TransactionFailureServiceTest {
     @Mock
     private TransactionFailureRepository repository;
 
+    /**
+     * In-memory registry recording the service's timers.
+     */
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Registry observing the service's queries and mapping, timing them into {@link #meterRegistry}.
+     */
+    @Spy
+    private ObservationRegistry observationRegistry = ObservationRegistry.create();
+
     /**
      * The instance of {@code TransactionFailureService} under test, with mocked dependencies injected.
      */
@@ -45,6 +72,7 @@ class TransactionFailureServiceTest {
      */
     @BeforeEach
     void setUp() {
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
         MockitoAnnotations.openMocks(this);
     }
 
@@ -55,26 +83,66 @@ class TransactionFailureServiceTest {
     void getFailureTransactionsDTO_ValidAccountNumber_ReturnsDTOList() {
 
         String validAccountNumber = "123456789";
-        when(repository.existsByAccountNumber(validAccountNumber)).thenReturn(true);
-        when(repository.findByAccountNumber(validAccountNumber)).thenReturn(Collections.singletonList(new TransactionFailure()));
+        when(repository.findByAccountNumber(validAccountNumber)).thenReturn(Collections.singletonList(row(1)));
 
         List<TransactionFailureDTO> result = service.getFailureTransactionsDTO(validAccountNumber);
 
         assertEquals(1, result.size());
         verify(repository, times(1)).findByAccountNumber(validAccountNumber);
+        verify(repository, never()).existsByAccountNumber(any());
     }
 
     /**
-     * Tests the scenario where an invalid account number is provided, and the service throws an IllegalArgumentException.
+     * Tests the scenario where an invalid account number is provided, and the service throws an IllegalArgumentException
+     * told from the empty result of its single query.
      */
     @Test
     void getFailureTransactionsDTO_InvalidAccountNumber_ThrowsIllegalArgumentException() {
 
         String invalidAccountNumber = "invalidAccount";
-        when(repository.existsByAccountNumber(invalidAccountNumber)).thenReturn(false);
+        when(repository.findByAccountNumber(invalidAccountNumber)).thenReturn(new ArrayList<>());
 
         assertThrows(IllegalArgumentException.class, () -> service.getFailureTransactionsDTO(invalidAccountNumber));
-        verify(repository, never()).findByAccountNumber(any());
+        verify(repository, times(1)).findByAccountNumber(invalidAccountNumber);
+        verify(repository, never()).existsByAccountNumber(any());
+    }
+
+    /**
+     * Tests the scenario where an account is looked up with a single query: a known account is returned as found and
+     * an unknown one is reported as not found instead of throwing.
+     */
+    @Test
+    void findFailureTransactionsDTO_SingleQuery_MarksUnknownAccountAsNotFound() {
+
+        when(repository.findByAccountNumber("123456789")).thenReturn(Collections.singletonList(row(1)));
+        when(repository.findByAccountNumber("invalidAccount")).thenReturn(new ArrayList<>());
+
+        TransactionFailureBatchDTO found = service.findFailureTransactionsDTO("123456789");
+        TransactionFailureBatchDTO unknown = service.findFailureTransactionsDTO("invalidAccount");
+
+        assertTrue(found.isFound());
+        assertEquals(1, found.getTransactions().size());
+        assertFalse(unknown.isFound());
+        assertTrue(unknown.getTransactions().isEmpty());
+        verify(repository, never()).existsByAccountNumber(any());
+    }
+
+    /**
+     * Tests that a found account is tagged with the version of the rows read, which changes when a row is updated in
+     * place, and that an unknown account carries no version.
+     */
+    @Test
+    void findFailureTransactionsDTO_TagsResultWithVersionOfRows() {
+        TransactionFailure first = row(5);
+        TransactionFailure second = row(9);
+        second.setVersion(2);
+        when(repository.findByAccountNumber("111111")).thenReturn(List.of(first, second));
+        when(repository.findByAccountNumber("999999")).thenReturn(new ArrayList<>());
+
+        assertEquals("2-9-2", service.findFailureTransactionsDTO("111111").getVersion());
+        second.setVersion(3);
+        assertEquals("2-9-3", service.findFailureTransactionsDTO("111111").getVersion());
+        assertNull(service.findFailureTransactionsDTO("999999").getVersion());
     }
 
     /**
@@ -86,6 +154,146 @@ class TransactionFailureServiceTest {
         verify(repository, never()).findByAccountNumber(any());
     }
 
+    /**
+     * Tests that streaming passes every row to the action in order and closes the database stream.
+     */
+    @Test
+    void streamFailureTransactionsDTO_PassesEachRowAndClosesStream() {
+        AtomicBoolean closed = new AtomicBoolean();
+        TransactionFailureDTO first = new TransactionFailureDTO("T1", "failure", "100", "30-05-2023");
+        TransactionFailureDTO second = new TransactionFailureDTO("T2", "failure", "200", "31-05-2023");
+        when(repository.streamByAccountNumber("123")).thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
 
-}
+        List<TransactionFailureDTO> received = new ArrayList<>();
+        service.streamFailureTransactionsDTO("123", received::add);
+
+        assertEquals(List.of(first, second), received);
+        assertTrue(closed.get());
+    }
+
+    /**
+     * Tests that a batch lookup runs a single query, groups the rows by account in request order and marks accounts
+     * without rows as not found instead of failing.
+     */
+    @Test
+    void getFailureTransactionsBatchDTO_GroupsRowsAndMarksMissingAccounts() {
+        TransactionFailure first = new TransactionFailure();
+        first.setAccountNumber("111111");
+        first.setTransactionId("T1");
+        TransactionFailure second = new TransactionFailure();
+        second.setAccountNumber("111111");
+        second.setTransactionId("T2");
+        when(repository.findByAccountNumberIn(List.of("222222", "111111"))).thenReturn(List.of(first, second));
+
+        Map<String, TransactionFailureBatchDTO> results = service.getFailureTransactionsBatchDTO(List.of("222222", "111111", "222222", " "));
+
+        assertEquals(List.of("222222", "111111", " "), new ArrayList<>(results.keySet()));
+        assertFalse(results.get("222222").isFound());
+        assertTrue(results.get("222222").getTransactions().isEmpty());
+        assertTrue(results.get("111111").isFound());
+        assertEquals("T1", results.get("111111").getTransactions().get(0).getTransactionId());
+        assertEquals("T2", results.get("111111").getTransactions().get(1).getTransactionId());
+        assertFalse(results.get(" ").isFound());
+        verify(repository, times(1)).findByAccountNumberIn(any());
+        verify(repository, never()).existsByAccountNumber(any());
+    }
+
+    /**
+     * Tests that an empty batch is rejected without querying the repository.
+     */
+    @Test
+    void getFailureTransactionsBatchDTO_EmptyList_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> service.getFailureTransactionsBatchDTO(List.of()));
+        verify(repository, never()).findByAccountNumberIn(any());
+    }
 
+    /**
+     * Tests that a page reads one extra row to detect a further page, and that its cursor seeks past the page's last row.
+     */
+    @Test
+    void getFailureTransactionsPage_SeeksPastCursorAndReturnsNextCursor() {
+        when(repository.findByAccountNumberAndIdGreaterThanOrderByIdAsc("111111", 0L, Limit.of(3)))
+                .thenReturn(List.of(row(1L), row(2L), row(3L)));
+        when(repository.findByAccountNumberAndIdGreaterThanOrderByIdAsc("111111", 2L, Limit.of(3)))
+                .thenReturn(List.of(row(3L)));
+
+        TransactionFailureResponseDTO first = service.getFailureTransactionsPage("111111", 2, null);
+        TransactionFailureResponseDTO last = service.getFailureTransactionsPage("111111", 2, first.getNextCursor());
+
+        assertEquals(2, first.getFailure().size());
+        assertEquals(1, last.getFailure().size());
+        assertNull(last.getNextCursor());
+        verify(repository, never()).existsByAccountNumber(any());
+    }
+
+    /**
+     * Tests that an empty first page means an unknown account, while an empty page past a cursor only means one when
+     * the account no longer exists.
+     */
+    @Test
+    void getFailureTransactionsPage_EmptyPage_ChecksExistenceOnlyPastACursor() {
+        when(repository.findByAccountNumberAndIdGreaterThanOrderByIdAsc(any(), any(), any())).thenReturn(List.of());
+        when(repository.existsByAccountNumber("111111")).thenReturn(true);
+
+        assertThrows(IllegalArgumentException.class, () -> service.getFailureTransactionsPage("999999", 2, null));
+        verify(repository, never()).existsByAccountNumber(any());
+
+        TransactionFailureResponseDTO page = service.getFailureTransactionsPage("111111", 2, TransactionFailureService.encodeCursor(5L));
+        assertTrue(page.getFailure().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> service.getFailureTransactionsPage("999999", 2, TransactionFailureService.encodeCursor(5L)));
+    }
+
+    /**
+     * Tests that a malformed cursor or an out-of-range limit is rejected without reading a page.
+     */
+    @Test
+    void getFailureTransactionsPage_InvalidCursorOrLimit_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> service.getFailureTransactionsPage("111111", 10, "not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> service.getFailureTransactionsPage("111111", 0, null));
+        verify(repository, never()).findByAccountNumberAndIdGreaterThanOrderByIdAsc(any(), any(), any());
+    }
+
+    /**
+     * Creates a row of the account used by the paging tests.
+     *
+     * @param id The row identifier.
+     * @return The row.
+     */
+    private static TransactionFailure row(long id) {
+        TransactionFailure row = new TransactionFailure();
+        row.setId(id);
+        row.setAccountNumber("111111");
+        return row;
+    }
+
+    /**
+     * Tests that streaming newest first reads the date-ordered query instead of the storage-ordered one.
+     */
+    @Test
+    void streamFailureTransactionsDTO_NewestFirst_UsesDateOrderedQuery() {
+        TransactionFailureDTO newest = new TransactionFailureDTO("T2", "failure", "200", "31-05-2023");
+        TransactionFailureDTO oldest = new TransactionFailureDTO("T1", "failure", "100", "30-05-2023");
+        when(repository.streamByAccountNumberNewestFirst("123")).thenReturn(Stream.of(newest, oldest));
+
+        List<TransactionFailureDTO> received = new ArrayList<>();
+        service.streamFailureTransactionsDTO("123", true, received::add);
+
+        assertEquals(List.of(newest, oldest), received);
+        verify(repository, never()).streamByAccountNumber(any());
+    }
+
+    /**
+     * Tests that the account lookup times its single database query and the mapping of the rows separately.
+     */
+    @Test
+    void getFailureTransactionsDTO_RecordsQueryAndMappingTimes() {
+
+        when(repository.findByAccountNumber("123")).thenReturn(Collections.singletonList(row(1)));
+
+        service.getFailureTransactionsDTO("123");
+
+        assertNull(meterRegistry.find("backend.transactions.query").tag("operation", "validate").timer());
+        assertEquals(1, meterRegistry.get("backend.transactions.query").tag("operation", "get").timer().count());
+        assertEquals(1, meterRegistry.get("backend.transactions.mapping").tag("operation", "get").timer().count());
+    }
+}
@@ -1,15 +1,28 @@
 package com.example.backendServer3.controller;
 
+import com.example.backendServer3.service.AccountChangeFeed;
+import com.example.backendServer3.service.AccountVersions;
 import com.example.backendServer3.service.TransactionPendingService;
+import com.example.backendServer3.dto.PendingBatchDTO;
 import com.example.backendServer3.dto.PendingDTO;
 import com.example.backendServer3.dto.TransactionPendingDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.constraints.NotEmpty;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The {@code TransactionPendingController} class is a Spring MVC controller that handles HTTP requests related to pending transactions.
@@ -18,6 +31,11 @@ import java.util.List;
  * This controller class validates input parameters and delegates the processing to the associated service class.
  * It utilizes Spring annotations for request mapping, dependency injection, and validation.
  *
+ * Besides JSON, responses can be written in Smile, Jackson's binary JSON encoding, for clients whose {@code Accept}
+ * header asks for {@code application/x-jackson-smile}. The account's version is sent as the {@code ETag} of its
+ * transaction list; a conditional request naming the current version is answered with {@code 304 Not Modified}
+ * before any transaction is read.
+ *
  * @author prapti
  */
 @RestController
@@ -31,11 +49,29 @@ public class TransactionPendingController {
     @Autowired
     private TransactionPendingService service;
 
+    /**
+     * The mapper used to write streamed transactions as JSON lines.
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * The per-account versions sent as entity tags.
+     */
+    @Autowired
+    private AccountVersions accountVersions;
+
+    /**
+     * The feed announcing every write to an account.
+     */
+    @Autowired
+    private AccountChangeFeed changeFeed;
+
     /**
      * Retrieves pending transactions for a given account number and returns a response containing the pending transactions.
      *
      * @param accountNumber The account number for which pending transactions need to be retrieved.
-     * @return ResponseEntity containing the response DTO with the account number and pending transactions, or a bad request response if the account number is empty.
+     * @return ResponseEntity containing the response DTO with the account number and pending transactions, or a bad request response if the account number is empty or does not exist in the database.
      */
     @GetMapping("/pending/{accountNumber}")
     public ResponseEntity<TransactionPendingDTO> getPendingTransactions(
@@ -44,12 +80,117 @@ public class TransactionPendingController {
             return ResponseEntity.badRequest().body(null);
         }
 
-        List<PendingDTO> pendingTransactions = service.getPendingTransactionsDTO(accountNumber);
+        PendingBatchDTO pendingTransactions = service.findPendingTransactionsDTO(accountNumber);
+        if (!pendingTransactions.isFound()) {
+            return ResponseEntity.badRequest().body(null);
+        }
 
         TransactionPendingDTO responseDTO = new TransactionPendingDTO();
         responseDTO.setAccountNumber(accountNumber);
-        responseDTO.setPending(pendingTransactions);
+        responseDTO.setPending(pendingTransactions.getTransactions());
+
+        return ResponseEntity.ok().eTag(accountVersions.eTagOf(pendingTransactions.getVersion())).body(responseDTO);
+    }
 
-        return ResponseEntity.ok(responseDTO);
+    /**
+     * Handles a conditional GET request revalidating a client's copy of the pending transactions of the specified
+     * account number. When the {@code If-None-Match} header names the account's current version the answer is
+     * {@code 304 Not Modified} and no transaction is read; otherwise the transactions are returned as usual.
+     *
+     * @param accountNumber The account number for which pending transactions are to be retrieved.
+     * @param ifNoneMatch   The entity tags of the client's copies.
+     * @return A {@code ResponseEntity} with status 304 and the current tag, or the tagged transactions.
+     */
+    @GetMapping(value = "/pending/{accountNumber}", headers = HttpHeaders.IF_NONE_MATCH, params = "!limit")
+    public ResponseEntity<TransactionPendingDTO> getPendingTransactionsIfChanged(
+            @PathVariable @NotEmpty(message = "Account number cannot be empty") String accountNumber,
+            @RequestHeader(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        String eTag = accountVersions.eTag(accountNumber);
+        if (accountVersions.matches(eTag, ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return getPendingTransactions(accountNumber);
+    }
+
+    /**
+     * Retrieves one page of the pending transactions of the specified account number. Selected instead of the
+     * unpaged endpoint whenever a {@code limit} is given; the next page is requested with the returned
+     * {@code nextCursor}, which is absent on the last page.
+     *
+     * @param accountNumber The account number for which pending transactions are to be retrieved.
+     * @param limit         The maximum number of transactions in the page.
+     * @param cursor        The cursor returned with the previous page; omitted for the first page.
+     * @return A {@link ResponseEntity} containing the page and the cursor of the next one.
+     * @throws IllegalArgumentException If the account number, limit or cursor is invalid.
+     */
+    @GetMapping(value = "/pending/{accountNumber}", params = "limit")
+    public ResponseEntity<TransactionPendingDTO> getPendingTransactionsPage(
+            @PathVariable @NotEmpty(message = "Account number cannot be empty") String accountNumber,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(service.getPendingTransactionsPage(accountNumber, limit, cursor));
+    }
+
+    /**
+     * Streams the pending transactions of the specified account number as newline-delimited JSON, one transaction
+     * per line, writing each row as the database delivers it so neither side holds the whole history in memory.
+     * With {@code order=date} the transactions are written newest first.
+     *
+     * @param accountNumber The account number for which pending transactions are to be streamed.
+     * @param order         "date" to stream the transactions newest first; omitted for storage order.
+     * @return A {@link ResponseEntity} whose body streams the transactions, or a bad request response if the
+     *         account number is empty.
+     * @throws IllegalArgumentException If the account number does not exist in the database.
+     */
+    @GetMapping(value = "/pending/{accountNumber}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPendingTransactions(
+            @PathVariable @NotEmpty(message = "Account number cannot be empty") String accountNumber,
+            @RequestParam(required = false) String order) {
+        if (accountNumber == null || accountNumber.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (order != null && !order.equalsIgnoreCase("date")) {
+            throw new IllegalArgumentException("Unsupported order: " + order);
+        }
+        service.validateAccountNumber(accountNumber);
+        ObjectWriter writer = objectMapper.writerFor(PendingDTO.class);
+        StreamingResponseBody body = outputStream -> service.streamPendingTransactionsDTO(accountNumber, order != null, transaction -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(transaction));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Retrieves the pending transactions of several account numbers with a single database query. Each requested
+     * account number is mapped to its transactions, or marked as not found, so one unknown account does not turn
+     * the whole batch into a bad request.
+     *
+     * @param accountNumbers The account numbers for which pending transactions are to be retrieved.
+     * @return A {@link ResponseEntity} containing each requested account number mapped to its result.
+     * @throws IllegalArgumentException If the list is empty, contains a null account number, or is too large.
+     */
+    @PostMapping("/pending/batch")
+    public ResponseEntity<Map<String, PendingBatchDTO>> getPendingTransactionsBatch(@RequestBody List<String> accountNumbers) {
+        return ResponseEntity.ok(service.getPendingTransactionsBatchDTO(accountNumbers));
+    }
+
+    /**
+     * Handles a subscription to the account numbers of pending transactions written from now on, streamed as
+     * server-sent {@code change} events. A subscriber reconnecting with {@code Last-Event-ID} first receives the
+     * events it missed, or a {@code reset} event if they are no longer kept, after which it must forget everything
+     * it cached.
+     *
+     * @param lastEventId The identifier of the last event received before reconnecting; omitted on first connection.
+     * @return The emitter of the subscription.
+     */
+    @GetMapping(value = "/pending/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToPendingChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return changeFeed.subscribe(lastEventId);
     }
 }
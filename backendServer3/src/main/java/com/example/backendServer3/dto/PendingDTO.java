@@ -30,6 +30,27 @@ public class PendingDTO {
      */
     private String date;
 
+    /**
+     * Constructs an empty {@code PendingDTO}.
+     */
+    public PendingDTO() {
+    }
+
+    /**
+     * Constructs a {@code PendingDTO} with all attributes; used by the streaming repository projection.
+     *
+     * @param transactionId The transaction identifier.
+     * @param status        The transaction status.
+     * @param amount        The transaction amount.
+     * @param date          The transaction date.
+     */
+    public PendingDTO(String transactionId, String status, String amount, String date) {
+        this.transactionId = transactionId;
+        this.status = status;
+        this.amount = amount;
+        this.date = date;
+    }
+
     /**
      * Retrieves the transaction ID of the pending transaction.
      *
@@ -1,6 +1,8 @@
 package com.example.backendServer3.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 /**
@@ -23,6 +25,13 @@ public class TransactionPendingDTO {
      */
     private List<PendingDTO> pending;
 
+    /**
+     * Opaque cursor of the next page when the pending transactions are paged; {@code null} on the last page
+     * and when the transactions are not paged.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
     /**
      * Retrieves the account number associated with the pending transactions.
      *
@@ -58,4 +67,22 @@ public class TransactionPendingDTO {
     public void setPending(List<PendingDTO> pending) {
         this.pending = pending;
     }
+
+    /**
+     * Gets the cursor of the next page.
+     *
+     * @return The next page's cursor, or {@code null} if there is no further page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Sets the cursor of the next page.
+     *
+     * @param nextCursor The next page's cursor, or {@code null} if there is no further page.
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
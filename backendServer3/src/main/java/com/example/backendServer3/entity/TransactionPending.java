@@ -1,9 +1,14 @@
 package com.example.backendServer3.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 /**
  * The {@code TransactionPending} class represents an entity for pending transactions in the backend system.
@@ -14,10 +19,14 @@ import jakarta.persistence.Id;
  * It also includes getter and setter methods for accessing and modifying these attributes.
  *
  * The class is designed to be used in conjunction with Java Persistence API (JPA) for database interaction.
+ * Every update increments the row's {@code version}, part of the account's version, and every insert, update or
+ * delete is announced through {@link TransactionPendingListener}.
  *
  * @author prapti
  */
 @Entity
+@EntityListeners(TransactionPendingListener.class)
+@Table(indexes = @Index(name = "idx_transaction_pending_account_id_version", columnList = "accountNumber, id, version"))
 public class TransactionPending {
 
     /**
@@ -52,6 +61,14 @@ public class TransactionPending {
      */
     private String accountNumber;
 
+    /**
+     * The number of times the row was updated, incremented by JPA on every update. Rows inserted outside JPA
+     * start at 0; writers updating rows outside JPA must increment it themselves.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     /**
      * Retrieves the unique identifier for the pending transaction.
      *
@@ -159,4 +176,22 @@ public class TransactionPending {
     public void setAccountNumber(String accountNumber) {
         this.accountNumber = accountNumber;
     }
+
+    /**
+     * Gets the number of times the row was updated.
+     *
+     * @return The row version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the number of times the row was updated.
+     *
+     * @param version The row version to be set.
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,45 @@
+package com.example.backendServer3.entity;
+
+import com.example.backendServer3.service.AccountChangeFeed;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * The {@code TransactionPendingListener} class is the JPA entity listener of {@link TransactionPending}. It
+ * publishes the account of every inserted, updated or deleted row on the {@link AccountChangeFeed}, so that
+ * subscribers drop their copies of that account's transaction list. Hibernate obtains the listener from the Spring
+ * context, so its dependencies are injected like those of any other bean.
+ *
+ * @author prapti
+ */
+public class TransactionPendingListener {
+
+    /**
+     * The feed on which writes are published.
+     */
+    private final AccountChangeFeed changeFeed;
+
+    /**
+     * Constructs a new {@code TransactionPendingListener}.
+     *
+     * @param changeFeed The feed on which writes are published.
+     */
+    @Autowired
+    public TransactionPendingListener(AccountChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    /**
+     * Publishes the written row's account once the transaction completes.
+     *
+     * @param transaction The inserted, updated or deleted row.
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onWrite(TransactionPending transaction) {
+        changeFeed.publishAfterCompletion(transaction.getAccountNumber());
+    }
+}
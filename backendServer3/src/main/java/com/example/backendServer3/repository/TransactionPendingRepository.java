@@ -1,9 +1,18 @@
 package com.example.backendServer3.repository;
 
 import com.example.backendServer3.entity.TransactionPending;
+import com.example.backendServer3.dto.PendingDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * The {@code TransactionPendingRepository} interface provides CRUD (Create, Read, Update, Delete) operations
@@ -32,4 +41,66 @@ public interface TransactionPendingRepository extends JpaRepository<TransactionP
      *         otherwise {@code false}.
      */
     boolean existsByAccountNumber(String accountNumber);
+
+    /**
+     * Streams the pending transactions of the specified account number as DTOs, one database row at a time.
+     * The projection keeps the rows out of the persistence context and the minimal fetch size makes the MySQL
+     * driver stream the result set instead of buffering it, so memory stays flat however long the history is.
+     * The stream must be consumed inside a transaction and closed afterwards.
+     *
+     * @param accountNumber The account number for which pending transactions are to be streamed.
+     * @return A stream of {@link PendingDTO} objects.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select new com.example.backendServer3.dto.PendingDTO(t.transactionId, t.status, t.amount, t.date) "
+            + "from TransactionPending t where t.accountNumber = :accountNumber")
+    Stream<PendingDTO> streamByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Streams the pending transactions of the specified account number as DTOs, newest first. Dates are stored as
+     * {@code dd-MM-yyyy} strings, so the rows are ordered by year, month and day, then by descending identifier
+     * for transactions of the same day. Like {@link #streamByAccountNumber(String)}, the rows are streamed one at a
+     * time and the stream must be consumed inside a transaction and closed afterwards.
+     *
+     * @param accountNumber The account number for which pending transactions are to be streamed.
+     * @return A stream of {@link PendingDTO} objects, newest first.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select new com.example.backendServer3.dto.PendingDTO(t.transactionId, t.status, t.amount, t.date) "
+            + "from TransactionPending t where t.accountNumber = :accountNumber "
+            + "order by substring(t.date, 7, 4) desc, substring(t.date, 4, 2) desc, substring(t.date, 1, 2) desc, t.id desc")
+    Stream<PendingDTO> streamByAccountNumberNewestFirst(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Retrieves the pending transactions of all the specified account numbers with a single {@code IN} query.
+     *
+     * @param accountNumbers The account numbers for which pending transactions are to be retrieved.
+     * @return A list of {@link TransactionPending} entities belonging to any of the specified account numbers.
+     */
+    List<TransactionPending> findByAccountNumberIn(Collection<String> accountNumbers);
+
+    /**
+     * Retrieves one page of the pending transactions of the specified account number by seeking past the last
+     * row of the previous page, in ascending identifier order. The {@code (accountNumber, id)} index lets the
+     * database start reading at the seek position, so every page costs the same however deep it is.
+     *
+     * @param accountNumber The account number for which pending transactions are to be retrieved.
+     * @param id            The identifier of the last row of the previous page, or 0 for the first page.
+     * @param limit         The maximum number of rows to return.
+     * @return A list of at most {@code limit} {@link TransactionPending} entities following the given identifier.
+     */
+    List<TransactionPending> findByAccountNumberAndIdGreaterThanOrderByIdAsc(String accountNumber, Long id, Limit limit);
+
+    /**
+     * Gets the version of the pending transactions of the specified account number: the number of its rows, the
+     * highest of their identifiers and the sum of their row versions, all read from the
+     * {@code (accountNumber, id, version)} index. Inserts and deletes change the first two, in-place updates the
+     * last.
+     *
+     * @param accountNumber The account number whose version is to be read.
+     * @return The version, e.g. {@code "12-4711-3"}, or {@code "0-0-0"} for an account without transactions.
+     */
+    @Query("select concat(str(count(t)), '-', str(coalesce(max(t.id), 0)), '-', str(coalesce(sum(t.version), 0))) "
+            + "from TransactionPending t where t.accountNumber = :accountNumber")
+    String findVersionByAccountNumber(@Param("accountNumber") String accountNumber);
 }
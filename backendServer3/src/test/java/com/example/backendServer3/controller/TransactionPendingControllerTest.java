@@ -1,7 +1,11 @@
 package com.example.backendServer3.controller;
 
+import com.example.backendServer3.dto.PendingBatchDTO;
 import com.example.backendServer3.dto.PendingDTO;
 import com.example.backendServer3.dto.TransactionPendingDTO;
+import com.example.backendServer3.repository.TransactionPendingRepository;
+import com.example.backendServer3.service.AccountChangeFeed;
+import com.example.backendServer3.service.AccountVersions;
 import com.example.backendServer3.service.TransactionPendingService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,13 +15,33 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.mockito.Spy;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.function.Consumer;
+import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * The {@code TransactionPendingController} class handles HTTP requests related to pending transactions in the backend server3 application.
@@ -34,6 +58,29 @@ class TransactionPendingControllerTest {
     @Mock
     private TransactionPendingService service;
 
+    /**
+     * The mapper used by the controller to write streamed transactions.
+     */
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * The mocked repository the account versions are read from.
+     */
+    private TransactionPendingRepository repository = mock(TransactionPendingRepository.class);
+
+    /**
+     * The per-account versions the controller sends as entity tags.
+     */
+    @Spy
+    private AccountVersions accountVersions = new AccountVersions(repository);
+
+    /**
+     * The feed the controller's subscribers receive account changes from.
+     */
+    @Spy
+    private AccountChangeFeed changeFeed = new AccountChangeFeed();
+
     /**
      * The instance of {@code TransactionPendingController} being tested.
      */
@@ -56,14 +103,28 @@ class TransactionPendingControllerTest {
     void getPendingTransactions_ValidAccountNumber_ReturnsDTOList() {
         String validAccountNumber = "123456789";
         List<PendingDTO> pendingTransactions = createSamplePendingTransactions(validAccountNumber);
-        when(service.getPendingTransactionsDTO(validAccountNumber)).thenReturn(pendingTransactions);
+        when(service.findPendingTransactionsDTO(validAccountNumber)).thenReturn(found(pendingTransactions));
 
         ResponseEntity<TransactionPendingDTO> responseEntity = controller.getPendingTransactions(validAccountNumber);
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(validAccountNumber, responseEntity.getBody().getAccountNumber());
         assertEquals(pendingTransactions.size(), responseEntity.getBody().getPending().size());
-        verify(service, times(1)).getPendingTransactionsDTO(validAccountNumber);
+        verify(service, times(1)).findPendingTransactionsDTO(validAccountNumber);
+    }
+
+    /**
+     * Tests the behavior of the {@code getPendingTransactions} method when the account number does not exist in the database.
+     * Verifies that a BAD_REQUEST response is built from the lookup's result without an exception being thrown.
+     */
+    @Test
+    void getPendingTransactions_NonExistentAccountNumber_ReturnsBadRequest() {
+        when(service.findPendingTransactionsDTO("999999999")).thenReturn(new PendingBatchDTO());
+
+        ResponseEntity<TransactionPendingDTO> responseEntity = controller.getPendingTransactions("999999999");
+
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        assertNull(responseEntity.getBody());
     }
 
     /**
@@ -77,7 +138,7 @@ class TransactionPendingControllerTest {
 
         assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
         assertNull(responseEntity.getBody());
-        verify(service, never()).getPendingTransactionsDTO(any());
+        verify(service, never()).findPendingTransactionsDTO(any());
     }
 
     /**
@@ -88,10 +149,10 @@ class TransactionPendingControllerTest {
     void getPendingTransactions_ValidAccountNumber_ValidTransactions_NoExceptionThrown() {
         String validAccountNumber = "555555555";
         List<PendingDTO> pendingTransactions = createSamplePendingTransactions(validAccountNumber);
-        when(service.getPendingTransactionsDTO(validAccountNumber)).thenReturn(pendingTransactions);
+        when(service.findPendingTransactionsDTO(validAccountNumber)).thenReturn(found(pendingTransactions));
 
         Assertions.assertDoesNotThrow(() -> controller.getPendingTransactions(validAccountNumber));
-        verify(service, times(1)).getPendingTransactionsDTO(validAccountNumber);
+        verify(service, times(1)).findPendingTransactionsDTO(validAccountNumber);
     }
 
     /**
@@ -120,4 +181,173 @@ class TransactionPendingControllerTest {
 
         return pendingTransactions;
     }
+
+    /**
+     * Helper method to wrap pending transactions in the result of a lookup that found the account.
+     *
+     * @param transactions The account's pending transactions.
+     * @return The lookup result.
+     */
+    private static PendingBatchDTO found(List<PendingDTO> transactions) {
+        PendingBatchDTO result = new PendingBatchDTO();
+        result.setFound(true);
+        result.setTransactions(transactions);
+        return result;
+    }
+
+    /**
+     * Tests that the streaming endpoint validates the account number and writes one JSON line per transaction.
+     */
+    @Test
+    void streamPendingTransactions_WritesOneJsonLinePerTransaction() throws IOException {
+        PendingDTO first = new PendingDTO("T1", "pending", "100", "30-05-2023");
+        PendingDTO second = new PendingDTO("T2", "pending", "200", "31-05-2023");
+        doAnswer(invocation -> {
+            Consumer<PendingDTO> action = invocation.getArgument(2);
+            action.accept(first);
+            action.accept(second);
+            return null;
+        }).when(service).streamPendingTransactionsDTO(eq("123"), eq(false), any());
+
+        ResponseEntity<StreamingResponseBody> responseEntity = controller.streamPendingTransactions("123", null);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(output);
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, responseEntity.getHeaders().getContentType());
+        assertEquals(2, lines.length);
+        assertEquals("T1", objectMapper.readTree(lines[0]).get("transactionId").asText());
+        assertEquals("T2", objectMapper.readTree(lines[1]).get("transactionId").asText());
+        verify(service).validateAccountNumber("123");
+    }
+
+    /**
+     * Tests that the batch endpoint returns the per-account results of the service.
+     */
+    @Test
+    void getPendingTransactionsBatch_ReturnsPerAccountResults() {
+        List<String> accountNumbers = List.of("111111", "222222");
+        Map<String, PendingBatchDTO> results = Map.of("111111", new PendingBatchDTO(), "222222", new PendingBatchDTO());
+        when(service.getPendingTransactionsBatchDTO(accountNumbers)).thenReturn(results);
+
+        ResponseEntity<Map<String, PendingBatchDTO>> responseEntity = controller.getPendingTransactionsBatch(accountNumbers);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(results, responseEntity.getBody());
+    }
+
+    /**
+     * Tests that the paged endpoint passes the limit and cursor through and returns the page with its next cursor.
+     */
+    @Test
+    void getPendingTransactionsPage_ReturnsPageWithNextCursor() {
+        TransactionPendingDTO page = new TransactionPendingDTO();
+        page.setAccountNumber("111111");
+        page.setNextCursor("Mg");
+        when(service.getPendingTransactionsPage("111111", 2, "MQ")).thenReturn(page);
+
+        ResponseEntity<TransactionPendingDTO> responseEntity = controller.getPendingTransactionsPage("111111", 2, "MQ");
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals("Mg", responseEntity.getBody().getNextCursor());
+    }
+
+    /**
+     * Tests that a client preferring Smile receives the transactions in Smile, while a JSON client still gets JSON.
+     */
+    @Test
+    void getPendingTransactions_SmileAccepted_NegotiatesSmile() throws Exception {
+        when(service.findPendingTransactionsDTO("123")).thenReturn(found(List.of(new PendingDTO("T1", "pending", "100", "30-05-2023"))));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        byte[] smile = mockMvc.perform(get("/backendserver3/pending/123")
+                        .header(HttpHeaders.ACCEPT, "application/x-jackson-smile, application/json;q=0.9"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        mockMvc.perform(get("/backendserver3/pending/123").accept(MediaType.APPLICATION_JSON))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+
+        TransactionPendingDTO decoded = new SmileMapper().readValue(smile, TransactionPendingDTO.class);
+        assertEquals("T1", decoded.getPending().get(0).getTransactionId());
+    }
+
+    /**
+     * Tests that a full read is tagged from the rows it returned without querying the version, that revalidating
+     * with that tag returns 304 after a single version query and without calling the service, and that an in-place
+     * update of a row makes the revalidation return the transactions again, tagged from the rows read.
+     */
+    @Test
+    void getPendingTransactions_IfNoneMatchCurrent_ReturnsNotModifiedUntilWritten() throws Exception {
+        PendingBatchDTO current = found(List.of(new PendingDTO("T1", "pending", "100", "30-05-2023")));
+        current.setVersion("1-7-0");
+        when(service.findPendingTransactionsDTO("123")).thenReturn(current);
+        when(repository.findVersionByAccountNumber("123")).thenReturn("1-7-0");
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        String eTag = mockMvc.perform(get("/backendserver3/pending/123"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        verify(repository, never()).findVersionByAccountNumber("123");
+        mockMvc.perform(get("/backendserver3/pending/123").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        verify(service, times(1)).findPendingTransactionsDTO("123");
+        verify(repository, times(1)).findVersionByAccountNumber("123");
+
+        assertEquals("W/\"1-7-0\"", eTag);
+
+        PendingBatchDTO updated = found(List.of(new PendingDTO("T1", "pending", "100", "30-05-2023")));
+        updated.setVersion("1-7-1");
+        when(service.findPendingTransactionsDTO("123")).thenReturn(updated);
+        when(repository.findVersionByAccountNumber("123")).thenReturn("1-7-1");
+        mockMvc.perform(get("/backendserver3/pending/123").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-7-1\""));
+        verify(service, times(2)).findPendingTransactionsDTO("123");
+        verify(repository, times(2)).findVersionByAccountNumber("123");
+    }
+
+    /**
+     * Tests that a new subscriber to the change feed is first told to reset, then receives every published account
+     * number, and that a subscriber resuming from the last event it saw receives only what it missed.
+     */
+    @Test
+    void subscribeToPendingChanges_StreamsWrittenAccounts() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        MockHttpServletResponse response = mockMvc.perform(get("/backendserver3/pending/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        changeFeed.publish("123");
+
+        String events = response.getContentAsString();
+        assertTrue(events.contains("event:reset"));
+        assertTrue(events.contains("event:change\ndata:123"));
+        String lastEventId = events.substring(events.lastIndexOf("id:") + 3, events.indexOf('\n', events.lastIndexOf("id:")));
+
+        changeFeed.publish("456");
+        String missed = mockMvc.perform(get("/backendserver3/pending/changes").header("Last-Event-ID", lastEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse().getContentAsString();
+        assertFalse(missed.contains("event:reset"));
+        assertFalse(missed.contains("data:123"));
+        assertTrue(missed.contains("event:change\ndata:456"));
+    }
+
+    /**
+     * Tests that an idle subscriber to the change feed receives heartbeat comments.
+     */
+    @Test
+    void subscribeToPendingChanges_ReceivesHeartbeats() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        MockHttpServletResponse response = mockMvc.perform(get("/backendserver3/pending/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        changeFeed.heartbeat();
+
+        assertTrue(response.getContentAsString().contains(":heartbeat\n"));
+    }
 }
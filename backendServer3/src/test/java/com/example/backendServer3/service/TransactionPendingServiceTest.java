@@ -1,20 +1,34 @@
 package com.example.backendServer3.service;
 
+import com.example.backendServer3.dto.TransactionPendingDTO;
 import com.example.backendServer3.entity.TransactionPending;
 import com.example.backendServer3.repository.TransactionPendingRepository;
+import com.example.backendServer3.dto.PendingBatchDTO;
 import com.example.backendServer3.dto.PendingDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
 
+import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
  * The {@code TransactionPendingServiceTest} class contains unit tests for the {@code TransactionPendingService} class.
@@ -30,6 +44,17 @@ class TransactionPendingServiceTest {
     @Mock
     private TransactionPendingRepository repository;
 
+    /**
+     * In-memory registry recording the service's timers.
+     */
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Registry observing the service's queries and mapping, timing them into {@link #meterRegistry}.
+     */
+    @Spy
+    private ObservationRegistry observationRegistry = ObservationRegistry.create();
+
     /**
      * The instance of {@code TransactionPendingService} being tested.
      */
@@ -41,6 +66,7 @@ class TransactionPendingServiceTest {
      */
     @BeforeEach
     void setUp() {
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
         MockitoAnnotations.openMocks(this);
     }
 
@@ -66,6 +92,46 @@ class TransactionPendingServiceTest {
         verify(repository, never()).findByAccountNumber(any());
     }
 
+    /**
+     * Tests the behavior of the {@code findPendingTransactionsDTO} method, which looks an account up with a single query.
+     * Verifies that a known account is returned as found, that an unknown one is reported as not found instead of
+     * throwing, and that no existence query is run.
+     */
+    @Test
+    void findPendingTransactionsDTO_SingleQuery_MarksUnknownAccountAsNotFound() {
+
+        when(repository.findByAccountNumber("123456789")).thenReturn(List.of(row(1)));
+        when(repository.findByAccountNumber("999999999")).thenReturn(new ArrayList<>());
+
+        PendingBatchDTO found = service.findPendingTransactionsDTO("123456789");
+        PendingBatchDTO unknown = service.findPendingTransactionsDTO("999999999");
+
+        assertTrue(found.isFound());
+        assertEquals(1, found.getTransactions().size());
+        assertFalse(unknown.isFound());
+        assertTrue(unknown.getTransactions().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> service.getPendingTransactionsDTO("999999999"));
+        verify(repository, never()).existsByAccountNumber(any());
+    }
+
+    /**
+     * Tests that a found account is tagged with the version of the rows read, which changes when a row is updated in
+     * place, and that an unknown account carries no version.
+     */
+    @Test
+    void findPendingTransactionsDTO_TagsResultWithVersionOfRows() {
+        TransactionPending first = row(5);
+        TransactionPending second = row(9);
+        second.setVersion(2);
+        when(repository.findByAccountNumber("111111")).thenReturn(List.of(first, second));
+        when(repository.findByAccountNumber("999999")).thenReturn(new ArrayList<>());
+
+        assertEquals("2-9-2", service.findPendingTransactionsDTO("111111").getVersion());
+        second.setVersion(3);
+        assertEquals("2-9-3", service.findPendingTransactionsDTO("111111").getVersion());
+        assertNull(service.findPendingTransactionsDTO("999999").getVersion());
+    }
+
     /**
      * Tests the behavior of the {@code convertToDTO} method when a valid transaction is provided.
      * Verifies that the conversion to {@code PendingDTO} is successful with matching attribute values.
@@ -115,4 +181,147 @@ class TransactionPendingServiceTest {
         transactionPending.setDate("30-05-2023");
         return transactionPending;
     }
+
+    /**
+     * Tests that streaming passes every row to the action in order and closes the database stream.
+     */
+    @Test
+    void streamPendingTransactionsDTO_PassesEachRowAndClosesStream() {
+        AtomicBoolean closed = new AtomicBoolean();
+        PendingDTO first = new PendingDTO("T1", "pending", "100", "30-05-2023");
+        PendingDTO second = new PendingDTO("T2", "pending", "200", "31-05-2023");
+        when(repository.streamByAccountNumber("123")).thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+
+        List<PendingDTO> received = new ArrayList<>();
+        service.streamPendingTransactionsDTO("123", received::add);
+
+        assertEquals(List.of(first, second), received);
+        assertTrue(closed.get());
+    }
+
+    /**
+     * Tests that a batch lookup runs a single query, groups the rows by account in request order and marks accounts
+     * without rows as not found instead of failing.
+     */
+    @Test
+    void getPendingTransactionsBatchDTO_GroupsRowsAndMarksMissingAccounts() {
+        TransactionPending first = new TransactionPending();
+        first.setAccountNumber("111111");
+        first.setTransactionId("T1");
+        TransactionPending second = new TransactionPending();
+        second.setAccountNumber("111111");
+        second.setTransactionId("T2");
+        when(repository.findByAccountNumberIn(List.of("222222", "111111"))).thenReturn(List.of(first, second));
+
+        Map<String, PendingBatchDTO> results = service.getPendingTransactionsBatchDTO(List.of("222222", "111111", "222222", " "));
+
+        assertEquals(List.of("222222", "111111", " "), new ArrayList<>(results.keySet()));
+        assertFalse(results.get("222222").isFound());
+        assertTrue(results.get("222222").getTransactions().isEmpty());
+        assertTrue(results.get("111111").isFound());
+        assertEquals("T1", results.get("111111").getTransactions().get(0).getTransactionId());
+        assertEquals("T2", results.get("111111").getTransactions().get(1).getTransactionId());
+        assertFalse(results.get(" ").isFound());
+        verify(repository, times(1)).findByAccountNumberIn(any());
+        verify(repository, never()).existsByAccountNumber(any());
+    }
+
+    /**
+     * Tests that an empty batch is rejected without querying the repository.
+     */
+    @Test
+    void getPendingTransactionsBatchDTO_EmptyList_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> service.getPendingTransactionsBatchDTO(List.of()));
+        verify(repository, never()).findByAccountNumberIn(any());
+    }
+
+    /**
+     * Tests that a page reads one extra row to detect a further page, and that its cursor seeks past the page's last row.
+     */
+    @Test
+    void getPendingTransactionsPage_SeeksPastCursorAndReturnsNextCursor() {
+        when(repository.findByAccountNumberAndIdGreaterThanOrderByIdAsc("111111", 0L, Limit.of(3)))
+                .thenReturn(List.of(row(1L), row(2L), row(3L)));
+        when(repository.findByAccountNumberAndIdGreaterThanOrderByIdAsc("111111", 2L, Limit.of(3)))
+                .thenReturn(List.of(row(3L)));
+
+        TransactionPendingDTO first = service.getPendingTransactionsPage("111111", 2, null);
+        TransactionPendingDTO last = service.getPendingTransactionsPage("111111", 2, first.getNextCursor());
+
+        assertEquals(2, first.getPending().size());
+        assertEquals(1, last.getPending().size());
+        assertNull(last.getNextCursor());
+        verify(repository, never()).existsByAccountNumber(any());
+    }
+
+    /**
+     * Tests that an empty first page means an unknown account, while an empty page past a cursor only means one when
+     * the account no longer exists.
+     */
+    @Test
+    void getPendingTransactionsPage_EmptyPage_ChecksExistenceOnlyPastACursor() {
+        when(repository.findByAccountNumberAndIdGreaterThanOrderByIdAsc(any(), any(), any())).thenReturn(List.of());
+        when(repository.existsByAccountNumber("111111")).thenReturn(true);
+
+        assertThrows(IllegalArgumentException.class, () -> service.getPendingTransactionsPage("999999", 2, null));
+        verify(repository, never()).existsByAccountNumber(any());
+
+        TransactionPendingDTO page = service.getPendingTransactionsPage("111111", 2, TransactionPendingService.encodeCursor(5L));
+        assertTrue(page.getPending().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> service.getPendingTransactionsPage("999999", 2, TransactionPendingService.encodeCursor(5L)));
+    }
+
+    /**
+     * Tests that a malformed cursor or an out-of-range limit is rejected without reading a page.
+     */
+    @Test
+    void getPendingTransactionsPage_InvalidCursorOrLimit_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> service.getPendingTransactionsPage("111111", 10, "not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> service.getPendingTransactionsPage("111111", 0, null));
+        verify(repository, never()).findByAccountNumberAndIdGreaterThanOrderByIdAsc(any(), any(), any());
+    }
+
+    /**
+     * Creates a row of the account used by the paging tests.
+     *
+     * @param id The row identifier.
+     * @return The row.
+     */
+    private static TransactionPending row(long id) {
+        TransactionPending row = new TransactionPending();
+        row.setId(id);
+        row.setAccountNumber("111111");
+        return row;
+    }
+
+    /**
+     * Tests that streaming newest first reads the date-ordered query instead of the storage-ordered one.
+     */
+    @Test
+    void streamPendingTransactionsDTO_NewestFirst_UsesDateOrderedQuery() {
+        PendingDTO newest = new PendingDTO("T2", "pending", "200", "31-05-2023");
+        PendingDTO oldest = new PendingDTO("T1", "pending", "100", "30-05-2023");
+        when(repository.streamByAccountNumberNewestFirst("123")).thenReturn(Stream.of(newest, oldest));
+
+        List<PendingDTO> received = new ArrayList<>();
+        service.streamPendingTransactionsDTO("123", true, received::add);
+
+        assertEquals(List.of(newest, oldest), received);
+        verify(repository, never()).streamByAccountNumber(any());
+    }
+
+    /**
+     * Tests that the account lookup times its single database query and the mapping of the rows separately.
+     */
+    @Test
+    void getPendingTransactionsDTO_RecordsQueryAndMappingTimes() {
+
+        when(repository.findByAccountNumber("123")).thenReturn(List.of(row(1)));
+
+        service.getPendingTransactionsDTO("123");
+
+        assertNull(meterRegistry.find("backend.transactions.query").tag("operation", "validate").timer());
+        assertEquals(1, meterRegistry.get("backend.transactions.query").tag("operation", "get").timer().count());
+        assertEquals(1, meterRegistry.get("backend.transactions.mapping").tag("operation", "get").timer().count());
+    }
 }
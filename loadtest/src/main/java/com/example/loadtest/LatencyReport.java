@@ -0,0 +1,136 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reports throughput against latency percentiles over a series of constant-rate runs: one table row per rate, the
+ * same rows as {@code summary.csv}, and the full percentile distribution of every run as an {@code .hgrm} file that
+ * HdrHistogram's plotter can chart.
+ *
+ * @author prapti
+ */
+public class LatencyReport {
+
+    /**
+     * Header of the table and of the CSV file.
+     */
+    static final String[] COLUMNS = {"target_rps", "achieved_rps", "sent", "errors", "p50_ms", "p99_ms", "p999_ms",
+            "max_ms", "uncorrected_p99_ms"};
+
+    /**
+     * Where the table is printed.
+     */
+    private final PrintStream out;
+
+    /**
+     * Directory receiving the files, or {@code null} to print the table only.
+     */
+    private final Path directory;
+
+    /**
+     * The rows reported so far.
+     */
+    private final List<String[]> rows = new ArrayList<>();
+
+    /**
+     * Creates a report.
+     *
+     * @param out       Where the table is printed.
+     * @param directory Directory receiving the files, or {@code null} to print the table only.
+     * @throws IOException If the directory cannot be created.
+     */
+    public LatencyReport(PrintStream out, Path directory) throws IOException {
+        this.out = out;
+        this.directory = directory;
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        out.println(format(COLUMNS));
+    }
+
+    /**
+     * Reports one run: prints its row and writes its percentile distribution.
+     *
+     * @param result The run.
+     * @throws IOException If the distribution cannot be written.
+     */
+    public void add(OpenLoopGenerator.Result result) throws IOException {
+        String[] row = row(result);
+        rows.add(row);
+        out.println(format(row));
+        if (directory != null) {
+            Path file = directory.resolve(String.format(Locale.ROOT, "rate-%.0f.hgrm", result.targetRate()));
+            try (PrintStream distribution = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+                result.latency().outputPercentileDistribution(distribution, 1000.0);
+            }
+        }
+    }
+
+    /**
+     * Writes every row reported as {@code summary.csv}.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    public void finish() throws IOException {
+        if (directory == null) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add(String.join(",", COLUMNS));
+        rows.forEach(row -> lines.add(String.join(",", row)));
+        Files.write(directory.resolve("summary.csv"), lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Turns a run into a row of the report.
+     *
+     * @param result The run.
+     * @return The values of {@link #COLUMNS}.
+     */
+    static String[] row(OpenLoopGenerator.Result result) {
+        Histogram latency = result.latency();
+        return new String[]{
+                String.format(Locale.ROOT, "%.0f", result.targetRate()),
+                String.format(Locale.ROOT, "%.1f", result.throughput()),
+                Long.toString(result.sent()),
+                Long.toString(result.errors()),
+                millis(latency.getValueAtPercentile(50.0)),
+                millis(latency.getValueAtPercentile(99.0)),
+                millis(latency.getValueAtPercentile(99.9)),
+                millis(latency.getMaxValue()),
+                millis(result.serviceTime().getValueAtPercentile(99.0))};
+    }
+
+    /**
+     * Formats a latency recorded in microseconds as milliseconds.
+     *
+     * @param micros The latency in microseconds.
+     * @return The latency in milliseconds.
+     */
+    private static String millis(long micros) {
+        return String.format(Locale.ROOT, "%.2f", micros / 1000.0);
+    }
+
+    /**
+     * Aligns the values of a row in columns.
+     *
+     * @param values The values.
+     * @return The formatted line.
+     */
+    private static String format(String[] values) {
+        StringBuilder line = new StringBuilder();
+        for (String value : values) {
+            line.append(String.format(Locale.ROOT, "%20s", value));
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Command line of the load test, runnable offline on a single machine:
+ * <pre>
+ * java -jar loadtest/target/loadtest.jar stubs [--latency=5ms] [--jitter=2ms] [--slow-probability=0]
+ *                                              [--slow-latency=200ms] [--transactions=20]
+ * java -jar mainserver/target/mainserver-0.0.1-SNAPSHOT-exec.jar
+ * java -jar loadtest/target/loadtest.jar run [--url=http://localhost:8090/transactions/{account}?status=ALL]
+ *                                            [--accounts=1000] [--rates=100,200,400,800,1600] [--duration=30s]
+ *                                            [--warmup=10s] [--timeout=5s] [--out=target/loadtest]
+ * </pre>
+ * {@code stubs} serves the three backend contracts on their usual ports 8080 to 8082 until interrupted.
+ * {@code run} warms the mainserver up at the first rate, then runs each rate in turn and reports throughput
+ * against p50, p99 and p99.9 latency; {@code {account}} in the URL is replaced by one of the account numbers in
+ * turn.
+ * <p>
+ * The stubs, the mainserver and the generator share the machine's cores, so keep the generator's achieved rate in
+ * view: once it falls behind the target rate, the mainserver is saturated and the corrected percentiles show the
+ * queueing that a closed-loop benchmark would hide.
+ *
+ * @author prapti
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    /**
+     * Runs the given command.
+     *
+     * @param args The command, "stubs" or "run", followed by its {@code --name=value} options.
+     * @throws IOException          If a stub cannot be started or the report cannot be written.
+     * @throws InterruptedException If interrupted while serving the stubs.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            usage();
+            return;
+        }
+        Map<String, String> options = options(args);
+        switch (args[0]) {
+            case "stubs" -> stubs(options);
+            case "run" -> run(options);
+            default -> usage();
+        }
+    }
+
+    /**
+     * Serves the three stub backends until the process is stopped.
+     *
+     * @param options The command's options.
+     * @throws IOException          If a stub cannot be started.
+     * @throws InterruptedException If interrupted while serving.
+     */
+    private static void stubs(Map<String, String> options) throws IOException, InterruptedException {
+        StubBackend.LatencyProfile latency = new StubBackend.LatencyProfile(
+                duration(options.getOrDefault("latency", "5ms")),
+                duration(options.getOrDefault("jitter", "2ms")),
+                Double.parseDouble(options.getOrDefault("slow-probability", "0")),
+                duration(options.getOrDefault("slow-latency", "200ms")));
+        int transactions = Integer.parseInt(options.getOrDefault("transactions", "20"));
+        List<StubBackend> stubs = new ArrayList<>();
+        for (StubBackend.Backend backend : StubBackend.Backend.values()) {
+            StubBackend stub = new StubBackend(backend, backend.defaultPort(), latency, transactions);
+            stub.start();
+            stubs.add(stub);
+            System.out.println("Stub " + backend.pathPrefix() + " listening on port " + stub.getPort());
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> stubs.forEach(StubBackend::stop)));
+        new CountDownLatch(1).await();
+    }
+
+    /**
+     * Runs the load against the mainserver at each rate and reports the latencies.
+     *
+     * @param options The command's options.
+     * @throws IOException If the report cannot be written.
+     */
+    private static void run(Map<String, String> options) throws IOException {
+        String url = options.getOrDefault("url", "http://localhost:8090/transactions/{account}?status=ALL");
+        int accounts = Integer.parseInt(options.getOrDefault("accounts", "1000"));
+        List<Double> rates = new ArrayList<>();
+        for (String rate : options.getOrDefault("rates", "100,200,400,800,1600").split(",")) {
+            rates.add(Double.parseDouble(rate.trim()));
+        }
+        Duration duration = duration(options.getOrDefault("duration", "30s"));
+        Duration warmup = duration(options.getOrDefault("warmup", "10s"));
+        Duration timeout = duration(options.getOrDefault("timeout", "5s"));
+        String out = options.getOrDefault("out", "target/loadtest");
+
+        OpenLoopGenerator generator = new OpenLoopGenerator(timeout);
+        try {
+            if (!warmup.isZero()) {
+                generator.run(rates.get(0), warmup, n -> uri(url, n, accounts));
+            }
+            LatencyReport report = new LatencyReport(System.out, out.isEmpty() ? null : Path.of(out));
+            for (double rate : rates) {
+                report.add(generator.run(rate, duration, n -> uri(url, n, accounts)));
+            }
+            report.finish();
+        } finally {
+            generator.close();
+        }
+    }
+
+    /**
+     * Builds the URI of the n-th request, cycling through the account numbers.
+     *
+     * @param url      The URL template, containing {@code {account}}.
+     * @param n        The request's sequence number.
+     * @param accounts The number of distinct account numbers.
+     * @return The URI.
+     */
+    static URI uri(String url, long n, int accounts) {
+        return URI.create(url.replace("{account}", Long.toString(100000 + n % accounts)));
+    }
+
+    /**
+     * Parses {@code --name=value} options following the command.
+     *
+     * @param args The command line.
+     * @return The options by name.
+     * @throws IllegalArgumentException If an argument is not an option.
+     */
+    static Map<String, String> options(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Parses a duration such as "250ms", "30s" or "2m".
+     *
+     * @param value The duration.
+     * @return The parsed duration.
+     * @throws IllegalArgumentException If the duration is malformed.
+     */
+    static Duration duration(String value) {
+        String trimmed = value.trim();
+        try {
+            if (trimmed.endsWith("ms")) {
+                return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+            }
+            if (trimmed.endsWith("s")) {
+                return Duration.ofSeconds(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+            }
+            if (trimmed.endsWith("m")) {
+                return Duration.ofMinutes(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+            }
+        } catch (NumberFormatException e) {
+            // Reported below.
+        }
+        throw new IllegalArgumentException("Invalid duration: " + value);
+    }
+
+    /**
+     * Prints the commands and their options.
+     */
+    private static void usage() {
+        System.out.println("""
+                Usage:
+                  stubs [--latency=5ms] [--jitter=2ms] [--slow-probability=0] [--slow-latency=200ms] [--transactions=20]
+                  run   [--url=http://localhost:8090/transactions/{account}?status=ALL] [--accounts=1000]
+                        [--rates=100,200,400,800,1600] [--duration=30s] [--warmup=10s] [--timeout=5s]
+                        [--out=target/loadtest]""");
+    }
+}
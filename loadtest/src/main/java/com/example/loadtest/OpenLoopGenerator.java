@@ -0,0 +1,150 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Open-loop load generator: requests are issued at a constant arrival rate, whether or not earlier requests have
+ * completed, the way independent clients arrive in production.
+ * <p>
+ * Latency is measured from the moment each request was <em>scheduled</em> to be sent, not from the moment it was
+ * actually sent. When the generator or the server stalls, requests that should have gone out during the stall are
+ * charged the time they spent waiting, which corrects for coordinated omission. The uncorrected service time, from
+ * the actual send, is recorded separately for comparison. Both are kept in microseconds in HdrHistograms.
+ *
+ * @author prapti
+ */
+public class OpenLoopGenerator {
+
+    /**
+     * Client sending the requests, over HTTP/1.1 with as many connections as requests in flight.
+     */
+    private final HttpClient client;
+
+    /**
+     * Runs the response callbacks.
+     */
+    private final ExecutorService callbacks;
+
+    /**
+     * The longest a request may take before it counts as an error.
+     */
+    private final Duration timeout;
+
+    /**
+     * Creates a generator.
+     *
+     * @param timeout The longest a request may take before it counts as an error.
+     */
+    public OpenLoopGenerator(Duration timeout) {
+        this.timeout = timeout;
+        this.callbacks = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .executor(callbacks)
+                .build();
+    }
+
+    /**
+     * Issues requests at a constant rate for the given duration, then waits for the requests in flight. Requests
+     * still in flight after twice the timeout are left out of the result.
+     *
+     * @param rate     The arrival rate, in requests per second.
+     * @param duration How long requests are issued.
+     * @param uris     Gives the URI of the n-th request.
+     * @return The latencies and counts of the run.
+     * @throws IllegalArgumentException If the rate is not positive.
+     */
+    public Result run(double rate, Duration duration, LongFunction<URI> uris) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+        Histogram latency = new ConcurrentHistogram(3);
+        Histogram serviceTime = new ConcurrentHistogram(3);
+        LongAdder errors = new LongAdder();
+        LongAdder completed = new LongAdder();
+        double interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long sent = 0;
+        while (true) {
+            long intended = start + (long) (sent * interval);
+            if (intended - end >= 0) {
+                break;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            HttpRequest request = HttpRequest.newBuilder(uris.apply(sent)).timeout(timeout).GET().build();
+            long actual = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                long done = System.nanoTime();
+                latency.recordValue(TimeUnit.NANOSECONDS.toMicros(done - intended));
+                serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(done - actual));
+                if (error != null || response.statusCode() >= 400) {
+                    errors.increment();
+                }
+                completed.increment();
+            });
+            sent++;
+        }
+        long sendingNanos = System.nanoTime() - start;
+        long drainDeadline = System.nanoTime() + timeout.toNanos() * 2;
+        while (completed.sum() < sent && System.nanoTime() - drainDeadline < 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        return new Result(rate, sent, completed.sum(), errors.sum(), sendingNanos, elapsedNanos,
+                latency.copy(), serviceTime.copy());
+    }
+
+    /**
+     * Stops the client's threads.
+     */
+    public void close() {
+        callbacks.shutdownNow();
+    }
+
+    /**
+     * The outcome of one run at a constant rate.
+     *
+     * @param targetRate   The requested arrival rate, in requests per second.
+     * @param sent         The number of requests sent.
+     * @param completed    The number of requests that completed, successfully or not.
+     * @param errors       The number of requests that failed or answered with an error status.
+     * @param sendingNanos How long requests were being sent.
+     * @param elapsedNanos How long the run took, including the wait for the last responses.
+     * @param latency      The latency from the scheduled send, corrected for coordinated omission, in microseconds.
+     * @param serviceTime  The latency from the actual send, uncorrected, in microseconds.
+     */
+    public record Result(double targetRate, long sent, long completed, long errors, long sendingNanos,
+                         long elapsedNanos, Histogram latency, Histogram serviceTime) {
+
+        /**
+         * Gets the rate at which requests completed.
+         *
+         * @return The achieved throughput, in requests per second.
+         */
+        public double throughput() {
+            return completed * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A lightweight in-memory stand-in for one backend server, implementing the same HTTP contract as the real one
+ * without MySQL: {@code GET /backendserverN/<kind>/{accountNumber}} (conditional with {@code If-None-Match}, or
+ * paged with {@code limit} and {@code cursor}), {@code GET .../{accountNumber}/stream} as NDJSON,
+ * {@code POST .../batch} and the {@code GET .../changes} server-sent event feed.
+ * <p>
+ * Every account exists and holds the same number of transactions. Each response is delayed by a configurable
+ * service time, with uniform jitter and an optional share of slow responses, to shape the latency the mainserver
+ * sees. Responses are always JSON; the mainserver falls back to it when Smile is not offered.
+ *
+ * @author prapti
+ */
+public class StubBackend {
+
+    /**
+     * Entity tag of every account; the stubbed data never changes.
+     */
+    static final String ETAG = "\"stub-v1\"";
+
+    /**
+     * Identifier of the only change event, so a reconnecting subscriber is not reset again.
+     */
+    static final String CHANGE_FEED_ID = "stub-0";
+
+    /**
+     * Interval of the comments keeping an idle change feed open.
+     */
+    private static final Duration HEARTBEAT = Duration.ofSeconds(30);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static {
+        // The JDK server writes headers and body separately; with Nagle's algorithm on, the body then waits for the
+        // client's delayed ACK, adding up to 40ms to every response.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    /**
+     * The backend served, e.g. the success backend on port 8080.
+     */
+    private final Backend backend;
+
+    /**
+     * The port listened on.
+     */
+    private final int port;
+
+    /**
+     * The latency added to every response.
+     */
+    private final LatencyProfile latency;
+
+    /**
+     * The transactions of every account.
+     */
+    private final List<Map<String, String>> transactions;
+
+    /**
+     * Runs the exchanges; unbounded so the stub's own queueing never shapes the latency measured.
+     */
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    /**
+     * The running server, or {@code null} before {@link #start()}.
+     */
+    private HttpServer server;
+
+    /**
+     * Creates a stub of the given backend.
+     *
+     * @param backend                The backend served.
+     * @param port                   The port to listen on; 0 picks a free one.
+     * @param latency                The latency added to every response.
+     * @param transactionsPerAccount The number of transactions of every account.
+     */
+    public StubBackend(Backend backend, int port, LatencyProfile latency, int transactionsPerAccount) {
+        this.backend = backend;
+        this.port = port;
+        this.latency = latency;
+        this.transactions = transactions(backend, transactionsPerAccount);
+    }
+
+    /**
+     * Starts listening.
+     *
+     * @throws IOException If the port cannot be bound.
+     */
+    public synchronized void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.setExecutor(executor);
+        server.createContext(backend.pathPrefix() + "/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Stops listening and closes the open change feeds.
+     */
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Gets the port listened on.
+     *
+     * @return The port.
+     */
+    public synchronized int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Routes one exchange to the handler of its endpoint.
+     *
+     * @param exchange The exchange.
+     * @throws IOException If the response cannot be written.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath().substring(backend.pathPrefix().length() + 1);
+            String method = exchange.getRequestMethod();
+            if (path.equals("changes") && method.equals("GET")) {
+                streamChanges(exchange);
+            } else if (path.equals("batch") && method.equals("POST")) {
+                latency.pause();
+                getBatch(exchange);
+            } else if (path.endsWith("/stream") && method.equals("GET")) {
+                latency.pause();
+                streamTransactions(exchange);
+            } else if (!path.isEmpty() && !path.contains("/") && method.equals("GET")) {
+                latency.pause();
+                getTransactions(exchange, path);
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        } catch (IllegalArgumentException e) {
+            exchange.sendResponseHeaders(400, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Answers {@code GET /{accountNumber}}: the account's transactions, one page of them, or 304 Not Modified when
+     * the caller's entity tag is current.
+     *
+     * @param exchange      The exchange.
+     * @param accountNumber The account number.
+     * @throws IOException If the response cannot be written.
+     */
+    private void getTransactions(HttpExchange exchange, String accountNumber) throws IOException {
+        Map<String, String> query = query(exchange.getRequestURI());
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("accountNumber", accountNumber);
+        if (query.containsKey("limit")) {
+            int limit = Integer.parseInt(query.get("limit"));
+            int from = query.containsKey("cursor") ? decodeCursor(query.get("cursor")) : 0;
+            if (limit < 1 || from < 0 || from > transactions.size()) {
+                throw new IllegalArgumentException("Invalid page");
+            }
+            int to = Math.min(from + limit, transactions.size());
+            response.put(backend.kind(), transactions.subList(from, to));
+            if (to < transactions.size()) {
+                response.put("nextCursor", encodeCursor(to));
+            }
+            sendJson(exchange, 200, response);
+            return;
+        }
+        exchange.getResponseHeaders().set("ETag", ETAG);
+        if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        response.put(backend.kind(), transactions);
+        sendJson(exchange, 200, response);
+    }
+
+    /**
+     * Answers {@code GET /{accountNumber}/stream} with the account's transactions as NDJSON.
+     *
+     * @param exchange The exchange.
+     * @throws IOException If the response cannot be written.
+     */
+    private void streamTransactions(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            for (Map<String, String> transaction : transactions) {
+                body.write(MAPPER.writeValueAsBytes(transaction));
+                body.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Answers {@code POST /batch}: every requested account is found, except blank account numbers.
+     *
+     * @param exchange The exchange.
+     * @throws IOException If the request cannot be read or the response written.
+     */
+    private void getBatch(HttpExchange exchange) throws IOException {
+        List<String> accountNumbers;
+        try (InputStream body = exchange.getRequestBody()) {
+            accountNumbers = MAPPER.readValue(body, new TypeReference<List<String>>() {
+            });
+        }
+        if (accountNumbers == null || accountNumbers.isEmpty()) {
+            throw new IllegalArgumentException("Account numbers cannot be null or empty");
+        }
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (String accountNumber : accountNumbers) {
+            if (accountNumber == null) {
+                throw new IllegalArgumentException("Account number cannot be null");
+            }
+            boolean found = !accountNumber.isBlank();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("found", found);
+            result.put("transactions", found ? transactions : Collections.emptyList());
+            results.putIfAbsent(accountNumber, result);
+        }
+        sendJson(exchange, 200, results);
+    }
+
+    /**
+     * Answers {@code GET /changes}: a {@code reset} event for a new subscriber, then comments keeping the feed open
+     * until the subscriber disconnects or the stub stops. The stubbed data never changes, so no {@code change}
+     * event is ever sent.
+     *
+     * @param exchange The exchange.
+     * @throws IOException          If the response cannot be written.
+     * @throws InterruptedException If the stub stops.
+     */
+    private void streamChanges(HttpExchange exchange) throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream body = exchange.getResponseBody();
+        if (!CHANGE_FEED_ID.equals(exchange.getRequestHeaders().getFirst("Last-Event-ID"))) {
+            body.write(("id:" + CHANGE_FEED_ID + "\nevent:reset\ndata:\n\n").getBytes(StandardCharsets.UTF_8));
+        }
+        while (true) {
+            body.write(":\n\n".getBytes(StandardCharsets.UTF_8));
+            body.flush();
+            TimeUnit.MILLISECONDS.sleep(HEARTBEAT.toMillis());
+        }
+    }
+
+    /**
+     * Sends a JSON response.
+     *
+     * @param exchange The exchange.
+     * @param status   The status code.
+     * @param value    The body.
+     * @throws IOException If the response cannot be written.
+     */
+    private static void sendJson(HttpExchange exchange, int status, Object value) throws IOException {
+        byte[] body = MAPPER.writeValueAsBytes(value);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    /**
+     * Parses the query string of a request.
+     *
+     * @param uri The request URI.
+     * @return The parameters; repeated ones keep their first value.
+     */
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        if (uri.getQuery() != null) {
+            for (String parameter : uri.getQuery().split("&")) {
+                int equals = parameter.indexOf('=');
+                if (equals > 0) {
+                    parameters.putIfAbsent(parameter.substring(0, equals), parameter.substring(equals + 1));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Encodes the offset of the next page as an opaque cursor.
+     *
+     * @param offset The offset.
+     * @return The cursor.
+     */
+    static String encodeCursor(int offset) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Integer.toString(offset).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a cursor into the offset of the page.
+     *
+     * @param cursor The cursor.
+     * @return The offset.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    static int decodeCursor(String cursor) {
+        return Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Creates the transactions every account holds, shaped like the real backend's rows.
+     *
+     * @param backend The backend served.
+     * @param count   The number of transactions.
+     * @return The transactions.
+     */
+    private static List<Map<String, String>> transactions(Backend backend, int count) {
+        List<Map<String, String>> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, String> transaction = new LinkedHashMap<>();
+            transaction.put("transactionId", backend.kind().toUpperCase() + "-" + (100000 + i));
+            transaction.put("status", backend.kind().toUpperCase());
+            transaction.put("amount", String.format("%d.%02d", 10 + i * 7 % 5000, i % 100));
+            transaction.put("date", String.format("2024-%02d-%02d", 1 + i % 12, 1 + i % 28));
+            transactions.add(Collections.unmodifiableMap(transaction));
+        }
+        return Collections.unmodifiableList(transactions);
+    }
+
+    /**
+     * The three backends the mainserver calls, with their default ports.
+     */
+    public enum Backend {
+
+        /**
+         * The successful transactions backend, {@code /backendserver1/success}.
+         */
+        SUCCESS("/backendserver1/success", "success", 8080),
+
+        /**
+         * The failed transactions backend, {@code /backendserver2/failure}.
+         */
+        FAILURE("/backendserver2/failure", "failure", 8081),
+
+        /**
+         * The pending transactions backend, {@code /backendserver3/pending}.
+         */
+        PENDING("/backendserver3/pending", "pending", 8082);
+
+        private final String pathPrefix;
+
+        private final String kind;
+
+        private final int defaultPort;
+
+        Backend(String pathPrefix, String kind, int defaultPort) {
+            this.pathPrefix = pathPrefix;
+            this.kind = kind;
+            this.defaultPort = defaultPort;
+        }
+
+        /**
+         * Gets the path every endpoint of the backend starts with.
+         *
+         * @return The path prefix, e.g. "/backendserver1/success".
+         */
+        public String pathPrefix() {
+            return pathPrefix;
+        }
+
+        /**
+         * Gets the name of the transaction list in the backend's responses.
+         *
+         * @return The kind, e.g. "success".
+         */
+        public String kind() {
+            return kind;
+        }
+
+        /**
+         * Gets the port the real backend listens on.
+         *
+         * @return The default port.
+         */
+        public int defaultPort() {
+            return defaultPort;
+        }
+    }
+
+    /**
+     * The service time added to every stub response: a base latency, uniform jitter on top of it, and a share of
+     * slow responses modelling the backends' tail.
+     *
+     * @param base            The latency of every response.
+     * @param jitter          The upper bound of the uniform random latency added.
+     * @param slowProbability The share of responses that are slow, between 0 and 1.
+     * @param slow            The latency of a slow response, replacing the base latency.
+     */
+    public record LatencyProfile(Duration base, Duration jitter, double slowProbability, Duration slow) {
+
+        /**
+         * Profile answering without any added latency.
+         */
+        public static final LatencyProfile NONE = new LatencyProfile(Duration.ZERO, Duration.ZERO, 0, Duration.ZERO);
+
+        /**
+         * Draws a service time.
+         *
+         * @return The latency to add to one response.
+         */
+        Duration next() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Duration latency = slowProbability > 0 && random.nextDouble() < slowProbability ? slow : base;
+            return jitter.isZero() ? latency : latency.plusNanos(random.nextLong(jitter.toNanos() + 1));
+        }
+
+        /**
+         * Waits for a drawn service time.
+         *
+         * @throws InterruptedException If interrupted while waiting.
+         */
+        void pause() throws InterruptedException {
+            long nanos = next().toNanos();
+            if (nanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The {@code OpenLoopGeneratorTest} class verifies the arrival rate and the latency recording of
+ * {@link OpenLoopGenerator} against a {@link StubBackend}.
+ *
+ * @author prapti
+ */
+class OpenLoopGeneratorTest {
+
+    /**
+     * Tests that requests are sent at the requested rate and that every latency includes the stub's service time.
+     */
+    @Test
+    void run_SendsAtConstantRateAndRecordsLatency() throws Exception {
+
+        StubBackend stub = new StubBackend(StubBackend.Backend.SUCCESS, 0,
+                new StubBackend.LatencyProfile(Duration.ofMillis(20), Duration.ZERO, 0, Duration.ZERO), 5);
+        stub.start();
+        OpenLoopGenerator generator = new OpenLoopGenerator(Duration.ofSeconds(5));
+        try {
+            OpenLoopGenerator.Result result = generator.run(100, Duration.ofSeconds(1),
+                    n -> URI.create("http://localhost:" + stub.getPort() + "/backendserver1/success/" + n));
+
+            assertEquals(100, result.sent());
+            assertEquals(100, result.completed());
+            assertEquals(0, result.errors());
+            assertTrue(result.latency().getMinValue() >= 20_000);
+            assertTrue(result.latency().getValueAtPercentile(50.0) >= result.serviceTime().getValueAtPercentile(50.0));
+        } finally {
+            generator.close();
+            stub.stop();
+        }
+    }
+
+    /**
+     * Tests that a rate that is not positive is rejected.
+     */
+    @Test
+    void run_NonPositiveRate_ThrowsIllegalArgumentException() {
+
+        OpenLoopGenerator generator = new OpenLoopGenerator(Duration.ofSeconds(1));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> generator.run(0, Duration.ofSeconds(1), n -> URI.create("http://localhost")));
+        generator.close();
+    }
+}
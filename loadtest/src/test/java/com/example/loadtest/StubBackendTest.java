@@ -0,0 +1,131 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The {@code StubBackendTest} class verifies that {@link StubBackend} answers with the same contract as the real
+ * failure backend, {@code /backendserver2/failure}.
+ *
+ * @author prapti
+ */
+class StubBackendTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private StubBackend stub;
+
+    /**
+     * Starts a stub of the failure backend with three transactions per account on a free port.
+     *
+     * @throws IOException If the stub cannot be started.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new StubBackend(StubBackend.Backend.FAILURE, 0, StubBackend.LatencyProfile.NONE, 3);
+        stub.start();
+    }
+
+    /**
+     * Stops the stub.
+     */
+    @AfterEach
+    void tearDown() {
+        stub.stop();
+    }
+
+    /**
+     * Tests that an account's transactions are returned with an entity tag, and that a revalidation with that
+     * entity tag is answered with 304 Not Modified.
+     */
+    @Test
+    void getTransactions_ReturnsSegmentAndRevalidates() throws Exception {
+
+        HttpResponse<String> response = get("/123456", null);
+        JsonNode body = mapper.readTree(response.body());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("123456", body.get("accountNumber").asText());
+        assertEquals(3, body.get("failure").size());
+        assertEquals("FAILURE", body.get("failure").get(0).get("status").asText());
+        assertFalse(body.has("nextCursor"));
+        assertEquals(StubBackend.ETAG, response.headers().firstValue("ETag").orElseThrow());
+        assertEquals(304, get("/123456", StubBackend.ETAG).statusCode());
+    }
+
+    /**
+     * Tests that pages follow each other through their cursors.
+     */
+    @Test
+    void getTransactionsPage_FollowsCursor() throws Exception {
+
+        JsonNode first = mapper.readTree(get("/123456?limit=2", null).body());
+        JsonNode last = mapper.readTree(get("/123456?limit=2&cursor=" + first.get("nextCursor").asText(), null).body());
+
+        assertEquals(2, first.get("failure").size());
+        assertEquals(1, last.get("failure").size());
+        assertFalse(last.has("nextCursor"));
+    }
+
+    /**
+     * Tests that a batch marks blank account numbers as not found.
+     */
+    @Test
+    void getBatch_MarksBlankAccountsNotFound() throws Exception {
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("[\"123456\", \" \"]"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode body = mapper.readTree(response.body());
+
+        assertTrue(body.get("123456").get("found").asBoolean());
+        assertEquals(3, body.get("123456").get("transactions").size());
+        assertFalse(body.get(" ").get("found").asBoolean());
+    }
+
+    /**
+     * Tests that a new change feed subscriber is reset first.
+     */
+    @Test
+    void streamChanges_ResetsNewSubscriber() throws Exception {
+
+        HttpResponse<InputStream> response = client.send(HttpRequest.newBuilder(uri("/changes")).build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            String start = new String(body.readNBytes(32), StandardCharsets.UTF_8);
+
+            assertEquals("text/event-stream", response.headers().firstValue("Content-Type").orElseThrow());
+            assertTrue(start.startsWith("id:" + StubBackend.CHANGE_FEED_ID + "\nevent:reset\n"));
+        }
+    }
+
+    private HttpResponse<String> get(String path, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path));
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + stub.getPort() + "/backendserver2/failure" + path);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.mainserver.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Accepts the usual JMH command line, e.g. a benchmark name pattern or
+ * {@code -p listSize=100}, and always adds the GC profiler, so every result reports the allocation per operation
+ * ({@code gc.alloc.rate.norm}) next to the throughput.
+ * <pre>
+ * mvn -f mainserver install -DskipTests
+ * mvn -f mainserver-benchmarks package
+ * java -jar mainserver-benchmarks/target/benchmarks.jar [pattern] [JMH options]
+ * </pre>
+ *
+ * @author prapti
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs the selected benchmarks.
+     *
+     * @param args The JMH command line.
+     * @throws CommandLineOptionException If the command line is invalid.
+     * @throws RunnerException            If a benchmark fails.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
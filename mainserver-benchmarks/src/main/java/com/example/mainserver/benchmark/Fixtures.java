@@ -0,0 +1,37 @@
+package com.example.mainserver.benchmark;
+
+import com.example.mainserver.dto.TransactionDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds realistic transaction lists shared by the benchmarks.
+ *
+ * @author prapti
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Creates the given number of transactions of one status, shaped like the rows the backends return.
+     *
+     * @param status The status of the transactions, e.g. "SUCCESS".
+     * @param size   The number of transactions.
+     * @return The transactions, in a list that must not be modified.
+     */
+    static List<TransactionDTO> transactions(String status, int size) {
+        List<TransactionDTO> transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TransactionDTO transaction = new TransactionDTO();
+            transaction.setTransactionId("TXN" + (100000 + i));
+            transaction.setStatus(status);
+            transaction.setAmount(String.format("%d.%02d", 10 + i * 7 % 5000, i % 100));
+            transaction.setDate(String.format("2024-%02d-%02d", 1 + i % 12, 1 + i % 28));
+            transactions.add(transaction);
+        }
+        return List.copyOf(transactions);
+    }
+}
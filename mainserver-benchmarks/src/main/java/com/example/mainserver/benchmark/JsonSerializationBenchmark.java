@@ -0,0 +1,128 @@
+package com.example.mainserver.benchmark;
+
+import com.example.mainserver.dto.ConsolidatedTransactionDTO;
+import com.example.mainserver.dto.SuccessTransactionDTO;
+import com.example.mainserver.model.SegmentStatus;
+import com.example.mainserver.model.TransactionStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Jackson encoding and decoding of the backend response ({@link SuccessTransactionDTO}) and of the
+ * consolidated response ({@link ConsolidatedTransactionDTO}) at realistic list sizes, in JSON as served to clients
+ * and in Smile as exchanged with the backends. The mappers are built like the application's.
+ *
+ * @author prapti
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    /**
+     * Number of transactions in each segment.
+     */
+    @Param({"10", "100", "1000"})
+    private int listSize;
+
+    /**
+     * The encoding: "json" or "smile".
+     */
+    @Param({"json", "smile"})
+    private String format;
+
+    private ObjectMapper mapper;
+
+    private SuccessTransactionDTO successResponse;
+
+    private ConsolidatedTransactionDTO consolidatedResponse;
+
+    private byte[] successBytes;
+
+    private byte[] consolidatedBytes;
+
+    /**
+     * Builds the mapper and the responses, and encodes them once for the decoding benchmarks.
+     *
+     * @throws IOException If a response cannot be encoded.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        mapper = "smile".equals(format)
+                ? Jackson2ObjectMapperBuilder.smile().build()
+                : Jackson2ObjectMapperBuilder.json().build();
+        successResponse = new SuccessTransactionDTO("123456", Fixtures.transactions("SUCCESS", listSize));
+        consolidatedResponse = new ConsolidatedTransactionDTO(Fixtures.transactions("SUCCESS", listSize),
+                Fixtures.transactions("FAILURE", listSize), Fixtures.transactions("PENDING", listSize));
+        Map<TransactionStatus, SegmentStatus> segmentStatus = new EnumMap<>(TransactionStatus.class);
+        for (TransactionStatus status : TransactionStatus.values()) {
+            segmentStatus.put(status, SegmentStatus.OK);
+        }
+        consolidatedResponse.setSegmentStatus(segmentStatus);
+        successBytes = mapper.writeValueAsBytes(successResponse);
+        consolidatedBytes = mapper.writeValueAsBytes(consolidatedResponse);
+    }
+
+    /**
+     * Encodes a backend response.
+     *
+     * @return The result, consumed by JMH.
+     * @throws IOException If the response cannot be processed.
+     */
+    @Benchmark
+    public byte[] serializeSuccess() throws IOException {
+        return mapper.writeValueAsBytes(successResponse);
+    }
+
+    /**
+     * Decodes a backend response.
+     *
+     * @return The result, consumed by JMH.
+     * @throws IOException If the response cannot be processed.
+     */
+    @Benchmark
+    public SuccessTransactionDTO deserializeSuccess() throws IOException {
+        return mapper.readValue(successBytes, SuccessTransactionDTO.class);
+    }
+
+    /**
+     * Encodes a consolidated response of three full segments.
+     *
+     * @return The result, consumed by JMH.
+     * @throws IOException If the response cannot be processed.
+     */
+    @Benchmark
+    public byte[] serializeConsolidated() throws IOException {
+        return mapper.writeValueAsBytes(consolidatedResponse);
+    }
+
+    /**
+     * Decodes a consolidated response of three full segments.
+     *
+     * @return The result, consumed by JMH.
+     * @throws IOException If the response cannot be processed.
+     */
+    @Benchmark
+    public ConsolidatedTransactionDTO deserializeConsolidated() throws IOException {
+        return mapper.readValue(consolidatedBytes, ConsolidatedTransactionDTO.class);
+    }
+}
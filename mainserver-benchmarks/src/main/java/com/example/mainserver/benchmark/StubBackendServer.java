@@ -0,0 +1,100 @@
+package com.example.mainserver.benchmark;
+
+import com.example.mainserver.dto.BatchAccountResultDTO;
+import com.example.mainserver.dto.ConsolidatedTransactionDTO;
+import com.example.mainserver.dto.TransactionDTO;
+import com.example.mainserver.factory.BackendEndpoint;
+import com.example.mainserver.model.TransactionStatus;
+import com.example.mainserver.service.BackendServer;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory {@link BackendServer} answering every account with the same prebuilt segment, so that benchmarks
+ * measure the mainserver's own work without any network hop.
+ *
+ * @author prapti
+ */
+final class StubBackendServer implements BackendServer {
+
+    /**
+     * The status of the backend server stubbed.
+     */
+    private final TransactionStatus status;
+
+    /**
+     * The segment returned for every account.
+     */
+    private final List<TransactionDTO> transactions;
+
+    /**
+     * Creates a stub backend server returning the given number of transactions for every account.
+     *
+     * @param status   The status of the backend server stubbed.
+     * @param listSize The number of transactions in each response.
+     */
+    StubBackendServer(TransactionStatus status, int listSize) {
+        this.status = status;
+        this.transactions = Fixtures.transactions(status.name(), listSize);
+    }
+
+    @Override
+    public Mono<ConsolidatedTransactionDTO> getTransactionsReactive(String accountNumber) {
+        return Mono.fromSupplier(this::response);
+    }
+
+    @Override
+    public Mono<ConsolidatedTransactionDTO> getTransactionsReactive(String accountNumber, String eTag) {
+        return Mono.fromSupplier(this::response);
+    }
+
+    @Override
+    public Mono<byte[]> getTransactionsRaw(String accountNumber) {
+        return Mono.error(new UnsupportedOperationException("Raw responses are not stubbed"));
+    }
+
+    @Override
+    public Mono<ConsolidatedTransactionDTO> getTransactionsPage(String accountNumber, int limit, String cursor) {
+        return Mono.fromSupplier(this::response);
+    }
+
+    @Override
+    public Flux<TransactionDTO> streamTransactions(String accountNumber, boolean newestFirst) {
+        return Flux.fromIterable(transactions);
+    }
+
+    @Override
+    public Mono<Map<String, BatchAccountResultDTO>> getTransactionsBatch(List<String> accountNumbers) {
+        return Mono.fromSupplier(() -> {
+            Map<String, BatchAccountResultDTO> results = new LinkedHashMap<>();
+            for (String accountNumber : accountNumbers) {
+                results.put(accountNumber, new BatchAccountResultDTO(true, transactions));
+            }
+            return results;
+        });
+    }
+
+    @Override
+    public Flux<ServerSentEvent<String>> streamChanges(BackendEndpoint endpoint, String lastEventId, Duration idleTimeout) {
+        return Flux.never();
+    }
+
+    /**
+     * Creates a fresh response holding the prebuilt segment, as a decoded backend response would be.
+     *
+     * @return The response.
+     */
+    private ConsolidatedTransactionDTO response() {
+        ConsolidatedTransactionDTO response = new ConsolidatedTransactionDTO(
+                Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+        status.setSegment(response, transactions);
+        return response;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.mainserver.benchmark;
+
+import com.example.mainserver.factory.TransactionFactory;
+import com.example.mainserver.model.TransactionStatus;
+import com.example.mainserver.service.BackendServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link TransactionFactory#getBackendServer} dispatch, by {@link TransactionStatus} and by the status name
+ * as received in the request. The status rotates on every call so the lookup cannot be constant-folded.
+ *
+ * @author prapti
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionFactoryBenchmark {
+
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private static final String[] STATUS_NAMES = {"success", "FAILURE", "Pending"};
+
+    private TransactionFactory factory;
+
+    private int next;
+
+    /**
+     * Builds the factory over stub backend servers.
+     */
+    @Setup
+    public void setUp() {
+        factory = new TransactionFactory(new StubBackendServer(TransactionStatus.SUCCESS, 0),
+                new StubBackendServer(TransactionStatus.FAILURE, 0), new StubBackendServer(TransactionStatus.PENDING, 0));
+    }
+
+    /**
+     * Dispatches by status.
+     *
+     * @return The result, consumed by JMH.
+     */
+    @Benchmark
+    public BackendServer byStatus() {
+        next = (next + 1) % STATUSES.length;
+        return factory.getBackendServer(STATUSES[next]);
+    }
+
+    /**
+     * Dispatches by status name, resolving the name first.
+     *
+     * @return The result, consumed by JMH.
+     */
+    @Benchmark
+    public BackendServer byStatusName() {
+        next = (next + 1) % STATUS_NAMES.length;
+        return factory.getBackendServer(STATUS_NAMES[next]);
+    }
+}
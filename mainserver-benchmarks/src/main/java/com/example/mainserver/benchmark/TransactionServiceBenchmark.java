@@ -0,0 +1,115 @@
+package com.example.mainserver.benchmark;
+
+import com.example.mainserver.cache.TransactionCache;
+import com.example.mainserver.config.BatchProperties;
+import com.example.mainserver.config.BulkheadProperties;
+import com.example.mainserver.config.FanOutProperties;
+import com.example.mainserver.config.NearCacheProperties;
+import com.example.mainserver.config.PagingProperties;
+import com.example.mainserver.config.ResilienceProperties;
+import com.example.mainserver.dto.ConsolidatedTransactionDTO;
+import com.example.mainserver.factory.BulkheadExecutors;
+import com.example.mainserver.factory.CircuitBreakers;
+import com.example.mainserver.factory.TransactionFactory;
+import com.example.mainserver.model.Consistency;
+import com.example.mainserver.model.TransactionStatus;
+import com.example.mainserver.service.FanOutPlanner;
+import com.example.mainserver.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link TransactionService#fetchTransactions(String, String, Consistency)} against in-memory stub backend
+ * servers, for every status ("ALL") and for a single one, bypassing the near cache ({@code FRESH}) or served from
+ * it ({@code CACHED}), with the reactive and the blocking fan-out strategies.
+ *
+ * @author prapti
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionServiceBenchmark {
+
+    /**
+     * The requested statuses: "ALL" or a single status.
+     */
+    @Param({"ALL", "SUCCESS"})
+    private String status;
+
+    /**
+     * Whether the near cache may serve the request.
+     */
+    @Param({"FRESH", "CACHED"})
+    private Consistency consistency;
+
+    /**
+     * The fan-out strategy.
+     */
+    @Param({"REACTIVE", "BLOCKING"})
+    private FanOutProperties.Mode mode;
+
+    /**
+     * Number of transactions returned by each backend server.
+     */
+    @Param({"100"})
+    private int listSize;
+
+    private BulkheadExecutors bulkheadExecutors;
+
+    private TransactionService transactionService;
+
+    /**
+     * Builds the service as the application does, with metrics kept in memory and tracing off, and warms the
+     * near cache.
+     */
+    @Setup
+    public void setUp() {
+        TransactionFactory factory = new TransactionFactory(new StubBackendServer(TransactionStatus.SUCCESS, listSize),
+                new StubBackendServer(TransactionStatus.FAILURE, listSize),
+                new StubBackendServer(TransactionStatus.PENDING, listSize));
+        FanOutProperties fanOutProperties = new FanOutProperties();
+        fanOutProperties.setMode(mode);
+        ResilienceProperties resilienceProperties = new ResilienceProperties();
+        bulkheadExecutors = new BulkheadExecutors(new BulkheadProperties());
+        transactionService = new TransactionService(factory, new FanOutPlanner(), bulkheadExecutors,
+                new TransactionCache(new NearCacheProperties()), fanOutProperties,
+                new CircuitBreakers(resilienceProperties), resilienceProperties, new BatchProperties(),
+                new PagingProperties(), new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+        fetchTransactions();
+    }
+
+    /**
+     * Stops the bulkhead threads.
+     */
+    @TearDown
+    public void tearDown() {
+        bulkheadExecutors.shutdown();
+    }
+
+    /**
+     * Fetches the consolidated transactions of one account.
+     *
+     * @return The result, consumed by JMH.
+     */
+    @Benchmark
+    public ConsolidatedTransactionDTO fetchTransactions() {
+        return transactionService.fetchTransactions("123456", status, consistency).block();
+    }
+}
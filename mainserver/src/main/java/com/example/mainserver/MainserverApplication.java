@@ -2,9 +2,12 @@ package com.example.mainserver;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class MainserverApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,470 @@
+package com.example.mainserver.cache;
+
+import com.example.mainserver.config.NearCacheProperties;
+import com.example.mainserver.dto.TransactionDTO;
+import com.example.mainserver.model.TransactionStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process near cache of consolidated transaction results, keyed by account number.
+ * <p>
+ * The success, failure and pending segments of an account are cached as separate entries, each with its own
+ * time-to-live, so a cached {@code ALL} result also answers single-status requests. Eviction uses Caffeine's
+ * frequency-aware W-TinyLFU policy, bounded by the estimated memory footprint of the cached transactions
+ * rather than by the number of entries.
+ * <p>
+ * A segment older than its time-to-live is kept for an additional grace window. Lookups report such segments
+ * as stale so the caller can serve them immediately while a single background refresh replaces them. A segment
+ * stored with its backend's entity tag can be revalidated by that refresh: when the backend reports it unchanged,
+ * no transaction is transferred and the segment keeps being served until its grace window ends. A revalidation
+ * never renews the time-to-live, so every segment is fetched in full at least once per time-to-live plus grace.
+ * <p>
+ * Segments can also be invalidated as soon as their backend reports a write. Every invalidation advances a stamp
+ * shared by a stripe of accounts, and a fetch that started before an invalidation of its account does not store
+ * its result, so an in-flight read of the old rows cannot outlive the write.
+ *
+ * @author prapti
+ */
+@Component
+public class TransactionCache {
+
+    /**
+     * Estimated size of a {@link TransactionDTO} without its strings: header plus four references.
+     */
+    private static final int TRANSACTION_OVERHEAD_BYTES = 32;
+
+    /**
+     * Estimated size of a {@link String} without its characters: string header plus array header.
+     */
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    /**
+     * Estimated size of a cache entry without its transactions: key, value holder, list and node overhead.
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+
+    /**
+     * Number of invalidation stamps per status; accounts hashing to the same stripe share a stamp.
+     */
+    private static final int INVALIDATION_STRIPES = 1024;
+
+    /**
+     * The cached segments.
+     */
+    private final Cache<SegmentKey, CachedSegment> cache;
+
+    /**
+     * Whether the cache is enabled.
+     */
+    private final boolean enabled;
+
+    /**
+     * Time source shared with the cache, used to age segments.
+     */
+    private final Ticker ticker;
+
+    /**
+     * Time-to-live of each status in nanoseconds.
+     */
+    private final Map<TransactionStatus, Long> ttlNanos = new EnumMap<>(TransactionStatus.class);
+
+    /**
+     * Grace window after the time-to-live, in nanoseconds.
+     */
+    private final long staleGraceNanos;
+
+    /**
+     * Segments with a background refresh in progress.
+     */
+    private final Set<SegmentKey> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Number of stale segments served.
+     */
+    private final LongAdder staleHits = new LongAdder();
+
+    /**
+     * Number of background refreshes started.
+     */
+    private final LongAdder refreshes = new LongAdder();
+
+    /**
+     * Number of stale segments a backend reported unchanged.
+     */
+    private final LongAdder notModified = new LongAdder();
+
+    /**
+     * Invalidation stamps of each status, one per stripe of accounts.
+     */
+    private final Map<TransactionStatus, AtomicLongArray> invalidationStamps = new EnumMap<>(TransactionStatus.class);
+
+    /**
+     * Number of segments invalidated after a write.
+     */
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Number of fetched segments not stored because their account was invalidated during the fetch.
+     */
+    private final LongAdder discardedPuts = new LongAdder();
+
+    /**
+     * Creates the cache from the configured bounds and time-to-live settings.
+     *
+     * @param properties The near cache properties.
+     */
+    @Autowired
+    public TransactionCache(NearCacheProperties properties) {
+        this(properties, Ticker.systemTicker());
+    }
+
+    /**
+     * Creates the cache with an explicit time source.
+     *
+     * @param properties The near cache properties.
+     * @param ticker     The time source used for expiry.
+     */
+    public TransactionCache(NearCacheProperties properties, Ticker ticker) {
+        this.enabled = properties.isEnabled();
+        this.ticker = ticker;
+        this.staleGraceNanos = properties.getStaleGrace().toNanos();
+        for (TransactionStatus status : TransactionStatus.values()) {
+            ttlNanos.put(status, properties.ttlFor(status).toNanos());
+            invalidationStamps.put(status, new AtomicLongArray(INVALIDATION_STRIPES));
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((SegmentKey key, CachedSegment segment) -> estimateBytes(key, segment.transactions()))
+                .expireAfter(new SegmentExpiry())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Looks up the cached segments of an account.
+     *
+     * @param accountNumber The account number.
+     * @param statuses      The statuses whose segments are wanted.
+     * @return The cached segments found, including stale ones inside the grace window, and which of them are stale;
+     *         statuses that are absent must be fetched.
+     */
+    public Lookup getSegments(String accountNumber, Set<TransactionStatus> statuses) {
+        Map<TransactionStatus, List<TransactionDTO>> segments = new EnumMap<>(TransactionStatus.class);
+        Set<TransactionStatus> stale = EnumSet.noneOf(TransactionStatus.class);
+        if (!enabled) {
+            return new Lookup(segments, stale);
+        }
+        long now = ticker.read();
+        for (TransactionStatus status : statuses) {
+            CachedSegment segment = cache.getIfPresent(new SegmentKey(accountNumber, status));
+            if (segment != null) {
+                segments.put(status, segment.transactions());
+                if (now - segment.writtenAtNanos() > ttlNanos.get(status)) {
+                    stale.add(status);
+                    staleHits.increment();
+                }
+            }
+        }
+        return new Lookup(segments, stale);
+    }
+
+    /**
+     * Claims the background refresh of a stale segment, so that only one refresh per segment runs at a time.
+     *
+     * @param accountNumber The account number.
+     * @param status        The segment's status.
+     * @return {@code true} if the caller must refresh the segment, {@code false} if a refresh is already running.
+     */
+    public boolean beginRefresh(String accountNumber, TransactionStatus status) {
+        boolean claimed = refreshing.add(new SegmentKey(accountNumber, status));
+        if (claimed) {
+            refreshes.increment();
+        }
+        return claimed;
+    }
+
+    /**
+     * Releases the background refresh of a segment claimed with {@link #beginRefresh}.
+     *
+     * @param accountNumber The account number.
+     * @param status        The segment's status.
+     */
+    public void endRefresh(String accountNumber, TransactionStatus status) {
+        refreshing.remove(new SegmentKey(accountNumber, status));
+    }
+
+    /**
+     * Gets the version of a cached segment that can be revalidated with its backend.
+     *
+     * @param accountNumber The account number.
+     * @param status        The segment's status.
+     * @return The segment's entity tag and transactions, or {@code null} if the segment is not cached or was stored
+     *         without an entity tag.
+     */
+    public CachedVersion getVersion(String accountNumber, TransactionStatus status) {
+        if (!enabled) {
+            return null;
+        }
+        CachedSegment segment = cache.getIfPresent(new SegmentKey(accountNumber, status));
+        if (segment == null || segment.eTag() == null) {
+            return null;
+        }
+        return new CachedVersion(segment.eTag(), segment.transactions());
+    }
+
+    /**
+     * Records that a backend reported a cached segment unchanged.
+     */
+    public void recordNotModified() {
+        notModified.increment();
+    }
+
+    /**
+     * Stores one segment of an account.
+     *
+     * @param accountNumber The account number.
+     * @param status        The segment's status.
+     * @param transactions  The segment's transactions; {@code null} is stored as an empty segment.
+     * @return The immutable copy that was stored.
+     */
+    public List<TransactionDTO> putSegment(String accountNumber, TransactionStatus status, List<TransactionDTO> transactions) {
+        return putSegment(accountNumber, status, transactions, null);
+    }
+
+    /**
+     * Stores one segment of an account together with the entity tag of its version.
+     *
+     * @param accountNumber The account number.
+     * @param status        The segment's status.
+     * @param transactions  The segment's transactions; {@code null} is stored as an empty segment.
+     * @param eTag          The backend's entity tag of the segment, or {@code null} if it cannot be revalidated.
+     * @return The immutable copy that was stored.
+     */
+    public List<TransactionDTO> putSegment(String accountNumber, TransactionStatus status, List<TransactionDTO> transactions,
+                                           String eTag) {
+        return putSegment(accountNumber, status, transactions, eTag, invalidationStamp(accountNumber, status));
+    }
+
+    /**
+     * Stores one segment of an account fetched since the given invalidation stamp. If the account was invalidated
+     * in the meantime, the segment may predate the write and is not stored.
+     *
+     * @param accountNumber The account number.
+     * @param status        The segment's status.
+     * @param transactions  The segment's transactions; {@code null} is stored as an empty segment.
+     * @param eTag          The backend's entity tag of the segment, or {@code null} if it cannot be revalidated.
+     * @param stamp         The {@link #invalidationStamp(String, TransactionStatus)} read before the fetch started.
+     * @return The immutable copy of the segment.
+     */
+    public List<TransactionDTO> putSegment(String accountNumber, TransactionStatus status, List<TransactionDTO> transactions,
+                                           String eTag, long stamp) {
+        List<TransactionDTO> segment = transactions == null
+                ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(transactions));
+        if (!enabled) {
+            return segment;
+        }
+        if (invalidationStamp(accountNumber, status) != stamp) {
+            discardedPuts.increment();
+            return segment;
+        }
+        SegmentKey key = new SegmentKey(accountNumber, status);
+        cache.put(key, new CachedSegment(segment, eTag, ticker.read()));
+        if (invalidationStamp(accountNumber, status) != stamp) {
+            // Invalidated between the check and the put: the eviction may have run before the put landed.
+            cache.invalidate(key);
+            discardedPuts.increment();
+        }
+        return segment;
+    }
+
+    /**
+     * Gets the invalidation stamp of an account's segment, to be read before fetching the segment and passed to
+     * {@link #putSegment(String, TransactionStatus, List, String, long)}.
+     *
+     * @param accountNumber The account number.
+     * @param status        The segment's status.
+     * @return The current stamp.
+     */
+    public long invalidationStamp(String accountNumber, TransactionStatus status) {
+        return invalidationStamps.get(status).get(stripeOf(accountNumber));
+    }
+
+    /**
+     * Invalidates one segment of an account after its backend reported a write: the segment is removed and fetches
+     * already in flight for it will not store their results.
+     *
+     * @param accountNumber The account number.
+     * @param status        The segment's status.
+     */
+    public void invalidate(String accountNumber, TransactionStatus status) {
+        invalidationStamps.get(status).incrementAndGet(stripeOf(accountNumber));
+        cache.invalidate(new SegmentKey(accountNumber, status));
+        invalidations.increment();
+    }
+
+    /**
+     * Invalidates every segment of a status, when writes to its backend may have been missed.
+     *
+     * @param status The status whose segments are invalidated.
+     */
+    public void invalidateAll(TransactionStatus status) {
+        AtomicLongArray stamps = invalidationStamps.get(status);
+        for (int stripe = 0; stripe < INVALIDATION_STRIPES; stripe++) {
+            stamps.incrementAndGet(stripe);
+        }
+        cache.asMap().keySet().removeIf(key -> key.status() == status);
+        invalidations.increment();
+    }
+
+    /**
+     * Removes one segment of an account.
+     *
+     * @param accountNumber The account number.
+     * @param status        The segment's status.
+     */
+    public void evict(String accountNumber, TransactionStatus status) {
+        cache.invalidate(new SegmentKey(accountNumber, status));
+    }
+
+    /**
+     * Reports hit, miss and eviction counts together with the current size of the cache.
+     *
+     * @return The cache statistics.
+     */
+    public Map<String, Number> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Number> result = new LinkedHashMap<>();
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("staleHitCount", staleHits.sum());
+        result.put("refreshCount", refreshes.sum());
+        result.put("notModifiedCount", notModified.sum());
+        result.put("invalidationCount", invalidations.sum());
+        result.put("discardedPutCount", discardedPuts.sum());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("evictionWeightBytes", stats.evictionWeight());
+        result.put("entryCount", cache.estimatedSize());
+        result.put("weightedSizeBytes", cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L));
+        return result;
+    }
+
+    /**
+     * Estimates the heap footprint of a cached segment.
+     *
+     * @param key          The segment's key.
+     * @param transactions The segment's transactions.
+     * @return The estimated size in bytes.
+     */
+    static int estimateBytes(SegmentKey key, List<TransactionDTO> transactions) {
+        long bytes = ENTRY_OVERHEAD_BYTES + stringBytes(key.accountNumber());
+        for (TransactionDTO transaction : transactions) {
+            bytes += TRANSACTION_OVERHEAD_BYTES + Integer.BYTES
+                    + stringBytes(transaction.getTransactionId())
+                    + stringBytes(transaction.getStatus())
+                    + stringBytes(transaction.getAmount())
+                    + stringBytes(transaction.getDate());
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets the invalidation stripe of an account.
+     *
+     * @param accountNumber The account number.
+     * @return The stripe index.
+     */
+    private static int stripeOf(String accountNumber) {
+        return Math.floorMod(accountNumber.hashCode(), INVALIDATION_STRIPES);
+    }
+
+    /**
+     * Estimates the heap footprint of a string.
+     *
+     * @param value The string, possibly {@code null}.
+     * @return The estimated size in bytes.
+     */
+    private static long stringBytes(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + value.length();
+    }
+
+    /**
+     * Key of one cached segment.
+     *
+     * @param accountNumber The account number.
+     * @param status        The segment's status.
+     */
+    record SegmentKey(String accountNumber, TransactionStatus status) {
+    }
+
+    /**
+     * Result of a cache lookup.
+     *
+     * @param segments The cached segments found, keyed by status.
+     * @param stale    The statuses whose segments are past their time-to-live but inside the grace window.
+     */
+    public record Lookup(Map<TransactionStatus, List<TransactionDTO>> segments, Set<TransactionStatus> stale) {
+    }
+
+    /**
+     * Version of a cached segment, to be revalidated with its backend.
+     *
+     * @param eTag         The backend's entity tag of the segment.
+     * @param transactions The segment's transactions.
+     */
+    public record CachedVersion(String eTag, List<TransactionDTO> transactions) {
+    }
+
+    /**
+     * A cached segment together with its entity tag and the time it was written.
+     *
+     * @param transactions   The segment's transactions.
+     * @param eTag           The backend's entity tag of the segment, or {@code null}.
+     * @param writtenAtNanos The ticker time at which the segment was written.
+     */
+    private record CachedSegment(List<TransactionDTO> transactions, String eTag, long writtenAtNanos) {
+    }
+
+    /**
+     * Expiry policy keeping each segment for its status' time-to-live plus the grace window, from the time it was written.
+     */
+    private final class SegmentExpiry implements Expiry<SegmentKey, CachedSegment> {
+
+        @Override
+        public long expireAfterCreate(SegmentKey key, CachedSegment value, long currentTime) {
+            return ttlNanos.get(key.status()) + staleGraceNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(SegmentKey key, CachedSegment value, long currentTime, long currentDuration) {
+            return ttlNanos.get(key.status()) + staleGraceNanos;
+        }
+
+        @Override
+        public long expireAfterRead(SegmentKey key, CachedSegment value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package com.example.mainserver.config;
+
+import com.example.mainserver.model.TransactionStatus;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Configuration properties for the HTTP clients used to call the backend servers: connection pool limits,
+ * pool eviction, timeouts, the wire protocol, the body encoding and its compression. Bound from the {@code mainserver.backend-client} prefix,
+ * e.g. {@code mainserver.backend-client.clients.success.max-connections=100}.
+ * A per-backend entry only overrides the settings it names; every other setting, and every backend kind without an
+ * entry, uses the default client settings.
+ *
+ * @author prapti
+ */
+@ConfigurationProperties(prefix = "mainserver.backend-client")
+public class BackendClientProperties {
+
+    /**
+     * Wire protocol spoken to a backend server.
+     */
+    public enum Protocol {
+
+        /**
+         * HTTP/1.1 with one request in flight per pooled connection.
+         */
+        HTTP11,
+
+        /**
+         * Cleartext HTTP/2 with prior knowledge; many requests are multiplexed over each connection.
+         */
+        H2C
+    }
+
+    /**
+     * Encoding requested for backend response bodies.
+     */
+    public enum WireFormat {
+
+        /**
+         * Plain JSON.
+         */
+        JSON,
+
+        /**
+         * Smile, Jackson's binary JSON encoding, with JSON accepted as a fallback so that a backend without Smile
+         * support still answers.
+         */
+        SMILE
+    }
+
+    /**
+     * Settings of the HTTP client of a single backend kind. In a per-backend entry, a setting left {@code null}
+     * inherits the default.
+     */
+    public static class Client {
+
+        /**
+         * Maximum number of connections to one backend address.
+         */
+        private Integer maxConnections;
+
+        /**
+         * Maximum number of requests waiting for a connection once all connections are busy.
+         */
+        private Integer pendingAcquireMaxCount;
+
+        /**
+         * How long a request waits for a connection before it fails.
+         */
+        private Duration pendingAcquireTimeout;
+
+        /**
+         * How long a connection may stay idle in the pool before it is closed.
+         */
+        private Duration maxIdleTime;
+
+        /**
+         * Maximum age of a pooled connection, after which it is closed once released.
+         */
+        private Duration maxLifeTime;
+
+        /**
+         * Interval of the background task closing idle and expired connections.
+         */
+        private Duration evictInBackground;
+
+        /**
+         * Timeout for establishing a TCP connection.
+         */
+        private Duration connectTimeout;
+
+        /**
+         * Maximum time between sending a request and receiving the response.
+         */
+        private Duration responseTimeout;
+
+        /**
+         * Wire protocol used to talk to the backend.
+         */
+        private Protocol protocol;
+
+        /**
+         * Encoding requested for the backend's response bodies.
+         */
+        private WireFormat wireFormat;
+
+        /**
+         * Whether gzip-compressed responses are requested and decoded.
+         */
+        private Boolean compression;
+
+        /**
+         * Creates the built-in default settings, every one of them set.
+         *
+         * @return The built-in default settings.
+         */
+        private static Client builtInDefaults() {
+            Client client = new Client();
+            client.maxConnections = 50;
+            client.pendingAcquireMaxCount = 500;
+            client.pendingAcquireTimeout = Duration.ofSeconds(2);
+            client.maxIdleTime = Duration.ofSeconds(30);
+            client.maxLifeTime = Duration.ofMinutes(5);
+            client.evictInBackground = Duration.ofSeconds(30);
+            client.connectTimeout = Duration.ofSeconds(2);
+            client.responseTimeout = Duration.ofSeconds(5);
+            client.protocol = Protocol.HTTP11;
+            client.wireFormat = WireFormat.SMILE;
+            client.compression = true;
+            return client;
+        }
+
+        /**
+         * Resolves these settings against the defaults, setting by setting.
+         *
+         * @param defaults The default settings, every one of them set.
+         * @return New settings holding each setting of this client, or the default where it is {@code null}.
+         */
+        private Client overriding(Client defaults) {
+            Client client = new Client();
+            client.maxConnections = Objects.requireNonNullElse(maxConnections, defaults.maxConnections);
+            client.pendingAcquireMaxCount = Objects.requireNonNullElse(pendingAcquireMaxCount, defaults.pendingAcquireMaxCount);
+            client.pendingAcquireTimeout = Objects.requireNonNullElse(pendingAcquireTimeout, defaults.pendingAcquireTimeout);
+            client.maxIdleTime = Objects.requireNonNullElse(maxIdleTime, defaults.maxIdleTime);
+            client.maxLifeTime = Objects.requireNonNullElse(maxLifeTime, defaults.maxLifeTime);
+            client.evictInBackground = Objects.requireNonNullElse(evictInBackground, defaults.evictInBackground);
+            client.connectTimeout = Objects.requireNonNullElse(connectTimeout, defaults.connectTimeout);
+            client.responseTimeout = Objects.requireNonNullElse(responseTimeout, defaults.responseTimeout);
+            client.protocol = Objects.requireNonNullElse(protocol, defaults.protocol);
+            client.wireFormat = Objects.requireNonNullElse(wireFormat, defaults.wireFormat);
+            client.compression = Objects.requireNonNullElse(compression, defaults.compression);
+            return client;
+        }
+
+        /**
+         * Gets the maximum number of connections.
+         *
+         * @return The maximum connections.
+         */
+        public Integer getMaxConnections() {
+            return maxConnections;
+        }
+
+        /**
+         * Sets the maximum number of connections.
+         *
+         * @param maxConnections The maximum connections.
+         */
+        public void setMaxConnections(Integer maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        /**
+         * Gets the maximum number of requests waiting for a connection.
+         *
+         * @return The maximum pending acquire count.
+         */
+        public Integer getPendingAcquireMaxCount() {
+            return pendingAcquireMaxCount;
+        }
+
+        /**
+         * Sets the maximum number of requests waiting for a connection.
+         *
+         * @param pendingAcquireMaxCount The maximum pending acquire count.
+         */
+        public void setPendingAcquireMaxCount(Integer pendingAcquireMaxCount) {
+            this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+        }
+
+        /**
+         * Gets the pending acquire timeout.
+         *
+         * @return The pending acquire timeout.
+         */
+        public Duration getPendingAcquireTimeout() {
+            return pendingAcquireTimeout;
+        }
+
+        /**
+         * Sets the pending acquire timeout.
+         *
+         * @param pendingAcquireTimeout The pending acquire timeout.
+         */
+        public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+            this.pendingAcquireTimeout = pendingAcquireTimeout;
+        }
+
+        /**
+         * Gets the maximum idle time.
+         *
+         * @return The maximum idle time.
+         */
+        public Duration getMaxIdleTime() {
+            return maxIdleTime;
+        }
+
+        /**
+         * Sets the maximum idle time.
+         *
+         * @param maxIdleTime The maximum idle time.
+         */
+        public void setMaxIdleTime(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+        }
+
+        /**
+         * Gets the maximum connection lifetime.
+         *
+         * @return The maximum lifetime.
+         */
+        public Duration getMaxLifeTime() {
+            return maxLifeTime;
+        }
+
+        /**
+         * Sets the maximum connection lifetime.
+         *
+         * @param maxLifeTime The maximum lifetime.
+         */
+        public void setMaxLifeTime(Duration maxLifeTime) {
+            this.maxLifeTime = maxLifeTime;
+        }
+
+        /**
+         * Gets the background eviction interval.
+         *
+         * @return The background eviction interval.
+         */
+        public Duration getEvictInBackground() {
+            return evictInBackground;
+        }
+
+        /**
+         * Sets the background eviction interval.
+         *
+         * @param evictInBackground The background eviction interval.
+         */
+        public void setEvictInBackground(Duration evictInBackground) {
+            this.evictInBackground = evictInBackground;
+        }
+
+        /**
+         * Gets the connect timeout.
+         *
+         * @return The connect timeout.
+         */
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        /**
+         * Sets the connect timeout.
+         *
+         * @param connectTimeout The connect timeout.
+         */
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        /**
+         * Gets the response timeout.
+         *
+         * @return The response timeout.
+         */
+        public Duration getResponseTimeout() {
+            return responseTimeout;
+        }
+
+        /**
+         * Sets the response timeout.
+         *
+         * @param responseTimeout The response timeout.
+         */
+        public void setResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+        }
+
+        /**
+         * Gets the wire protocol.
+         *
+         * @return The protocol.
+         */
+        public Protocol getProtocol() {
+            return protocol;
+        }
+
+        /**
+         * Sets the wire protocol.
+         *
+         * @param protocol The protocol.
+         */
+        public void setProtocol(Protocol protocol) {
+            this.protocol = protocol;
+        }
+
+        /**
+         * Gets the encoding requested for response bodies.
+         *
+         * @return The wire format.
+         */
+        public WireFormat getWireFormat() {
+            return wireFormat;
+        }
+
+        /**
+         * Sets the encoding requested for response bodies.
+         *
+         * @param wireFormat The wire format.
+         */
+        public void setWireFormat(WireFormat wireFormat) {
+            this.wireFormat = wireFormat;
+        }
+
+        /**
+         * Gets whether compressed responses are requested.
+         *
+         * @return {@code true} if responses are requested compressed.
+         */
+        public Boolean getCompression() {
+            return compression;
+        }
+
+        /**
+         * Sets whether compressed responses are requested.
+         *
+         * @param compression {@code true} to request compressed responses.
+         */
+        public void setCompression(Boolean compression) {
+            this.compression = compression;
+        }
+    }
+
+    /**
+     * Settings used for backend kinds without an explicit entry in {@link #clients}.
+     */
+    private Client defaults = Client.builtInDefaults();
+
+    /**
+     * Per-backend client settings keyed by the status the backend serves.
+     */
+    private Map<TransactionStatus, Client> clients = new EnumMap<>(TransactionStatus.class);
+
+    /**
+     * Gets the default client settings.
+     *
+     * @return The default client settings.
+     */
+    public Client getDefaults() {
+        return defaults;
+    }
+
+    /**
+     * Sets the default client settings.
+     *
+     * @param defaults The default client settings.
+     */
+    public void setDefaults(Client defaults) {
+        this.defaults = defaults;
+    }
+
+    /**
+     * Gets the per-backend client settings.
+     *
+     * @return The per-backend client settings.
+     */
+    public Map<TransactionStatus, Client> getClients() {
+        return clients;
+    }
+
+    /**
+     * Sets the per-backend client settings.
+     *
+     * @param clients The per-backend client settings.
+     */
+    public void setClients(Map<TransactionStatus, Client> clients) {
+        this.clients = clients;
+    }
+
+    /**
+     * Resolves the client settings for the backend serving the given status.
+     *
+     * @param status The status served by the backend.
+     * @return The settings of that backend's entry merged onto the defaults, or the defaults if it has none.
+     */
+    public Client clientFor(TransactionStatus status) {
+        Client client = clients.get(status);
+        return client == null ? defaults : client.overriding(defaults);
+    }
+}
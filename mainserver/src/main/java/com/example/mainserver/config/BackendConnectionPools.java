@@ -0,0 +1,349 @@
+package com.example.mainserver.config;
+
+import com.example.mainserver.model.TransactionStatus;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * Owns one Reactor Netty {@link ConnectionProvider} per backend kind and configures the {@link WebClient}s that use it.
+ * <p>
+ * Each backend gets its own pool limits, pending-acquire queue, idle/lifetime eviction, timeouts, optionally
+ * cleartext HTTP/2 (h2c) multiplexing, the body encoding it is asked for in the {@code Accept} header, and whether its responses are
+ * requested gzip-compressed and decoded by the HTTP client. The pools report their acquired, idle and pending connection counts, and
+ * the time each request waits for a connection is measured from the start of the exchange until the request is
+ * written on its connection. The same figures are published to Micrometer as the
+ * {@code mainserver.backend.pool.*} meters, tagged with the backend kind.
+ *
+ * @author prapti
+ */
+@Component
+public class BackendConnectionPools implements MeterBinder {
+
+    /**
+     * Reactor context key holding the time at which an exchange started waiting for a connection.
+     */
+    private static final String ACQUIRE_START = BackendConnectionPools.class.getName() + ".acquireStart";
+
+    /**
+     * Media type of Smile-encoded bodies.
+     */
+    static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    /**
+     * JSON accepted with a lower preference than Smile.
+     */
+    private static final MediaType JSON_FALLBACK = MediaType.valueOf("application/json;q=0.9");
+
+    /**
+     * The connection provider of each backend kind.
+     */
+    private final Map<TransactionStatus, ConnectionProvider> providers = new EnumMap<>(TransactionStatus.class);
+
+    /**
+     * The HTTP client of each backend kind.
+     */
+    private final Map<TransactionStatus, HttpClient> httpClients = new EnumMap<>(TransactionStatus.class);
+
+    /**
+     * The pool statistics of each backend kind.
+     */
+    private final Map<TransactionStatus, PoolStats> poolStats = new EnumMap<>(TransactionStatus.class);
+
+    /**
+     * The response encoding requested from each backend kind.
+     */
+    private final Map<TransactionStatus, BackendClientProperties.WireFormat> wireFormats = new EnumMap<>(TransactionStatus.class);
+
+    /**
+     * Creates the connection pools and HTTP clients from the configured client settings.
+     *
+     * @param properties The backend client properties.
+     */
+    @Autowired
+    public BackendConnectionPools(BackendClientProperties properties) {
+        for (TransactionStatus status : TransactionStatus.values()) {
+            BackendClientProperties.Client settings = properties.clientFor(status);
+            PoolStats stats = new PoolStats(settings.getProtocol());
+            ConnectionProvider provider = createConnectionProvider("backend-" + status.name().toLowerCase(), settings, stats);
+            providers.put(status, provider);
+            poolStats.put(status, stats);
+            httpClients.put(status, createHttpClient(provider, settings, stats));
+            wireFormats.put(status, settings.getWireFormat());
+        }
+    }
+
+    /**
+     * Publishes the connection counts, pending acquires and acquire latency of every pool.
+     *
+     * @param registry The registry to publish to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        poolStats.forEach((status, stats) -> {
+            Tags tags = Tags.of("backend", status.name().toLowerCase(Locale.ROOT));
+            Gauge.builder("mainserver.backend.pool.connections", stats, pool -> pool.sum(ConnectionPoolMetrics::acquiredSize))
+                    .description("Connections of the backend pool").tags(tags).tag("state", "acquired").register(registry);
+            Gauge.builder("mainserver.backend.pool.connections", stats, pool -> pool.sum(ConnectionPoolMetrics::idleSize))
+                    .description("Connections of the backend pool").tags(tags).tag("state", "idle").register(registry);
+            Gauge.builder("mainserver.backend.pool.max.connections", stats, pool -> pool.sum(ConnectionPoolMetrics::maxAllocatedSize))
+                    .description("Connection limit of the backend pool").tags(tags).register(registry);
+            Gauge.builder("mainserver.backend.pool.pending", stats, pool -> pool.sum(ConnectionPoolMetrics::pendingAcquireSize))
+                    .description("Requests waiting for a connection of the backend pool").tags(tags).register(registry);
+            FunctionTimer.builder("mainserver.backend.pool.acquire", stats, PoolStats::acquireCount,
+                            PoolStats::acquireNanos, TimeUnit.NANOSECONDS)
+                    .description("Time requests waited for a connection of the backend pool").tags(tags).register(registry);
+        });
+    }
+
+    /**
+     * Configures a {@link WebClient.Builder} to call the backend serving the given status through its own pool, and
+     * to ask for the backend's configured wire format unless a request sets its own {@code Accept} header.
+     *
+     * @param builder The builder to configure.
+     * @param status  The status served by the backend.
+     * @return The configured builder.
+     */
+    public WebClient.Builder configure(WebClient.Builder builder, TransactionStatus status) {
+        return configure(builder, httpClients.get(status))
+                .defaultHeaders(headers -> headers.setAccept(acceptFor(wireFormats.get(status))));
+    }
+
+    /**
+     * Returns the {@code Accept} header requesting the given wire format. Smile is preferred with JSON as a
+     * fallback, so the format is only used when the backend supports it.
+     *
+     * @param wireFormat The wire format.
+     * @return The accepted media types in order of preference.
+     */
+    static List<MediaType> acceptFor(BackendClientProperties.WireFormat wireFormat) {
+        if (wireFormat == BackendClientProperties.WireFormat.SMILE) {
+            return List.of(SMILE, JSON_FALLBACK);
+        }
+        return List.of(MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Configures a {@link WebClient.Builder} to use the given HTTP client and to record connection acquire times.
+     *
+     * @param builder    The builder to configure.
+     * @param httpClient The HTTP client created by {@link #createHttpClient}.
+     * @return The configured builder.
+     */
+    static WebClient.Builder configure(WebClient.Builder builder, HttpClient httpClient) {
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter((request, next) -> next.exchange(request)
+                        .contextWrite(context -> context.put(ACQUIRE_START, System.nanoTime())));
+    }
+
+    /**
+     * Reports connection counts and acquire latency of every backend pool.
+     *
+     * @return The pool statistics keyed by backend kind.
+     */
+    public Map<TransactionStatus, Map<String, Object>> stats() {
+        Map<TransactionStatus, Map<String, Object>> stats = new EnumMap<>(TransactionStatus.class);
+        poolStats.forEach((status, pool) -> stats.put(status, pool.snapshot()));
+        return stats;
+    }
+
+    /**
+     * Closes every pooled connection when the application context is closed.
+     */
+    @PreDestroy
+    public void dispose() {
+        providers.values().forEach(ConnectionProvider::dispose);
+    }
+
+    /**
+     * Builds a connection provider with the given pool limits and eviction settings.
+     *
+     * @param name     The pool name.
+     * @param settings The client settings.
+     * @param stats    The statistics receiving the pool's gauges.
+     * @return The connection provider.
+     */
+    static ConnectionProvider createConnectionProvider(String name, BackendClientProperties.Client settings, PoolStats stats) {
+        return ConnectionProvider.builder(name)
+                .maxConnections(settings.getMaxConnections())
+                .pendingAcquireMaxCount(settings.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(settings.getPendingAcquireTimeout())
+                .maxIdleTime(settings.getMaxIdleTime())
+                .maxLifeTime(settings.getMaxLifeTime())
+                .evictInBackground(settings.getEvictInBackground())
+                .metrics(true, () -> stats)
+                .build();
+    }
+
+    /**
+     * Builds an HTTP client on top of a connection provider with the given timeouts and protocol.
+     *
+     * @param provider The connection provider.
+     * @param settings The client settings.
+     * @param stats    The statistics receiving the acquire times.
+     * @return The HTTP client.
+     */
+    static HttpClient createHttpClient(ConnectionProvider provider, BackendClientProperties.Client settings, PoolStats stats) {
+        HttpProtocol protocol = settings.getProtocol() == BackendClientProperties.Protocol.H2C
+                ? HttpProtocol.H2C
+                : HttpProtocol.HTTP11;
+        return HttpClient.create(provider)
+                .protocol(protocol)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.getConnectTimeout().toMillis())
+                .responseTimeout(settings.getResponseTimeout())
+                .compress(settings.getCompression())
+                .doOnRequest((request, connection) -> request.currentContextView()
+                        .<Long>getOrEmpty(ACQUIRE_START)
+                        .ifPresent(start -> stats.recordAcquire(System.nanoTime() - start)));
+    }
+
+    /**
+     * Connection counts and acquire latency of one backend pool. Registered with Reactor Netty as the pool's
+     * meter registrar, so it sees the gauges of the pool kept for every remote address.
+     */
+    static final class PoolStats implements ConnectionProvider.MeterRegistrar {
+
+        /**
+         * Protocol spoken by the pool.
+         */
+        private final BackendClientProperties.Protocol protocol;
+
+        /**
+         * Gauges of the pool of each remote address, keyed by pool id.
+         */
+        private final Map<String, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+
+        /**
+         * Number of requests that obtained a connection.
+         */
+        private final LongAdder acquireCount = new LongAdder();
+
+        /**
+         * Total time requests waited for a connection, in nanoseconds.
+         */
+        private final LongAdder acquireNanos = new LongAdder();
+
+        /**
+         * Longest time a request waited for a connection, in nanoseconds.
+         */
+        private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+
+        /**
+         * Creates the statistics of a pool.
+         *
+         * @param protocol The protocol spoken by the pool.
+         */
+        PoolStats(BackendClientProperties.Protocol protocol) {
+            this.protocol = protocol;
+        }
+
+        @Override
+        public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+            pools.put(id, metrics);
+        }
+
+        @Override
+        public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+            pools.remove(id);
+        }
+
+        /**
+         * Records the time one request waited for a connection.
+         *
+         * @param nanos The wait time in nanoseconds.
+         */
+        void recordAcquire(long nanos) {
+            acquireCount.increment();
+            acquireNanos.add(nanos);
+            maxAcquireNanos.accumulate(nanos);
+        }
+
+        /**
+         * Gets the number of requests that waited for a connection.
+         *
+         * @return The acquire count.
+         */
+        long acquireCount() {
+            return acquireCount.sum();
+        }
+
+        /**
+         * Gets the total time requests waited for a connection.
+         *
+         * @return The total wait time in nanoseconds.
+         */
+        double acquireNanos() {
+            return acquireNanos.sum();
+        }
+
+        /**
+         * Sums one gauge over the pools of every remote address.
+         *
+         * @param gauge The gauge of one pool.
+         * @return The sum.
+         */
+        int sum(ToIntFunction<ConnectionPoolMetrics> gauge) {
+            int sum = 0;
+            for (ConnectionPoolMetrics metrics : pools.values()) {
+                sum += gauge.applyAsInt(metrics);
+            }
+            return sum;
+        }
+
+        /**
+         * Takes a snapshot of the pool's connection counts and acquire latency.
+         *
+         * @return The statistics.
+         */
+        Map<String, Object> snapshot() {
+            int acquired = 0;
+            int idle = 0;
+            int allocated = 0;
+            int pending = 0;
+            for (ConnectionPoolMetrics metrics : pools.values()) {
+                acquired += metrics.acquiredSize();
+                idle += metrics.idleSize();
+                allocated += metrics.allocatedSize();
+                pending += metrics.pendingAcquireSize();
+            }
+            long count = acquireCount.sum();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("protocol", protocol);
+            snapshot.put("remoteAddresses", pools.size());
+            snapshot.put("acquiredConnections", acquired);
+            snapshot.put("idleConnections", idle);
+            snapshot.put("allocatedConnections", allocated);
+            snapshot.put("pendingAcquires", pending);
+            snapshot.put("acquireCount", count);
+            snapshot.put("meanAcquireMillis", count == 0 ? 0.0 : acquireNanos.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1));
+            snapshot.put("maxAcquireMillis", maxAcquireNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1));
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.mainserver.config;
+
+import com.example.mainserver.model.TransactionStatus;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration properties listing the replicas of each backend kind.
+ * Bound from the {@code mainserver.backends} prefix, e.g.
+ * {@code mainserver.backends.replicas.success=http://host-a:8080,http://host-b:8080}.
+ *
+ * @author prapti
+ */
+@ConfigurationProperties(prefix = "mainserver.backends")
+public class BackendEndpointProperties {
+
+    /**
+     * Base URLs of the replicas keyed by backend kind; a single local instance of each backend by default.
+     */
+    private Map<TransactionStatus, List<String>> replicas = new EnumMap<>(Map.of(
+            TransactionStatus.SUCCESS, List.of("http://localhost:8080"),
+            TransactionStatus.FAILURE, List.of("http://localhost:8081"),
+            TransactionStatus.PENDING, List.of("http://localhost:8082")));
+
+    /**
+     * Path of an optional file listing replicas, reloaded whenever it changes so replicas can be added or removed
+     * without a restart. It holds one {@code <kind>=<url>,<url>} line per backend kind it overrides, e.g.
+     * {@code success=http://host-a:8080,http://host-b:8080}; {@code null} to use the configured replicas only.
+     */
+    private String replicasFile;
+
+    /**
+     * Time constant of the exponentially weighted moving average of replica latency; older samples lose
+     * two thirds of their weight after this long.
+     */
+    private Duration latencyDecay = Duration.ofSeconds(10);
+
+    /**
+     * Latency recorded for a call that failed for a reason other than a client error, so that a replica
+     * failing fast does not look like the fastest one.
+     */
+    private Duration failurePenalty = Duration.ofSeconds(1);
+
+    /**
+     * Gets the replica base URLs keyed by backend kind.
+     *
+     * @return The replicas.
+     */
+    public Map<TransactionStatus, List<String>> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Sets the replica base URLs keyed by backend kind.
+     *
+     * @param replicas The replicas.
+     */
+    public void setReplicas(Map<TransactionStatus, List<String>> replicas) {
+        this.replicas = replicas;
+    }
+
+    /**
+     * Gets the path of the replicas file.
+     *
+     * @return The path, or {@code null} if none is configured.
+     */
+    public String getReplicasFile() {
+        return replicasFile;
+    }
+
+    /**
+     * Sets the path of the replicas file.
+     *
+     * @param replicasFile The path, or {@code null} for none.
+     */
+    public void setReplicasFile(String replicasFile) {
+        this.replicasFile = replicasFile;
+    }
+
+    /**
+     * Gets the time constant of the latency moving average.
+     *
+     * @return The decay time constant.
+     */
+    public Duration getLatencyDecay() {
+        return latencyDecay;
+    }
+
+    /**
+     * Sets the time constant of the latency moving average.
+     *
+     * @param latencyDecay The decay time constant.
+     */
+    public void setLatencyDecay(Duration latencyDecay) {
+        this.latencyDecay = latencyDecay;
+    }
+
+    /**
+     * Gets the latency recorded for a failed call.
+     *
+     * @return The failure penalty.
+     */
+    public Duration getFailurePenalty() {
+        return failurePenalty;
+    }
+
+    /**
+     * Sets the latency recorded for a failed call.
+     *
+     * @param failurePenalty The failure penalty.
+     */
+    public void setFailurePenalty(Duration failurePenalty) {
+        this.failurePenalty = failurePenalty;
+    }
+
+    /**
+     * Resolves the replicas of the given backend kind.
+     *
+     * @param status The backend kind.
+     * @return The replica base URLs, empty if none are configured.
+     */
+    public List<String> replicasFor(TransactionStatus status) {
+        return replicas.getOrDefault(status, List.of());
+    }
+}
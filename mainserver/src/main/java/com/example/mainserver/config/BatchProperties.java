@@ -0,0 +1,107 @@
+package com.example.mainserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for multi-account batch queries.
+ * Bound from the {@code mainserver.batch} prefix, e.g. {@code mainserver.batch.chunk-size=500}.
+ *
+ * @author prapti
+ */
+@ConfigurationProperties(prefix = "mainserver.batch")
+public class BatchProperties {
+
+    /**
+     * Number of accounts sent to a backend server in one batch request.
+     */
+    private int chunkSize = 200;
+
+    /**
+     * Maximum number of chunks fetched at the same time.
+     */
+    private int concurrency = 4;
+
+    /**
+     * Maximum number of accounts accepted in one batch query.
+     */
+    private int maxAccounts = 10000;
+
+    /**
+     * Deadline of one backend batch request; longer than a single-account deadline since it carries a whole chunk.
+     */
+    private Duration deadline = Duration.ofSeconds(10);
+
+    /**
+     * Gets the number of accounts per backend request.
+     *
+     * @return The chunk size.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets the number of accounts per backend request.
+     *
+     * @param chunkSize The chunk size.
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Gets the maximum number of chunks fetched at the same time.
+     *
+     * @return The chunk concurrency.
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Sets the maximum number of chunks fetched at the same time.
+     *
+     * @param concurrency The chunk concurrency.
+     */
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Gets the maximum number of accounts in one batch query.
+     *
+     * @return The maximum number of accounts.
+     */
+    public int getMaxAccounts() {
+        return maxAccounts;
+    }
+
+    /**
+     * Sets the maximum number of accounts in one batch query.
+     *
+     * @param maxAccounts The maximum number of accounts.
+     */
+    public void setMaxAccounts(int maxAccounts) {
+        this.maxAccounts = maxAccounts;
+    }
+
+    /**
+     * Gets the deadline of one backend batch request.
+     *
+     * @return The deadline.
+     */
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Sets the deadline of one backend batch request.
+     *
+     * @param deadline The deadline.
+     */
+    public void setDeadline(Duration deadline) {
+        this.deadline = deadline;
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.mainserver.config;
+
+import com.example.mainserver.model.TransactionStatus;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Configuration properties for the per-backend bulkhead executors used by the blocking fan-out strategy.
+ * Bound from the {@code mainserver.bulkhead} prefix, e.g. {@code mainserver.bulkhead.pools.pending.max-pool-size=4}.
+ * A per-backend entry only overrides the settings it names; every other setting, and every backend kind without an
+ * entry, uses the default pool settings.
+ *
+ * @author prapti
+ */
+@ConfigurationProperties(prefix = "mainserver.bulkhead")
+public class BulkheadProperties {
+
+    /**
+     * What to do with a backend call submitted while the pool and its queue are full.
+     */
+    public enum RejectionPolicy {
+
+        /**
+         * Fail the call immediately with a {@code RejectedExecutionException}.
+         */
+        ABORT,
+
+        /**
+         * Run the call on the submitting thread, slowing the caller down instead of failing it.
+         */
+        CALLER_RUNS
+    }
+
+    /**
+     * Settings of a single bulkhead pool. In a per-backend entry, a setting left {@code null} inherits the default.
+     */
+    public static class Pool {
+
+        /**
+         * Number of threads kept alive even when idle.
+         */
+        private Integer corePoolSize;
+
+        /**
+         * Maximum number of threads; extra threads are only started once the queue is full.
+         */
+        private Integer maxPoolSize;
+
+        /**
+         * Maximum number of calls waiting for a thread.
+         */
+        private Integer queueCapacity;
+
+        /**
+         * How long threads above the core size stay idle before they are stopped.
+         */
+        private Duration keepAlive;
+
+        /**
+         * Policy applied when both the pool and the queue are full.
+         */
+        private RejectionPolicy rejectionPolicy;
+
+        /**
+         * Whether the pool runs its calls on virtual threads (requires a Java 21 runtime).
+         */
+        private Boolean virtualThreads;
+
+        /**
+         * Creates the built-in default settings, every one of them set.
+         *
+         * @return The built-in default settings.
+         */
+        private static Pool builtInDefaults() {
+            Pool pool = new Pool();
+            pool.corePoolSize = 8;
+            pool.maxPoolSize = 16;
+            pool.queueCapacity = 100;
+            pool.keepAlive = Duration.ofSeconds(60);
+            pool.rejectionPolicy = RejectionPolicy.ABORT;
+            pool.virtualThreads = false;
+            return pool;
+        }
+
+        /**
+         * Resolves these settings against the defaults, setting by setting.
+         *
+         * @param defaults The default settings, every one of them set.
+         * @return New settings holding each setting of this pool, or the default where it is {@code null}.
+         */
+        private Pool overriding(Pool defaults) {
+            Pool pool = new Pool();
+            pool.corePoolSize = Objects.requireNonNullElse(corePoolSize, defaults.corePoolSize);
+            pool.maxPoolSize = Objects.requireNonNullElse(maxPoolSize, defaults.maxPoolSize);
+            pool.queueCapacity = Objects.requireNonNullElse(queueCapacity, defaults.queueCapacity);
+            pool.keepAlive = Objects.requireNonNullElse(keepAlive, defaults.keepAlive);
+            pool.rejectionPolicy = Objects.requireNonNullElse(rejectionPolicy, defaults.rejectionPolicy);
+            pool.virtualThreads = Objects.requireNonNullElse(virtualThreads, defaults.virtualThreads);
+            return pool;
+        }
+
+        /**
+         * Gets the core pool size.
+         *
+         * @return The core pool size.
+         */
+        public Integer getCorePoolSize() {
+            return corePoolSize;
+        }
+
+        /**
+         * Sets the core pool size.
+         *
+         * @param corePoolSize The core pool size.
+         */
+        public void setCorePoolSize(Integer corePoolSize) {
+            this.corePoolSize = corePoolSize;
+        }
+
+        /**
+         * Gets the maximum pool size.
+         *
+         * @return The maximum pool size.
+         */
+        public Integer getMaxPoolSize() {
+            return maxPoolSize;
+        }
+
+        /**
+         * Sets the maximum pool size.
+         *
+         * @param maxPoolSize The maximum pool size.
+         */
+        public void setMaxPoolSize(Integer maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+        }
+
+        /**
+         * Gets the queue capacity.
+         *
+         * @return The queue capacity.
+         */
+        public Integer getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        /**
+         * Sets the queue capacity.
+         *
+         * @param queueCapacity The queue capacity.
+         */
+        public void setQueueCapacity(Integer queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        /**
+         * Gets the keep-alive time of threads above the core size.
+         *
+         * @return The keep-alive time.
+         */
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        /**
+         * Sets the keep-alive time of threads above the core size.
+         *
+         * @param keepAlive The keep-alive time.
+         */
+        public void setKeepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        /**
+         * Gets the rejection policy.
+         *
+         * @return The rejection policy.
+         */
+        public RejectionPolicy getRejectionPolicy() {
+            return rejectionPolicy;
+        }
+
+        /**
+         * Sets the rejection policy.
+         *
+         * @param rejectionPolicy The rejection policy.
+         */
+        public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+            this.rejectionPolicy = rejectionPolicy;
+        }
+
+        /**
+         * Gets whether the pool runs on virtual threads.
+         *
+         * @return {@code true} if virtual threads are used.
+         */
+        public Boolean getVirtualThreads() {
+            return virtualThreads;
+        }
+
+        /**
+         * Sets whether the pool runs on virtual threads.
+         *
+         * @param virtualThreads {@code true} to use virtual threads.
+         */
+        public void setVirtualThreads(Boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+    }
+
+    /**
+     * Settings used for backend kinds without an explicit entry in {@link #pools}.
+     */
+    private Pool defaults = Pool.builtInDefaults();
+
+    /**
+     * Per-backend pool settings keyed by the status the backend serves.
+     */
+    private Map<TransactionStatus, Pool> pools = new EnumMap<>(TransactionStatus.class);
+
+    /**
+     * Gets the default pool settings.
+     *
+     * @return The default pool settings.
+     */
+    public Pool getDefaults() {
+        return defaults;
+    }
+
+    /**
+     * Sets the default pool settings.
+     *
+     * @param defaults The default pool settings.
+     */
+    public void setDefaults(Pool defaults) {
+        this.defaults = defaults;
+    }
+
+    /**
+     * Gets the per-backend pool settings.
+     *
+     * @return The per-backend pool settings.
+     */
+    public Map<TransactionStatus, Pool> getPools() {
+        return pools;
+    }
+
+    /**
+     * Sets the per-backend pool settings.
+     *
+     * @param pools The per-backend pool settings.
+     */
+    public void setPools(Map<TransactionStatus, Pool> pools) {
+        this.pools = pools;
+    }
+
+    /**
+     * Resolves the pool settings for the backend serving the given status.
+     *
+     * @param status The status served by the backend.
+     * @return The backend's explicit settings merged onto the defaults, or the defaults if it has no entry.
+     */
+    public Pool poolFor(TransactionStatus status) {
+        Pool pool = pools.get(status);
+        return pool == null ? defaults : pool.overriding(defaults);
+    }
+}
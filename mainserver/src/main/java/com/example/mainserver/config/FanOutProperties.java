@@ -0,0 +1,75 @@
+package com.example.mainserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties controlling how the mainserver fans out a request to the backend servers.
+ * Bound from the {@code mainserver.fanout} prefix.
+ *
+ * @author prapti
+ */
+@ConfigurationProperties(prefix = "mainserver.fanout")
+public class FanOutProperties {
+
+    /**
+     * Strategy used to call the backend servers.
+     */
+    public enum Mode {
+
+        /**
+         * Backend calls are composed as non-blocking {@code Mono}s; no thread is parked while a backend answers.
+         */
+        REACTIVE,
+
+        /**
+         * Each backend call blocks a worker thread until the backend answers.
+         */
+        BLOCKING
+    }
+
+    /**
+     * The fan-out strategy; reactive by default.
+     */
+    private Mode mode = Mode.REACTIVE;
+
+    /**
+     * Whether concurrent requests for the same account and statuses share one in-flight backend fetch.
+     */
+    private boolean coalesce = true;
+
+    /**
+     * Gets the fan-out strategy.
+     *
+     * @return The fan-out strategy.
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Sets the fan-out strategy.
+     *
+     * @param mode The fan-out strategy.
+     */
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Indicates whether concurrent identical requests are coalesced.
+     *
+     * @return {@code true} if identical requests share one backend fetch.
+     */
+    public boolean isCoalesce() {
+        return coalesce;
+    }
+
+    /**
+     * Sets whether concurrent identical requests are coalesced.
+     *
+     * @param coalesce {@code true} to share one backend fetch between identical requests.
+     */
+    public void setCoalesce(boolean coalesce) {
+        this.coalesce = coalesce;
+    }
+}
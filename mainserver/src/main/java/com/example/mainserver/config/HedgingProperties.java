@@ -0,0 +1,177 @@
+package com.example.mainserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for hedged backend requests: a backend call that has not answered within the backend's
+ * observed latency percentile is duplicated to another replica and the first reply wins.
+ * Bound from the {@code mainserver.hedging} prefix.
+ *
+ * @author prapti
+ */
+@ConfigurationProperties(prefix = "mainserver.hedging")
+public class HedgingProperties {
+
+    /**
+     * Whether slow backend calls are hedged; off by default.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Latency percentile of a backend after which a call to it is hedged.
+     */
+    private double percentile = 0.95;
+
+    /**
+     * Lower bound of the hedge delay, so a very fast backend is not hedged on noise.
+     */
+    private Duration minDelay = Duration.ofMillis(5);
+
+    /**
+     * Number of latency samples a backend needs before its calls are hedged.
+     */
+    private int minSamples = 100;
+
+    /**
+     * Number of most recent latency samples the percentile is computed over.
+     */
+    private int windowSize = 1000;
+
+    /**
+     * Extra load hedging may add, as a percentage of the backend calls.
+     */
+    private double budgetPercent = 5;
+
+    /**
+     * Number of hedges that may be sent back to back when the budget has been saved up.
+     */
+    private int budgetBurst = 10;
+
+    /**
+     * Indicates whether slow backend calls are hedged.
+     *
+     * @return {@code true} if hedging is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether slow backend calls are hedged.
+     *
+     * @param enabled {@code true} to enable hedging.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the latency percentile after which a call is hedged.
+     *
+     * @return The percentile between 0 and 1.
+     */
+    public double getPercentile() {
+        return percentile;
+    }
+
+    /**
+     * Sets the latency percentile after which a call is hedged.
+     *
+     * @param percentile The percentile between 0 and 1.
+     */
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    /**
+     * Gets the lower bound of the hedge delay.
+     *
+     * @return The minimum hedge delay.
+     */
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    /**
+     * Sets the lower bound of the hedge delay.
+     *
+     * @param minDelay The minimum hedge delay.
+     */
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    /**
+     * Gets the number of latency samples needed before hedging starts.
+     *
+     * @return The minimum sample count.
+     */
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    /**
+     * Sets the number of latency samples needed before hedging starts.
+     *
+     * @param minSamples The minimum sample count.
+     */
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * Gets the number of recent latency samples the percentile is computed over.
+     *
+     * @return The window size.
+     */
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Sets the number of recent latency samples the percentile is computed over.
+     *
+     * @param windowSize The window size.
+     */
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Gets the extra load hedging may add.
+     *
+     * @return The budget as a percentage of backend calls.
+     */
+    public double getBudgetPercent() {
+        return budgetPercent;
+    }
+
+    /**
+     * Sets the extra load hedging may add.
+     *
+     * @param budgetPercent The budget as a percentage of backend calls.
+     */
+    public void setBudgetPercent(double budgetPercent) {
+        this.budgetPercent = budgetPercent;
+    }
+
+    /**
+     * Gets the number of hedges that may be sent back to back.
+     *
+     * @return The budget burst.
+     */
+    public int getBudgetBurst() {
+        return budgetBurst;
+    }
+
+    /**
+     * Sets the number of hedges that may be sent back to back.
+     *
+     * @param budgetBurst The budget burst.
+     */
+    public void setBudgetBurst(int budgetBurst) {
+        this.budgetBurst = budgetBurst;
+    }
+}
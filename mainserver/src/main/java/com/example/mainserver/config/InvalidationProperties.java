@@ -0,0 +1,109 @@
+package com.example.mainserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the write-driven invalidation of the near cache: the mainserver follows each backend
+ * replica's feed of written accounts and evicts exactly the segments that changed.
+ * Bound from the {@code mainserver.invalidation} prefix.
+ *
+ * @author prapti
+ */
+@ConfigurationProperties(prefix = "mainserver.invalidation")
+public class InvalidationProperties {
+
+    /**
+     * Whether the backends' change feeds are followed; off by default.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Delay before reconnecting a feed that ended or failed, doubled on every consecutive failure.
+     */
+    private Duration reconnectDelay = Duration.ofSeconds(1);
+
+    /**
+     * Upper bound of the reconnect delay.
+     */
+    private Duration maxReconnectDelay = Duration.ofSeconds(30);
+
+    /**
+     * Longest silence on a feed before it is considered dead and reconnected; backends send a heartbeat comment
+     * every 30 seconds by default while idle.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(2);
+
+    /**
+     * Indicates whether the backends' change feeds are followed.
+     *
+     * @return {@code true} if write-driven invalidation is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the backends' change feeds are followed.
+     *
+     * @param enabled {@code true} to enable write-driven invalidation.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the delay before reconnecting a feed.
+     *
+     * @return The reconnect delay.
+     */
+    public Duration getReconnectDelay() {
+        return reconnectDelay;
+    }
+
+    /**
+     * Sets the delay before reconnecting a feed.
+     *
+     * @param reconnectDelay The reconnect delay.
+     */
+    public void setReconnectDelay(Duration reconnectDelay) {
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    /**
+     * Gets the upper bound of the reconnect delay.
+     *
+     * @return The maximum reconnect delay.
+     */
+    public Duration getMaxReconnectDelay() {
+        return maxReconnectDelay;
+    }
+
+    /**
+     * Sets the upper bound of the reconnect delay.
+     *
+     * @param maxReconnectDelay The maximum reconnect delay.
+     */
+    public void setMaxReconnectDelay(Duration maxReconnectDelay) {
+        this.maxReconnectDelay = maxReconnectDelay;
+    }
+
+    /**
+     * Gets the longest silence on a feed before it is reconnected.
+     *
+     * @return The idle timeout.
+     */
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Sets the longest silence on a feed before it is reconnected.
+     *
+     * @param idleTimeout The idle timeout.
+     */
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+}
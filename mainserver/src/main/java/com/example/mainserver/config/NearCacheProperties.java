@@ -0,0 +1,145 @@
+package com.example.mainserver.config;
+
+import com.example.mainserver.model.TransactionStatus;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for the in-process near cache of consolidated transaction segments.
+ * Bound from the {@code mainserver.cache} prefix, e.g. {@code mainserver.cache.ttl.pending=10s}.
+ *
+ * @author prapti
+ */
+@ConfigurationProperties(prefix = "mainserver.cache")
+public class NearCacheProperties {
+
+    /**
+     * Whether results are cached at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Upper bound of the estimated memory held by cached segments.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Time-to-live of a segment whose status has no explicit entry in {@link #ttl}.
+     */
+    private Duration defaultTtl = Duration.ofSeconds(30);
+
+    /**
+     * Per-segment time-to-live keyed by status.
+     */
+    private Map<TransactionStatus, Duration> ttl = new EnumMap<>(TransactionStatus.class);
+
+    /**
+     * Grace window after a segment's time-to-live during which the stale segment is still served while a
+     * single background refresh runs; zero disables stale-while-revalidate.
+     */
+    private Duration staleGrace = Duration.ofSeconds(30);
+
+    /**
+     * Indicates whether results are cached.
+     *
+     * @return {@code true} if the cache is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether results are cached.
+     *
+     * @param enabled {@code true} to enable the cache.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the upper bound of the estimated memory held by cached segments.
+     *
+     * @return The maximum cache size.
+     */
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the upper bound of the estimated memory held by cached segments.
+     *
+     * @param maxSize The maximum cache size.
+     */
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the default segment time-to-live.
+     *
+     * @return The default time-to-live.
+     */
+    public Duration getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    /**
+     * Sets the default segment time-to-live.
+     *
+     * @param defaultTtl The default time-to-live.
+     */
+    public void setDefaultTtl(Duration defaultTtl) {
+        this.defaultTtl = defaultTtl;
+    }
+
+    /**
+     * Gets the per-segment time-to-live settings.
+     *
+     * @return The time-to-live keyed by status.
+     */
+    public Map<TransactionStatus, Duration> getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Sets the per-segment time-to-live settings.
+     *
+     * @param ttl The time-to-live keyed by status.
+     */
+    public void setTtl(Map<TransactionStatus, Duration> ttl) {
+        this.ttl = ttl;
+    }
+
+    /**
+     * Gets the stale-while-revalidate grace window.
+     *
+     * @return The grace window.
+     */
+    public Duration getStaleGrace() {
+        return staleGrace;
+    }
+
+    /**
+     * Sets the stale-while-revalidate grace window.
+     *
+     * @param staleGrace The grace window; zero disables stale-while-revalidate.
+     */
+    public void setStaleGrace(Duration staleGrace) {
+        this.staleGrace = staleGrace;
+    }
+
+    /**
+     * Resolves the time-to-live of the segment holding the given status.
+     *
+     * @param status The segment's status.
+     * @return The explicit time-to-live of that segment, or the default.
+     */
+    public Duration ttlFor(TransactionStatus status) {
+        return ttl.getOrDefault(status, defaultTtl);
+    }
+}
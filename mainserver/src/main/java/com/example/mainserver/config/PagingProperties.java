@@ -0,0 +1,59 @@
+package com.example.mainserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for paged consolidated transactions.
+ * Bound from the {@code mainserver.paging} prefix, e.g. {@code mainserver.paging.default-limit=50}.
+ *
+ * @author prapti
+ */
+@ConfigurationProperties(prefix = "mainserver.paging")
+public class PagingProperties {
+
+    /**
+     * Page size per store used when a cursor is given without a limit.
+     */
+    private int defaultLimit = 100;
+
+    /**
+     * Largest page size per store a client may request.
+     */
+    private int maxLimit = 1000;
+
+    /**
+     * Gets the page size used when no limit is given.
+     *
+     * @return The default page size.
+     */
+    public int getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    /**
+     * Sets the page size used when no limit is given.
+     *
+     * @param defaultLimit The default page size.
+     */
+    public void setDefaultLimit(int defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    /**
+     * Gets the largest page size a client may request.
+     *
+     * @return The maximum page size.
+     */
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * Sets the largest page size a client may request.
+     *
+     * @param maxLimit The maximum page size.
+     */
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+}
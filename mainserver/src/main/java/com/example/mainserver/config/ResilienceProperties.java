@@ -0,0 +1,256 @@
+package com.example.mainserver.config;
+
+import com.example.mainserver.model.TransactionStatus;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Configuration properties for the deadline and circuit breaker guarding each backend server.
+ * Bound from the {@code mainserver.resilience} prefix, e.g. {@code mainserver.resilience.backends.pending.deadline=500ms}.
+ * A per-backend entry only overrides the settings it names; every other setting, and every backend kind without an
+ * entry, uses the default settings.
+ *
+ * @author prapti
+ */
+@ConfigurationProperties(prefix = "mainserver.resilience")
+public class ResilienceProperties {
+
+    /**
+     * Deadline and circuit breaker settings of a single backend. In a per-backend entry, a setting left
+     * {@code null} inherits the default.
+     */
+    public static class Backend {
+
+        /**
+         * Time a backend call may take before its segment is returned as timed out.
+         */
+        private Duration deadline;
+
+        /**
+         * Percentage of failed calls in the window at which the circuit opens.
+         */
+        private Integer failureRateThreshold;
+
+        /**
+         * Number of calls the window must hold before the failure rate is evaluated.
+         */
+        private Integer minimumCalls;
+
+        /**
+         * Number of most recent calls the failure rate is computed over.
+         */
+        private Integer windowSize;
+
+        /**
+         * How long an open circuit rejects calls before it lets trial calls through.
+         */
+        private Duration openDuration;
+
+        /**
+         * Number of trial calls that must all succeed for a half-open circuit to close again.
+         */
+        private Integer halfOpenCalls;
+
+        /**
+         * Creates the built-in default settings, every one of them set.
+         *
+         * @return The built-in default settings.
+         */
+        private static Backend builtInDefaults() {
+            Backend backend = new Backend();
+            backend.deadline = Duration.ofSeconds(2);
+            backend.failureRateThreshold = 50;
+            backend.minimumCalls = 20;
+            backend.windowSize = 50;
+            backend.openDuration = Duration.ofSeconds(10);
+            backend.halfOpenCalls = 3;
+            return backend;
+        }
+
+        /**
+         * Resolves these settings against the defaults, setting by setting.
+         *
+         * @param defaults The default settings, every one of them set.
+         * @return New settings holding each setting of this backend, or the default where it is {@code null}.
+         */
+        private Backend overriding(Backend defaults) {
+            Backend backend = new Backend();
+            backend.deadline = Objects.requireNonNullElse(deadline, defaults.deadline);
+            backend.failureRateThreshold = Objects.requireNonNullElse(failureRateThreshold, defaults.failureRateThreshold);
+            backend.minimumCalls = Objects.requireNonNullElse(minimumCalls, defaults.minimumCalls);
+            backend.windowSize = Objects.requireNonNullElse(windowSize, defaults.windowSize);
+            backend.openDuration = Objects.requireNonNullElse(openDuration, defaults.openDuration);
+            backend.halfOpenCalls = Objects.requireNonNullElse(halfOpenCalls, defaults.halfOpenCalls);
+            return backend;
+        }
+
+        /**
+         * Gets the backend call deadline.
+         *
+         * @return The deadline.
+         */
+        public Duration getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * Sets the backend call deadline.
+         *
+         * @param deadline The deadline.
+         */
+        public void setDeadline(Duration deadline) {
+            this.deadline = deadline;
+        }
+
+        /**
+         * Gets the failure percentage at which the circuit opens.
+         *
+         * @return The failure rate threshold in percent.
+         */
+        public Integer getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        /**
+         * Sets the failure percentage at which the circuit opens.
+         *
+         * @param failureRateThreshold The failure rate threshold in percent.
+         */
+        public void setFailureRateThreshold(Integer failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        /**
+         * Gets the number of calls needed before the failure rate is evaluated.
+         *
+         * @return The minimum number of calls.
+         */
+        public Integer getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        /**
+         * Sets the number of calls needed before the failure rate is evaluated.
+         *
+         * @param minimumCalls The minimum number of calls.
+         */
+        public void setMinimumCalls(Integer minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        /**
+         * Gets the number of recent calls the failure rate is computed over.
+         *
+         * @return The window size.
+         */
+        public Integer getWindowSize() {
+            return windowSize;
+        }
+
+        /**
+         * Sets the number of recent calls the failure rate is computed over.
+         *
+         * @param windowSize The window size.
+         */
+        public void setWindowSize(Integer windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        /**
+         * Gets how long an open circuit rejects calls.
+         *
+         * @return The open duration.
+         */
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        /**
+         * Sets how long an open circuit rejects calls.
+         *
+         * @param openDuration The open duration.
+         */
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        /**
+         * Gets the number of trial calls of a half-open circuit.
+         *
+         * @return The number of trial calls.
+         */
+        public Integer getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        /**
+         * Sets the number of trial calls of a half-open circuit.
+         *
+         * @param halfOpenCalls The number of trial calls.
+         */
+        public void setHalfOpenCalls(Integer halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+    }
+
+    /**
+     * Settings used for backend kinds without an explicit entry in {@link #backends}.
+     */
+    private Backend defaults = Backend.builtInDefaults();
+
+    /**
+     * Per-backend settings keyed by the status the backend serves.
+     */
+    private Map<TransactionStatus, Backend> backends = new EnumMap<>(TransactionStatus.class);
+
+    /**
+     * Gets the default backend settings.
+     *
+     * @return The default backend settings.
+     */
+    public Backend getDefaults() {
+        return defaults;
+    }
+
+    /**
+     * Sets the default backend settings.
+     *
+     * @param defaults The default backend settings.
+     */
+    public void setDefaults(Backend defaults) {
+        this.defaults = defaults;
+    }
+
+    /**
+     * Gets the per-backend settings.
+     *
+     * @return The per-backend settings.
+     */
+    public Map<TransactionStatus, Backend> getBackends() {
+        return backends;
+    }
+
+    /**
+     * Sets the per-backend settings.
+     *
+     * @param backends The per-backend settings.
+     */
+    public void setBackends(Map<TransactionStatus, Backend> backends) {
+        this.backends = backends;
+    }
+
+    /**
+     * Resolves the settings for the backend serving the given status.
+     *
+     * @param status The status served by the backend.
+     * @return The settings of that backend's entry merged onto the defaults, or the defaults if it has none.
+     */
+    public Backend backendFor(TransactionStatus status) {
+        Backend backend = backends.get(status);
+        return backend == null ? defaults : backend.overriding(defaults);
+    }
+}
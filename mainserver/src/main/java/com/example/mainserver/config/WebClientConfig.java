@@ -1,13 +1,16 @@
 package com.example.mainserver.config;
 
+import com.example.mainserver.model.TransactionStatus;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.web.reactive.function.client.WebClient;
 
 /**
  * Configuration class for WebClient in the application.
- * It defines a bean for WebClient to be used for making reactive HTTP requests.
+ * It defines one WebClient bean per backend server, each with its own tuned connection pool,
+ * plus a general-purpose WebClient for any other reactive HTTP requests.
  *
  * @author prapti
  */
@@ -22,8 +25,44 @@ public class WebClientConfig {
      * @return An instance of WebClient configured for making reactive HTTP requests.
      */
     @Bean
+    @Primary
     WebClient webClient(WebClient.Builder builder) {
         return builder.build();
     }
-}
 
+    /**
+     * Provides the WebClient used to call Backend Server 1 (successful transactions).
+     *
+     * @param builder The WebClient.Builder used for building the WebClient bean.
+     * @param pools   The per-backend connection pools.
+     * @return A WebClient using Backend Server 1's connection pool.
+     */
+    @Bean
+    WebClient successWebClient(WebClient.Builder builder, BackendConnectionPools pools) {
+        return pools.configure(builder.clone(), TransactionStatus.SUCCESS).build();
+    }
+
+    /**
+     * Provides the WebClient used to call Backend Server 2 (failed transactions).
+     *
+     * @param builder The WebClient.Builder used for building the WebClient bean.
+     * @param pools   The per-backend connection pools.
+     * @return A WebClient using Backend Server 2's connection pool.
+     */
+    @Bean
+    WebClient failureWebClient(WebClient.Builder builder, BackendConnectionPools pools) {
+        return pools.configure(builder.clone(), TransactionStatus.FAILURE).build();
+    }
+
+    /**
+     * Provides the WebClient used to call Backend Server 3 (pending transactions).
+     *
+     * @param builder The WebClient.Builder used for building the WebClient bean.
+     * @param pools   The per-backend connection pools.
+     * @return A WebClient using Backend Server 3's connection pool.
+     */
+    @Bean
+    WebClient pendingWebClient(WebClient.Builder builder, BackendConnectionPools pools) {
+        return pools.configure(builder.clone(), TransactionStatus.PENDING).build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.mainserver.controller;
+
+import com.example.mainserver.dto.BackendEndpointDTO;
+import com.example.mainserver.factory.BackendEndpointRegistry;
+import com.example.mainserver.model.TransactionStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller for inspecting the backend replicas the mainserver load-balances across. The replicas themselves
+ * come from configuration and the operator's replicas file, reloaded at runtime by the {@code BackendEndpointReloader};
+ * they cannot be changed over HTTP, as that would let any caller point the mainserver at an arbitrary host.
+ *
+ * @author prapti
+ */
+@RestController
+@RequestMapping("/admin/backends")
+public class BackendAdminController {
+
+    /**
+     * The registry of backend replicas.
+     */
+    private final BackendEndpointRegistry endpointRegistry;
+
+    /**
+     * Constructs a new {@code BackendAdminController}.
+     *
+     * @param endpointRegistry The registry of backend replicas.
+     */
+    @Autowired
+    public BackendAdminController(BackendEndpointRegistry endpointRegistry) {
+        this.endpointRegistry = endpointRegistry;
+    }
+
+    /**
+     * Returns the registered replicas of every backend kind with their outstanding requests and average latency.
+     *
+     * @return The replicas keyed by backend kind.
+     */
+    @GetMapping
+    public Map<TransactionStatus, List<BackendEndpointDTO>> getReplicas() {
+        Map<TransactionStatus, List<BackendEndpointDTO>> replicas = new EnumMap<>(TransactionStatus.class);
+        for (TransactionStatus status : TransactionStatus.values()) {
+            replicas.put(status, endpointRegistry.getEndpoints(status).stream().map(BackendEndpointDTO::of).toList());
+        }
+        return replicas;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.mainserver.controller;
+
+import com.example.mainserver.cache.TransactionCache;
+import com.example.mainserver.config.BackendConnectionPools;
+import com.example.mainserver.dto.BulkheadStatsDTO;
+import com.example.mainserver.factory.BulkheadExecutors;
+import com.example.mainserver.factory.CircuitBreakers;
+import com.example.mainserver.model.TransactionStatus;
+import com.example.mainserver.service.BackendInvoker;
+import com.example.mainserver.service.CacheInvalidationSubscriber;
+import com.example.mainserver.service.RequestCoalescer;
+import com.example.mainserver.service.TransactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Controller exposing runtime statistics of the mainserver's internal resources,
+ * used to size pools and caches from real traffic.
+ *
+ * @author prapti
+ */
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+
+    /**
+     * The per-backend bulkhead executors.
+     */
+    private final BulkheadExecutors bulkheadExecutors;
+
+    /**
+     * The service owning the request coalescer.
+     */
+    private final TransactionService transactionService;
+
+    /**
+     * The near cache of consolidated transaction segments.
+     */
+    private final TransactionCache transactionCache;
+
+    /**
+     * The per-backend HTTP connection pools.
+     */
+    private final BackendConnectionPools connectionPools;
+
+    /**
+     * The invoker hedging slow backend calls.
+     */
+    private final BackendInvoker backendInvoker;
+
+    /**
+     * The circuit breaker of each backend.
+     */
+    private final CircuitBreakers circuitBreakers;
+
+    /**
+     * The subscriber invalidating the near cache from the backends' change feeds.
+     */
+    private final CacheInvalidationSubscriber invalidationSubscriber;
+
+    /**
+     * Constructs a new {@code StatsController}.
+     *
+     * @param bulkheadExecutors      The per-backend bulkhead executors.
+     * @param transactionService     The service owning the request coalescer.
+     * @param transactionCache       The near cache of consolidated transaction segments.
+     * @param connectionPools        The per-backend HTTP connection pools.
+     * @param backendInvoker         The invoker hedging slow backend calls.
+     * @param circuitBreakers        The circuit breaker of each backend.
+     * @param invalidationSubscriber The subscriber invalidating the near cache from the backends' change feeds.
+     */
+    @Autowired
+    public StatsController(BulkheadExecutors bulkheadExecutors, TransactionService transactionService,
+                           TransactionCache transactionCache, BackendConnectionPools connectionPools,
+                           BackendInvoker backendInvoker, CircuitBreakers circuitBreakers,
+                           CacheInvalidationSubscriber invalidationSubscriber) {
+        this.bulkheadExecutors = bulkheadExecutors;
+        this.transactionService = transactionService;
+        this.transactionCache = transactionCache;
+        this.connectionPools = connectionPools;
+        this.backendInvoker = backendInvoker;
+        this.circuitBreakers = circuitBreakers;
+        this.invalidationSubscriber = invalidationSubscriber;
+    }
+
+    /**
+     * Returns the queue depth and thread usage of each backend's bulkhead executor.
+     *
+     * @return The statistics keyed by backend kind.
+     */
+    @GetMapping("/bulkheads")
+    public Map<TransactionStatus, BulkheadStatsDTO> getBulkheadStats() {
+        return bulkheadExecutors.stats();
+    }
+
+    /**
+     * Returns how many backend fan-outs were started and how many requests joined an in-flight one.
+     *
+     * @return The coalescing statistics.
+     */
+    @GetMapping("/coalescing")
+    public Map<String, Long> getCoalescingStats() {
+        RequestCoalescer<?, ?> coalescer = transactionService.getRequestCoalescer();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("inFlight", (long) coalescer.inFlightCount());
+        stats.put("started", coalescer.startedCount());
+        stats.put("joined", coalescer.joinedCount());
+        return stats;
+    }
+
+    /**
+     * Returns the hit, miss and eviction counts and the current size of the near cache.
+     *
+     * @return The cache statistics.
+     */
+    @GetMapping("/cache")
+    public Map<String, Number> getCacheStats() {
+        return transactionCache.stats();
+    }
+
+    /**
+     * Returns how many change feeds are followed, how many change and reset events they delivered and how often
+     * they were reconnected.
+     *
+     * @return The invalidation statistics.
+     */
+    @GetMapping("/invalidation")
+    public Map<String, Number> getInvalidationStats() {
+        return invalidationSubscriber.stats();
+    }
+
+    /**
+     * Returns the connection counts, pending acquires and acquire latency of each backend's connection pool.
+     *
+     * @return The pool statistics keyed by backend kind.
+     */
+    @GetMapping("/connection-pools")
+    public Map<TransactionStatus, Map<String, Object>> getConnectionPoolStats() {
+        return connectionPools.stats();
+    }
+
+    /**
+     * Returns how many calls each backend received, how many were hedged and how many hedges answered first.
+     *
+     * @return The hedging statistics keyed by backend kind.
+     */
+    @GetMapping("/hedging")
+    public Map<TransactionStatus, Map<String, Number>> getHedgingStats() {
+        return backendInvoker.stats();
+    }
+
+    /**
+     * Returns the state, recent failure rate and rejected calls of each backend's circuit breaker.
+     *
+     * @return The circuit breaker statistics keyed by backend kind.
+     */
+    @GetMapping("/circuit-breakers")
+    public Map<TransactionStatus, Map<String, Object>> getCircuitBreakerStats() {
+        return circuitBreakers.stats();
+    }
+}
@@ -1,24 +1,33 @@
 package com.example.mainserver.controller;
 
 import com.example.mainserver.service.TransactionService;
+import com.example.mainserver.dto.BatchTransactionRequestDTO;
 import com.example.mainserver.dto.ConsolidatedTransactionDTO;
+import com.example.mainserver.dto.StreamedTransactionDTO;
+import com.example.mainserver.dto.TimelineDTO;
+import com.example.mainserver.model.Consistency;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.concurrent.CompletableFuture;
+import java.util.Map;
 
 
 /**
  * Controller class for handling transaction-related HTTP requests.
  * It provides an endpoint to fetch consolidated transactions for a given account number and status.
- * Uses the TransactionService to process the requests asynchronously.
+ * Uses the TransactionService to process the requests without blocking a request thread.
  *
  * @author prapti
  */
@@ -40,26 +49,130 @@ public class TransactionController {
 
     /**
      * Handles HTTP GET requests to retrieve consolidated transactions for a given account number and status.
-     * Executes asynchronously using CompletableFuture.
+     * The {@link Mono} is returned directly so the response is written once all backend calls have completed.
+     * Segments whose backend timed out, failed or has an open circuit are returned empty and flagged in
+     * {@code segmentStatus}; if none of the requested segments could be served, the status is 503.
+     * Giving a {@code limit} or a {@code cursor} pages through the history instead, at most {@code limit}
+     * transactions per store per page, with the next page requested using the returned {@code nextCursor}.
      *
      * @param accountNumber The account number for which transactions are to be fetched.
-     * @param status        The status of transactions to be included (default is "ALL").
-     * @return A CompletableFuture wrapping a ResponseEntity with the consolidated transaction data.
+     * @param status        The statuses of transactions to be included, e.g. "SUCCESS" or "SUCCESS,PENDING" (default is "ALL").
+     * @param consistency   "cached" to allow cached (possibly stale) segments, or "fresh" to bypass the cache (default is "cached").
+     * @param limit         The maximum number of transactions per store in a page; omitted for the unpaged history.
+     * @param cursor        The cursor returned with the previous page; omitted for the first page.
+     * @return A Mono wrapping a ResponseEntity with the consolidated transaction data, possibly partial.
      */
     @GetMapping("/transactions/{accountNumber}")
-    public CompletableFuture<ResponseEntity<ConsolidatedTransactionDTO>> getConsolidatedTransactions(
+    public Mono<ResponseEntity<ConsolidatedTransactionDTO>> getConsolidatedTransactions(
+            @PathVariable String accountNumber,
+            @RequestParam(defaultValue = "ALL") String status,
+            @RequestParam(defaultValue = "cached") String consistency,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+
+        Mono<ConsolidatedTransactionDTO> result = limit == null && cursor == null
+                ? transactionService.fetchTransactions(accountNumber, status, Consistency.from(consistency))
+                : transactionService.fetchTransactionsPage(accountNumber, status, limit, cursor);
+        return result
+                .map(consolidated -> consolidated.isFullyDegraded()
+                        ? ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(consolidated)
+                        : ResponseEntity.ok(consolidated))
+                .onErrorResume(throwable -> {
+                    log.error("Error occurred while fetching transactions", throwable);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null));
+                });
+    }
+
+    /**
+     * Handles HTTP GET requests with {@code view=passthrough}, returning the same consolidated JSON as the default view
+     * but assembled from the backend servers' bytes: the transaction arrays are copied into the response without
+     * being decoded into objects and re-encoded. The near cache is bypassed. If none of the requested segments could
+     * be served, the status is 503.
+     *
+     * @param accountNumber The account number for which transactions are to be fetched.
+     * @param status        The statuses of transactions to be included, e.g. "SUCCESS" or "SUCCESS,PENDING" (default is "ALL").
+     * @return A Mono wrapping a ResponseEntity with the encoded consolidated transaction data, possibly partial.
+     */
+    @GetMapping(value = "/transactions/{accountNumber}", params = "view=passthrough", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getPassthroughTransactions(
             @PathVariable String accountNumber,
             @RequestParam(defaultValue = "ALL") String status) {
 
-        CompletableFuture<ConsolidatedTransactionDTO> futureResult = transactionService.fetchTransactions(accountNumber, status);
+        return transactionService.fetchTransactionsPassthrough(accountNumber, status)
+                .map(passthrough -> ResponseEntity
+                        .status(passthrough.isFullyDegraded() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.OK)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(passthrough.getBody()))
+                .onErrorResume(throwable -> {
+                    log.error("Error occurred while fetching passthrough transactions", throwable);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null));
+                });
+    }
+
+    /**
+     * Handles HTTP GET requests with {@code view=timeline}, returning the transactions of a given account number as a
+     * single list ordered newest first instead of three separate segments. The backend servers stream their rows
+     * already sorted by date and the streams are merged as they arrive; with {@code top}, only the newest
+     * {@code top} transactions are read. If none of the requested segments could be served, the status is 503.
+     *
+     * @param accountNumber The account number for which transactions are to be fetched.
+     * @param status        The statuses of transactions to be included, e.g. "SUCCESS" or "SUCCESS,PENDING" (default is "ALL").
+     * @param top           The maximum number of transactions; omitted for the whole timeline.
+     * @return A Mono wrapping a ResponseEntity with the timeline, possibly partial.
+     */
+    @GetMapping(value = "/transactions/{accountNumber}", params = "view=timeline")
+    public Mono<ResponseEntity<TimelineDTO>> getTransactionTimeline(
+            @PathVariable String accountNumber,
+            @RequestParam(defaultValue = "ALL") String status,
+            @RequestParam(required = false) Integer top) {
+
+        return transactionService.fetchTimeline(accountNumber, status, top)
+                .map(timeline -> timeline.isFullyDegraded()
+                        ? ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(timeline)
+                        : ResponseEntity.ok(timeline))
+                .onErrorResume(throwable -> {
+                    log.error("Error occurred while fetching the transaction timeline", throwable);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null));
+                });
+    }
+
+    /**
+     * Handles HTTP GET requests to stream the transactions of a given account number as newline-delimited JSON or
+     * server-sent events, depending on the {@code Accept} header. Each record is written and flushed as soon as a
+     * backend delivers it, and only as fast as the client reads, so memory stays flat however long the history is.
+     * Every requested segment ends with a record carrying its {@code segmentStatus}.
+     *
+     * @param accountNumber The account number for which transactions are to be streamed.
+     * @param status        The statuses of transactions to be included, e.g. "SUCCESS" or "SUCCESS,PENDING" (default is "ALL").
+     * @return A Flux emitting the transactions tagged with their status, followed per segment by its outcome.
+     */
+    @GetMapping(value = "/transactions/{accountNumber}/stream",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<StreamedTransactionDTO> streamConsolidatedTransactions(
+            @PathVariable String accountNumber,
+            @RequestParam(defaultValue = "ALL") String status) {
+
+        return transactionService.streamTransactions(accountNumber, status);
+    }
+
+    /**
+     * Handles HTTP POST requests to retrieve the consolidated transactions of several account numbers at once.
+     * Each backend server receives one request per chunk of accounts instead of one per account. Every account
+     * is reported with its own {@code segmentStatus}, so unknown accounts are marked {@code not_found} instead of
+     * failing the whole batch.
+     *
+     * @param request The account numbers and the statuses of transactions to be included (default is "ALL").
+     * @return A Mono wrapping a ResponseEntity with each account number mapped to its consolidated transactions.
+     */
+    @PostMapping("/transactions/batch")
+    public Mono<ResponseEntity<Map<String, ConsolidatedTransactionDTO>>> getConsolidatedTransactionsBatch(
+            @RequestBody BatchTransactionRequestDTO request) {
 
-        return futureResult.handle((result, throwable) -> {
-            if (throwable != null) {
-                log.error("Error occurred while fetching transactions", throwable);
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
-            } else {
-                return ResponseEntity.ok(result);
-            }
-        });
+        return transactionService.fetchTransactionsBatch(request.getAccountNumbers(), request.getStatus())
+                .map(ResponseEntity::ok)
+                .onErrorResume(throwable -> {
+                    log.error("Error occurred while fetching batch transactions", throwable);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null));
+                });
     }
 }
@@ -0,0 +1,93 @@
+package com.example.mainserver.dto;
+
+import com.example.mainserver.factory.BackendEndpoint;
+
+/**
+ * DTO (Data Transfer Object) class representing one registered backend replica and its load-balancing signals.
+ *
+ */
+public class BackendEndpointDTO {
+
+    /**
+     * Base URL of the replica.
+     */
+    private String baseUrl;
+
+    /**
+     * Number of requests currently outstanding on the replica.
+     */
+    private int outstanding;
+
+    /**
+     * Moving average of the replica's latency in milliseconds.
+     */
+    private double ewmaLatencyMillis;
+
+    /**
+     * Creates a snapshot of the given replica.
+     *
+     * @param endpoint The replica.
+     * @return The snapshot.
+     */
+    public static BackendEndpointDTO of(BackendEndpoint endpoint) {
+        BackendEndpointDTO dto = new BackendEndpointDTO();
+        dto.setBaseUrl(endpoint.getBaseUrl());
+        dto.setOutstanding(endpoint.getOutstanding());
+        dto.setEwmaLatencyMillis(endpoint.getEwmaNanos() / 1_000_000.0);
+        return dto;
+    }
+
+    /**
+     * Gets the base URL of the replica.
+     *
+     * @return The base URL.
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Sets the base URL of the replica.
+     *
+     * @param baseUrl The base URL.
+     */
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Gets the number of requests currently outstanding on the replica.
+     *
+     * @return The outstanding request count.
+     */
+    public int getOutstanding() {
+        return outstanding;
+    }
+
+    /**
+     * Sets the number of requests currently outstanding on the replica.
+     *
+     * @param outstanding The outstanding request count.
+     */
+    public void setOutstanding(int outstanding) {
+        this.outstanding = outstanding;
+    }
+
+    /**
+     * Gets the moving average of the replica's latency.
+     *
+     * @return The average latency in milliseconds.
+     */
+    public double getEwmaLatencyMillis() {
+        return ewmaLatencyMillis;
+    }
+
+    /**
+     * Sets the moving average of the replica's latency.
+     *
+     * @param ewmaLatencyMillis The average latency in milliseconds.
+     */
+    public void setEwmaLatencyMillis(double ewmaLatencyMillis) {
+        this.ewmaLatencyMillis = ewmaLatencyMillis;
+    }
+}
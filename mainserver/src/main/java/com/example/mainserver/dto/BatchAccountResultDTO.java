@@ -0,0 +1,75 @@
+package com.example.mainserver.dto;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) class representing one account's entry in a backend server's batch lookup response.
+ * An account unknown to the backend is reported with {@code found} set to {@code false} rather than failing the batch.
+ *
+ * @author prapti
+ */
+public class BatchAccountResultDTO {
+
+    /**
+     * Whether the backend server knows the account.
+     */
+    private boolean found;
+
+    /**
+     * The account's transactions; empty if the account was not found.
+     */
+    private List<TransactionDTO> transactions;
+
+    /**
+     * Default constructor for BatchAccountResultDTO.
+     */
+    public BatchAccountResultDTO() {
+    }
+
+    /**
+     * Constructor for BatchAccountResultDTO with all attributes.
+     *
+     * @param found        Whether the backend server knows the account.
+     * @param transactions The account's transactions.
+     */
+    public BatchAccountResultDTO(boolean found, List<TransactionDTO> transactions) {
+        this.found = found;
+        this.transactions = transactions;
+    }
+
+    /**
+     * Indicates whether the backend server knows the account.
+     *
+     * @return {@code true} if the account was found.
+     */
+    public boolean isFound() {
+        return found;
+    }
+
+    /**
+     * Sets whether the backend server knows the account.
+     *
+     * @param found {@code true} if the account was found.
+     */
+    public void setFound(boolean found) {
+        this.found = found;
+    }
+
+    /**
+     * Gets the account's transactions.
+     *
+     * @return The transactions.
+     */
+    public List<TransactionDTO> getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Sets the account's transactions.
+     *
+     * @param transactions The transactions.
+     */
+    public void setTransactions(List<TransactionDTO> transactions) {
+        this.transactions = transactions;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.mainserver.dto;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) class representing a request for the consolidated transactions of several accounts.
+ *
+ * @author prapti
+ */
+public class BatchTransactionRequestDTO {
+
+    /**
+     * The account numbers whose transactions are requested.
+     */
+    private List<String> accountNumbers;
+
+    /**
+     * The statuses of transactions to fetch ("ALL", a single status, or a comma-separated subset).
+     */
+    private String status = "ALL";
+
+    /**
+     * Gets the account numbers whose transactions are requested.
+     *
+     * @return The account numbers.
+     */
+    public List<String> getAccountNumbers() {
+        return accountNumbers;
+    }
+
+    /**
+     * Sets the account numbers whose transactions are requested.
+     *
+     * @param accountNumbers The account numbers.
+     */
+    public void setAccountNumbers(List<String> accountNumbers) {
+        this.accountNumbers = accountNumbers;
+    }
+
+    /**
+     * Gets the statuses of transactions to fetch.
+     *
+     * @return The status expression.
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the statuses of transactions to fetch.
+     *
+     * @param status The status expression, e.g. "SUCCESS,PENDING".
+     */
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
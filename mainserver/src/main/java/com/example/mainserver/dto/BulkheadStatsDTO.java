@@ -0,0 +1,193 @@
+package com.example.mainserver.dto;
+
+/**
+ * DTO (Data Transfer Object) class representing a snapshot of one bulkhead executor's usage.
+ * Used to size the per-backend pools from real traffic.
+ *
+ */
+public class BulkheadStatsDTO {
+
+    /**
+     * Number of threads currently running a backend call.
+     */
+    private int activeCount;
+
+    /**
+     * Current number of threads in the pool.
+     */
+    private int poolSize;
+
+    /**
+     * Configured maximum number of threads.
+     */
+    private int maxPoolSize;
+
+    /**
+     * Largest number of threads that have ever been in the pool simultaneously.
+     */
+    private int largestPoolSize;
+
+    /**
+     * Number of calls waiting for a thread.
+     */
+    private int queueDepth;
+
+    /**
+     * Number of additional calls the queue can accept before calls are rejected.
+     */
+    private int queueRemainingCapacity;
+
+    /**
+     * Total number of calls completed.
+     */
+    private long completedTaskCount;
+
+    /**
+     * Total number of calls rejected because the pool and queue were full.
+     */
+    private long rejectedCount;
+
+    /**
+     * Gets the number of threads currently running a backend call.
+     *
+     * @return The active thread count.
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * Sets the number of threads currently running a backend call.
+     *
+     * @param activeCount The active thread count.
+     */
+    public void setActiveCount(int activeCount) {
+        this.activeCount = activeCount;
+    }
+
+    /**
+     * Gets the current number of threads in the pool.
+     *
+     * @return The pool size.
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Sets the current number of threads in the pool.
+     *
+     * @param poolSize The pool size.
+     */
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Gets the configured maximum number of threads.
+     *
+     * @return The maximum pool size.
+     */
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    /**
+     * Sets the configured maximum number of threads.
+     *
+     * @param maxPoolSize The maximum pool size.
+     */
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    /**
+     * Gets the largest number of threads that have ever been in the pool simultaneously.
+     *
+     * @return The largest pool size.
+     */
+    public int getLargestPoolSize() {
+        return largestPoolSize;
+    }
+
+    /**
+     * Sets the largest number of threads that have ever been in the pool simultaneously.
+     *
+     * @param largestPoolSize The largest pool size.
+     */
+    public void setLargestPoolSize(int largestPoolSize) {
+        this.largestPoolSize = largestPoolSize;
+    }
+
+    /**
+     * Gets the number of calls waiting for a thread.
+     *
+     * @return The queue depth.
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Sets the number of calls waiting for a thread.
+     *
+     * @param queueDepth The queue depth.
+     */
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * Gets the number of additional calls the queue can accept.
+     *
+     * @return The remaining queue capacity.
+     */
+    public int getQueueRemainingCapacity() {
+        return queueRemainingCapacity;
+    }
+
+    /**
+     * Sets the number of additional calls the queue can accept.
+     *
+     * @param queueRemainingCapacity The remaining queue capacity.
+     */
+    public void setQueueRemainingCapacity(int queueRemainingCapacity) {
+        this.queueRemainingCapacity = queueRemainingCapacity;
+    }
+
+    /**
+     * Gets the total number of calls completed.
+     *
+     * @return The completed call count.
+     */
+    public long getCompletedTaskCount() {
+        return completedTaskCount;
+    }
+
+    /**
+     * Sets the total number of calls completed.
+     *
+     * @param completedTaskCount The completed call count.
+     */
+    public void setCompletedTaskCount(long completedTaskCount) {
+        this.completedTaskCount = completedTaskCount;
+    }
+
+    /**
+     * Gets the total number of rejected calls.
+     *
+     * @return The rejected call count.
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Sets the total number of rejected calls.
+     *
+     * @param rejectedCount The rejected call count.
+     */
+    public void setRejectedCount(long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+}
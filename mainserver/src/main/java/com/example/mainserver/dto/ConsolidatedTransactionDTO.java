@@ -1,6 +1,12 @@
 package com.example.mainserver.dto;
 
+import com.example.mainserver.model.SegmentStatus;
+import com.example.mainserver.model.TransactionStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -26,6 +32,25 @@ public class ConsolidatedTransactionDTO<T extends TransactionDTO> {
      */
     private List<TransactionDTO> pending;
 
+    /**
+     * Outcome of each requested segment; a segment that is not {@link SegmentStatus#OK} is empty.
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Map<TransactionStatus, SegmentStatus> segmentStatus;
+
+    /**
+     * Cursor of the next page when the transactions are paged; {@code null} on the last page and when not paged.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    /**
+     * Entity tag of each segment's version as sent by its backend server, used to revalidate cached segments;
+     * never serialized.
+     */
+    @JsonIgnore
+    private Map<TransactionStatus, String> segmentETags;
+
     /**
      * Constructs a ConsolidatedTransactionDTO with specified lists of transactions.
      *
@@ -99,8 +124,78 @@ public class ConsolidatedTransactionDTO<T extends TransactionDTO> {
         this.pending = pending;
     }
 
+    /**
+     * Gets the outcome of each requested segment.
+     *
+     * @return The segment outcomes keyed by status, or {@code null} if not recorded.
+     */
+    public Map<TransactionStatus, SegmentStatus> getSegmentStatus() {
+        return segmentStatus;
+    }
+
+    /**
+     * Sets the outcome of each requested segment.
+     *
+     * @param segmentStatus The segment outcomes keyed by status.
+     */
+    public void setSegmentStatus(Map<TransactionStatus, SegmentStatus> segmentStatus) {
+        this.segmentStatus = segmentStatus;
+    }
+
+    /**
+     * Gets the cursor of the next page.
+     *
+     * @return The next page's cursor, or {@code null} if there is no further page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Sets the cursor of the next page.
+     *
+     * @param nextCursor The next page's cursor.
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Gets the entity tag of each segment's version.
+     *
+     * @return The entity tags keyed by status, or {@code null} if none was sent.
+     */
+    @JsonIgnore
+    public Map<TransactionStatus, String> getSegmentETags() {
+        return segmentETags;
+    }
+
+    /**
+     * Sets the entity tag of each segment's version.
+     *
+     * @param segmentETags The entity tags keyed by status.
+     */
+    @JsonIgnore
+    public void setSegmentETags(Map<TransactionStatus, String> segmentETags) {
+        this.segmentETags = segmentETags;
+    }
+
+    /**
+     * Indicates whether at least one segment was requested and none of the requested segments could be served.
+     * A segment whose backend does not know the account was served, empty.
+     *
+     * @return {@code true} if every recorded segment outcome is degraded.
+     */
+    @JsonIgnore
+    public boolean isFullyDegraded() {
+        return segmentStatus != null && !segmentStatus.isEmpty()
+                && segmentStatus.values().stream().allMatch(SegmentStatus::isDegraded);
+    }
+
     /**
      * Indicates whether some other object is "equal to" this one.
+     * Only the transactions are compared; segment outcomes and the page cursor describe how a particular response
+     * was obtained.
      *
      * @param obj The reference object with which to compare.
      * @return {@code true} if this object is the same as the obj argument; {@code false} otherwise.
@@ -19,6 +19,11 @@ public class FailureTransactionDTO extends TransactionDTO {
      */
     private List<TransactionDTO> failure;
 
+    /**
+     * Cursor of the backend's next page when the transactions are paged; {@code null} on the last page.
+     */
+    private String nextCursor;
+
     /**
      * Default constructor for FailureTransactionDTO.
      */
@@ -63,4 +68,22 @@ public class FailureTransactionDTO extends TransactionDTO {
     public void setFailure(List<TransactionDTO> failure) {
         this.failure = failure;
     }
+
+    /**
+     * Gets the cursor of the backend's next page.
+     *
+     * @return The next page's cursor, or {@code null} if there is no further page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Sets the cursor of the backend's next page.
+     *
+     * @param nextCursor The next page's cursor.
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -0,0 +1,66 @@
+package com.example.mainserver.dto;
+
+import com.example.mainserver.model.SegmentStatus;
+import com.example.mainserver.model.TransactionStatus;
+
+import java.util.Map;
+
+/**
+ * DTO (Data Transfer Object) class carrying consolidated transactions assembled in passthrough mode: the response
+ * body is already encoded, built from the backend servers' bytes, and the segment outcomes are kept alongside it to
+ * choose the response status.
+ *
+ * @author prapti
+ */
+public class PassthroughTransactionsDTO {
+
+    /**
+     * The encoded consolidated response, in the JSON form of {@link ConsolidatedTransactionDTO}.
+     */
+    private final byte[] body;
+
+    /**
+     * Outcome of each requested segment, also written into {@link #body}.
+     */
+    private final Map<TransactionStatus, SegmentStatus> segmentStatus;
+
+    /**
+     * Constructs a PassthroughTransactionsDTO with the encoded body and the segment outcomes.
+     *
+     * @param body          The encoded consolidated response.
+     * @param segmentStatus The outcome of each requested segment.
+     */
+    public PassthroughTransactionsDTO(byte[] body, Map<TransactionStatus, SegmentStatus> segmentStatus) {
+        this.body = body;
+        this.segmentStatus = segmentStatus;
+    }
+
+    /**
+     * Gets the encoded consolidated response.
+     *
+     * @return The JSON bytes of the response.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Gets the outcome of each requested segment.
+     *
+     * @return The segment outcomes keyed by status.
+     */
+    public Map<TransactionStatus, SegmentStatus> getSegmentStatus() {
+        return segmentStatus;
+    }
+
+    /**
+     * Indicates whether at least one segment was requested and none of the requested segments could be served.
+     * A segment whose backend does not know the account was served, empty.
+     *
+     * @return {@code true} if every recorded segment outcome is degraded.
+     */
+    public boolean isFullyDegraded() {
+        return segmentStatus != null && !segmentStatus.isEmpty()
+                && segmentStatus.values().stream().allMatch(SegmentStatus::isDegraded);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.mainserver.dto;
+
+import com.example.mainserver.model.SegmentStatus;
+import com.example.mainserver.model.TransactionStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * DTO (Data Transfer Object) class representing one record of the streamed consolidated transactions.
+ * A record either carries a transaction tagged with its status, or marks the end of a status's segment with
+ * the segment's outcome.
+ *
+ * @author prapti
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StreamedTransactionDTO {
+
+    /**
+     * Status of the segment the record belongs to.
+     */
+    private TransactionStatus status;
+
+    /**
+     * The transaction; {@code null} on the end-of-segment record.
+     */
+    private TransactionDTO transaction;
+
+    /**
+     * Outcome of the segment; only set on the end-of-segment record.
+     */
+    private SegmentStatus segmentStatus;
+
+    /**
+     * Creates a record carrying a transaction.
+     *
+     * @param status      The status of the transaction's segment.
+     * @param transaction The transaction.
+     * @return The record.
+     */
+    public static StreamedTransactionDTO of(TransactionStatus status, TransactionDTO transaction) {
+        StreamedTransactionDTO record = new StreamedTransactionDTO();
+        record.setStatus(status);
+        record.setTransaction(transaction);
+        return record;
+    }
+
+    /**
+     * Creates the record marking the end of a segment.
+     *
+     * @param status        The status of the segment.
+     * @param segmentStatus The outcome of the segment.
+     * @return The record.
+     */
+    public static StreamedTransactionDTO endOf(TransactionStatus status, SegmentStatus segmentStatus) {
+        StreamedTransactionDTO record = new StreamedTransactionDTO();
+        record.setStatus(status);
+        record.setSegmentStatus(segmentStatus);
+        return record;
+    }
+
+    /**
+     * Gets the status of the segment the record belongs to.
+     *
+     * @return The segment's status.
+     */
+    public TransactionStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the status of the segment the record belongs to.
+     *
+     * @param status The segment's status.
+     */
+    public void setStatus(TransactionStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * Gets the transaction.
+     *
+     * @return The transaction, or {@code null} on the end-of-segment record.
+     */
+    public TransactionDTO getTransaction() {
+        return transaction;
+    }
+
+    /**
+     * Sets the transaction.
+     *
+     * @param transaction The transaction.
+     */
+    public void setTransaction(TransactionDTO transaction) {
+        this.transaction = transaction;
+    }
+
+    /**
+     * Gets the outcome of the segment.
+     *
+     * @return The outcome, or {@code null} on a transaction record.
+     */
+    public SegmentStatus getSegmentStatus() {
+        return segmentStatus;
+    }
+
+    /**
+     * Sets the outcome of the segment.
+     *
+     * @param segmentStatus The outcome.
+     */
+    public void setSegmentStatus(SegmentStatus segmentStatus) {
+        this.segmentStatus = segmentStatus;
+    }
+}
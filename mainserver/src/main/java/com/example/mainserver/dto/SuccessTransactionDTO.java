@@ -19,6 +19,11 @@ public class SuccessTransactionDTO extends TransactionDTO {
      */
     private List<TransactionDTO> success;
 
+    /**
+     * Cursor of the backend's next page when the transactions are paged; {@code null} on the last page.
+     */
+    private String nextCursor;
+
     /**
      * Constructor for SuccessTransactionDTO with account number and a list of successful transactions.
      *
@@ -74,4 +79,22 @@ public class SuccessTransactionDTO extends TransactionDTO {
     public void setSuccess(List<TransactionDTO> success) {
         this.success = success;
     }
+
+    /**
+     * Gets the cursor of the backend's next page.
+     *
+     * @return The next page's cursor, or {@code null} if there is no further page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Sets the cursor of the backend's next page.
+     *
+     * @param nextCursor The next page's cursor.
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
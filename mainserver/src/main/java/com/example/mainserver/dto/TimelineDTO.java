@@ -0,0 +1,77 @@
+package com.example.mainserver.dto;
+
+import com.example.mainserver.model.SegmentStatus;
+import com.example.mainserver.model.TransactionStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO (Data Transfer Object) class representing the transactions of an account as one timeline, newest first.
+ * Each entry is tagged with the status of the store it came from.
+ *
+ * @author prapti
+ */
+public class TimelineDTO {
+
+    /**
+     * The transactions, newest first, each tagged with its status.
+     */
+    private List<StreamedTransactionDTO> transactions;
+
+    /**
+     * Outcome of each requested segment; the transactions of a segment that is not {@link SegmentStatus#OK} are missing.
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Map<TransactionStatus, SegmentStatus> segmentStatus;
+
+    /**
+     * Gets the transactions of the timeline.
+     *
+     * @return The transactions, newest first.
+     */
+    public List<StreamedTransactionDTO> getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Sets the transactions of the timeline.
+     *
+     * @param transactions The transactions, newest first.
+     */
+    public void setTransactions(List<StreamedTransactionDTO> transactions) {
+        this.transactions = transactions;
+    }
+
+    /**
+     * Gets the outcome of each requested segment.
+     *
+     * @return The segment outcomes keyed by status.
+     */
+    public Map<TransactionStatus, SegmentStatus> getSegmentStatus() {
+        return segmentStatus;
+    }
+
+    /**
+     * Sets the outcome of each requested segment.
+     *
+     * @param segmentStatus The segment outcomes keyed by status.
+     */
+    public void setSegmentStatus(Map<TransactionStatus, SegmentStatus> segmentStatus) {
+        this.segmentStatus = segmentStatus;
+    }
+
+    /**
+     * Indicates whether at least one segment was requested and none of the requested segments could be served.
+     * A segment whose backend does not know the account was served, empty.
+     *
+     * @return {@code true} if every recorded segment outcome is degraded.
+     */
+    @JsonIgnore
+    public boolean isFullyDegraded() {
+        return segmentStatus != null && !segmentStatus.isEmpty()
+                && segmentStatus.values().stream().allMatch(SegmentStatus::isDegraded);
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.mainserver.factory;
+
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * One replica of a backend server, tracking the load-balancing signals used to pick it: the number of requests
+ * currently outstanding on it and an exponentially weighted moving average (EWMA) of its response latency.
+ *
+ * @author prapti
+ */
+public class BackendEndpoint {
+
+    /**
+     * Base URL of the replica, e.g. {@code http://localhost:8080}.
+     */
+    private final String baseUrl;
+
+    /**
+     * Time constant of the latency moving average in nanoseconds.
+     */
+    private final double decayNanos;
+
+    /**
+     * Latency recorded for a call that failed because of the replica, in nanoseconds.
+     */
+    private final long failurePenaltyNanos;
+
+    /**
+     * Source of the current time in nanoseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Number of requests sent to the replica that have not completed yet.
+     */
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    /**
+     * Moving average of the replica's latency in nanoseconds; zero until the first response.
+     */
+    private double ewmaNanos;
+
+    /**
+     * Whether at least one latency sample has been recorded.
+     */
+    private boolean sampled;
+
+    /**
+     * Time of the last latency sample in nanoseconds.
+     */
+    private long lastSampleNanos;
+
+    /**
+     * Constructs a new {@code BackendEndpoint}.
+     *
+     * @param baseUrl             The base URL of the replica.
+     * @param decayNanos          The time constant of the latency moving average in nanoseconds.
+     * @param failurePenaltyNanos The latency recorded for a failed call in nanoseconds.
+     * @param clock               The source of the current time in nanoseconds.
+     */
+    public BackendEndpoint(String baseUrl, long decayNanos, long failurePenaltyNanos, LongSupplier clock) {
+        this.baseUrl = baseUrl;
+        this.decayNanos = Math.max(1, decayNanos);
+        this.failurePenaltyNanos = failurePenaltyNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the base URL of the replica.
+     *
+     * @return The base URL.
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Gets the number of requests currently outstanding on the replica.
+     *
+     * @return The outstanding request count.
+     */
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * Gets the moving average of the replica's latency.
+     *
+     * @return The average latency in nanoseconds, zero before the first response.
+     */
+    public synchronized double getEwmaNanos() {
+        return ewmaNanos;
+    }
+
+    /**
+     * Indicates whether the replica has answered at least once, so that its moving average means something.
+     *
+     * @return {@code true} once a latency sample has been recorded.
+     */
+    public synchronized boolean isSampled() {
+        return sampled;
+    }
+
+    /**
+     * Computes the load-balancing cost of sending one more request to the replica: its average latency scaled
+     * by the number of requests that would then be outstanding on it. Lower is better. A replica without latency
+     * history is costed at the given latency instead of at zero, so that it does not attract every request until
+     * its first response arrives.
+     *
+     * @param unsampledEwmaNanos The latency assumed for a replica without samples, in nanoseconds.
+     * @return The cost.
+     */
+    public double cost(double unsampledEwmaNanos) {
+        double ewma;
+        synchronized (this) {
+            ewma = sampled ? ewmaNanos : unsampledEwmaNanos;
+        }
+        return ewma * (outstanding.get() + 1);
+    }
+
+    /**
+     * Wraps a call to the replica so that it counts as outstanding while it runs and its latency feeds the
+     * moving average when it completes. Client errors (4xx) are answers like any other; any other failure is
+     * recorded with the failure penalty. Cancelled calls leave the average untouched.
+     *
+     * @param call The call to the replica.
+     * @param <T>  The type of the call's result.
+     * @return The tracked call.
+     */
+    public <T> Mono<T> track(Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = clock.getAsLong();
+            outstanding.incrementAndGet();
+            return call
+                    .doOnSuccess(result -> complete(clock.getAsLong() - start))
+                    .doOnError(error -> {
+                        long latency = clock.getAsLong() - start;
+                        complete(isReplicaFailure(error) ? Math.max(failurePenaltyNanos, latency) : latency);
+                    })
+                    .doOnCancel(outstanding::decrementAndGet);
+        });
+    }
+
+    /**
+     * Wraps a bulk call to the replica so that it counts as outstanding until it completes. Like a stream, a bulk
+     * call takes as long as the work it carries, so it does not feed the latency average.
+     *
+     * @param call The bulk call to the replica.
+     * @param <T>  The type of the call's result.
+     * @return The tracked call.
+     */
+    public <T> Mono<T> trackBulk(Mono<T> call) {
+        return Mono.defer(() -> {
+            outstanding.incrementAndGet();
+            return call.doFinally(signal -> outstanding.decrementAndGet());
+        });
+    }
+
+    /**
+     * Wraps a streamed call to the replica so that it counts as outstanding until the stream ends. The stream's
+     * duration depends on how much it carries rather than on the replica's speed, so it does not feed the
+     * latency average.
+     *
+     * @param call The streamed call to the replica.
+     * @param <T>  The type of the streamed elements.
+     * @return The tracked call.
+     */
+    public <T> Flux<T> trackStream(Flux<T> call) {
+        return Flux.defer(() -> {
+            outstanding.incrementAndGet();
+            return call.doFinally(signal -> outstanding.decrementAndGet());
+        });
+    }
+
+    /**
+     * Marks one outstanding call as completed with the given latency.
+     *
+     * @param latencyNanos The call's latency in nanoseconds.
+     */
+    private void complete(long latencyNanos) {
+        outstanding.decrementAndGet();
+        recordLatency(latencyNanos);
+    }
+
+    /**
+     * Folds one latency sample into the moving average, weighting the previous average by how long ago it
+     * was last updated. The first sample seeds the average.
+     *
+     * @param latencyNanos The sampled latency in nanoseconds.
+     */
+    synchronized void recordLatency(long latencyNanos) {
+        long now = clock.getAsLong();
+        if (!sampled) {
+            ewmaNanos = latencyNanos;
+            sampled = true;
+        } else {
+            double weight = Math.exp(-Math.max(0, now - lastSampleNanos) / decayNanos);
+            ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+        }
+        lastSampleNanos = now;
+    }
+
+    /**
+     * Decides whether a failed call says something about the replica's health, as opposed to a client error
+     * returned by a healthy replica.
+     *
+     * @param error The failure.
+     * @return {@code true} unless the replica answered with a 4xx status.
+     */
+    private static boolean isReplicaFailure(Throwable error) {
+        return !(error instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError());
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.mainserver.factory;
+
+import com.example.mainserver.config.BackendEndpointProperties;
+import com.example.mainserver.model.TransactionStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of the replicas of each backend kind, initialised from {@link BackendEndpointProperties} and replaceable
+ * at runtime, e.g. by the {@link BackendEndpointReloader}.
+ * <p>
+ * Each request picks its replica by power-of-two-choices: two distinct replicas are sampled at random and the one
+ * with the lower {@link BackendEndpoint#cost(double) cost} (outstanding requests times EWMA latency) wins. This steers
+ * traffic away from slow or overloaded replicas without the herding a strict least-loaded choice causes. A replica
+ * that has not answered yet is costed at the median latency of its sampled peers, so a newly added replica shares
+ * the load by outstanding requests instead of winning every comparison with a zero average.
+ *
+ * @author prapti
+ */
+@Component
+public class BackendEndpointRegistry {
+
+    /**
+     * The replica settings.
+     */
+    private final BackendEndpointProperties properties;
+
+    /**
+     * Source of the current time in nanoseconds handed to every replica.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * The current replicas keyed by backend kind; replaced as a whole on every update.
+     */
+    private volatile Map<TransactionStatus, List<BackendEndpoint>> endpoints = new EnumMap<>(TransactionStatus.class);
+
+    /**
+     * Constructs a new {@code BackendEndpointRegistry} from the configured replicas.
+     *
+     * @param properties The replica settings.
+     */
+    @Autowired
+    public BackendEndpointRegistry(BackendEndpointProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    /**
+     * Constructs a new {@code BackendEndpointRegistry} using the given clock.
+     *
+     * @param properties The replica settings.
+     * @param clock      The source of the current time in nanoseconds.
+     */
+    public BackendEndpointRegistry(BackendEndpointProperties properties, LongSupplier clock) {
+        this.properties = properties;
+        this.clock = clock;
+        for (TransactionStatus status : TransactionStatus.values()) {
+            List<String> replicas = properties.replicasFor(status);
+            if (!replicas.isEmpty()) {
+                update(status, replicas);
+            }
+        }
+    }
+
+    /**
+     * Picks the replica of the given backend kind that should receive the next request.
+     *
+     * @param status The backend kind.
+     * @return The chosen replica.
+     * @throws IllegalStateException If no replica of that backend kind is registered.
+     */
+    public BackendEndpoint choose(TransactionStatus status) {
+        return choose(status, null);
+    }
+
+    /**
+     * Picks the replica of the given backend kind that should receive the next request, avoiding the given
+     * replica when another one is registered. Used to send a hedged request somewhere other than the original.
+     *
+     * @param status  The backend kind.
+     * @param exclude The replica to avoid, or {@code null}.
+     * @return The chosen replica; the excluded one only if it is the sole replica.
+     * @throws IllegalStateException If no replica of that backend kind is registered.
+     */
+    public BackendEndpoint choose(TransactionStatus status, BackendEndpoint exclude) {
+        List<BackendEndpoint> replicas = endpoints.getOrDefault(status, List.of());
+        if (replicas.isEmpty()) {
+            throw new IllegalStateException("No replicas registered for backend " + status);
+        }
+        if (exclude != null && replicas.size() > 1 && replicas.contains(exclude)) {
+            replicas = replicas.stream().filter(endpoint -> endpoint != exclude).toList();
+        }
+        int size = replicas.size();
+        if (size == 1) {
+            return replicas.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        BackendEndpoint a = replicas.get(first);
+        BackendEndpoint b = replicas.get(second);
+        double unsampledEwmaNanos = a.isSampled() && b.isSampled() ? 0 : medianEwmaNanos(replicas);
+        double costA = a.cost(unsampledEwmaNanos);
+        double costB = b.cost(unsampledEwmaNanos);
+        if (costA == costB) {
+            return a.getOutstanding() <= b.getOutstanding() ? a : b;
+        }
+        return costA < costB ? a : b;
+    }
+
+    /**
+     * Computes the median latency average of the replicas that have answered at least once.
+     *
+     * @param replicas The replicas of one backend kind.
+     * @return The median average latency in nanoseconds, or 1 if no replica has answered yet, in which case every
+     * replica is costed alike and outstanding requests decide.
+     */
+    private static double medianEwmaNanos(List<BackendEndpoint> replicas) {
+        double[] sampled = replicas.stream()
+                .filter(BackendEndpoint::isSampled)
+                .mapToDouble(BackendEndpoint::getEwmaNanos)
+                .sorted()
+                .toArray();
+        if (sampled.length == 0) {
+            return 1;
+        }
+        int middle = sampled.length / 2;
+        return sampled.length % 2 == 1 ? sampled[middle] : (sampled[middle - 1] + sampled[middle]) / 2;
+    }
+
+    /**
+     * Replaces the replicas of the given backend kind. Replicas that remain registered keep their outstanding
+     * count and latency average; new ones start without latency history and are costed at their peers' median
+     * until they answer.
+     *
+     * @param status   The backend kind.
+     * @param baseUrls The base URLs of the replicas, e.g. {@code http://host-a:8080}.
+     * @return The replicas now registered.
+     * @throws IllegalArgumentException If the list is empty or a URL is not an absolute http(s) URL.
+     */
+    public synchronized List<BackendEndpoint> update(TransactionStatus status, Collection<String> baseUrls) {
+        return updateAll(Collections.singletonMap(status, baseUrls)).get(status);
+    }
+
+    /**
+     * Replaces the replicas of several backend kinds at once, as {@link #update(TransactionStatus, Collection)}
+     * does for one. Either every list is applied or, if any is invalid, none is; backend kinds not listed keep
+     * their replicas.
+     *
+     * @param replicas The base URLs of the replicas keyed by backend kind.
+     * @return The replicas now registered, keyed by backend kind.
+     * @throws IllegalArgumentException If a list is empty or a URL is not an absolute http(s) URL.
+     */
+    public synchronized Map<TransactionStatus, List<BackendEndpoint>> updateAll(
+            Map<TransactionStatus, ? extends Collection<String>> replicas) {
+        Map<TransactionStatus, List<BackendEndpoint>> updated = new EnumMap<>(TransactionStatus.class);
+        updated.putAll(endpoints);
+        replicas.forEach((status, baseUrls) -> updated.put(status, replace(status, baseUrls)));
+        endpoints = updated;
+        return updated;
+    }
+
+    /**
+     * Builds the new replica list of one backend kind, reusing the replicas that remain registered.
+     *
+     * @param status   The backend kind.
+     * @param baseUrls The base URLs of the replicas.
+     * @return The replicas.
+     * @throws IllegalArgumentException If the list is empty or a URL is not an absolute http(s) URL.
+     */
+    private List<BackendEndpoint> replace(TransactionStatus status, Collection<String> baseUrls) {
+        if (baseUrls == null || baseUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        Map<String, BackendEndpoint> current = new HashMap<>();
+        for (BackendEndpoint endpoint : endpoints.getOrDefault(status, List.of())) {
+            current.put(endpoint.getBaseUrl(), endpoint);
+        }
+        List<BackendEndpoint> replicas = new ArrayList<>();
+        for (String baseUrl : new LinkedHashSet<>(baseUrls)) {
+            String normalized = normalize(baseUrl);
+            BackendEndpoint endpoint = current.get(normalized);
+            replicas.add(endpoint != null ? endpoint : new BackendEndpoint(normalized,
+                    properties.getLatencyDecay().toNanos(), properties.getFailurePenalty().toNanos(), clock));
+        }
+        return List.copyOf(replicas);
+    }
+
+    /**
+     * Returns the replicas currently registered for the given backend kind.
+     *
+     * @param status The backend kind.
+     * @return The registered replicas, empty if there are none.
+     */
+    public List<BackendEndpoint> getEndpoints(TransactionStatus status) {
+        return endpoints.getOrDefault(status, List.of());
+    }
+
+    /**
+     * Validates a replica base URL and strips any trailing slash.
+     *
+     * @param baseUrl The base URL.
+     * @return The normalized base URL.
+     * @throws IllegalArgumentException If the URL is not an absolute http(s) URL.
+     */
+    private static String normalize(String baseUrl) {
+        URI uri;
+        try {
+            uri = URI.create(baseUrl == null ? "" : baseUrl.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid replica URL: " + baseUrl);
+        }
+        if (uri.getHost() == null || !("http".equals(uri.getScheme()) || "https".equals(uri.getScheme()))) {
+            throw new IllegalArgumentException("Invalid replica URL: " + baseUrl);
+        }
+        String normalized = uri.toString();
+        return normalized.endsWith("/") ? normalized.substring(0, normalized.length() - 1) : normalized;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.mainserver.factory;
+
+import com.example.mainserver.config.BackendEndpointProperties;
+import com.example.mainserver.model.TransactionStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Reloads the backend replicas from the replicas file configured by
+ * {@link BackendEndpointProperties#getReplicasFile()} whenever the file changes, so replicas can be added or removed
+ * without a restart. The file is owned by whoever operates the mainserver; the replicas still cannot be changed over
+ * HTTP.
+ * <p>
+ * A file that cannot be read or holds an invalid entry is not applied at all and the current replicas are kept
+ * until the file changes again. Each applied reload is announced as a {@link ReplicasReloaded} event.
+ *
+ * @author prapti
+ */
+@Component
+public class BackendEndpointReloader {
+
+    private static final Logger log = LoggerFactory.getLogger(BackendEndpointReloader.class);
+
+    /**
+     * The registry of backend replicas.
+     */
+    private final BackendEndpointRegistry endpointRegistry;
+
+    /**
+     * The replica settings naming the replicas file.
+     */
+    private final BackendEndpointProperties properties;
+
+    /**
+     * Publisher of the {@link ReplicasReloaded} events.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Modification time of the file as last read, or {@code null} if it has not been read yet.
+     */
+    private FileTime lastModified;
+
+    /**
+     * Constructs a new {@code BackendEndpointReloader}.
+     *
+     * @param endpointRegistry The registry of backend replicas.
+     * @param properties       The replica settings naming the replicas file.
+     * @param eventPublisher   Publisher of the reload events.
+     */
+    @Autowired
+    public BackendEndpointReloader(BackendEndpointRegistry endpointRegistry, BackendEndpointProperties properties,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.endpointRegistry = endpointRegistry;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Applies the replicas file if it changed since it was last read.
+     *
+     * @return {@code true} if new replicas were applied.
+     */
+    @Scheduled(fixedDelayString = "${mainserver.backends.reload-interval:PT10S}")
+    public synchronized boolean reload() {
+        String file = properties.getReplicasFile();
+        if (file == null || file.isBlank()) {
+            return false;
+        }
+        Path path = Path.of(file);
+        FileTime modified;
+        try {
+            modified = Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            log.warn("Backend replicas file {} cannot be read, keeping the current replicas: {}", path, e.toString());
+            return false;
+        }
+        if (modified.equals(lastModified)) {
+            return false;
+        }
+        lastModified = modified;
+        Map<TransactionStatus, List<String>> replicas;
+        try {
+            replicas = read(path);
+            endpointRegistry.updateAll(replicas);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Backend replicas file {} not applied, keeping the current replicas: {}", path, e.getMessage());
+            return false;
+        }
+        log.info("Reloaded backend replicas from {}: {}", path, replicas);
+        eventPublisher.publishEvent(new ReplicasReloaded(replicas.keySet()));
+        return true;
+    }
+
+    /**
+     * Reads the replicas listed by the file.
+     *
+     * @param path The file.
+     * @return The base URLs of the replicas keyed by backend kind.
+     * @throws IOException              If the file cannot be read.
+     * @throws IllegalArgumentException If an entry names an unknown backend kind.
+     */
+    private static Map<TransactionStatus, List<String>> read(Path path) throws IOException {
+        Properties entries = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            entries.load(reader);
+        }
+        Map<TransactionStatus, List<String>> replicas = new EnumMap<>(TransactionStatus.class);
+        for (String kind : entries.stringPropertyNames()) {
+            TransactionStatus status;
+            try {
+                status = TransactionStatus.from(kind);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown backend kind: " + kind);
+            }
+            replicas.put(status, Arrays.stream(entries.getProperty(kind).split(","))
+                    .map(String::trim)
+                    .filter(baseUrl -> !baseUrl.isEmpty())
+                    .toList());
+        }
+        return replicas;
+    }
+
+    /**
+     * Event published once the replicas file has been applied.
+     *
+     * @param statuses The backend kinds whose replicas were replaced.
+     */
+    public record ReplicasReloaded(Set<TransactionStatus> statuses) {
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.mainserver.factory;
+
+import com.example.mainserver.config.BulkheadProperties;
+import com.example.mainserver.dto.BulkheadStatsDTO;
+import com.example.mainserver.model.TransactionStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Factory providing one isolated executor (bulkhead) per backend kind for the blocking fan-out strategy.
+ * A slow backend can only exhaust its own pool and queue; calls to the other backends, and anything else
+ * in the JVM using the common {@code ForkJoinPool}, are unaffected.
+ * <p>
+ * Each executor's threads, queue and completed tasks are published to Micrometer as the {@code executor.*} meters
+ * named {@code bulkhead.<backend>}, and its rejections as {@code mainserver.bulkhead.rejections}.
+ *
+ * @author prapti
+ */
+@Component
+public class BulkheadExecutors implements MeterBinder {
+
+    /**
+     * The executor of each backend kind.
+     */
+    private final Map<TransactionStatus, ThreadPoolExecutor> executors = new EnumMap<>(TransactionStatus.class);
+
+    /**
+     * Number of calls rejected by each backend kind's executor.
+     */
+    private final Map<TransactionStatus, LongAdder> rejections = new EnumMap<>(TransactionStatus.class);
+
+    /**
+     * Creates the executors from the configured pool settings.
+     *
+     * @param properties The bulkhead properties.
+     */
+    @Autowired
+    public BulkheadExecutors(BulkheadProperties properties) {
+        for (TransactionStatus status : TransactionStatus.values()) {
+            LongAdder rejected = new LongAdder();
+            rejections.put(status, rejected);
+            executors.put(status, createExecutor(status, properties.poolFor(status), rejected));
+        }
+    }
+
+    /**
+     * Gets the executor isolating calls to the backend that serves the given status.
+     *
+     * @param status The status served by the backend.
+     * @return The backend's executor.
+     */
+    public Executor getExecutor(TransactionStatus status) {
+        return executors.get(status);
+    }
+
+    /**
+     * Publishes the saturation of every executor: active threads, pool size, queued and completed tasks, and
+     * rejections.
+     *
+     * @param registry The registry to publish to.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        executors.forEach((status, executor) -> {
+            String backend = status.name().toLowerCase(Locale.ROOT);
+            new ExecutorServiceMetrics(executor, "bulkhead." + backend, Tags.of("backend", backend)).bindTo(registry);
+            FunctionCounter.builder("mainserver.bulkhead.rejections", rejections.get(status), LongAdder::sum)
+                    .description("Backend calls rejected by the bulkhead executor")
+                    .tag("backend", backend)
+                    .register(registry);
+        });
+    }
+
+    /**
+     * Takes a snapshot of the queue depth and thread usage of every executor, for sizing pools from real traffic.
+     *
+     * @return The statistics keyed by backend kind.
+     */
+    public Map<TransactionStatus, BulkheadStatsDTO> stats() {
+        Map<TransactionStatus, BulkheadStatsDTO> stats = new EnumMap<>(TransactionStatus.class);
+        executors.forEach((status, executor) -> {
+            BulkheadStatsDTO dto = new BulkheadStatsDTO();
+            dto.setActiveCount(executor.getActiveCount());
+            dto.setPoolSize(executor.getPoolSize());
+            dto.setMaxPoolSize(executor.getMaximumPoolSize());
+            dto.setLargestPoolSize(executor.getLargestPoolSize());
+            dto.setQueueDepth(executor.getQueue().size());
+            dto.setQueueRemainingCapacity(executor.getQueue().remainingCapacity());
+            dto.setCompletedTaskCount(executor.getCompletedTaskCount());
+            dto.setRejectedCount(rejections.get(status).sum());
+            stats.put(status, dto);
+        });
+        return stats;
+    }
+
+    /**
+     * Stops all executors when the application context is closed.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executors.values().forEach(ThreadPoolExecutor::shutdown);
+    }
+
+    /**
+     * Builds a bounded executor for one backend kind.
+     *
+     * @param status   The status served by the backend.
+     * @param pool     The pool settings.
+     * @param rejected The counter incremented on every rejected call.
+     * @return The executor.
+     */
+    private static ThreadPoolExecutor createExecutor(TransactionStatus status, BulkheadProperties.Pool pool, LongAdder rejected) {
+        String prefix = "bulkhead-" + status.name().toLowerCase() + "-";
+        ThreadFactory threadFactory = pool.getVirtualThreads()
+                ? virtualThreadFactory(prefix)
+                : new CustomizableThreadFactory(prefix);
+        RejectedExecutionHandler policy = pool.getRejectionPolicy() == BulkheadProperties.RejectionPolicy.CALLER_RUNS
+                ? new ThreadPoolExecutor.CallerRunsPolicy()
+                : new ThreadPoolExecutor.AbortPolicy();
+        RejectedExecutionHandler countingPolicy = (task, executor) -> {
+            rejected.increment();
+            policy.rejectedExecution(task, executor);
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                pool.getCorePoolSize(),
+                Math.max(pool.getCorePoolSize(), pool.getMaxPoolSize()),
+                pool.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, pool.getQueueCapacity())),
+                threadFactory,
+                countingPolicy);
+        executor.allowCoreThreadTimeOut(pool.getVirtualThreads());
+        return executor;
+    }
+
+    /**
+     * Creates a factory of named virtual threads.
+     *
+     * @param prefix The thread name prefix.
+     * @return The virtual thread factory.
+     * @throws IllegalStateException If the running JVM does not support virtual threads.
+     */
+    private static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        } catch (UnsupportedOperationException ex) {
+            throw new IllegalStateException("Bulkhead '" + prefix + "' requests virtual threads, which require Java 21 or later", ex);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.mainserver.factory;
+
+import com.example.mainserver.config.ResilienceProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker of one backend server.
+ * <p>
+ * While closed, the outcomes of the most recent calls are kept in a fixed-size window; once the window holds the
+ * minimum number of calls and the failure rate reaches the threshold, the circuit opens and calls are rejected
+ * without reaching the backend. After the open duration a limited number of trial calls is let through: if they all
+ * succeed the circuit closes, and the first failure opens it again.
+ *
+ * @author prapti
+ */
+public class CircuitBreaker {
+
+    /**
+     * State of a circuit breaker.
+     */
+    public enum State {
+
+        /**
+         * Calls flow to the backend and their outcomes are recorded.
+         */
+        CLOSED,
+
+        /**
+         * Calls are rejected without reaching the backend.
+         */
+        OPEN,
+
+        /**
+         * A limited number of trial calls is let through to probe the backend.
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * The breaker settings.
+     */
+    private final ResilienceProperties.Backend settings;
+
+    /**
+     * Source of the current time in nanoseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Ring of the most recent outcomes; {@code true} marks a failure.
+     */
+    private final boolean[] outcomes;
+
+    /**
+     * Number of outcomes held in the ring.
+     */
+    private int recorded;
+
+    /**
+     * Position of the next outcome in the ring.
+     */
+    private int next;
+
+    /**
+     * Number of failures held in the ring.
+     */
+    private int failures;
+
+    /**
+     * The current state.
+     */
+    private State state = State.CLOSED;
+
+    /**
+     * Time the circuit last opened, in nanoseconds.
+     */
+    private long openedAt;
+
+    /**
+     * Number of trial calls a half-open circuit may still let through.
+     */
+    private int trialPermits;
+
+    /**
+     * Number of trial calls of a half-open circuit that succeeded.
+     */
+    private int trialSuccesses;
+
+    /**
+     * Total number of calls rejected while the circuit was open.
+     */
+    private long rejectedCount;
+
+    /**
+     * Constructs a new {@code CircuitBreaker}.
+     *
+     * @param settings The breaker settings.
+     * @param clock    The source of the current time in nanoseconds.
+     */
+    public CircuitBreaker(ResilienceProperties.Backend settings, LongSupplier clock) {
+        this.settings = settings;
+        this.clock = clock;
+        this.outcomes = new boolean[Math.max(1, settings.getWindowSize())];
+    }
+
+    /**
+     * Asks whether a call may be sent to the backend. A permitted call must be followed by exactly one of
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #release()}.
+     *
+     * @return {@code true} if the call may proceed.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < settings.getOpenDuration().toNanos()) {
+                rejectedCount++;
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialPermits = Math.max(1, settings.getHalfOpenCalls());
+            trialSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialPermits == 0) {
+                rejectedCount++;
+                return false;
+            }
+            trialPermits--;
+        }
+        return true;
+    }
+
+    /**
+     * Records a permitted call that succeeded.
+     */
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++trialSuccesses >= Math.max(1, settings.getHalfOpenCalls())) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    /**
+     * Records a permitted call that failed or missed its deadline.
+     */
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= settings.getMinimumCalls()
+                    && failures * 100L >= (long) settings.getFailureRateThreshold() * recorded) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * Gives back the permit of a call that was cancelled before it had an outcome.
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            trialPermits++;
+        }
+    }
+
+    /**
+     * Gets the current state. An open circuit whose open duration has elapsed turns half-open on the next call.
+     *
+     * @return The state.
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Returns the state, the failure rate of the window and the number of rejected calls.
+     *
+     * @return The breaker statistics.
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state);
+        stats.put("windowCalls", recorded);
+        stats.put("failureRate", recorded == 0 ? 0.0 : failures * 100.0 / recorded);
+        stats.put("rejectedCount", rejectedCount);
+        return stats;
+    }
+
+    /**
+     * Adds an outcome to the window, dropping the oldest one when it is full.
+     *
+     * @param failure Whether the call failed.
+     */
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    /**
+     * Opens the circuit.
+     */
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+    }
+
+    /**
+     * Closes the circuit with an empty window.
+     */
+    private void close() {
+        state = State.CLOSED;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+}
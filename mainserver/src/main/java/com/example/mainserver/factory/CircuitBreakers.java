@@ -0,0 +1,70 @@
+package com.example.mainserver.factory;
+
+import com.example.mainserver.config.ResilienceProperties;
+import com.example.mainserver.model.TransactionStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds one {@link CircuitBreaker} per backend kind, so a failing store is cut off without affecting the others.
+ *
+ * @author prapti
+ */
+@Component
+public class CircuitBreakers {
+
+    /**
+     * The circuit breaker of each backend kind.
+     */
+    private final Map<TransactionStatus, CircuitBreaker> breakers;
+
+    /**
+     * Constructs the circuit breakers from the configured settings.
+     *
+     * @param properties The deadline and circuit breaker settings.
+     */
+    @Autowired
+    public CircuitBreakers(ResilienceProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    /**
+     * Constructs the circuit breakers using the given clock.
+     *
+     * @param properties The deadline and circuit breaker settings.
+     * @param clock      The source of the current time in nanoseconds.
+     */
+    public CircuitBreakers(ResilienceProperties properties, LongSupplier clock) {
+        Map<TransactionStatus, CircuitBreaker> breakers = new EnumMap<>(TransactionStatus.class);
+        for (TransactionStatus status : TransactionStatus.values()) {
+            breakers.put(status, new CircuitBreaker(properties.backendFor(status), clock));
+        }
+        this.breakers = Collections.unmodifiableMap(breakers);
+    }
+
+    /**
+     * Returns the circuit breaker of the backend serving the given status.
+     *
+     * @param status The status served by the backend.
+     * @return The backend's circuit breaker.
+     */
+    public CircuitBreaker get(TransactionStatus status) {
+        return breakers.get(status);
+    }
+
+    /**
+     * Returns the state, failure rate and rejected calls of each backend's circuit breaker.
+     *
+     * @return The statistics keyed by backend kind.
+     */
+    public Map<TransactionStatus, Map<String, Object>> stats() {
+        Map<TransactionStatus, Map<String, Object>> stats = new EnumMap<>(TransactionStatus.class);
+        breakers.forEach((status, breaker) -> stats.put(status, breaker.stats()));
+        return stats;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.mainserver.factory;
 
+import com.example.mainserver.model.TransactionStatus;
 import com.example.mainserver.service.BackendServer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -51,11 +52,20 @@ public class TransactionFactory {
      * @throws IllegalArgumentException If an invalid transaction status is provided.
      */
     public BackendServer getBackendServer(String status) {
-        return switch (status.toUpperCase()) {
-            case "SUCCESS" -> backendServer1;
-            case "FAILURE" -> backendServer2;
-            case "PENDING" -> backendServer3;
-            default -> throw new IllegalArgumentException("Invalid status");
+        return getBackendServer(TransactionStatus.from(status));
+    }
+
+    /**
+     * Gets the backend server that owns the given transaction status.
+     *
+     * @param status The status of the transaction.
+     * @return The corresponding backend server.
+     */
+    public BackendServer getBackendServer(TransactionStatus status) {
+        return switch (status) {
+            case SUCCESS -> backendServer1;
+            case FAILURE -> backendServer2;
+            case PENDING -> backendServer3;
         };
     }
 }
@@ -0,0 +1,35 @@
+package com.example.mainserver.model;
+
+/**
+ * Consistency requested by a caller of the consolidated transactions endpoint.
+ *
+ * @author prapti
+ */
+public enum Consistency {
+
+    /**
+     * Cached segments may be served, including stale ones inside the grace window while they are refreshed.
+     */
+    CACHED,
+
+    /**
+     * Every requested segment is fetched from the backend servers; the fresh result still refreshes the cache.
+     */
+    FRESH;
+
+    /**
+     * Resolves a consistency level from its case-insensitive name.
+     *
+     * @param value The consistency name (e.g., "fresh").
+     * @return The matching {@code Consistency}.
+     * @throws IllegalArgumentException If the value does not name a consistency level.
+     */
+    public static Consistency from(String value) {
+        for (Consistency consistency : values()) {
+            if (consistency.name().equalsIgnoreCase(value.trim())) {
+                return consistency;
+            }
+        }
+        throw new IllegalArgumentException("Invalid consistency");
+    }
+}
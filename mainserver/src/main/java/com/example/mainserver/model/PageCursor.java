@@ -0,0 +1,136 @@
+package com.example.mainserver.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+
+/**
+ * Merged cursor over the transaction stores: the position reached in each backend server's keyset pagination.
+ * A backend's position is the opaque cursor it returned with its last page, absent before its first page, or
+ * exhausted once it has returned its last page. The cursor is handed to clients as an opaque URL-safe string.
+ *
+ * @author prapti
+ */
+public final class PageCursor {
+
+    /**
+     * Position marking a backend server whose last page has been returned.
+     */
+    private static final String EXHAUSTED = "~";
+
+    /**
+     * Allowed shape of a backend cursor, which is itself URL-safe Base64.
+     */
+    private static final Pattern BACKEND_CURSOR = Pattern.compile("[A-Za-z0-9_-]+");
+
+    /**
+     * Position of each backend server that has returned at least one page.
+     */
+    private final Map<TransactionStatus, String> positions;
+
+    /**
+     * Constructs a cursor from the given positions.
+     *
+     * @param positions The position of each backend server that has returned at least one page.
+     */
+    private PageCursor(Map<TransactionStatus, String> positions) {
+        this.positions = positions;
+    }
+
+    /**
+     * Returns the cursor of the first page, positioned before the first row of every backend server.
+     *
+     * @return The initial cursor.
+     */
+    public static PageCursor start() {
+        return new PageCursor(new EnumMap<>(TransactionStatus.class));
+    }
+
+    /**
+     * Decodes a cursor handed out with a previous page.
+     *
+     * @param value The encoded cursor, or {@code null} or empty for the first page.
+     * @return The decoded cursor.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    public static PageCursor parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return start();
+        }
+        Map<TransactionStatus, String> positions = new EnumMap<>(TransactionStatus.class);
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.US_ASCII);
+            for (String entry : decoded.split("\\.")) {
+                int separator = entry.indexOf('=');
+                String position = entry.substring(separator + 1);
+                if (separator < 0 || !(position.equals(EXHAUSTED) || BACKEND_CURSOR.matcher(position).matches())) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+                positions.put(TransactionStatus.from(entry.substring(0, separator)), position);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new PageCursor(positions);
+    }
+
+    /**
+     * Gets the backend cursor to request the next page of the given store with.
+     *
+     * @param status The status identifying the backend server.
+     * @return The backend cursor, or {@code null} for the store's first page.
+     */
+    public String positionOf(TransactionStatus status) {
+        String position = positions.get(status);
+        return EXHAUSTED.equals(position) ? null : position;
+    }
+
+    /**
+     * Indicates whether the given store's last page has been returned.
+     *
+     * @param status The status identifying the backend server.
+     * @return {@code true} if the store has no further page.
+     */
+    public boolean isExhausted(TransactionStatus status) {
+        return EXHAUSTED.equals(positions.get(status));
+    }
+
+    /**
+     * Indicates whether the last page of every given store has been returned.
+     *
+     * @param statuses The statuses identifying the backend servers.
+     * @return {@code true} if none of the stores has a further page.
+     */
+    public boolean isExhausted(Collection<TransactionStatus> statuses) {
+        return statuses.stream().allMatch(this::isExhausted);
+    }
+
+    /**
+     * Returns a copy of this cursor advanced past a page of the given store.
+     *
+     * @param status     The status identifying the backend server.
+     * @param nextCursor The backend cursor returned with the page, or {@code null} if it was the store's last page.
+     * @return The advanced cursor.
+     */
+    public PageCursor advance(TransactionStatus status, String nextCursor) {
+        Map<TransactionStatus, String> advanced = new EnumMap<>(TransactionStatus.class);
+        advanced.putAll(positions);
+        advanced.put(status, nextCursor == null ? EXHAUSTED : nextCursor);
+        return new PageCursor(advanced);
+    }
+
+    /**
+     * Encodes this cursor as an opaque URL-safe string.
+     *
+     * @return The encoded cursor.
+     */
+    public String encode() {
+        StringJoiner joiner = new StringJoiner(".");
+        positions.forEach((status, position) -> joiner.add(status.name() + "=" + position));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joiner.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.mainserver.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+/**
+ * Outcome of fetching one segment of a consolidated response.
+ *
+ * @author prapti
+ */
+public enum SegmentStatus {
+
+    /**
+     * The segment was served by its backend server or from the near cache.
+     */
+    OK,
+
+    /**
+     * The backend server did not answer within its deadline; the segment is empty.
+     */
+    TIMED_OUT,
+
+    /**
+     * The backend server's circuit breaker is open, so it was not called; the segment is empty.
+     */
+    CIRCUIT_OPEN,
+
+    /**
+     * The main server's own bulkhead for the backend server was full, so the backend was not called; the segment is
+     * empty. The backend is not held responsible for it.
+     */
+    REJECTED,
+
+    /**
+     * The backend server failed; the segment is empty.
+     */
+    FAILED,
+
+    /**
+     * The backend server does not know the account, or rejected the request as a client error (4xx); the segment
+     * is empty. This is an answer from a healthy backend, not a degradation.
+     */
+    NOT_FOUND;
+
+    /**
+     * Indicates whether the backend server could not answer for the segment, as opposed to answering that it
+     * holds nothing for it.
+     *
+     * @return {@code true} unless the status is {@link #OK} or {@link #NOT_FOUND}.
+     */
+    public boolean isDegraded() {
+        return this != OK && this != NOT_FOUND;
+    }
+
+    /**
+     * Returns the JSON representation of this status, e.g. {@code "timed_out"}.
+     *
+     * @return The lower-case name.
+     */
+    @JsonValue
+    public String toValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
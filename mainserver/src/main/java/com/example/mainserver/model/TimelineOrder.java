@@ -0,0 +1,53 @@
+package com.example.mainserver.model;
+
+import com.example.mainserver.dto.TransactionDTO;
+
+import java.util.Comparator;
+
+/**
+ * Order of the consolidated timeline: newest transaction first. Transaction dates are {@code dd-MM-yyyy} strings,
+ * so they are compared by year, month and day, exactly as the backend servers order their date-sorted streams;
+ * the merge relies on both sides agreeing.
+ *
+ * @author prapti
+ */
+public final class TimelineOrder {
+
+    /**
+     * Compares transactions newest first.
+     */
+    public static final Comparator<TransactionDTO> NEWEST_FIRST =
+            Comparator.comparing((TransactionDTO transaction) -> sortKey(transaction.getDate())).reversed();
+
+    private TimelineOrder() {
+    }
+
+    /**
+     * Builds the sort key of a {@code dd-MM-yyyy} date: its year, month and day concatenated. Like the backends'
+     * {@code substring} ordering, a malformed date still yields a key from whatever characters it has.
+     *
+     * @param date The transaction date.
+     * @return The sort key, ascending with the date.
+     */
+    static String sortKey(String date) {
+        if (date == null) {
+            return "";
+        }
+        return part(date, 6, 4) + part(date, 3, 2) + part(date, 0, 2);
+    }
+
+    /**
+     * Extracts up to {@code length} characters starting at {@code start}, tolerating short strings.
+     *
+     * @param value  The string.
+     * @param start  The zero-based start index.
+     * @param length The maximum number of characters.
+     * @return The extracted characters; empty if the string is too short.
+     */
+    private static String part(String value, int start, int length) {
+        if (start >= value.length()) {
+            return "";
+        }
+        return value.substring(start, Math.min(start + length, value.length()));
+    }
+}
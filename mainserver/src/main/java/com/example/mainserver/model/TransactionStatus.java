@@ -0,0 +1,87 @@
+package com.example.mainserver.model;
+
+import com.example.mainserver.dto.ConsolidatedTransactionDTO;
+import com.example.mainserver.dto.TransactionDTO;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Enumeration of the transaction statuses served by the backend servers.
+ * Each status is owned by exactly one backend server and maps to one segment of a {@link ConsolidatedTransactionDTO}.
+ *
+ * @author prapti
+ */
+public enum TransactionStatus {
+
+    /**
+     * Successful transactions, served by Backend Server 1.
+     */
+    SUCCESS,
+
+    /**
+     * Failed transactions, served by Backend Server 2.
+     */
+    FAILURE,
+
+    /**
+     * Pending transactions, served by Backend Server 3.
+     */
+    PENDING;
+
+    /**
+     * Resolves a status from its case-insensitive name.
+     *
+     * @param value The status name (e.g., "success").
+     * @return The matching {@code TransactionStatus}.
+     * @throws IllegalArgumentException If the value does not name a transaction status.
+     */
+    public static TransactionStatus from(String value) {
+        if (value != null) {
+            for (TransactionStatus status : values()) {
+                if (status.name().equalsIgnoreCase(value.trim())) {
+                    return status;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Invalid status");
+    }
+
+    /**
+     * Returns the name of this status's segment in JSON, both in a backend server's response and in the consolidated
+     * response, e.g. {@code "success"}.
+     *
+     * @return The lower-case segment name.
+     */
+    public String fieldName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Reads the segment of the given consolidated DTO that belongs to this status.
+     *
+     * @param consolidated The consolidated transactions.
+     * @return The transactions of this status.
+     */
+    public List<TransactionDTO> segmentOf(ConsolidatedTransactionDTO consolidated) {
+        return switch (this) {
+            case SUCCESS -> consolidated.getSuccess();
+            case FAILURE -> consolidated.getFailure();
+            case PENDING -> consolidated.getPending();
+        };
+    }
+
+    /**
+     * Writes the segment of the given consolidated DTO that belongs to this status.
+     *
+     * @param consolidated The consolidated transactions to update.
+     * @param transactions The transactions of this status.
+     */
+    public void setSegment(ConsolidatedTransactionDTO consolidated, List<TransactionDTO> transactions) {
+        switch (this) {
+            case SUCCESS -> consolidated.setSuccess(transactions);
+            case FAILURE -> consolidated.setFailure(transactions);
+            case PENDING -> consolidated.setPending(transactions);
+        }
+    }
+}
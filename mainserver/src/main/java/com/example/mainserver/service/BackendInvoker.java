@@ -0,0 +1,600 @@
+package com.example.mainserver.service;
+
+import com.example.mainserver.config.HedgingProperties;
+import com.example.mainserver.factory.BackendEndpoint;
+import com.example.mainserver.factory.BackendEndpointRegistry;
+import com.example.mainserver.model.TransactionStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Sends requests to the replicas of a backend kind: picks the replica through the {@link BackendEndpointRegistry},
+ * tracks the call's latency and, when hedging is enabled, duplicates a call that has not answered within the
+ * backend's observed latency percentile to another replica, taking whichever reply comes first.
+ * <p>
+ * Hedges are paid for from a budget that grows by {@code budget-percent} of a hedge with every call, so hedging
+ * never adds more than that share of extra load to a backend, even while the backend is slow across the board.
+ * <p>
+ * Every call, bulk request and stream is timed into the {@code mainserver.backend.requests} timer, tagged with the
+ * backend kind, the type of request and its outcome, and the hedges sent and won are published as counters.
+ *
+ * @author prapti
+ */
+@Component
+public class BackendInvoker {
+
+    /**
+     * The registry choosing the replica of each call.
+     */
+    private final BackendEndpointRegistry endpointRegistry;
+
+    /**
+     * The hedging settings.
+     */
+    private final HedgingProperties properties;
+
+    /**
+     * Scheduler firing the hedge timers.
+     */
+    private final Scheduler scheduler;
+
+    /**
+     * Latency samples, hedge budget and counters keyed by backend kind.
+     */
+    private final Map<TransactionStatus, BackendStats> stats = new EnumMap<>(TransactionStatus.class);
+
+    /**
+     * Constructs a new {@code BackendInvoker}.
+     *
+     * @param endpointRegistry The registry choosing the replica of each call.
+     * @param properties       The hedging settings.
+     * @param meterRegistry    The registry the request timers and hedge counters are published to.
+     */
+    @Autowired
+    public BackendInvoker(BackendEndpointRegistry endpointRegistry, HedgingProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.endpointRegistry = endpointRegistry;
+        this.properties = properties;
+        this.scheduler = Schedulers.parallel();
+        for (TransactionStatus status : TransactionStatus.values()) {
+            BackendStats backend = new BackendStats(properties);
+            stats.put(status, backend);
+            for (RequestType type : RequestType.values()) {
+                Map<Outcome, Timer> timers = new EnumMap<>(Outcome.class);
+                for (Outcome outcome : Outcome.values()) {
+                    timers.put(outcome, Timer.builder("mainserver.backend.requests")
+                            .description("Latency of requests to the backend servers")
+                            .tag("backend", backendTag(status))
+                            .tag("type", type.tag())
+                            .tag("outcome", outcome.tag())
+                            .register(meterRegistry));
+                }
+                backend.timers.put(type, timers);
+            }
+            FunctionCounter.builder("mainserver.backend.hedges", backend.hedgesSent, LongAdder::sum)
+                    .description("Hedged backend calls sent, and those that answered first")
+                    .tag("backend", backendTag(status)).tag("result", "sent")
+                    .register(meterRegistry);
+            FunctionCounter.builder("mainserver.backend.hedges", backend.hedgesWon, LongAdder::sum)
+                    .description("Hedged backend calls sent, and those that answered first")
+                    .tag("backend", backendTag(status)).tag("result", "won")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Sends a request to a replica of the given backend kind, hedging it if it is slow.
+     *
+     * @param status  The backend kind.
+     * @param request Builds the request for a chosen replica; may be invoked twice when the call is hedged.
+     * @param <T>     The type of the reply.
+     * @return A {@link Mono} emitting the first reply.
+     */
+    public <T> Mono<T> invoke(TransactionStatus status, Function<BackendEndpoint, Mono<T>> request) {
+        return timed(status, RequestType.CALL, Mono.defer(() -> {
+            BackendStats backend = stats.get(status);
+            backend.calls.increment();
+            BackendEndpoint primary = endpointRegistry.choose(status);
+            Duration delay = properties.isEnabled() ? backend.hedgeDelay() : null;
+            if (delay == null) {
+                return attempt(primary, request, backend);
+            }
+            backend.deposit();
+            return Mono.create(sink -> new HedgedCall<>(status, request, backend, sink).start(primary, delay));
+        }));
+    }
+
+    /**
+     * Sends a bulk request, such as a batch lookup, to a replica of the given backend kind. Bulk requests are
+     * spread across replicas like calls but are never hedged and do not feed the latency window, since their
+     * duration reflects their size rather than the replica's tail.
+     *
+     * @param status  The backend kind.
+     * @param request Builds the bulk request for the chosen replica.
+     * @param <T>     The type of the response.
+     * @return A {@link Mono} emitting the replica's response.
+     */
+    public <T> Mono<T> bulk(TransactionStatus status, Function<BackendEndpoint, Mono<T>> request) {
+        return timed(status, RequestType.BULK, Mono.defer(() -> {
+            BackendEndpoint endpoint = endpointRegistry.choose(status);
+            return endpoint.trackBulk(request.apply(endpoint));
+        }));
+    }
+
+    /**
+     * Opens a stream from a replica of the given backend kind. Streams are spread across replicas like calls but
+     * are never hedged, since a duplicate stream would double the transfer rather than cut a tail.
+     *
+     * @param status  The backend kind.
+     * @param request Builds the streamed request for the chosen replica.
+     * @param <T>     The type of the streamed elements.
+     * @return A {@link Flux} emitting the replica's elements as they arrive.
+     */
+    public <T> Flux<T> stream(TransactionStatus status, Function<BackendEndpoint, Flux<T>> request) {
+        Flux<T> stream = Flux.defer(() -> {
+            BackendEndpoint endpoint = endpointRegistry.choose(status);
+            return endpoint.trackStream(request.apply(endpoint));
+        });
+        Map<Outcome, Timer> timers = stats.get(status).timers.get(RequestType.STREAM);
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return stream
+                    .doOnComplete(() -> record(timers, Outcome.SUCCESS, start))
+                    .doOnError(error -> record(timers, Outcome.ERROR, start))
+                    .doOnCancel(() -> record(timers, Outcome.CANCELLED, start));
+        });
+    }
+
+    /**
+     * Returns the number of calls, hedges sent and hedges that won of each backend kind, along with the
+     * current hedge delay.
+     *
+     * @return The hedging statistics keyed by backend kind.
+     */
+    public Map<TransactionStatus, Map<String, Number>> stats() {
+        Map<TransactionStatus, Map<String, Number>> snapshot = new EnumMap<>(TransactionStatus.class);
+        stats.forEach((status, backend) -> {
+            Map<String, Number> values = new LinkedHashMap<>();
+            Duration delay = backend.hedgeDelay();
+            values.put("calls", backend.calls.sum());
+            values.put("hedgesSent", backend.hedgesSent.sum());
+            values.put("hedgesWon", backend.hedgesWon.sum());
+            values.put("hedgeDelayMillis", delay == null ? -1 : delay.toNanos() / 1_000_000.0);
+            snapshot.put(status, values);
+        });
+        return snapshot;
+    }
+
+    /**
+     * Times a request into the {@code mainserver.backend.requests} timer from subscription to its end.
+     *
+     * @param status  The backend kind.
+     * @param type    The type of request.
+     * @param request The request.
+     * @param <T>     The type of the reply.
+     * @return The timed request.
+     */
+    private <T> Mono<T> timed(TransactionStatus status, RequestType type, Mono<T> request) {
+        Map<Outcome, Timer> timers = stats.get(status).timers.get(type);
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return request
+                    .doOnSuccess(reply -> record(timers, Outcome.SUCCESS, start))
+                    .doOnError(error -> record(timers, Outcome.ERROR, start))
+                    .doOnCancel(() -> record(timers, Outcome.CANCELLED, start));
+        });
+    }
+
+    /**
+     * Records the duration of a finished request.
+     *
+     * @param timers  The timers of the request's backend kind and type, keyed by outcome.
+     * @param outcome How the request ended.
+     * @param start   The {@link System#nanoTime()} at which the request started.
+     */
+    private static void record(Map<Outcome, Timer> timers, Outcome outcome, long start) {
+        timers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the value of the {@code backend} tag of a backend kind.
+     *
+     * @param status The backend kind.
+     * @return The tag value, e.g. "success".
+     */
+    private static String backendTag(TransactionStatus status) {
+        return status.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Sends one attempt to a replica and records its latency when it answers.
+     *
+     * @param endpoint The replica.
+     * @param request  Builds the request for the replica.
+     * @param backend  The statistics of the backend kind.
+     * @param <T>      The type of the reply.
+     * @return The tracked attempt.
+     */
+    private static <T> Mono<T> attempt(BackendEndpoint endpoint, Function<BackendEndpoint, Mono<T>> request,
+                                       BackendStats backend) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return endpoint.track(request.apply(endpoint))
+                    .doOnSuccess(reply -> backend.latencies.record(System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Type of a timed request, published as the {@code type} tag.
+     */
+    private enum RequestType {
+        CALL, BULK, STREAM;
+
+        /**
+         * Gets the value of the {@code type} tag.
+         *
+         * @return The tag value, e.g. "call".
+         */
+        private String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * How a timed request ended, published as the {@code outcome} tag.
+     */
+    private enum Outcome {
+        SUCCESS, ERROR, CANCELLED;
+
+        /**
+         * Gets the value of the {@code outcome} tag.
+         *
+         * @return The tag value, e.g. "success".
+         */
+        private String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * A call racing its primary attempt against a hedge sent once the hedge delay elapses. The first reply
+     * completes the call and cancels the other attempt; the call fails only when every attempt sent has failed.
+     * A primary attempt failing before the delay fails the call right away, since hedging targets slowness,
+     * not errors. Both attempts are subscribed with the caller's context, so they stay part of its trace even
+     * though the hedge is sent from the scheduler's thread.
+     *
+     * @param <T> The type of the reply.
+     */
+    private final class HedgedCall<T> {
+
+        /**
+         * The backend kind.
+         */
+        private final TransactionStatus status;
+
+        /**
+         * Builds the request for a chosen replica.
+         */
+        private final Function<BackendEndpoint, Mono<T>> request;
+
+        /**
+         * The statistics of the backend kind.
+         */
+        private final BackendStats backend;
+
+        /**
+         * The sink completing the call.
+         */
+        private final MonoSink<T> sink;
+
+        /**
+         * The running attempts and the hedge timer, disposed once the call completes or is cancelled.
+         */
+        private final Disposable.Composite inFlight = Disposables.composite();
+
+        /**
+         * Number of attempts sent that have not failed yet.
+         */
+        private int running;
+
+        /**
+         * Whether the call has completed.
+         */
+        private boolean done;
+
+        /**
+         * Constructs a new {@code HedgedCall}.
+         *
+         * @param status  The backend kind.
+         * @param request Builds the request for a chosen replica.
+         * @param backend The statistics of the backend kind.
+         * @param sink    The sink completing the call.
+         */
+        private HedgedCall(TransactionStatus status, Function<BackendEndpoint, Mono<T>> request,
+                           BackendStats backend, MonoSink<T> sink) {
+            this.status = status;
+            this.request = request;
+            this.backend = backend;
+            this.sink = sink;
+            sink.onCancel(inFlight);
+        }
+
+        /**
+         * Sends the primary attempt and arms the hedge timer.
+         *
+         * @param primary The replica of the primary attempt.
+         * @param delay   The hedge delay.
+         */
+        private void start(BackendEndpoint primary, Duration delay) {
+            inFlight.add(scheduler.schedule(() -> hedge(primary), delay.toNanos(), TimeUnit.NANOSECONDS));
+            send(primary, false);
+        }
+
+        /**
+         * Sends the hedge to another replica if the call is still waiting and the budget allows it.
+         *
+         * @param primary The replica of the primary attempt.
+         */
+        private void hedge(BackendEndpoint primary) {
+            synchronized (this) {
+                if (done || running == 0 || !backend.withdraw()) {
+                    return;
+                }
+            }
+            send(endpointRegistry.choose(status, primary), true);
+        }
+
+        /**
+         * Sends one attempt.
+         *
+         * @param endpoint The replica.
+         * @param isHedge  Whether the attempt is the hedge.
+         */
+        private void send(BackendEndpoint endpoint, boolean isHedge) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                running++;
+            }
+            if (isHedge) {
+                backend.hedgesSent.increment();
+            }
+            inFlight.add(attempt(endpoint, request, backend).subscribe(
+                    reply -> complete(reply, isHedge),
+                    this::fail,
+                    () -> complete(null, isHedge),
+                    Context.of(sink.contextView())));
+        }
+
+        /**
+         * Cancels the other attempt and completes the call with the first reply.
+         *
+         * @param reply   The reply, or {@code null} if the attempt completed empty.
+         * @param isHedge Whether the reply came from the hedge.
+         */
+        private void complete(T reply, boolean isHedge) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+            }
+            if (isHedge) {
+                backend.hedgesWon.increment();
+            }
+            inFlight.dispose();
+            if (reply == null) {
+                sink.success();
+            } else {
+                sink.success(reply);
+            }
+        }
+
+        /**
+         * Records a failed attempt, failing the call if no other attempt is still running.
+         *
+         * @param error The failure.
+         */
+        private void fail(Throwable error) {
+            synchronized (this) {
+                if (done || --running > 0) {
+                    return;
+                }
+                done = true;
+            }
+            inFlight.dispose();
+            sink.error(error);
+        }
+    }
+
+    /**
+     * Latency samples, hedge budget and counters of one backend kind.
+     */
+    private static final class BackendStats {
+
+        /**
+         * The hedging settings.
+         */
+        private final HedgingProperties properties;
+
+        /**
+         * The most recent latency samples.
+         */
+        private final LatencyWindow latencies;
+
+        /**
+         * The request timers, keyed by type of request and outcome.
+         */
+        private final Map<RequestType, Map<Outcome, Timer>> timers = new EnumMap<>(RequestType.class);
+
+        /**
+         * Total number of calls.
+         */
+        private final LongAdder calls = new LongAdder();
+
+        /**
+         * Total number of hedges sent.
+         */
+        private final LongAdder hedgesSent = new LongAdder();
+
+        /**
+         * Total number of calls answered by their hedge.
+         */
+        private final LongAdder hedgesWon = new LongAdder();
+
+        /**
+         * Number of hedges currently affordable.
+         */
+        private double budget;
+
+        /**
+         * Constructs a new {@code BackendStats}.
+         *
+         * @param properties The hedging settings.
+         */
+        private BackendStats(HedgingProperties properties) {
+            this.properties = properties;
+            this.latencies = new LatencyWindow(properties.getWindowSize());
+        }
+
+        /**
+         * Computes how long a call waits before it is hedged.
+         *
+         * @return The hedge delay, or {@code null} while there are too few latency samples.
+         */
+        private Duration hedgeDelay() {
+            if (latencies.size() < properties.getMinSamples()) {
+                return null;
+            }
+            long percentile = latencies.percentile(properties.getPercentile());
+            return Duration.ofNanos(Math.max(percentile, properties.getMinDelay().toNanos()));
+        }
+
+        /**
+         * Adds one call's share of a hedge to the budget.
+         */
+        private synchronized void deposit() {
+            budget = Math.min(Math.max(1, properties.getBudgetBurst()), budget + properties.getBudgetPercent() / 100);
+        }
+
+        /**
+         * Takes one hedge from the budget.
+         *
+         * @return {@code true} if the budget allowed the hedge.
+         */
+        private synchronized boolean withdraw() {
+            if (budget < 1) {
+                return false;
+            }
+            budget -= 1;
+            return true;
+        }
+    }
+
+    /**
+     * Fixed-size ring of the most recent latency samples with a percentile that is recomputed every few samples.
+     */
+    static final class LatencyWindow {
+
+        /**
+         * Number of samples after which the cached percentiles are recomputed.
+         */
+        private static final int RECOMPUTE_EVERY = 32;
+
+        /**
+         * The ring of samples in nanoseconds.
+         */
+        private final long[] samples;
+
+        /**
+         * Number of samples recorded, capped at the ring size.
+         */
+        private int size;
+
+        /**
+         * Position of the next sample in the ring.
+         */
+        private int next;
+
+        /**
+         * Number of samples recorded since the sorted copy was taken.
+         */
+        private int sinceSorted;
+
+        /**
+         * Sorted copy of the samples used to read percentiles.
+         */
+        private long[] sorted = new long[0];
+
+        /**
+         * Constructs a new {@code LatencyWindow}.
+         *
+         * @param capacity The number of samples kept.
+         */
+        LatencyWindow(int capacity) {
+            this.samples = new long[Math.max(1, capacity)];
+        }
+
+        /**
+         * Records one latency sample, overwriting the oldest one when the ring is full.
+         *
+         * @param nanos The latency in nanoseconds.
+         */
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            size = Math.min(size + 1, samples.length);
+            sinceSorted++;
+        }
+
+        /**
+         * Returns the number of samples held.
+         *
+         * @return The sample count.
+         */
+        synchronized int size() {
+            return size;
+        }
+
+        /**
+         * Reads a percentile of the samples held.
+         *
+         * @param quantile The quantile between 0 and 1.
+         * @return The latency at that quantile in nanoseconds, zero when there are no samples.
+         */
+        synchronized long percentile(double quantile) {
+            if (size == 0) {
+                return 0;
+            }
+            if (sinceSorted >= RECOMPUTE_EVERY || sorted.length == 0) {
+                sorted = Arrays.copyOf(samples, size);
+                Arrays.sort(sorted);
+                sinceSorted = 0;
+            }
+            int index = (int) Math.ceil(Math.min(1, Math.max(0, quantile)) * sorted.length) - 1;
+            return sorted[Math.max(0, index)];
+        }
+    }
+}
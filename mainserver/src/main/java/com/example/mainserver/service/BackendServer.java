@@ -1,6 +1,17 @@
 package com.example.mainserver.service;
 
+import com.example.mainserver.dto.BatchAccountResultDTO;
 import com.example.mainserver.dto.ConsolidatedTransactionDTO;
+import com.example.mainserver.dto.TransactionDTO;
+import com.example.mainserver.factory.BackendEndpoint;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Interface representing a backend server that provides consolidated transaction data for a given account number.
@@ -9,11 +20,123 @@ import com.example.mainserver.dto.ConsolidatedTransactionDTO;
 public interface BackendServer {
 
     /**
-     * Retrieves consolidated transaction data for the specified account number.
+     * Body type of a backend server's batch lookup response: each requested account number mapped to its result.
+     */
+    ParameterizedTypeReference<Map<String, BatchAccountResultDTO>> BATCH_RESPONSE = new ParameterizedTypeReference<>() {
+    };
+
+    /**
+     * Element type of a backend server's change feed: server-sent events whose data is a written account number.
+     */
+    ParameterizedTypeReference<ServerSentEvent<String>> CHANGE_EVENTS = new ParameterizedTypeReference<>() {
+    };
+
+    /**
+     * Retrieves consolidated transaction data for the specified account number without blocking the caller.
+     * The returned {@link Mono} performs the backend call only when subscribed to.
+     *
+     * @param accountNumber The account number for which consolidated transactions are requested.
+     * @return A {@link Mono} emitting the consolidated transaction data in the form of {@link ConsolidatedTransactionDTO}.
+     */
+    Mono<ConsolidatedTransactionDTO> getTransactionsReactive(String accountNumber);
+
+    /**
+     * Retrieves consolidated transaction data for the specified account number unless it is unchanged since the
+     * version identified by the given entity tag. The backend answers a current tag with {@code 304 Not Modified}
+     * without reading any transaction. The emitted DTO carries the entity tag of the version it holds in
+     * {@link ConsolidatedTransactionDTO#getSegmentETags()}.
+     *
+     * @param accountNumber The account number for which consolidated transactions are requested.
+     * @param eTag          The entity tag of the caller's copy, or {@code null} to fetch unconditionally.
+     * @return A {@link Mono} emitting the consolidated transaction data, or completing empty if the caller's copy
+     *         is current.
+     */
+    Mono<ConsolidatedTransactionDTO> getTransactionsReactive(String accountNumber, String eTag);
+
+    /**
+     * Retrieves the transactions of the specified account number as the raw JSON array sent by the backend, without
+     * decoding them into objects, for splicing into a passthrough response.
+     *
+     * @param accountNumber The account number for which transactions are requested.
+     * @return A {@link Mono} emitting the bytes of the backend's transaction array.
+     */
+    Mono<byte[]> getTransactionsRaw(String accountNumber);
+
+    /**
+     * Retrieves one page of the transactions of the specified account number using the backend's keyset pagination.
+     * The returned DTO carries the backend's cursor of the next page in {@link ConsolidatedTransactionDTO#getNextCursor()},
+     * or {@code null} on the last page.
+     *
+     * @param accountNumber The account number for which transactions are requested.
+     * @param limit         The maximum number of transactions in the page.
+     * @param cursor        The backend cursor returned with the previous page, or {@code null} for the first page.
+     * @return A {@link Mono} emitting the page.
+     */
+    Mono<ConsolidatedTransactionDTO> getTransactionsPage(String accountNumber, int limit, String cursor);
+
+    /**
+     * Streams the transactions of the specified account number one by one as the backend delivers them, without
+     * holding the whole segment in memory.
+     *
+     * @param accountNumber The account number whose transactions are requested.
+     * @return A {@link Flux} emitting each transaction as it arrives.
+     */
+    default Flux<TransactionDTO> streamTransactions(String accountNumber) {
+        return streamTransactions(accountNumber, false);
+    }
+
+    /**
+     * Streams the transactions of the specified account number one by one as the backend delivers them, optionally
+     * ordered by descending date so that several backends' streams can be merged into one timeline.
+     *
+     * @param accountNumber The account number whose transactions are requested.
+     * @param newestFirst   {@code true} to receive the transactions newest first; otherwise in storage order.
+     * @return A {@link Flux} emitting each transaction as it arrives.
+     */
+    Flux<TransactionDTO> streamTransactions(String accountNumber, boolean newestFirst);
+
+    /**
+     * Retrieves the transactions of several account numbers with a single request to the backend server.
+     * Accounts unknown to the backend are reported as not found instead of failing the request.
+     *
+     * @param accountNumbers The account numbers whose transactions are requested.
+     * @return A {@link Mono} emitting each requested account number mapped to its result.
+     */
+    Mono<Map<String, BatchAccountResultDTO>> getTransactionsBatch(List<String> accountNumbers);
+
+    /**
+     * Follows the change feed of one replica of the backend server: a {@code change} event names each account
+     * written from now on, and a {@code reset} event reports that writes may have been missed. The feed ends when
+     * the replica closes it, or fails after the given silence.
+     *
+     * @param endpoint    The replica to follow.
+     * @param lastEventId The identifier of the last event received from the replica, or {@code null} on first
+     *                    connection; the replica resumes after it.
+     * @param idleTimeout The longest silence before the feed fails.
+     * @return A {@link Flux} emitting each event as it arrives.
+     */
+    Flux<ServerSentEvent<String>> streamChanges(BackendEndpoint endpoint, String lastEventId, Duration idleTimeout);
+
+    /**
+     * Retrieves consolidated transaction data for the specified account number, blocking until the backend answers.
      *
      * @param accountNumber The account number for which consolidated transactions are requested.
      * @return The consolidated transaction data in the form of {@link ConsolidatedTransactionDTO}.
      */
-    ConsolidatedTransactionDTO getTransactions(String accountNumber);
-}
+    default ConsolidatedTransactionDTO getTransactions(String accountNumber) {
+        return getTransactionsReactive(accountNumber).block();
+    }
 
+    /**
+     * Retrieves consolidated transaction data for the specified account number, blocking until the backend answers
+     * or the timeout elapses, so a stalled backend cannot hold the calling thread indefinitely.
+     *
+     * @param accountNumber The account number for which consolidated transactions are requested.
+     * @param timeout       The maximum time to wait for the backend.
+     * @return The consolidated transaction data in the form of {@link ConsolidatedTransactionDTO}.
+     * @throws IllegalStateException If the backend did not answer within the timeout.
+     */
+    default ConsolidatedTransactionDTO getTransactions(String accountNumber, Duration timeout) {
+        return getTransactionsReactive(accountNumber).block(timeout);
+    }
+}
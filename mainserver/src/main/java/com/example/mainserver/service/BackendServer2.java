@@ -2,10 +2,25 @@ package com.example.mainserver.service;
 
 import com.example.mainserver.dto.ConsolidatedTransactionDTO;
 import com.example.mainserver.dto.FailureTransactionDTO;
+import com.example.mainserver.dto.BatchAccountResultDTO;
+import com.example.mainserver.dto.TransactionDTO;
+import com.example.mainserver.factory.BackendEndpoint;
+import com.example.mainserver.model.TransactionStatus;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation of the {@link BackendServer} interface for handling failed transactions from Backend Server 2.
@@ -20,34 +35,164 @@ public class BackendServer2 implements BackendServer {
     private final WebClient webClient;
 
     /**
-     * Constructs a new {@code BackendServer2} instance with the provided WebClient.
+     * Invoker spreading requests across the Backend Server 2 replicas and hedging slow ones.
+     */
+    private final BackendInvoker backendInvoker;
+
+    /**
+     * Constructs a new {@code BackendServer2} instance with the provided WebClient and backend invoker.
      *
-     * @param webClient The WebClient used for making HTTP requests.
+     * @param webClient      The WebClient used for making HTTP requests.
+     * @param backendInvoker The invoker choosing the replica of each request and hedging slow ones.
      */
-    public BackendServer2(WebClient webClient) {
+    public BackendServer2(@Qualifier("failureWebClient") WebClient webClient, BackendInvoker backendInvoker) {
         this.webClient = webClient;
+        this.backendInvoker = backendInvoker;
     }
 
     /**
-     * Retrieves consolidated transaction data for the specified account number from Backend Server 2.
+     * Retrieves consolidated transaction data for the specified account number from a Backend Server 2
+     * replica, without blocking the calling thread. Slow calls may be hedged to a second replica.
      *
      * @param accountNumber The account number for which consolidated transactions are requested.
-     * @return The consolidated transaction data in the form of {@link ConsolidatedTransactionDTO}.
+     * @return A {@link Mono} emitting the consolidated transaction data in the form of {@link ConsolidatedTransactionDTO}.
      */
     @Override
-    public ConsolidatedTransactionDTO getTransactions(String accountNumber) {
-        // Making an HTTP request to Backend Server 2 to fetch failed transactions
-        FailureTransactionDTO failureTransactionDTO = webClient.get()
-                .uri("http://localhost:8081/backendserver2/failure/" + accountNumber)
+    public Mono<ConsolidatedTransactionDTO> getTransactionsReactive(String accountNumber) {
+        return getTransactionsReactive(accountNumber, null);
+    }
+
+    /**
+     * Retrieves consolidated transaction data for the specified account number from a Backend Server 2
+     * replica unless the replica reports the caller's copy as current. Slow calls may be hedged to a second replica.
+     *
+     * @param accountNumber The account number for which consolidated transactions are requested.
+     * @param eTag          The entity tag of the caller's copy, or {@code null} to fetch unconditionally.
+     * @return A {@link Mono} emitting the consolidated transaction data and its entity tag, or completing empty on
+     *         {@code 304 Not Modified}.
+     */
+    @Override
+    public Mono<ConsolidatedTransactionDTO> getTransactionsReactive(String accountNumber, String eTag) {
+        return backendInvoker.invoke(TransactionStatus.FAILURE, endpoint -> {
+                    WebClient.RequestHeadersSpec<?> request = webClient.get()
+                            .uri(endpoint.getBaseUrl() + "/backendserver2/failure/" + accountNumber);
+                    if (eTag != null) {
+                        request = request.ifNoneMatch(eTag);
+                    }
+                    return request.retrieve().toEntity(FailureTransactionDTO.class);
+                })
+                .filter(ResponseEntity::hasBody)
+                .map(response -> {
+                    FailureTransactionDTO failureTransactionDTO = response.getBody();
+                    ConsolidatedTransactionDTO consolidated = new ConsolidatedTransactionDTO<>(
+                            Collections.emptyList(),
+                            failureTransactionDTO.getFailure(),
+                            Collections.emptyList()
+                    );
+                    String version = response.getHeaders().getETag();
+                    if (version != null) {
+                        consolidated.setSegmentETags(Map.of(TransactionStatus.FAILURE, version));
+                    }
+                    return consolidated;
+                });
+    }
+
+    /**
+     * Retrieves the transactions of the specified account number from a Backend Server 2 replica as the raw bytes of
+     * its JSON {@code failure} array, without decoding them. Slow calls may be hedged to a second replica.
+     *
+     * @param accountNumber The account number for which transactions are requested.
+     * @return A {@link Mono} emitting the bytes of the backend's transaction array.
+     */
+    @Override
+    public Mono<byte[]> getTransactionsRaw(String accountNumber) {
+        return backendInvoker.invoke(TransactionStatus.FAILURE, endpoint -> JsonPassthrough.arrayField(webClient.get()
+                        .uri(endpoint.getBaseUrl() + "/backendserver2/failure/" + accountNumber)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .retrieve()
+                        .bodyToFlux(DataBuffer.class),
+                TransactionStatus.FAILURE.fieldName()));
+    }
+
+    /**
+     * Retrieves one page of the transactions of the specified account number from a Backend Server 2 replica.
+     * Slow calls may be hedged to a second replica.
+     *
+     * @param accountNumber The account number for which transactions are requested.
+     * @param limit         The maximum number of transactions in the page.
+     * @param cursor        The backend cursor returned with the previous page, or {@code null} for the first page.
+     * @return A {@link Mono} emitting the page and the backend's cursor of the next one.
+     */
+    @Override
+    public Mono<ConsolidatedTransactionDTO> getTransactionsPage(String accountNumber, int limit, String cursor) {
+        return backendInvoker.invoke(TransactionStatus.FAILURE, endpoint -> webClient.get()
+                        .uri(endpoint.getBaseUrl() + "/backendserver2/failure/" + accountNumber + "?limit=" + limit
+                                + (cursor == null ? "" : "&cursor=" + cursor))
+                        .retrieve()
+                        .bodyToMono(FailureTransactionDTO.class))
+                .map(failureTransactionDTO -> {
+                    ConsolidatedTransactionDTO page = new ConsolidatedTransactionDTO<>(
+                            Collections.emptyList(),
+                            failureTransactionDTO.getFailure(),
+                            Collections.emptyList()
+                    );
+                    page.setNextCursor(failureTransactionDTO.getNextCursor());
+                    return page;
+                });
+    }
+
+    /**
+     * Streams the transactions of the specified account number from a Backend Server 2 replica's NDJSON endpoint,
+     * decoding each line as soon as it arrives.
+     *
+     * @param accountNumber The account number whose transactions are requested.
+     * @param newestFirst   {@code true} to have the replica order the transactions by descending date.
+     * @return A {@link Flux} emitting each transaction as it arrives.
+     */
+    @Override
+    public Flux<TransactionDTO> streamTransactions(String accountNumber, boolean newestFirst) {
+        return backendInvoker.stream(TransactionStatus.FAILURE, endpoint -> webClient.get()
+                .uri(endpoint.getBaseUrl() + "/backendserver2/failure/" + accountNumber + "/stream"
+                        + (newestFirst ? "?order=date" : ""))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(TransactionDTO.class));
+    }
+
+    /**
+     * Retrieves the transactions of several account numbers from a Backend Server 2 replica's batch endpoint.
+     * Batch requests are spread across replicas but never hedged.
+     *
+     * @param accountNumbers The account numbers whose transactions are requested.
+     * @return A {@link Mono} emitting each requested account number mapped to its result.
+     */
+    @Override
+    public Mono<Map<String, BatchAccountResultDTO>> getTransactionsBatch(List<String> accountNumbers) {
+        return backendInvoker.bulk(TransactionStatus.FAILURE, endpoint -> webClient.post()
+                .uri(endpoint.getBaseUrl() + "/backendserver2/failure/batch")
+                .bodyValue(accountNumbers)
                 .retrieve()
-                .bodyToMono(FailureTransactionDTO.class)
-                .block();
-
-        // Creating a ConsolidatedTransactionDTO with the retrieved failed transactions
-        return new ConsolidatedTransactionDTO<>(
-                Collections.emptyList(),
-                failureTransactionDTO.getFailure(),
-                Collections.emptyList()
-        );
+                .bodyToMono(BATCH_RESPONSE));
+    }
+
+    /**
+     * Follows the change feed of a Backend Server 2 replica. The connection pool's response timeout is replaced
+     * by the idle timeout, since the feed only carries heartbeat comments while nothing is written.
+     *
+     * @param endpoint    The replica to follow.
+     * @param lastEventId The identifier of the last event received from the replica, or {@code null}.
+     * @param idleTimeout The longest silence before the feed fails.
+     * @return A {@link Flux} emitting each event as it arrives.
+     */
+    @Override
+    public Flux<ServerSentEvent<String>> streamChanges(BackendEndpoint endpoint, String lastEventId, Duration idleTimeout) {
+        WebClient.RequestHeadersSpec<?> request = webClient.get()
+                .uri(endpoint.getBaseUrl() + "/backendserver2/failure/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .httpRequest(httpRequest -> httpRequest.<HttpClientRequest>getNativeRequest().responseTimeout(idleTimeout));
+        if (lastEventId != null) {
+            request = request.header("Last-Event-ID", lastEventId);
+        }
+        return request.retrieve().bodyToFlux(CHANGE_EVENTS);
     }
 }
@@ -0,0 +1,257 @@
+package com.example.mainserver.service;
+
+import com.example.mainserver.cache.TransactionCache;
+import com.example.mainserver.config.InvalidationProperties;
+import com.example.mainserver.factory.BackendEndpoint;
+import com.example.mainserver.factory.BackendEndpointRegistry;
+import com.example.mainserver.factory.BackendEndpointReloader;
+import com.example.mainserver.factory.TransactionFactory;
+import com.example.mainserver.model.TransactionStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Follows the change feed of every backend replica and invalidates exactly the near cache segments of the accounts
+ * written, so cached segments can live for long time-to-lives and the backends are read about as often as their
+ * data actually changes.
+ * <p>
+ * Each replica's feed is reconnected when it ends or fails, resuming after the last event received. When the replica
+ * can no longer replay the events missed, for instance after it restarted, it sends a {@code reset} event and every
+ * cached segment of its status is invalidated. Replicas are resolved when the subscriber starts and again whenever
+ * the replicas are reloaded: feeds of new replicas are opened and feeds of removed ones closed.
+ *
+ * @author prapti
+ */
+@Component
+public class CacheInvalidationSubscriber implements SmartLifecycle {
+
+    /**
+     * Name of the event announcing a write to an account.
+     */
+    static final String CHANGE_EVENT = "change";
+
+    /**
+     * Name of the event announcing that writes may have been missed.
+     */
+    static final String RESET_EVENT = "reset";
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationSubscriber.class);
+
+    /**
+     * Factory providing the backend server of each status.
+     */
+    private final TransactionFactory transactionFactory;
+
+    /**
+     * Registry of the replicas of each backend.
+     */
+    private final BackendEndpointRegistry endpointRegistry;
+
+    /**
+     * The near cache to invalidate.
+     */
+    private final TransactionCache transactionCache;
+
+    /**
+     * The feed settings.
+     */
+    private final InvalidationProperties properties;
+
+    /**
+     * Identifier of the last event received from each replica, keyed by status and base URL.
+     */
+    private final Map<String, String> lastEventIds = new ConcurrentHashMap<>();
+
+    /**
+     * Number of {@code change} events received.
+     */
+    private final LongAdder changeEvents = new LongAdder();
+
+    /**
+     * Number of {@code reset} events received.
+     */
+    private final LongAdder resetEvents = new LongAdder();
+
+    /**
+     * Number of times a feed was reconnected.
+     */
+    private final LongAdder reconnects = new LongAdder();
+
+    /**
+     * The running feed subscriptions, keyed by status and base URL.
+     */
+    private final Map<String, Disposable> subscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * Whether the feeds are being followed.
+     */
+    private volatile boolean running;
+
+    /**
+     * Constructs a new {@code CacheInvalidationSubscriber}.
+     *
+     * @param transactionFactory Factory providing the backend server of each status.
+     * @param endpointRegistry   Registry of the replicas of each backend.
+     * @param transactionCache   The near cache to invalidate.
+     * @param properties         The feed settings.
+     */
+    @Autowired
+    public CacheInvalidationSubscriber(TransactionFactory transactionFactory, BackendEndpointRegistry endpointRegistry,
+                                       TransactionCache transactionCache, InvalidationProperties properties) {
+        this.transactionFactory = transactionFactory;
+        this.endpointRegistry = endpointRegistry;
+        this.transactionCache = transactionCache;
+        this.properties = properties;
+    }
+
+    /**
+     * Subscribes to the change feed of every replica, if enabled.
+     */
+    @Override
+    public synchronized void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        running = true;
+        refresh();
+    }
+
+    /**
+     * Closes every feed subscription.
+     */
+    @Override
+    public synchronized void stop() {
+        running = false;
+        subscriptions.values().forEach(Disposable::dispose);
+        subscriptions.clear();
+    }
+
+    /**
+     * Indicates whether the feeds are being followed.
+     *
+     * @return {@code true} if started and enabled.
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Follows the feeds of the replicas registered after a reload.
+     *
+     * @param event The reload.
+     */
+    @EventListener
+    public void onReplicasReloaded(BackendEndpointReloader.ReplicasReloaded event) {
+        refresh();
+    }
+
+    /**
+     * Opens the feed of every registered replica not followed yet and closes the feeds of replicas no longer
+     * registered, keeping the others and the position they reached.
+     */
+    synchronized void refresh() {
+        if (!running) {
+            return;
+        }
+        Map<String, Supplier<Disposable>> registered = new LinkedHashMap<>();
+        for (TransactionStatus status : TransactionStatus.values()) {
+            for (BackendEndpoint endpoint : endpointRegistry.getEndpoints(status)) {
+                registered.put(feedOf(status, endpoint), () -> follow(status, endpoint).subscribe());
+            }
+        }
+        subscriptions.entrySet().removeIf(feed -> {
+            if (registered.containsKey(feed.getKey())) {
+                return false;
+            }
+            feed.getValue().dispose();
+            return true;
+        });
+        registered.forEach((feed, open) -> subscriptions.computeIfAbsent(feed, key -> open.get()));
+    }
+
+    /**
+     * Reports how many events were received and how often the feeds were reconnected.
+     *
+     * @return The feed statistics.
+     */
+    public Map<String, Number> stats() {
+        Map<String, Number> result = new LinkedHashMap<>();
+        result.put("feeds", subscriptions.size());
+        result.put("changeEvents", changeEvents.sum());
+        result.put("resetEvents", resetEvents.sum());
+        result.put("reconnects", reconnects.sum());
+        return result;
+    }
+
+    /**
+     * Follows the change feed of one replica for as long as the subscription lasts, reconnecting after the
+     * configured delay when the feed ends and with exponential backoff while it keeps failing.
+     *
+     * @param status   The status of the replica's backend.
+     * @param endpoint The replica.
+     * @return A {@link Flux} applying every event received; it never completes on its own.
+     */
+    Flux<ServerSentEvent<String>> follow(TransactionStatus status, BackendEndpoint endpoint) {
+        String feed = feedOf(status, endpoint);
+        BackendServer backendServer = transactionFactory.getBackendServer(status);
+        return Flux.defer(() -> backendServer.streamChanges(endpoint, lastEventIds.get(feed), properties.getIdleTimeout()))
+                .doOnNext(event -> apply(status, feed, event))
+                .repeatWhen(ended -> ended
+                        .doOnNext(signal -> reconnects.increment())
+                        .delayElements(properties.getReconnectDelay()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, properties.getReconnectDelay())
+                        .maxBackoff(properties.getMaxReconnectDelay())
+                        .transientErrors(true)
+                        .doBeforeRetry(signal -> {
+                            reconnects.increment();
+                            log.warn("Change feed of {} failed, reconnecting: {}", feed, signal.failure().toString());
+                        }));
+    }
+
+    /**
+     * Gets the key of a replica's feed.
+     *
+     * @param status   The status of the replica's backend.
+     * @param endpoint The replica.
+     * @return The key, e.g. "SUCCESS http://host-a:8080".
+     */
+    private static String feedOf(TransactionStatus status, BackendEndpoint endpoint) {
+        return status + " " + endpoint.getBaseUrl();
+    }
+
+    /**
+     * Applies one event of a replica's feed to the near cache.
+     *
+     * @param status The status of the replica's backend.
+     * @param feed   The key of the replica's feed.
+     * @param event  The event.
+     */
+    private void apply(TransactionStatus status, String feed, ServerSentEvent<String> event) {
+        if (RESET_EVENT.equals(event.event())) {
+            transactionCache.invalidateAll(status);
+            resetEvents.increment();
+            log.info("Change feed of {} was reset, invalidated every {} segment", feed, status);
+        } else if (CHANGE_EVENT.equals(event.event()) && event.data() != null) {
+            transactionCache.invalidate(event.data(), status);
+            changeEvents.increment();
+        }
+        if (event.id() != null) {
+            lastEventIds.put(feed, event.id());
+        }
+    }
+}
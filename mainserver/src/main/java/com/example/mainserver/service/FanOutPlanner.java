@@ -0,0 +1,51 @@
+package com.example.mainserver.service;
+
+import com.example.mainserver.model.TransactionStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Turns the {@code status} request parameter into the minimal set of backend servers that must be called.
+ * Accepts {@code ALL}, a single status, or a comma-separated subset such as {@code SUCCESS,PENDING}.
+ * Every status appears at most once in the plan, so each backend server is called at most once per request.
+ *
+ * @author prapti
+ */
+@Component
+public class FanOutPlanner {
+
+    /**
+     * Keyword requesting every transaction status.
+     */
+    private static final String ALL = "ALL";
+
+    /**
+     * Plans the backend calls for the requested status expression.
+     *
+     * @param status The requested status expression (e.g., "ALL", "SUCCESS" or "SUCCESS,PENDING").
+     * @return The unmodifiable set of statuses, in backend order, whose backend servers must be called.
+     * @throws IllegalArgumentException If the expression is empty or contains an unknown status.
+     */
+    public Set<TransactionStatus> plan(String status) {
+        if (status == null || status.isBlank()) {
+            throw new IllegalArgumentException("Status Invalid");
+        }
+        EnumSet<TransactionStatus> statuses = EnumSet.noneOf(TransactionStatus.class);
+        for (String token : status.split(",", -1)) {
+            String value = token.trim();
+            if (value.equalsIgnoreCase(ALL)) {
+                statuses.addAll(EnumSet.allOf(TransactionStatus.class));
+                continue;
+            }
+            try {
+                statuses.add(TransactionStatus.from(value));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Status Invalid");
+            }
+        }
+        return Collections.unmodifiableSet(statuses);
+    }
+}
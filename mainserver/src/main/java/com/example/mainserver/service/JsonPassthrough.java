@@ -0,0 +1,146 @@
+package com.example.mainserver.service;
+
+import com.example.mainserver.model.SegmentStatus;
+import com.example.mainserver.model.TransactionStatus;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Byte-level handling of backend payloads for the passthrough mode. A backend's transaction array is located with
+ * Jackson's streaming parser and copied out as raw bytes, and the consolidated envelope is written around those
+ * bytes, so no transaction object is ever built in the mainserver. The parser still reads every token, so a
+ * malformed backend payload is rejected rather than forwarded.
+ *
+ * @author prapti
+ */
+public final class JsonPassthrough {
+
+    /**
+     * Largest backend response body accepted in passthrough mode.
+     */
+    static final int MAX_BODY_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * The JSON of an empty segment.
+     */
+    private static final byte[] EMPTY_ARRAY = {'[', ']'};
+
+    /**
+     * Shared, thread-safe factory of streaming parsers.
+     */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private JsonPassthrough() {
+    }
+
+    /**
+     * Joins a backend response body and extracts the raw JSON array held by the given top-level field. The joined
+     * body is released once the array has been copied out.
+     *
+     * @param body  The backend response body.
+     * @param field The name of the field holding the transactions, e.g. {@code "success"}.
+     * @return A {@link Mono} emitting the array's bytes; {@code []} if the field is missing or null.
+     */
+    public static Mono<byte[]> arrayField(Flux<DataBuffer> body, String field) {
+        return DataBufferUtils.join(body, MAX_BODY_BYTES)
+                .map(joined -> {
+                    try {
+                        return arrayField(joined, field);
+                    } finally {
+                        DataBufferUtils.release(joined);
+                    }
+                });
+    }
+
+    /**
+     * Extracts the raw JSON array held by the given top-level field of a JSON object.
+     *
+     * @param body  The JSON object; its read position is moved but it is not released.
+     * @param field The name of the field holding the array.
+     * @return The array's bytes; {@code []} if the field is missing or null.
+     * @throws IllegalStateException If the body is not a well-formed JSON object or the field holds no array.
+     */
+    static byte[] arrayField(DataBuffer body, String field) {
+        int base = body.readPosition();
+        try (InputStream in = body.asInputStream(); JsonParser parser = JSON_FACTORY.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("Backend response is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals(name) && value != JsonToken.VALUE_NULL) {
+                    if (value != JsonToken.START_ARRAY) {
+                        throw new IllegalStateException("Backend field '" + field + "' is not an array");
+                    }
+                    int start = (int) parser.currentTokenLocation().getByteOffset();
+                    parser.skipChildren();
+                    int end = (int) parser.currentLocation().getByteOffset();
+                    byte[] array = new byte[end - start];
+                    body.readPosition(base + start);
+                    body.read(array);
+                    return array;
+                }
+                parser.skipChildren();
+            }
+            return EMPTY_ARRAY;
+        } catch (IOException e) {
+            throw new IllegalStateException("Malformed backend response", e);
+        }
+    }
+
+    /**
+     * Writes the consolidated envelope around raw segments, producing the same JSON as a
+     * {@link com.example.mainserver.dto.ConsolidatedTransactionDTO} holding those segments. Segments that were not
+     * fetched are written as empty arrays.
+     *
+     * @param segments The raw JSON array of each fetched segment.
+     * @param outcomes The outcome of each requested segment; omitted from the JSON when empty.
+     * @return The consolidated response body.
+     */
+    public static byte[] envelope(Map<TransactionStatus, byte[]> segments, Map<TransactionStatus, SegmentStatus> outcomes) {
+        int size = 64;
+        for (byte[] segment : segments.values()) {
+            size += segment.length;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        char separator = '{';
+        for (TransactionStatus status : TransactionStatus.values()) {
+            writeAscii(out, separator + "\"" + status.fieldName() + "\":");
+            out.writeBytes(segments.getOrDefault(status, EMPTY_ARRAY));
+            separator = ',';
+        }
+        if (!outcomes.isEmpty()) {
+            writeAscii(out, ",\"segmentStatus\":");
+            separator = '{';
+            for (Map.Entry<TransactionStatus, SegmentStatus> outcome : outcomes.entrySet()) {
+                writeAscii(out, separator + "\"" + outcome.getKey().name() + "\":\"" + outcome.getValue().toValue() + "\"");
+                separator = ',';
+            }
+            writeAscii(out, "}");
+        }
+        writeAscii(out, "}");
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes a fixed ASCII fragment of the envelope.
+     *
+     * @param out      The envelope being written.
+     * @param fragment The fragment.
+     */
+    private static void writeAscii(ByteArrayOutputStream out, String fragment) {
+        out.writeBytes(fragment.getBytes(StandardCharsets.US_ASCII));
+    }
+}
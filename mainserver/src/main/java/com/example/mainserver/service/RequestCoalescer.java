@@ -0,0 +1,128 @@
+package com.example.mainserver.service;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight coalescer: concurrent requests for the same key share one in-flight fetch and all receive its result.
+ * <p>
+ * Bookkeeping is lock-free on the hot path: joining an in-flight fetch is a plain {@link ConcurrentHashMap#get},
+ * and starting one is a single {@code putIfAbsent}. The entry is removed before the result is published, so a
+ * request arriving after completion always starts a fresh fetch instead of observing a finished one.
+ *
+ * @param <K> The type of the request key.
+ * @param <V> The type of the fetched value.
+ * @author prapti
+ */
+public class RequestCoalescer<K, V> {
+
+    /**
+     * The fetches currently in flight, keyed by request.
+     */
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Number of fetches actually started.
+     */
+    private final LongAdder started = new LongAdder();
+
+    /**
+     * Number of requests that joined a fetch started by another request.
+     */
+    private final LongAdder joined = new LongAdder();
+
+    /**
+     * Returns the result of the in-flight fetch for the key, starting the fetch if none is in flight.
+     * Cancelling one subscriber does not cancel the shared fetch for the others. The fetch runs in the subscriber
+     * context of the request that started it, so it is traced as part of that request.
+     *
+     * @param key   The request key.
+     * @param fetch Supplies the fetch to run when no fetch for the key is in flight.
+     * @return A {@link Mono} emitting the shared result.
+     */
+    public Mono<V> coalesce(K key, Supplier<Mono<V>> fetch) {
+        return Mono.deferContextual(context -> {
+            CompletableFuture<V> existing = inFlight.get(key);
+            if (existing != null) {
+                joined.increment();
+                return Mono.fromFuture(existing, true);
+            }
+            CompletableFuture<V> promise = new CompletableFuture<>();
+            CompletableFuture<V> raced = inFlight.putIfAbsent(key, promise);
+            if (raced != null) {
+                joined.increment();
+                return Mono.fromFuture(raced, true);
+            }
+            started.increment();
+            start(key, promise, fetch, context);
+            return Mono.fromFuture(promise, true);
+        });
+    }
+
+    /**
+     * Gets the number of fetches currently in flight.
+     *
+     * @return The in-flight fetch count.
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Gets the number of fetches started since creation.
+     *
+     * @return The started fetch count.
+     */
+    public long startedCount() {
+        return started.sum();
+    }
+
+    /**
+     * Gets the number of requests served by joining another request's fetch since creation.
+     *
+     * @return The joined request count.
+     */
+    public long joinedCount() {
+        return joined.sum();
+    }
+
+    /**
+     * Subscribes to the fetch and publishes its outcome to every request waiting on the promise.
+     *
+     * @param key     The request key.
+     * @param promise The promise shared by the waiting requests.
+     * @param fetch   Supplies the fetch to run.
+     * @param context The subscriber context of the request starting the fetch.
+     */
+    private void start(K key, CompletableFuture<V> promise, Supplier<Mono<V>> fetch, ContextView context) {
+        Mono<V> source;
+        try {
+            source = fetch.get();
+        } catch (RuntimeException ex) {
+            inFlight.remove(key, promise);
+            promise.completeExceptionally(ex);
+            return;
+        }
+        source.subscribe(
+                value -> {
+                    inFlight.remove(key, promise);
+                    promise.complete(value);
+                },
+                error -> {
+                    inFlight.remove(key, promise);
+                    promise.completeExceptionally(error);
+                },
+                () -> {
+                    inFlight.remove(key, promise);
+                    promise.complete(null);
+                },
+                Context.of(context));
+    }
+}
@@ -1,71 +1,1121 @@
 package com.example.mainserver.service;
 
+import com.example.mainserver.cache.TransactionCache;
+import com.example.mainserver.config.BatchProperties;
+import com.example.mainserver.config.FanOutProperties;
+import com.example.mainserver.config.PagingProperties;
+import com.example.mainserver.config.ResilienceProperties;
+import com.example.mainserver.dto.BatchAccountResultDTO;
 import com.example.mainserver.dto.ConsolidatedTransactionDTO;
+import com.example.mainserver.dto.PassthroughTransactionsDTO;
+import com.example.mainserver.dto.StreamedTransactionDTO;
+import com.example.mainserver.dto.TimelineDTO;
+import com.example.mainserver.dto.TransactionDTO;
+import com.example.mainserver.factory.BulkheadExecutors;
+import com.example.mainserver.factory.CircuitBreaker;
+import com.example.mainserver.factory.CircuitBreakers;
 import com.example.mainserver.factory.TransactionFactory;
+import com.example.mainserver.model.Consistency;
+import com.example.mainserver.model.PageCursor;
+import com.example.mainserver.model.SegmentStatus;
+import com.example.mainserver.model.TimelineOrder;
+import com.example.mainserver.model.TransactionStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Service class for fetching consolidated transactions based on the specified account number and status.
+ * Every query is timed end to end into {@code mainserver.transactions}. The stages of a cached fetch, and the wait
+ * for a bulkhead thread in blocking mode, are observed as {@code mainserver.transactions.stage}, giving both a timer
+ * and a span; the backend calls made during the {@code backend_fetch} stage are traced as its children.
  *
  */
 @Service
 public class TransactionService {
 
+    private static final Logger log = LoggerFactory.getLogger(TransactionService.class);
+
+    /**
+     * Number of transactions buffered ahead from each backend stream while merging a timeline.
+     */
+    private static final int TIMELINE_PREFETCH = 32;
+
+    /**
+     * Captures the trace context of a blocking backend call so it can be restored on the bulkhead thread.
+     */
+    private static final ContextSnapshotFactory CONTEXT_SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
     /**
      * Factory for obtaining the appropriate backend server based on the transaction status.
      */
     private final TransactionFactory backendServerFactory;
 
+    /**
+     * Planner turning the requested status expression into the backend servers to call.
+     */
+    private final FanOutPlanner fanOutPlanner;
+
+    /**
+     * Per-backend executors isolating blocking backend calls from each other.
+     */
+    private final BulkheadExecutors bulkheadExecutors;
+
+    /**
+     * Near cache of previously fetched segments.
+     */
+    private final TransactionCache transactionCache;
+
+    /**
+     * Properties selecting the reactive or blocking fan-out strategy.
+     */
+    private final FanOutProperties fanOutProperties;
+
+    /**
+     * Circuit breaker of each backend server.
+     */
+    private final CircuitBreakers circuitBreakers;
+
+    /**
+     * Properties holding the deadline of each backend server.
+     */
+    private final ResilienceProperties resilienceProperties;
+
+    /**
+     * Properties controlling the chunking of batch queries.
+     */
+    private final BatchProperties batchProperties;
+
+    /**
+     * Properties bounding the page size of paged queries.
+     */
+    private final PagingProperties pagingProperties;
+
+    /**
+     * Coalescer sharing one in-flight fan-out between concurrent requests for the same account and statuses.
+     */
+    private final RequestCoalescer<FetchKey, ConsolidatedTransactionDTO> requestCoalescer = new RequestCoalescer<>();
+
+    /**
+     * The end-to-end timers, keyed by operation and outcome, registered once with the meter registry.
+     */
+    private final Map<Operation, Map<Outcome, Timer>> operationTimers = new EnumMap<>(Operation.class);
+
+    /**
+     * Registry the stages of a query are observed with, as timers and spans.
+     */
+    private final ObservationRegistry observationRegistry;
+
     /**
      * Constructs a new {@code TransactionService} instance with the provided backend server factory.
      *
      * @param backendServerFactory The factory for obtaining the appropriate backend server.
+     * @param fanOutPlanner        The planner deciding which backend servers to call.
+     * @param bulkheadExecutors    The per-backend executors used by the blocking fan-out strategy.
+     * @param transactionCache     The near cache of previously fetched segments.
+     * @param fanOutProperties     The properties selecting the fan-out strategy.
+     * @param circuitBreakers      The circuit breaker of each backend server.
+     * @param resilienceProperties The properties holding the deadline of each backend server.
+     * @param batchProperties      The properties controlling the chunking of batch queries.
+     * @param pagingProperties     The properties bounding the page size of paged queries.
+     * @param meterRegistry        The registry the end-to-end timers are published to.
+     * @param observationRegistry  The registry the stages of a query are observed with.
      */
     @Autowired
-    public TransactionService(TransactionFactory backendServerFactory) {
+    public TransactionService(TransactionFactory backendServerFactory, FanOutPlanner fanOutPlanner,
+                              BulkheadExecutors bulkheadExecutors, TransactionCache transactionCache,
+                              FanOutProperties fanOutProperties, CircuitBreakers circuitBreakers,
+                              ResilienceProperties resilienceProperties, BatchProperties batchProperties,
+                              PagingProperties pagingProperties, MeterRegistry meterRegistry,
+                              ObservationRegistry observationRegistry) {
         this.backendServerFactory = backendServerFactory;
+        this.fanOutPlanner = fanOutPlanner;
+        this.bulkheadExecutors = bulkheadExecutors;
+        this.transactionCache = transactionCache;
+        this.fanOutProperties = fanOutProperties;
+        this.circuitBreakers = circuitBreakers;
+        this.resilienceProperties = resilienceProperties;
+        this.batchProperties = batchProperties;
+        this.pagingProperties = pagingProperties;
+        for (Operation operation : Operation.values()) {
+            Map<Outcome, Timer> timers = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                timers.put(outcome, Timer.builder("mainserver.transactions")
+                        .description("End-to-end latency of transaction queries")
+                        .tag("operation", operation.tag())
+                        .tag("outcome", outcome.tag())
+                        .register(meterRegistry));
+            }
+            operationTimers.put(operation, timers);
+        }
+        this.observationRegistry = observationRegistry;
+    }
+
+    /**
+     * Fetches consolidated transactions for the specified account number and status, allowing cached segments.
+     * Only the backend servers owning the requested statuses are called; the other segments are left empty.
+     *
+     * @param accountNumber The account number for which consolidated transactions are requested.
+     * @param status        The statuses of transactions to fetch ("ALL", a single status, or a comma-separated subset).
+     * @return A {@link Mono} emitting the consolidated transactions.
+     * @throws IllegalArgumentException If the status expression contains an unsupported value.
+     */
+    public Mono<ConsolidatedTransactionDTO> fetchTransactions(String accountNumber, String status) {
+        return fetchTransactions(accountNumber, status, Consistency.CACHED);
+    }
+
+    /**
+     * Fetches consolidated transactions for the specified account number and status with the requested consistency.
+     * Only the backend servers owning the requested statuses are called; the other segments are left empty.
+     *
+     * @param accountNumber The account number for which consolidated transactions are requested.
+     * @param status        The statuses of transactions to fetch ("ALL", a single status, or a comma-separated subset).
+     * @param consistency   Whether cached segments may be served or every segment must come from the backends.
+     * @return A {@link Mono} emitting the consolidated transactions.
+     * @throws IllegalArgumentException If the status expression contains an unsupported value.
+     */
+    public Mono<ConsolidatedTransactionDTO> fetchTransactions(String accountNumber, String status, Consistency consistency) {
+        return fetchTransactions(accountNumber, fanOutPlanner.plan(status), consistency);
+    }
+
+    /**
+     * Fetches consolidated transactions for the specified account number from the backend servers owning the given
+     * statuses. With {@link Consistency#CACHED}, segments found in the near cache are served from it; stale segments
+     * inside the grace window are served immediately while a single background refresh replaces them, and only the
+     * missing segments are fetched before answering. Concurrent requests for the same account and missing statuses
+     * share a single fan-out. A backend that misses its deadline, fails or has an open circuit leaves its segment
+     * empty and marked in {@link ConsolidatedTransactionDTO#getSegmentStatus()}; the other segments are still served.
+     *
+     * @param accountNumber The account number for which consolidated transactions are requested.
+     * @param statuses      The statuses whose segments are requested.
+     * @param consistency   Whether cached segments may be served or every segment must come from the backends.
+     * @return A {@link Mono} emitting the consolidated transactions.
+     */
+    public Mono<ConsolidatedTransactionDTO> fetchTransactions(String accountNumber, Set<TransactionStatus> statuses,
+                                                             Consistency consistency) {
+        return timed(Operation.FETCH, Mono.defer(() -> {
+            Map<TransactionStatus, List<TransactionDTO>> segments;
+            if (consistency == Consistency.FRESH) {
+                segments = new EnumMap<>(TransactionStatus.class);
+            } else {
+                TransactionCache.Lookup lookup = stage("cache_lookup")
+                        .observe(() -> transactionCache.getSegments(accountNumber, statuses));
+                segments = lookup.segments();
+                refreshInBackground(accountNumber, lookup.stale());
+            }
+            Set<TransactionStatus> missing = EnumSet.noneOf(TransactionStatus.class);
+            missing.addAll(statuses);
+            missing.removeAll(segments.keySet());
+            Map<TransactionStatus, SegmentStatus> outcomes = new EnumMap<>(TransactionStatus.class);
+            segments.keySet().forEach(status -> outcomes.put(status, SegmentStatus.OK));
+            if (missing.isEmpty()) {
+                return Mono.just(timedAssemble(segments, outcomes));
+            }
+            return observed("backend_fetch", fetchAndCache(accountNumber, Collections.unmodifiableSet(missing)))
+                    .map(fetched -> {
+                        for (TransactionStatus status : missing) {
+                            segments.put(status, status.segmentOf(fetched));
+                            outcomes.put(status, outcomeOf(fetched, status));
+                        }
+                        return timedAssemble(segments, outcomes);
+                    });
+        }));
+    }
+
+    /**
+     * Starts a background refresh of the given stale segments, skipping segments whose refresh is already running.
+     * Segments cached with an entity tag are revalidated, so a backend whose data is unchanged answers without
+     * sending or reading any transaction. The caller does not wait for the refresh; a failed refresh leaves the
+     * stale segment in place until it expires.
+     *
+     * @param accountNumber The account number.
+     * @param stale         The statuses of the stale segments.
+     */
+    private void refreshInBackground(String accountNumber, Set<TransactionStatus> stale) {
+        Set<TransactionStatus> claimed = EnumSet.noneOf(TransactionStatus.class);
+        Map<TransactionStatus, TransactionCache.CachedVersion> versions = new EnumMap<>(TransactionStatus.class);
+        for (TransactionStatus status : stale) {
+            if (transactionCache.beginRefresh(accountNumber, status)) {
+                claimed.add(status);
+                TransactionCache.CachedVersion version = transactionCache.getVersion(accountNumber, status);
+                if (version != null) {
+                    versions.put(status, version);
+                }
+            }
+        }
+        if (claimed.isEmpty()) {
+            return;
+        }
+        fetchAndCache(accountNumber, Collections.unmodifiableSet(claimed), versions)
+                .doFinally(signal -> claimed.forEach(status -> transactionCache.endRefresh(accountNumber, status)))
+                .subscribe(
+                        refreshed -> { },
+                        error -> log.warn("Background refresh of {} for account {} failed", claimed, accountNumber, error));
+    }
+
+    /**
+     * Fetches the given segments from the backend servers, coalescing identical concurrent fetches when enabled,
+     * and stores every segment that was fetched successfully in the near cache.
+     *
+     * @param accountNumber The account number for which transactions are requested.
+     * @param statuses      The statuses whose backend servers must be called.
+     * @return A {@link Mono} emitting the fetched segments as cached.
+     */
+    private Mono<ConsolidatedTransactionDTO> fetchAndCache(String accountNumber, Set<TransactionStatus> statuses) {
+        return fetchAndCache(accountNumber, statuses, Collections.emptyMap());
+    }
+
+    /**
+     * Fetches the given segments from the backend servers, revalidating the given cached versions, coalescing
+     * identical concurrent fetches when enabled, and stores every segment that was fetched successfully in the near
+     * cache together with its entity tag. A segment the backend reported unchanged is not stored again, so it keeps
+     * the time-to-live it was written with. A segment whose account was invalidated after the fetch started is
+     * returned but not stored.
+     *
+     * @param accountNumber The account number for which transactions are requested.
+     * @param statuses      The statuses whose backend servers must be called.
+     * @param versions      The cached versions to revalidate instead of fetching unconditionally, keyed by status.
+     * @return A {@link Mono} emitting the fetched segments as cached.
+     */
+    private Mono<ConsolidatedTransactionDTO> fetchAndCache(String accountNumber, Set<TransactionStatus> statuses,
+                                                          Map<TransactionStatus, TransactionCache.CachedVersion> versions) {
+        Mono<ConsolidatedTransactionDTO> fetch = Mono.defer(() -> {
+            Map<TransactionStatus, Long> stamps = new EnumMap<>(TransactionStatus.class);
+            statuses.forEach(status -> stamps.put(status, transactionCache.invalidationStamp(accountNumber, status)));
+            return fanOut(accountNumber, statuses, versions)
+                    .map(fetched -> {
+                        for (TransactionStatus status : statuses) {
+                            if (outcomeOf(fetched, status) == SegmentStatus.OK && !isUnchanged(fetched, status, versions)) {
+                                status.setSegment(fetched, transactionCache.putSegment(accountNumber, status,
+                                        status.segmentOf(fetched), eTagOf(fetched, status), stamps.get(status)));
+                            }
+                        }
+                        return fetched;
+                    });
+        });
+        if (!fanOutProperties.isCoalesce()) {
+            return fetch;
+        }
+        return requestCoalescer.coalesce(new FetchKey(accountNumber, statuses), () -> fetch);
+    }
+
+    /**
+     * Indicates whether a backend reported the cached version of a segment unchanged.
+     *
+     * @param fetched  The fetched segments with their entity tags.
+     * @param status   The segment's status.
+     * @param versions The cached versions that were revalidated, keyed by status.
+     * @return {@code true} if the segment was revalidated and its entity tag is the cached one.
+     */
+    private static boolean isUnchanged(ConsolidatedTransactionDTO<?> fetched, TransactionStatus status,
+                                       Map<TransactionStatus, TransactionCache.CachedVersion> versions) {
+        TransactionCache.CachedVersion version = versions.get(status);
+        return version != null && version.eTag().equals(eTagOf(fetched, status));
+    }
+
+    /**
+     * Assembles a consolidated result from the given segments and observes it as the {@code assemble} stage.
+     *
+     * @param segments The segments keyed by status.
+     * @param outcomes The outcome of each requested segment.
+     * @return The consolidated transactions.
+     */
+    private ConsolidatedTransactionDTO timedAssemble(Map<TransactionStatus, List<TransactionDTO>> segments,
+                                                     Map<TransactionStatus, SegmentStatus> outcomes) {
+        return stage("assemble").observe(() -> assemble(segments, outcomes));
     }
 
     /**
-     * Fetches consolidated transactions asynchronously for the specified account number and status.
+     * Times an operation into the {@code mainserver.transactions} timer, from subscription until it ends.
+     *
+     * @param operation The operation.
+     * @param result    The operation's result.
+     * @param <T>       The type of the result.
+     * @return The timed result.
+     */
+    private <T> Mono<T> timed(Operation operation, Mono<T> result) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return result
+                    .doOnSuccess(value -> recordOperation(operation, Outcome.SUCCESS, start))
+                    .doOnError(error -> recordOperation(operation, Outcome.ERROR, start))
+                    .doOnCancel(() -> recordOperation(operation, Outcome.CANCELLED, start));
+        });
+    }
+
+    /**
+     * Times a streamed operation into the {@code mainserver.transactions} timer, from subscription until it ends.
+     *
+     * @param operation The operation.
+     * @param result    The operation's elements.
+     * @param <T>       The type of the elements.
+     * @return The timed elements.
+     */
+    private <T> Flux<T> timed(Operation operation, Flux<T> result) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return result
+                    .doOnComplete(() -> recordOperation(operation, Outcome.SUCCESS, start))
+                    .doOnError(error -> recordOperation(operation, Outcome.ERROR, start))
+                    .doOnCancel(() -> recordOperation(operation, Outcome.CANCELLED, start));
+        });
+    }
+
+    /**
+     * Records the end-to-end duration of a finished operation.
+     *
+     * @param operation The operation.
+     * @param outcome   How the operation ended.
+     * @param start     The {@link System#nanoTime()} at which it started.
+     */
+    private void recordOperation(Operation operation, Outcome outcome, long start) {
+        operationTimers.get(operation).get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates the observation of one stage of a query: "cache_lookup", "backend_fetch", "assemble" or
+     * "bulkhead_queue". It is timed into {@code mainserver.transactions.stage} and traced as a child of the current
+     * observation, such as the incoming request.
+     *
+     * @param stage The stage.
+     * @return The observation, not yet started.
+     */
+    private Observation stage(String stage) {
+        return Observation.createNotStarted("mainserver.transactions.stage", observationRegistry)
+                .contextualName(stage)
+                .lowCardinalityKeyValue("stage", stage);
+    }
+
+    /**
+     * Observes an asynchronous stage of a query from subscription until it ends. The observation is made current for
+     * the stage's subscribers, so backend calls made during the stage are traced as its children.
+     *
+     * @param stage  The stage.
+     * @param result The stage's result.
+     * @param <T>    The type of the result.
+     * @return The observed result.
+     */
+    private <T> Mono<T> observed(String stage, Mono<T> result) {
+        return Mono.defer(() -> {
+            Observation observation = stage(stage).start();
+            return result
+                    .doOnSuccess(value -> observation.stop())
+                    .doOnError(error -> observation.error(error).stop())
+                    .doOnCancel(observation::stop)
+                    .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+
+    /**
+     * Assembles a consolidated result from the given segments; statuses that were not requested are left empty.
+     *
+     * @param segments The segments keyed by status.
+     * @param outcomes The outcome of each requested segment.
+     * @return The consolidated transactions.
+     */
+    private static ConsolidatedTransactionDTO assemble(Map<TransactionStatus, List<TransactionDTO>> segments,
+                                                       Map<TransactionStatus, SegmentStatus> outcomes) {
+        ConsolidatedTransactionDTO consolidated = new ConsolidatedTransactionDTO(
+                Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+        segments.forEach((status, transactions) -> status.setSegment(consolidated, transactions));
+        consolidated.setSegmentStatus(outcomes);
+        return consolidated;
+    }
+
+    /**
+     * Reads the outcome of one segment of a fan-out result.
+     *
+     * @param fetched The fan-out result.
+     * @param status  The segment's status.
+     * @return The segment's outcome.
+     */
+    private static SegmentStatus outcomeOf(ConsolidatedTransactionDTO<?> fetched, TransactionStatus status) {
+        return fetched.getSegmentStatus().get(status);
+    }
+
+    /**
+     * Reads the entity tag of one segment of a backend or fan-out result.
+     *
+     * @param fetched The result.
+     * @param status  The segment's status.
+     * @return The segment's entity tag, or {@code null} if the backend sent none.
+     */
+    private static String eTagOf(ConsolidatedTransactionDTO<?> fetched, TransactionStatus status) {
+        Map<TransactionStatus, String> eTags = fetched.getSegmentETags();
+        return eTags == null ? null : eTags.get(status);
+    }
+
+    /**
+     * Gets the coalescer shared by concurrent identical requests, for reporting its statistics.
+     *
+     * @return The request coalescer.
+     */
+    public RequestCoalescer<?, ?> getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+    /**
+     * Calls the backend servers owning the given statuses and assembles their segments with their outcomes.
+     * The backend calls are combined with {@link Mono#zip} and only start once the result is subscribed to;
+     * a degraded backend yields an empty segment instead of failing the whole result.
      *
      * @param accountNumber The account number for which consolidated transactions are requested.
-     * @param status        The status of transactions to fetch ("SUCCESS," "FAILURE," "PENDING," or "ALL").
-     * @return A {@link CompletableFuture} containing the consolidated transactions.
-     */
-    public CompletableFuture<ConsolidatedTransactionDTO> fetchTransactions(String accountNumber, String status) {
-       if(!status.equalsIgnoreCase("ALL")&& !status.equalsIgnoreCase("SUCCESS")&& !status.equalsIgnoreCase("FAILURE")&& !status.equalsIgnoreCase("PENDING")){
-           throw new IllegalArgumentException("Status Invalid");
-       }
-        if (status.equalsIgnoreCase("ALL")) {
-            CompletableFuture<ConsolidatedTransactionDTO> allPendingTransactions = CompletableFuture
-                    .supplyAsync(() -> backendServerFactory.getBackendServer("PENDING").getTransactions(accountNumber));
-            CompletableFuture<ConsolidatedTransactionDTO> allSuccessTransactions = CompletableFuture
-                    .supplyAsync(() -> backendServerFactory.getBackendServer("SUCCESS").getTransactions(accountNumber));
-            CompletableFuture<ConsolidatedTransactionDTO> allFailureTransactions = CompletableFuture
-                    .supplyAsync(() -> backendServerFactory.getBackendServer("FAILURE").getTransactions(accountNumber));
-
-            return CompletableFuture.allOf(allPendingTransactions, allSuccessTransactions, allFailureTransactions)
-                    .thenApply(ignoredVoid -> new ConsolidatedTransactionDTO(
-                            allSuccessTransactions.join().getSuccess(),
-                            allFailureTransactions.join().getFailure(),
-                            allPendingTransactions.join().getPending()));
-        } else {
-            CompletableFuture<ConsolidatedTransactionDTO> allPendingTransactions = CompletableFuture
-                    .supplyAsync(() -> backendServerFactory.getBackendServer(status).getTransactions(accountNumber));
-            CompletableFuture<ConsolidatedTransactionDTO> allSuccessTransactions = CompletableFuture
-                    .supplyAsync(() -> backendServerFactory.getBackendServer(status).getTransactions(accountNumber));
-            CompletableFuture<ConsolidatedTransactionDTO> allFailureTransactions = CompletableFuture
-                    .supplyAsync(() -> backendServerFactory.getBackendServer(status).getTransactions(accountNumber));
-
-            return CompletableFuture.allOf(allPendingTransactions, allSuccessTransactions, allFailureTransactions)
-                    .thenApply(ignoredVoid -> new ConsolidatedTransactionDTO(
-                            allSuccessTransactions.join().getSuccess(),
-                            allFailureTransactions.join().getFailure(),
-                            allPendingTransactions.join().getPending()));
+     * @param statuses      The statuses whose backend servers must be called.
+     * @param versions      The cached versions to revalidate, keyed by status.
+     * @return A {@link Mono} emitting the consolidated transactions with their entity tags.
+     */
+    private Mono<ConsolidatedTransactionDTO> fanOut(String accountNumber, Set<TransactionStatus> statuses,
+                                                   Map<TransactionStatus, TransactionCache.CachedVersion> versions) {
+        List<TransactionStatus> plan = new ArrayList<>(statuses);
+        List<Mono<SegmentResult>> calls = new ArrayList<>(plan.size());
+        for (TransactionStatus status : plan) {
+            calls.add(fetchSegment(status, accountNumber, versions.get(status)));
         }
+
+        return Mono.zip(calls, results -> {
+            ConsolidatedTransactionDTO consolidated = new ConsolidatedTransactionDTO(
+                    Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+            Map<TransactionStatus, SegmentStatus> outcomes = new EnumMap<>(TransactionStatus.class);
+            Map<TransactionStatus, String> eTags = new EnumMap<>(TransactionStatus.class);
+            for (int i = 0; i < results.length; i++) {
+                TransactionStatus status = plan.get(i);
+                SegmentResult result = (SegmentResult) results[i];
+                status.setSegment(consolidated, result.transactions());
+                outcomes.put(status, result.status());
+                if (result.eTag() != null) {
+                    eTags.put(status, result.eTag());
+                }
+            }
+            consolidated.setSegmentStatus(outcomes);
+            consolidated.setSegmentETags(eTags);
+            return consolidated;
+        });
+    }
+
+    /**
+     * Fetches one segment through the backend's circuit breaker and within the backend's deadline.
+     * An open circuit skips the call; a missed deadline or a failure is recorded by the breaker and turns into an
+     * empty segment with the matching outcome. A client error (4xx) does not count against the backend's health.
+     * When a cached version is given, the backend is asked for the segment only if it changed since, and an
+     * unchanged segment is answered with the cached transactions.
+     *
+     * @param status        The status identifying the backend server.
+     * @param accountNumber The account number for which transactions are requested.
+     * @param version       The cached version to revalidate, or {@code null} to fetch unconditionally.
+     * @return A {@link Mono} emitting the segment, its entity tag and its outcome; it never fails.
+     */
+    private Mono<SegmentResult> fetchSegment(TransactionStatus status, String accountNumber,
+                                             TransactionCache.CachedVersion version) {
+        Duration deadline = resilienceProperties.backendFor(status).getDeadline();
+        String eTag = version == null ? null : version.eTag();
+        return callBackend(status, deadline, "account " + accountNumber,
+                () -> fetchFromBackend(status, accountNumber, eTag, deadline)
+                        .map(fetched -> new SegmentResult(status.segmentOf(fetched), SegmentStatus.OK, eTagOf(fetched, status)))
+                        .switchIfEmpty(Mono.fromSupplier(() -> {
+                            if (version == null) {
+                                return new SegmentResult(Collections.emptyList(), SegmentStatus.OK, null);
+                            }
+                            transactionCache.recordNotModified();
+                            return new SegmentResult(version.transactions(), SegmentStatus.OK, version.eTag());
+                        })),
+                SegmentResult::degraded);
+    }
+
+    /**
+     * Calls a backend server through its circuit breaker and within the given deadline. An open circuit skips the
+     * call; a missed deadline or a failure is recorded by the breaker and turns into the degraded result for the
+     * matching outcome, while a rejection by the local bulkhead is not held against the backend.
+     *
+     * @param status   The status identifying the backend server.
+     * @param deadline The longest time to wait for the backend.
+     * @param request  The request, for the log, e.g. "account 123456".
+     * @param call     Performs the backend call when subscribed to.
+     * @param degraded Creates the result standing in for the backend's answer when it is degraded.
+     * @param <T>      The type of the result.
+     * @return A {@link Mono} emitting the backend's result or the degraded one; it never fails.
+     */
+    private <T> Mono<T> callBackend(TransactionStatus status, Duration deadline, String request,
+                                    Supplier<Mono<T>> call, Function<SegmentStatus, T> degraded) {
+        return Mono.defer(() -> {
+            CircuitBreaker breaker = circuitBreakers.get(status);
+            if (!breaker.tryAcquire()) {
+                return Mono.just(degraded.apply(SegmentStatus.CIRCUIT_OPEN));
+            }
+            return call.get()
+                    .timeout(deadline)
+                    .doOnSuccess(result -> breaker.onSuccess())
+                    .doOnCancel(breaker::release)
+                    .onErrorResume(error -> Mono.just(degraded.apply(recordFailure(breaker, status, request, error))));
+        });
+    }
+
+    /**
+     * Fetches consolidated transactions for the specified account number in passthrough mode: each backend's
+     * transaction array is spliced as raw bytes into the consolidated envelope, so no transaction object is decoded
+     * or re-encoded. The body is the same JSON as the decoded path would produce. Backend calls go through the same
+     * circuit breakers and deadlines, and a degraded backend leaves its segment empty and flagged in
+     * {@code segmentStatus}. Passthrough responses bypass the near cache, which holds decoded segments, and always
+     * use the reactive fan-out.
+     *
+     * @param accountNumber The account number for which consolidated transactions are requested.
+     * @param status        The statuses of transactions to fetch ("ALL", a single status, or a comma-separated subset).
+     * @return A {@link Mono} emitting the encoded consolidated transactions and their segment outcomes.
+     * @throws IllegalArgumentException If the status expression contains an unsupported value.
+     */
+    public Mono<PassthroughTransactionsDTO> fetchTransactionsPassthrough(String accountNumber, String status) {
+        List<TransactionStatus> plan = new ArrayList<>(fanOutPlanner.plan(status));
+        List<Mono<RawSegmentResult>> calls = new ArrayList<>(plan.size());
+        for (TransactionStatus segment : plan) {
+            calls.add(callBackend(segment, resilienceProperties.backendFor(segment).getDeadline(), "account " + accountNumber,
+                    () -> backendServerFactory.getBackendServer(segment).getTransactionsRaw(accountNumber)
+                            .map(array -> new RawSegmentResult(array, SegmentStatus.OK))
+                            .defaultIfEmpty(RawSegmentResult.degraded(SegmentStatus.OK)),
+                    RawSegmentResult::degraded));
+        }
+
+        return timed(Operation.PASSTHROUGH, Mono.zip(calls, results -> {
+            Map<TransactionStatus, byte[]> segments = new EnumMap<>(TransactionStatus.class);
+            Map<TransactionStatus, SegmentStatus> outcomes = new EnumMap<>(TransactionStatus.class);
+            for (int i = 0; i < results.length; i++) {
+                RawSegmentResult result = (RawSegmentResult) results[i];
+                segments.put(plan.get(i), result.array());
+                outcomes.put(plan.get(i), result.status());
+            }
+            return new PassthroughTransactionsDTO(JsonPassthrough.envelope(segments, outcomes), outcomes);
+        }));
+    }
+
+    /**
+     * Fetches the consolidated transactions of several account numbers. The accounts are split into chunks and each
+     * backend server owning a requested status receives one request per chunk rather than one per account; up to
+     * the configured number of chunks are fetched at the same time. Each account's segments are flagged in
+     * {@link ConsolidatedTransactionDTO#getSegmentStatus()}: an account unknown to a backend is
+     * {@link SegmentStatus#NOT_FOUND} there, and a degraded backend degrades the segment of every account in the
+     * chunk without failing the batch. Batch queries bypass the near cache so that sweeping through many accounts
+     * does not evict the hot ones.
+     *
+     * @param accountNumbers The account numbers whose transactions are requested; duplicates are fetched once.
+     * @param status         The statuses of transactions to fetch ("ALL", a single status, or a comma-separated subset).
+     * @return A {@link Mono} emitting each distinct account number, in request order, mapped to its transactions.
+     * @throws IllegalArgumentException If the account numbers are missing, blank or too many, or the status
+     *                                  expression contains an unsupported value.
+     */
+    public Mono<Map<String, ConsolidatedTransactionDTO>> fetchTransactionsBatch(List<String> accountNumbers,
+                                                                              String status) {
+        Set<TransactionStatus> statuses = fanOutPlanner.plan(status);
+        List<String> accounts = distinctAccountNumbers(accountNumbers);
+        int chunkSize = Math.max(1, batchProperties.getChunkSize());
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < accounts.size(); from += chunkSize) {
+            chunks.add(accounts.subList(from, Math.min(from + chunkSize, accounts.size())));
+        }
+
+        return timed(Operation.BATCH, Flux.fromIterable(chunks)
+                .flatMapSequential(chunk -> fetchChunk(chunk, statuses), Math.max(1, batchProperties.getConcurrency()))
+                .collect(LinkedHashMap::new, Map::putAll));
+    }
+
+    /**
+     * Validates the account numbers of a batch query and removes duplicates, keeping the first occurrence.
+     *
+     * @param accountNumbers The requested account numbers.
+     * @return The distinct account numbers in request order.
+     * @throws IllegalArgumentException If the list is missing or empty, contains a blank account number, or exceeds
+     *                                  the configured maximum.
+     */
+    private List<String> distinctAccountNumbers(List<String> accountNumbers) {
+        if (accountNumbers == null || accountNumbers.isEmpty()) {
+            throw new IllegalArgumentException("Account numbers cannot be null or empty");
+        }
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String accountNumber : accountNumbers) {
+            if (accountNumber == null || accountNumber.trim().isEmpty()) {
+                throw new IllegalArgumentException("Account number cannot be null or empty");
+            }
+            distinct.add(accountNumber.trim());
+        }
+        if (distinct.size() > batchProperties.getMaxAccounts()) {
+            throw new IllegalArgumentException(
+                    "Batch cannot contain more than " + batchProperties.getMaxAccounts() + " account numbers");
+        }
+        return new ArrayList<>(distinct);
+    }
+
+    /**
+     * Fetches one chunk of a batch query with one request to each backend server owning a requested status, and
+     * assembles the consolidated transactions of every account in the chunk.
+     *
+     * @param chunk    The account numbers of the chunk.
+     * @param statuses The requested statuses.
+     * @return A {@link Mono} emitting each account number of the chunk mapped to its transactions; it never fails.
+     */
+    private Mono<Map<String, ConsolidatedTransactionDTO>> fetchChunk(List<String> chunk, Set<TransactionStatus> statuses) {
+        List<TransactionStatus> plan = new ArrayList<>(statuses);
+        List<Mono<BatchSegmentResult>> calls = new ArrayList<>(plan.size());
+        for (TransactionStatus status : plan) {
+            calls.add(fetchBatchSegment(status, chunk));
+        }
+
+        return Mono.zip(calls, results -> {
+            Map<String, ConsolidatedTransactionDTO> chunkResults = new LinkedHashMap<>();
+            for (String accountNumber : chunk) {
+                ConsolidatedTransactionDTO consolidated = new ConsolidatedTransactionDTO(
+                        Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+                Map<TransactionStatus, SegmentStatus> outcomes = new EnumMap<>(TransactionStatus.class);
+                for (int i = 0; i < results.length; i++) {
+                    TransactionStatus status = plan.get(i);
+                    BatchSegmentResult result = (BatchSegmentResult) results[i];
+                    BatchAccountResultDTO account = result.accounts().get(accountNumber);
+                    if (result.status() != SegmentStatus.OK) {
+                        outcomes.put(status, result.status());
+                    } else if (account == null || !account.isFound()) {
+                        outcomes.put(status, SegmentStatus.NOT_FOUND);
+                    } else {
+                        if (account.getTransactions() != null) {
+                            status.setSegment(consolidated, account.getTransactions());
+                        }
+                        outcomes.put(status, SegmentStatus.OK);
+                    }
+                }
+                consolidated.setSegmentStatus(outcomes);
+                chunkResults.put(accountNumber, consolidated);
+            }
+            return chunkResults;
+        });
+    }
+
+    /**
+     * Fetches one backend server's part of a chunk through its circuit breaker and within the batch deadline.
+     * An open circuit skips the call; a missed deadline or a failure is recorded by the breaker and degrades the
+     * backend's segment for every account of the chunk.
+     *
+     * @param status The status identifying the backend server.
+     * @param chunk  The account numbers of the chunk.
+     * @return A {@link Mono} emitting the backend's per-account results and their outcome; it never fails.
+     */
+    private Mono<BatchSegmentResult> fetchBatchSegment(TransactionStatus status, List<String> chunk) {
+        return callBackend(status, batchProperties.getDeadline(), "batch of " + chunk.size() + " accounts",
+                () -> backendServerFactory.getBackendServer(status).getTransactionsBatch(chunk)
+                        .map(accounts -> new BatchSegmentResult(accounts, SegmentStatus.OK))
+                        .defaultIfEmpty(new BatchSegmentResult(Collections.emptyMap(), SegmentStatus.OK)),
+                BatchSegmentResult::degraded);
+    }
+
+    /**
+     * Fetches one page of the consolidated transactions of the specified account number. Each requested store that
+     * still has rows past the cursor is asked for up to {@code limit} transactions, all in parallel, using the
+     * backends' keyset pagination; the returned {@link ConsolidatedTransactionDTO#getNextCursor()} merges the
+     * position reached in every store and is {@code null} once all of them are exhausted. A store that does not know
+     * the account is exhausted at once; a degraded store keeps its position, so its rows are served by a later page.
+     * Pages are never cached and only ever hold one page per store, so paging through a long history uses constant
+     * memory on every tier.
+     *
+     * @param accountNumber The account number for which consolidated transactions are requested.
+     * @param status        The statuses of transactions to fetch ("ALL", a single status, or a comma-separated subset).
+     * @param limit         The maximum number of transactions per store, or {@code null} for the configured default.
+     * @param cursor        The cursor returned with the previous page, or {@code null} for the first page.
+     * @return A {@link Mono} emitting the page.
+     * @throws IllegalArgumentException If the status expression, the limit or the cursor is invalid.
+     */
+    public Mono<ConsolidatedTransactionDTO> fetchTransactionsPage(String accountNumber, String status, Integer limit,
+                                                                  String cursor) {
+        Set<TransactionStatus> statuses = fanOutPlanner.plan(status);
+        int pageSize = limit == null ? pagingProperties.getDefaultLimit() : limit;
+        if (pageSize < 1 || pageSize > pagingProperties.getMaxLimit()) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + pagingProperties.getMaxLimit());
+        }
+        PageCursor position = PageCursor.parse(cursor);
+        List<TransactionStatus> plan = new ArrayList<>();
+        List<Mono<PageSegmentResult>> calls = new ArrayList<>();
+        for (TransactionStatus segment : statuses) {
+            if (!position.isExhausted(segment)) {
+                plan.add(segment);
+                calls.add(fetchPageSegment(segment, accountNumber, pageSize, position.positionOf(segment)));
+            }
+        }
+        if (calls.isEmpty()) {
+            return timed(Operation.PAGE, Mono.just(new ConsolidatedTransactionDTO(
+                    Collections.emptyList(), Collections.emptyList(), Collections.emptyList())));
+        }
+
+        return timed(Operation.PAGE, Mono.zip(calls, results -> {
+            ConsolidatedTransactionDTO page = new ConsolidatedTransactionDTO(
+                    Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+            Map<TransactionStatus, SegmentStatus> outcomes = new EnumMap<>(TransactionStatus.class);
+            PageCursor next = position;
+            for (int i = 0; i < results.length; i++) {
+                TransactionStatus segment = plan.get(i);
+                PageSegmentResult result = (PageSegmentResult) results[i];
+                segment.setSegment(page, result.transactions());
+                outcomes.put(segment, result.status());
+                if (!result.status().isDegraded()) {
+                    next = next.advance(segment, result.nextCursor());
+                }
+            }
+            page.setSegmentStatus(outcomes);
+            page.setNextCursor(next.isExhausted(statuses) ? null : next.encode());
+            return page;
+        }));
+    }
+
+    /**
+     * Fetches one store's part of a page through its circuit breaker and within the backend's deadline.
+     *
+     * @param status        The status identifying the backend server.
+     * @param accountNumber The account number for which transactions are requested.
+     * @param limit         The maximum number of transactions.
+     * @param backendCursor The backend cursor to continue from, or {@code null} for the store's first page.
+     * @return A {@link Mono} emitting the store's transactions, its next cursor and the outcome; it never fails.
+     */
+    private Mono<PageSegmentResult> fetchPageSegment(TransactionStatus status, String accountNumber, int limit,
+                                                     String backendCursor) {
+        return callBackend(status, resilienceProperties.backendFor(status).getDeadline(), "account " + accountNumber,
+                () -> backendServerFactory.getBackendServer(status).getTransactionsPage(accountNumber, limit, backendCursor)
+                        .map(page -> new PageSegmentResult(status.segmentOf(page), page.getNextCursor(), SegmentStatus.OK))
+                        .defaultIfEmpty(new PageSegmentResult(Collections.emptyList(), null, SegmentStatus.OK)),
+                PageSegmentResult::degraded);
+    }
+
+    /**
+     * Streams the transactions of the specified account number as they arrive from the backend servers owning the
+     * requested statuses. Records of different statuses are interleaved in arrival order and tagged with their
+     * status; each segment ends with a record carrying its outcome. The backends' deadlines apply to the wait for
+     * each record rather than to the whole segment, and the near cache is bypassed since no segment is held whole.
+     *
+     * @param accountNumber The account number for which transactions are requested.
+     * @param status        The statuses of transactions to stream ("ALL", a single status, or a comma-separated subset).
+     * @return A {@link Flux} emitting the tagged transactions and the end-of-segment records; it never fails.
+     * @throws IllegalArgumentException If the status expression contains an unsupported value.
+     */
+    public Flux<StreamedTransactionDTO> streamTransactions(String accountNumber, String status) {
+        Set<TransactionStatus> statuses = fanOutPlanner.plan(status);
+        List<Flux<StreamedTransactionDTO>> streams = new ArrayList<>(statuses.size());
+        for (TransactionStatus segment : statuses) {
+            streams.add(streamSegment(segment, accountNumber));
+        }
+        return timed(Operation.STREAM, Flux.merge(streams));
+    }
+
+    /**
+     * Streams one segment through the backend's circuit breaker, with the backend's deadline as the longest wait
+     * for each record. An open circuit, a missed deadline or a failure ends the segment with the matching outcome.
+     *
+     * @param status        The status identifying the backend server.
+     * @param accountNumber The account number for which transactions are requested.
+     * @return A {@link Flux} emitting the segment's records followed by its end-of-segment record; it never fails.
+     */
+    private Flux<StreamedTransactionDTO> streamSegment(TransactionStatus status, String accountNumber) {
+        return Flux.defer(() -> {
+            AtomicReference<SegmentStatus> outcome = new AtomicReference<>(SegmentStatus.OK);
+            return streamFromBackend(status, accountNumber, false, outcome::set)
+                    .map(transaction -> StreamedTransactionDTO.of(status, transaction))
+                    .concatWith(Mono.fromSupplier(() -> StreamedTransactionDTO.endOf(status, outcome.get())));
+        });
+    }
+
+    /**
+     * Fetches the transactions of the specified account number as a single timeline, newest first. Each backend
+     * server streams its rows already ordered by date and the streams are merged as they arrive, holding only a
+     * small window of each in memory, so no list is ever sorted. With {@code top}, the merge stops after the
+     * newest {@code top} transactions and cancels the backend streams instead of reading them to the end.
+     * A degraded backend leaves its transactions out and is flagged in {@link TimelineDTO#getSegmentStatus()}.
+     *
+     * @param accountNumber The account number for which transactions are requested.
+     * @param status        The statuses of transactions to include ("ALL", a single status, or a comma-separated subset).
+     * @param top           The maximum number of transactions, or {@code null} for the whole timeline.
+     * @return A {@link Mono} emitting the timeline.
+     * @throws IllegalArgumentException If the status expression is invalid or {@code top} is not positive.
+     */
+    public Mono<TimelineDTO> fetchTimeline(String accountNumber, String status, Integer top) {
+        Set<TransactionStatus> statuses = fanOutPlanner.plan(status);
+        if (top != null && top < 1) {
+            throw new IllegalArgumentException("Top must be at least 1");
+        }
+        return timed(Operation.TIMELINE, Mono.defer(() -> {
+            Map<TransactionStatus, SegmentStatus> outcomes = new ConcurrentHashMap<>();
+            List<Flux<StreamedTransactionDTO>> streams = new ArrayList<>(statuses.size());
+            for (TransactionStatus segment : statuses) {
+                outcomes.put(segment, SegmentStatus.OK);
+                streams.add(streamFromBackend(segment, accountNumber, true, outcome -> outcomes.put(segment, outcome))
+                        .map(transaction -> StreamedTransactionDTO.of(segment, transaction)));
+            }
+            Flux<StreamedTransactionDTO> timeline = Flux.mergeComparing(TIMELINE_PREFETCH,
+                    Comparator.comparing(StreamedTransactionDTO::getTransaction, TimelineOrder.NEWEST_FIRST),
+                    streams.toArray(new Flux[0]));
+            if (top != null) {
+                timeline = timeline.take(top);
+            }
+            return timeline.collectList().map(transactions -> {
+                TimelineDTO result = new TimelineDTO();
+                result.setTransactions(transactions);
+                Map<TransactionStatus, SegmentStatus> segmentStatus = new EnumMap<>(TransactionStatus.class);
+                segmentStatus.putAll(outcomes);
+                result.setSegmentStatus(segmentStatus);
+                return result;
+            });
+        }));
+    }
+
+    /**
+     * Streams the transactions of one backend server through its circuit breaker, with the backend's deadline as
+     * the longest wait for each record. The segment's outcome is reported once the stream ends; an open circuit,
+     * a missed deadline or a failure ends the stream early instead of failing it.
+     *
+     * @param status        The status identifying the backend server.
+     * @param accountNumber The account number for which transactions are requested.
+     * @param newestFirst   {@code true} to have the backend stream its transactions ordered by descending date.
+     * @param outcome       Receives the segment's outcome when the stream ends; not called if it is cancelled.
+     * @return A {@link Flux} emitting the backend's transactions; it never fails.
+     */
+    private Flux<TransactionDTO> streamFromBackend(TransactionStatus status, String accountNumber, boolean newestFirst,
+                                                   Consumer<SegmentStatus> outcome) {
+        return Flux.defer(() -> {
+            CircuitBreaker breaker = circuitBreakers.get(status);
+            if (!breaker.tryAcquire()) {
+                outcome.accept(SegmentStatus.CIRCUIT_OPEN);
+                return Flux.empty();
+            }
+            Duration deadline = resilienceProperties.backendFor(status).getDeadline();
+            return backendServerFactory.getBackendServer(status).streamTransactions(accountNumber, newestFirst)
+                    .timeout(deadline)
+                    .doOnComplete(() -> {
+                        breaker.onSuccess();
+                        outcome.accept(SegmentStatus.OK);
+                    })
+                    .doOnCancel(breaker::release)
+                    .onErrorResume(error -> {
+                        outcome.accept(recordFailure(breaker, status, "account " + accountNumber, error));
+                        return Flux.empty();
+                    });
+        });
+    }
+
+    /**
+     * Records a failed backend call with the backend's circuit breaker and classifies it. A client error (4xx),
+     * typically an account the backend does not know, is the answer of a healthy backend: it counts as a success
+     * for the breaker and marks the segment {@link SegmentStatus#NOT_FOUND}, as batch queries do. A call the
+     * backend's full bulkhead turned away never reached the backend: it only gives the permit back to the breaker
+     * and marks the segment {@link SegmentStatus#REJECTED}.
+     *
+     * @param breaker The backend's circuit breaker.
+     * @param status  The status identifying the backend server.
+     * @param request The request that failed, for the log, e.g. "account 123456".
+     * @param error   The failure.
+     * @return The outcome of the segment.
+     */
+    private static SegmentStatus recordFailure(CircuitBreaker breaker, TransactionStatus status, String request,
+                                               Throwable error) {
+        if (error instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError()) {
+            breaker.onSuccess();
+            log.debug("Backend {} has no segment for {}: {}", status, request, response.getStatusCode());
+            return SegmentStatus.NOT_FOUND;
+        }
+        if (error instanceof RejectedExecutionException) {
+            breaker.release();
+            log.warn("Bulkhead of backend {} is full, rejected {}", status, request);
+            return SegmentStatus.REJECTED;
+        }
+        breaker.onFailure();
+        SegmentStatus outcome = error instanceof TimeoutException ? SegmentStatus.TIMED_OUT : SegmentStatus.FAILED;
+        log.warn("Backend {} returned no segment for {}: {}", status, request, outcome, error);
+        return outcome;
+    }
+
+    /**
+     * Calls the backend server responsible for the given status using the configured fan-out strategy.
+     * In blocking mode the call runs on the backend's own bulkhead executor, which is released once the deadline
+     * elapses, and is adapted back into a {@link Mono}; the trace context is carried over to the bulkhead thread and
+     * the wait for it is observed as the {@code bulkhead_queue} stage.
+     *
+     * A cached version's entity tag makes the call conditional.
+     *
+     * @param status        The status identifying the backend server.
+     * @param accountNumber The account number for which transactions are requested.
+     * @param eTag          The entity tag of the cached version, or {@code null} to fetch unconditionally.
+     * @param deadline      The backend's deadline.
+     * @return A {@link Mono} emitting the backend server's transactions, or completing empty if the cached version
+     *         is current.
+     */
+    private Mono<ConsolidatedTransactionDTO> fetchFromBackend(TransactionStatus status, String accountNumber,
+                                                              String eTag, Duration deadline) {
+        BackendServer backendServer = backendServerFactory.getBackendServer(status);
+        if (fanOutProperties.getMode() == FanOutProperties.Mode.BLOCKING) {
+            return Mono.deferContextual(context -> {
+                ContextSnapshot snapshot = CONTEXT_SNAPSHOTS.captureFrom(context);
+                Observation queued = stage("bulkhead_queue")
+                        .parentObservation(context.getOrDefault(ObservationThreadLocalAccessor.KEY, null))
+                        .highCardinalityKeyValue("backend", status.name())
+                        .start();
+                try {
+                    return Mono.fromFuture(CompletableFuture.supplyAsync(() -> {
+                        queued.stop();
+                        try (ContextSnapshot.Scope scope = snapshot.setThreadLocals()) {
+                            return eTag == null
+                                    ? backendServer.getTransactions(accountNumber, deadline)
+                                    : backendServer.getTransactionsReactive(accountNumber, eTag).block(deadline);
+                        }
+                    }, bulkheadExecutors.getExecutor(status)));
+                } catch (RejectedExecutionException e) {
+                    queued.error(e).stop();
+                    throw e;
+                }
+            });
+        }
+        return eTag == null
+                ? backendServer.getTransactionsReactive(accountNumber)
+                : backendServer.getTransactionsReactive(accountNumber, eTag);
+    }
+
+    /**
+     * Type of a timed query, published as the {@code operation} tag.
+     */
+    private enum Operation {
+        FETCH, PASSTHROUGH, BATCH, PAGE, STREAM, TIMELINE;
+
+        /**
+         * Gets the value of the {@code operation} tag.
+         *
+         * @return The tag value, e.g. "fetch".
+         */
+        private String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * How a timed operation ended, published as the {@code outcome} tag.
+     */
+    private enum Outcome {
+        SUCCESS, ERROR, CANCELLED;
+
+        /**
+         * Gets the value of the {@code outcome} tag.
+         *
+         * @return The tag value, e.g. "success".
+         */
+        private String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * One fetched segment, its entity tag and its outcome.
+     *
+     * @param transactions The segment's transactions; empty unless the outcome is {@link SegmentStatus#OK}.
+     * @param status       The outcome.
+     * @param eTag         The backend's entity tag of the segment, or {@code null}.
+     */
+    private record SegmentResult(List<TransactionDTO> transactions, SegmentStatus status, String eTag) {
+
+        /**
+         * Creates the empty segment of a degraded backend.
+         *
+         * @param status The degraded outcome.
+         * @return The empty segment.
+         */
+        private static SegmentResult degraded(SegmentStatus status) {
+            return new SegmentResult(Collections.emptyList(), status, null);
+        }
+    }
+
+    /**
+     * One backend server's part of a batch chunk and its outcome.
+     *
+     * @param accounts The backend's result for each account of the chunk; empty unless the outcome is
+     *                 {@link SegmentStatus#OK}.
+     * @param status   The outcome.
+     */
+    private record BatchSegmentResult(Map<String, BatchAccountResultDTO> accounts, SegmentStatus status) {
+
+        /**
+         * Creates the empty result of a degraded backend.
+         *
+         * @param status The degraded outcome.
+         * @return The empty result.
+         */
+        private static BatchSegmentResult degraded(SegmentStatus status) {
+            return new BatchSegmentResult(Collections.emptyMap(), status);
+        }
+    }
+
+    /**
+     * One backend's raw transaction array and its outcome.
+     *
+     * @param array  The bytes of the backend's JSON array; {@code []} unless the outcome is {@link SegmentStatus#OK}.
+     * @param status The outcome.
+     */
+    private record RawSegmentResult(byte[] array, SegmentStatus status) {
+
+        /**
+         * Creates the empty segment of a degraded backend.
+         *
+         * @param status The degraded outcome.
+         * @return The empty segment.
+         */
+        private static RawSegmentResult degraded(SegmentStatus status) {
+            return new RawSegmentResult(new byte[]{'[', ']'}, status);
+        }
+    }
+
+    /**
+     * One store's part of a page, the backend's cursor of its next page, and the outcome.
+     *
+     * @param transactions The page's transactions; empty unless the outcome is {@link SegmentStatus#OK}.
+     * @param nextCursor   The backend cursor of the store's next page, or {@code null} on its last page.
+     * @param status       The outcome.
+     */
+    private record PageSegmentResult(List<TransactionDTO> transactions, String nextCursor, SegmentStatus status) {
+
+        /**
+         * Creates the empty page of a degraded backend.
+         *
+         * @param status The degraded outcome.
+         * @return The empty page.
+         */
+        private static PageSegmentResult degraded(SegmentStatus status) {
+            return new PageSegmentResult(Collections.emptyList(), null, status);
+        }
+    }
+
+    /**
+     * Key identifying identical requests for coalescing.
+     *
+     * @param accountNumber The requested account number.
+     * @param statuses      The requested statuses.
+     */
+    private record FetchKey(String accountNumber, Set<TransactionStatus> statuses) {
     }
 }
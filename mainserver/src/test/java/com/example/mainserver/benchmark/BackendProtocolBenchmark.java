@@ -0,0 +1,170 @@
+package com.example.mainserver.benchmark;
+
+import com.example.mainserver.config.BackendClientProperties;
+import com.example.mainserver.config.BackendConnectionPools;
+import com.example.mainserver.dto.FailureTransactionDTO;
+import com.example.mainserver.dto.PendingTransactionDTO;
+import com.example.mainserver.dto.SuccessTransactionDTO;
+import com.example.mainserver.model.TransactionStatus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmark comparing pooled HTTP/1.1 against h2c multiplexing for the mainserver's three-backend fan-out.
+ * <p>
+ * Three local stub backends serve the exact backend payload shapes; each iteration fetches all three in parallel
+ * with {@link Mono#zip}, exactly like {@code TransactionService} does for {@code status=ALL}. The class is tagged
+ * {@code benchmark}, which the regular test run excludes; start it explicitly and read the results from the log:
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=BackendProtocolBenchmark -Dbenchmark.seconds=20 -Dbenchmark.concurrency=256 -Dbenchmark.rows=500
+ * </pre>
+ */
+@Tag("benchmark")
+public class BackendProtocolBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(BackendProtocolBenchmark.class);
+
+    /**
+     * Measured duration of each protocol run, in seconds.
+     */
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 10);
+
+    /**
+     * Number of fan-outs kept in flight.
+     */
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 64);
+
+    /**
+     * Number of transactions returned by each stub backend.
+     */
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200);
+
+    /**
+     * Maximum number of connections per backend pool.
+     */
+    private static final int MAX_CONNECTIONS = Integer.getInteger("benchmark.maxConnections", 16);
+
+    /**
+     * Runs the fan-out over HTTP/1.1 and h2c and logs throughput and latency percentiles of each.
+     */
+    @Test
+    public void compareProtocols() {
+        DisposableServer success = stubBackend("success");
+        DisposableServer failure = stubBackend("failure");
+        DisposableServer pending = stubBackend("pending");
+        try {
+            log.info("fan-out of 3 backends x {} rows, concurrency {}, {} connections per backend, {}s per run",
+                    ROWS, CONCURRENCY, MAX_CONNECTIONS, SECONDS);
+            for (BackendClientProperties.Protocol protocol : BackendClientProperties.Protocol.values()) {
+                run(protocol, success, failure, pending, Duration.ofSeconds(Math.max(1, SECONDS / 4)));
+                long[] latencies = run(protocol, success, failure, pending, Duration.ofSeconds(SECONDS));
+                Arrays.sort(latencies);
+                log.info(String.format("%-6s %10.0f fan-outs/s  p50 %7.2f ms  p99 %7.2f ms  p99.9 %7.2f ms",
+                        protocol, latencies.length / (double) SECONDS,
+                        percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999)));
+            }
+        } finally {
+            success.disposeNow();
+            failure.disposeNow();
+            pending.disposeNow();
+        }
+    }
+
+    /**
+     * Runs the fan-out with the given protocol for the given duration.
+     *
+     * @param protocol The protocol spoken to every backend.
+     * @param success  The success stub backend.
+     * @param failure  The failure stub backend.
+     * @param pending  The pending stub backend.
+     * @param duration The run duration.
+     * @return The latency of every completed fan-out, in nanoseconds.
+     */
+    private long[] run(BackendClientProperties.Protocol protocol, DisposableServer success, DisposableServer failure,
+                       DisposableServer pending, Duration duration) {
+        BackendClientProperties properties = new BackendClientProperties();
+        properties.getDefaults().setProtocol(protocol);
+        properties.getDefaults().setMaxConnections(MAX_CONNECTIONS);
+        properties.getDefaults().setPendingAcquireMaxCount(-1);
+        BackendConnectionPools pools = new BackendConnectionPools(properties);
+        try {
+            WebClient successClient = pools.configure(WebClient.builder(), TransactionStatus.SUCCESS).build();
+            WebClient failureClient = pools.configure(WebClient.builder(), TransactionStatus.FAILURE).build();
+            WebClient pendingClient = pools.configure(WebClient.builder(), TransactionStatus.PENDING).build();
+            String successUrl = "http://localhost:" + success.port() + "/backendserver1/success/123";
+            String failureUrl = "http://localhost:" + failure.port() + "/backendserver2/failure/123";
+            String pendingUrl = "http://localhost:" + pending.port() + "/backendserver3/pending/123";
+
+            Mono<Long> fanOut = Mono.defer(() -> {
+                long start = System.nanoTime();
+                return Mono.zip(
+                                successClient.get().uri(successUrl).retrieve().bodyToMono(SuccessTransactionDTO.class),
+                                failureClient.get().uri(failureUrl).retrieve().bodyToMono(FailureTransactionDTO.class),
+                                pendingClient.get().uri(pendingUrl).retrieve().bodyToMono(PendingTransactionDTO.class))
+                        .map(results -> System.nanoTime() - start);
+            });
+
+            List<Long> latencies = Flux.range(0, Integer.MAX_VALUE)
+                    .flatMap(i -> fanOut, CONCURRENCY)
+                    .take(duration)
+                    .collect(() -> (List<Long>) new ArrayList<Long>(), List::add)
+                    .block();
+            return latencies.stream().mapToLong(Long::longValue).toArray();
+        } finally {
+            pools.dispose();
+        }
+    }
+
+    /**
+     * Starts a stub backend answering every request with a fixed payload in the backend's response shape.
+     *
+     * @param segment The name of the list field ("success", "failure" or "pending").
+     * @return The running stub backend.
+     */
+    private static DisposableServer stubBackend(String segment) {
+        StringBuilder body = new StringBuilder("{\"accountNumber\":\"123\",\"").append(segment).append("\":[");
+        for (int i = 0; i < ROWS; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"transactionId\":\"T").append(i).append("\",\"status\":\"").append(segment)
+                    .append("\",\"amount\":\"").append(100 + i).append("\",\"date\":\"30-05-2023\"}");
+        }
+        byte[] payload = body.append("]}").toString().getBytes();
+        return HttpServer.create()
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .handle((request, response) -> response
+                        .header("Content-Type", "application/json")
+                        .sendByteArray(Mono.just(payload)))
+                .bindNow();
+    }
+
+    /**
+     * Reads a percentile from sorted latencies.
+     *
+     * @param sorted   The sorted latencies in nanoseconds.
+     * @param quantile The quantile between 0 and 1.
+     * @return The latency at that quantile in milliseconds.
+     */
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
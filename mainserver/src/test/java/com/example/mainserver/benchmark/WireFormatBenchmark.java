@@ -0,0 +1,128 @@
+package com.example.mainserver.benchmark;
+
+import com.example.mainserver.dto.SuccessTransactionDTO;
+import com.example.mainserver.dto.TransactionDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmark comparing JSON against Smile as the body encoding between the mainserver and the backend servers.
+ * <p>
+ * For each account size a payload in the backend's response shape is encoded and decoded repeatedly with the mapper
+ * of each format, as configured by default on both sides, and the payload size and the CPU time per encode and per
+ * decode are logged. The class is tagged {@code benchmark}, which the regular test run excludes; start it explicitly:
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=WireFormatBenchmark -Dbenchmark.seconds=5 -Dbenchmark.rows=100,1000,10000
+ * </pre>
+ */
+@Tag("benchmark")
+public class WireFormatBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(WireFormatBenchmark.class);
+
+    /**
+     * Measured duration of each encode or decode run, in seconds.
+     */
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 3);
+
+    /**
+     * Account sizes, in transactions, to measure.
+     */
+    private static final String ROWS = System.getProperty("benchmark.rows", "100,1000,10000");
+
+    /**
+     * Source of the CPU time consumed by the benchmark thread.
+     */
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Encodes and decodes each account size in JSON and Smile and logs size and CPU time of each.
+     *
+     * @throws IOException If a payload cannot be encoded or decoded.
+     */
+    @Test
+    public void compareWireFormats() throws IOException {
+        Map<String, ObjectMapper> mappers = Map.of("JSON", new ObjectMapper(), "SMILE", new SmileMapper());
+        log.info(String.format("%-6s %8s %12s %10s %14s %14s", "format", "rows", "bytes", "bytes/row", "encode us/op", "decode us/op"));
+        for (String value : ROWS.split(",")) {
+            int rows = Integer.parseInt(value.trim());
+            SuccessTransactionDTO payload = payload(rows);
+            for (String format : List.of("JSON", "SMILE")) {
+                ObjectMapper mapper = mappers.get(format);
+                byte[] encoded = mapper.writeValueAsBytes(payload);
+                measure(() -> mapper.writeValueAsBytes(payload), Math.max(1, SECONDS / 3));
+                double encodeMicros = measure(() -> mapper.writeValueAsBytes(payload), SECONDS);
+                measure(() -> mapper.readValue(encoded, SuccessTransactionDTO.class), Math.max(1, SECONDS / 3));
+                double decodeMicros = measure(() -> mapper.readValue(encoded, SuccessTransactionDTO.class), SECONDS);
+                log.info(String.format("%-6s %8d %12d %10.1f %14.1f %14.1f", format, rows, encoded.length,
+                        encoded.length / (double) rows, encodeMicros, decodeMicros));
+            }
+        }
+    }
+
+    /**
+     * Repeats an operation for the given duration and reports the CPU time it used per call.
+     *
+     * @param operation The operation.
+     * @param seconds   The run duration.
+     * @return The CPU time per call, in microseconds.
+     * @throws IOException If the operation fails.
+     */
+    private static double measure(Operation operation, int seconds) throws IOException {
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        long cpuStart = THREADS.getCurrentThreadCpuTime();
+        long calls = 0;
+        while (System.nanoTime() < end) {
+            operation.run();
+            calls++;
+        }
+        return (THREADS.getCurrentThreadCpuTime() - cpuStart) / 1_000.0 / calls;
+    }
+
+    /**
+     * Builds a backend response of the given number of transactions.
+     *
+     * @param rows The number of transactions.
+     * @return The response.
+     */
+    private static SuccessTransactionDTO payload(int rows) {
+        List<TransactionDTO> transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            TransactionDTO transaction = new TransactionDTO();
+            transaction.setTransactionId("T" + i);
+            transaction.setStatus("success");
+            transaction.setAmount(Integer.toString(100 + i));
+            transaction.setDate(String.format("%02d-05-2023", 1 + i % 28));
+            transactions.add(transaction);
+        }
+        SuccessTransactionDTO payload = new SuccessTransactionDTO();
+        payload.setAccountNumber("123");
+        payload.setSuccess(transactions);
+        return payload;
+    }
+
+    /**
+     * An encode or decode call being measured.
+     */
+    @FunctionalInterface
+    private interface Operation {
+
+        /**
+         * Runs the call once.
+         *
+         * @throws IOException If the call fails.
+         */
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.mainserver.cache;
+
+import com.example.mainserver.config.NearCacheProperties;
+import com.example.mainserver.dto.TransactionDTO;
+import com.example.mainserver.model.TransactionStatus;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test class for {@link TransactionCache}.
+ */
+public class TransactionCacheTest {
+
+    /**
+     * Manually advanced time source, in nanoseconds.
+     */
+    private final AtomicLong now = new AtomicLong();
+
+    /**
+     * Instance of {@link TransactionCache} to be tested.
+     */
+    private TransactionCache cache;
+
+    /**
+     * Creates a cache whose pending segments live shorter than the others.
+     */
+    @BeforeEach
+    public void setUp() {
+        NearCacheProperties properties = new NearCacheProperties();
+        properties.setDefaultTtl(Duration.ofMinutes(5));
+        properties.getTtl().put(TransactionStatus.PENDING, Duration.ofSeconds(10));
+        properties.setStaleGrace(Duration.ofSeconds(5));
+        Ticker ticker = now::get;
+        cache = new TransactionCache(properties, ticker);
+    }
+
+    /**
+     * Test case verifying that each segment expires according to its own time-to-live.
+     */
+    @Test
+    public void testSegmentsExpireIndependently() {
+        cache.putSegment("123", TransactionStatus.SUCCESS, List.of(transaction("1")));
+        cache.putSegment("123", TransactionStatus.PENDING, List.of(transaction("2")));
+
+        now.addAndGet(Duration.ofSeconds(16).toNanos());
+        Map<TransactionStatus, List<TransactionDTO>> segments = cache.getSegments("123", EnumSet.allOf(TransactionStatus.class)).segments();
+
+        assertEquals(EnumSet.of(TransactionStatus.SUCCESS), segments.keySet());
+        assertEquals(1L, cache.stats().get("hitCount"));
+        assertEquals(2L, cache.stats().get("missCount"));
+    }
+
+    /**
+     * Test case verifying that a segment past its time-to-live is reported as stale during the grace window,
+     * and that only one background refresh can be claimed for it.
+     */
+    @Test
+    public void testSegmentIsStaleDuringGraceWindow() {
+        cache.putSegment("123", TransactionStatus.PENDING, List.of(transaction("2")));
+
+        now.addAndGet(Duration.ofSeconds(12).toNanos());
+        TransactionCache.Lookup lookup = cache.getSegments("123", EnumSet.of(TransactionStatus.PENDING));
+
+        assertEquals(EnumSet.of(TransactionStatus.PENDING), lookup.stale());
+        assertEquals(1, lookup.segments().get(TransactionStatus.PENDING).size());
+        assertTrue(cache.beginRefresh("123", TransactionStatus.PENDING));
+        assertFalse(cache.beginRefresh("123", TransactionStatus.PENDING));
+        cache.endRefresh("123", TransactionStatus.PENDING);
+        assertTrue(cache.beginRefresh("123", TransactionStatus.PENDING));
+    }
+
+    /**
+     * Test case verifying that an invalidation removes only the written account's segment, and that a fetch started
+     * before it does not store its now outdated result.
+     */
+    @Test
+    public void testInvalidationDiscardsFetchesInFlight() {
+        cache.putSegment("123", TransactionStatus.SUCCESS, List.of(transaction("1")));
+        cache.putSegment("456", TransactionStatus.SUCCESS, List.of(transaction("2")));
+        long stamp = cache.invalidationStamp("123", TransactionStatus.SUCCESS);
+
+        cache.invalidate("123", TransactionStatus.SUCCESS);
+        cache.putSegment("123", TransactionStatus.SUCCESS, List.of(transaction("1")), null, stamp);
+
+        assertEquals(EnumSet.of(TransactionStatus.SUCCESS), cache.getSegments("456", EnumSet.of(TransactionStatus.SUCCESS)).segments().keySet());
+        assertTrue(cache.getSegments("123", EnumSet.of(TransactionStatus.SUCCESS)).segments().isEmpty());
+        assertEquals(1L, cache.stats().get("invalidationCount"));
+        assertEquals(1L, cache.stats().get("discardedPutCount"));
+
+        cache.putSegment("123", TransactionStatus.SUCCESS, List.of(transaction("3")), null,
+                cache.invalidationStamp("123", TransactionStatus.SUCCESS));
+        assertEquals(1, cache.getSegments("123", EnumSet.of(TransactionStatus.SUCCESS)).segments().size());
+    }
+
+    /**
+     * Test case verifying that the memory estimate grows with the size of the cached transactions.
+     */
+    @Test
+    public void testWeightGrowsWithPayload() {
+        TransactionCache.SegmentKey key = new TransactionCache.SegmentKey("123", TransactionStatus.SUCCESS);
+
+        int small = TransactionCache.estimateBytes(key, List.of(transaction("1")));
+        int large = TransactionCache.estimateBytes(key, List.of(transaction("1"), transaction("2"), transaction("3")));
+
+        assertTrue(large > small);
+    }
+
+    /**
+     * Creates a sample transaction.
+     *
+     * @param id The transaction ID.
+     * @return The transaction.
+     */
+    private static TransactionDTO transaction(String id) {
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setTransactionId(id);
+        transaction.setStatus("success");
+        transaction.setAmount("500");
+        transaction.setDate("30-05-2023");
+        return transaction;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.mainserver.config;
+
+import com.example.mainserver.model.TransactionStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.example.mainserver.dto.SuccessTransactionDTO;
+import com.example.mainserver.dto.TransactionDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * JUnit test class for {@link BackendConnectionPools}.
+ */
+public class BackendConnectionPoolsTest {
+
+    /**
+     * Body served by the stub's compressed route, large enough to span several chunks once compressed.
+     */
+    private static final String PAYLOAD = "{\"transactionId\":\"T1\",\"amount\":\"100\"},".repeat(20_000);
+
+    /**
+     * Local stub backend accepting both HTTP/1.1 and h2c.
+     */
+    private DisposableServer server;
+
+    /**
+     * Instance of {@link BackendConnectionPools} to be tested.
+     */
+    private BackendConnectionPools pools;
+
+    /**
+     * Starts the stub backend and creates pools speaking HTTP/1.1 to the success backend and h2c to the pending backend.
+     */
+    @BeforeEach
+    public void setUp() {
+        server = HttpServer.create()
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .route(routes -> routes
+                        .get("/ping", (request, response) ->
+                                response.sendString(Mono.just(request.requestHeaders().get("x-http2-stream-id") == null ? "http11" : "h2c")))
+                        .get("/transactions", (request, response) -> {
+                            boolean smile = request.requestHeaders().get(HttpHeaders.ACCEPT, "").contains("smile");
+                            SuccessTransactionDTO body = new SuccessTransactionDTO();
+                            TransactionDTO transaction = new TransactionDTO();
+                            transaction.setTransactionId(smile ? "smile" : "json");
+                            body.setSuccess(List.of(transaction));
+                            try {
+                                byte[] bytes = (smile ? new SmileMapper() : new ObjectMapper()).writeValueAsBytes(body);
+                                return response.header(HttpHeaders.CONTENT_TYPE, smile ? "application/x-jackson-smile" : "application/json")
+                                        .sendByteArray(Mono.just(bytes));
+                            } catch (JsonProcessingException e) {
+                                return Mono.error(e);
+                            }
+                        })
+                        .get("/compressed", (request, response) -> {
+                            byte[] bytes = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+                            if (!request.requestHeaders().get(HttpHeaders.ACCEPT_ENCODING, "").contains("gzip")) {
+                                return response.sendByteArray(Mono.just(bytes));
+                            }
+                            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                                gzip.write(bytes);
+                            } catch (IOException e) {
+                                return Mono.error(e);
+                            }
+                            byte[] compressed = buffer.toByteArray();
+                            int half = compressed.length / 2;
+                            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                                    .sendByteArray(Flux.just(Arrays.copyOfRange(compressed, 0, half),
+                                            Arrays.copyOfRange(compressed, half, compressed.length)));
+                        }))
+                .bindNow();
+
+        BackendClientProperties properties = new BackendClientProperties();
+        BackendClientProperties.Client h2c = new BackendClientProperties.Client();
+        h2c.setProtocol(BackendClientProperties.Protocol.H2C);
+        properties.getClients().put(TransactionStatus.PENDING, h2c);
+        BackendClientProperties.Client json = new BackendClientProperties.Client();
+        json.setWireFormat(BackendClientProperties.WireFormat.JSON);
+        json.setCompression(false);
+        properties.getClients().put(TransactionStatus.FAILURE, json);
+        pools = new BackendConnectionPools(properties);
+    }
+
+    /**
+     * Stops the stub backend and the pools.
+     */
+    @AfterEach
+    public void tearDown() {
+        pools.dispose();
+        server.disposeNow();
+    }
+
+    /**
+     * Test case verifying that each backend kind speaks its configured protocol and records connection acquires.
+     */
+    @Test
+    public void testRequestsUseConfiguredProtocolAndRecordAcquires() {
+        String url = "http://localhost:" + server.port() + "/ping";
+
+        WebClient http11 = pools.configure(WebClient.builder(), TransactionStatus.SUCCESS).build();
+        WebClient h2c = pools.configure(WebClient.builder(), TransactionStatus.PENDING).build();
+
+        assertEquals("http11", http11.get().uri(url).retrieve().bodyToMono(String.class).block());
+        assertEquals("h2c", h2c.get().uri(url).retrieve().bodyToMono(String.class).block());
+
+        Map<TransactionStatus, Map<String, Object>> stats = pools.stats();
+        assertEquals(1L, stats.get(TransactionStatus.SUCCESS).get("acquireCount"));
+        assertEquals(1L, stats.get(TransactionStatus.PENDING).get("acquireCount"));
+        assertEquals(0L, stats.get(TransactionStatus.FAILURE).get("acquireCount"));
+        assertEquals(BackendClientProperties.Protocol.H2C, stats.get(TransactionStatus.PENDING).get("protocol"));
+    }
+
+    /**
+     * Test case verifying that a backend is asked for Smile by default, decoded transparently, and asked for JSON
+     * when its wire format is configured so.
+     */
+    @Test
+    public void testRequestsNegotiateConfiguredWireFormat() {
+        String url = "http://localhost:" + server.port() + "/transactions";
+
+        WebClient smile = pools.configure(WebClient.builder(), TransactionStatus.SUCCESS).build();
+        WebClient json = pools.configure(WebClient.builder(), TransactionStatus.FAILURE).build();
+
+        assertEquals("smile", smile.get().uri(url).retrieve().bodyToMono(SuccessTransactionDTO.class).block()
+                .getSuccess().get(0).getTransactionId());
+        assertEquals("json", json.get().uri(url).retrieve().bodyToMono(SuccessTransactionDTO.class).block()
+                .getSuccess().get(0).getTransactionId());
+    }
+
+    /**
+     * Test case verifying that a gzip-compressed response split across chunks is decoded transparently, and that a
+     * backend with compression disabled is not asked for a compressed response.
+     */
+    @Test
+    public void testCompressedResponsesAreDecoded() {
+        String url = "http://localhost:" + server.port() + "/compressed";
+
+        WebClient compressed = pools.configure(WebClient.builder(), TransactionStatus.SUCCESS)
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+                .build();
+        WebClient plain = pools.configure(WebClient.builder(), TransactionStatus.FAILURE)
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+                .build();
+
+        assertEquals(PAYLOAD, compressed.get().uri(url).retrieve().bodyToMono(String.class).block());
+        assertEquals(PAYLOAD, plain.get().uri(url).retrieve().bodyToMono(String.class).block());
+    }
+
+    /**
+     * Test case verifying that a per-backend entry binding a single setting keeps the configured defaults for the
+     * others, as in {@code mainserver.backend-client.clients.success.max-connections=100}.
+     */
+    @Test
+    public void testPartialClientOverrideKeepsConfiguredDefaults() {
+        Binder binder = new Binder(new MapConfigurationPropertySource(Map.of(
+                "mainserver.backend-client.defaults.response-timeout", "3s",
+                "mainserver.backend-client.defaults.wire-format", "json",
+                "mainserver.backend-client.clients.success.max-connections", "100")));
+        BackendClientProperties properties = binder.bind("mainserver.backend-client", BackendClientProperties.class).get();
+
+        BackendClientProperties.Client success = properties.clientFor(TransactionStatus.SUCCESS);
+        assertEquals(100, success.getMaxConnections());
+        assertEquals(Duration.ofSeconds(3), success.getResponseTimeout());
+        assertEquals(BackendClientProperties.WireFormat.JSON, success.getWireFormat());
+        assertEquals(500, success.getPendingAcquireMaxCount());
+        assertEquals(true, success.getCompression());
+        assertEquals(50, properties.clientFor(TransactionStatus.PENDING).getMaxConnections());
+    }
+}
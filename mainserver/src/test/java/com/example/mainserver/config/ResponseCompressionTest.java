@@ -0,0 +1,92 @@
+package com.example.mainserver.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test class for the {@code server.compression} settings of the embedded server.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ResponseCompressionTest {
+
+    /**
+     * Port of the running server.
+     */
+    @Value("${local.server.port}")
+    private int port;
+
+    /**
+     * Client that neither requests nor decodes compression on its own.
+     */
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    /**
+     * Sends a GET request.
+     *
+     * @param path           The request path.
+     * @param acceptEncoding The Accept-Encoding header value, or {@code null} to leave it out.
+     * @return The response with its raw body.
+     * @throws IOException          If the request fails.
+     * @throws InterruptedException If interrupted while waiting for the response.
+     */
+    private HttpResponse<byte[]> get(String path, String acceptEncoding) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * Reads whether a response is marked as varying with Accept-Encoding.
+     *
+     * @param response The response.
+     * @return {@code true} if its Vary header names Accept-Encoding.
+     */
+    private static boolean variesWithAcceptEncoding(HttpResponse<?> response) {
+        return response.headers().allValues(HttpHeaders.VARY).stream()
+                .anyMatch(value -> value.toLowerCase(Locale.ROOT).contains("accept-encoding"));
+    }
+
+    /**
+     * Test case verifying that a JSON response above the size threshold is gzip-compressed for a client accepting
+     * gzip and marked as varying with Accept-Encoding.
+     *
+     * @throws Exception If the request fails.
+     */
+    @Test
+    public void testLargeJsonResponseIsCompressed() throws Exception {
+        HttpResponse<byte[]> response = get("/v3/api-docs", "gzip");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null));
+        assertTrue(variesWithAcceptEncoding(response));
+    }
+
+    /**
+     * Test case verifying that the same response sent uncompressed to a client not accepting gzip is still marked as
+     * varying with Accept-Encoding, so that a shared cache does not hand it out for both.
+     *
+     * @throws Exception If the request fails.
+     */
+    @Test
+    public void testUncompressedResponseStillVaries() throws Exception {
+        HttpResponse<byte[]> response = get("/v3/api-docs", null);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).isEmpty());
+        assertTrue(variesWithAcceptEncoding(response));
+    }
+}
@@ -1,20 +1,33 @@
 package com.example.mainserver.controller;
 
 import com.example.mainserver.service.TransactionService;
+import com.example.mainserver.dto.BatchTransactionRequestDTO;
 import com.example.mainserver.dto.ConsolidatedTransactionDTO;
+import com.example.mainserver.dto.PassthroughTransactionsDTO;
+import com.example.mainserver.dto.TimelineDTO;
+import com.example.mainserver.model.Consistency;
+import com.example.mainserver.model.SegmentStatus;
+import com.example.mainserver.model.TransactionStatus;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 /**
@@ -37,41 +50,107 @@ public class TransactionControllerTest {
 
     /**
      * Test case for successful retrieval of consolidated transactions.
-     *
-     * @throws ExecutionException   If the computation threw an exception.
-     * @throws InterruptedException If the current thread was interrupted.
      */
     @Test
-    public void testGetConsolidatedTransactionsSuccess() throws ExecutionException, InterruptedException {
+    public void testGetConsolidatedTransactionsSuccess() {
 
         String accountNumber = "123456";
         String status = "ALL";
         ConsolidatedTransactionDTO expectedResult = new ConsolidatedTransactionDTO();
-        CompletableFuture<ConsolidatedTransactionDTO> futureResult = CompletableFuture.completedFuture(expectedResult);
-        when(transactionService.fetchTransactions(anyString(), anyString())).thenReturn(futureResult);
+        when(transactionService.fetchTransactions(anyString(), anyString(), any(Consistency.class))).thenReturn(Mono.just(expectedResult));
 
-        ResponseEntity<ConsolidatedTransactionDTO> responseEntity = transactionController.getConsolidatedTransactions(accountNumber, status).get();
+        ResponseEntity<ConsolidatedTransactionDTO> responseEntity = transactionController.getConsolidatedTransactions(accountNumber, status, "cached", null, null).block();
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(expectedResult, responseEntity.getBody());
     }
 
     /**
      * Test case for handling errors during the retrieval of consolidated transactions.
-     *
-     * @throws ExecutionException   If the computation threw an exception.
-     * @throws InterruptedException If the current thread was interrupted.
      */
     @Test
-    public void testGetConsolidatedTransactionsError() throws ExecutionException, InterruptedException {
+    public void testGetConsolidatedTransactionsError() {
         String accountNumber = "123456";
         String status = "ALL";
-        CompletableFuture<ConsolidatedTransactionDTO> futureResult = new CompletableFuture<>();
-        futureResult.completeExceptionally(new RuntimeException("Test error"));
-
-        when(transactionService.fetchTransactions(anyString(), anyString())).thenReturn(futureResult);
+        when(transactionService.fetchTransactions(anyString(), anyString(), any(Consistency.class))).thenReturn(Mono.error(new RuntimeException("Test error")));
 
-        ResponseEntity<ConsolidatedTransactionDTO> responseEntity = transactionController.getConsolidatedTransactions(accountNumber, status).get();
+        ResponseEntity<ConsolidatedTransactionDTO> responseEntity = transactionController.getConsolidatedTransactions(accountNumber, status, "cached", null, null).block();
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, responseEntity.getStatusCode());
         assertEquals(null, responseEntity.getBody());
     }
+
+    /**
+     * Test case verifying that a response in which no requested segment could be served is a 503 with its body.
+     */
+    @Test
+    public void testGetConsolidatedTransactionsFullyDegraded() {
+        ConsolidatedTransactionDTO degraded = new ConsolidatedTransactionDTO(
+                Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+        degraded.setSegmentStatus(Map.of(TransactionStatus.SUCCESS, SegmentStatus.TIMED_OUT));
+        when(transactionService.fetchTransactions(anyString(), anyString(), any(Consistency.class))).thenReturn(Mono.just(degraded));
+
+        ResponseEntity<ConsolidatedTransactionDTO> responseEntity = transactionController.getConsolidatedTransactions("123456", "SUCCESS", "cached", null, null).block();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, responseEntity.getStatusCode());
+        assertEquals(degraded, responseEntity.getBody());
+    }
+
+    /**
+     * Test case for successful retrieval of the consolidated transactions of several accounts.
+     */
+    @Test
+    public void testGetConsolidatedTransactionsBatch() {
+        BatchTransactionRequestDTO request = new BatchTransactionRequestDTO();
+        request.setAccountNumbers(List.of("111111", "222222"));
+        Map<String, ConsolidatedTransactionDTO> expectedResult = Map.of(
+                "111111", new ConsolidatedTransactionDTO(), "222222", new ConsolidatedTransactionDTO());
+        when(transactionService.fetchTransactionsBatch(eq(request.getAccountNumbers()), eq("ALL"))).thenReturn(Mono.just(expectedResult));
+
+        ResponseEntity<Map<String, ConsolidatedTransactionDTO>> responseEntity = transactionController.getConsolidatedTransactionsBatch(request).block();
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(expectedResult, responseEntity.getBody());
+    }
+
+    /**
+     * Test case verifying that a limit switches to the paged history and returns the merged cursor.
+     */
+    @Test
+    public void testGetConsolidatedTransactionsPage() {
+        ConsolidatedTransactionDTO page = new ConsolidatedTransactionDTO(
+                Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+        page.setNextCursor("next");
+        when(transactionService.fetchTransactionsPage("123456", "ALL", 50, null)).thenReturn(Mono.just(page));
+
+        ResponseEntity<ConsolidatedTransactionDTO> responseEntity = transactionController.getConsolidatedTransactions("123456", "ALL", "cached", 50, null).block();
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals("next", responseEntity.getBody().getNextCursor());
+    }
+
+    /**
+     * Test case verifying that a timeline in which no requested segment could be served is a 503 with its body.
+     */
+    @Test
+    public void testGetTransactionTimelineFullyDegraded() {
+        TimelineDTO timeline = new TimelineDTO();
+        timeline.setTransactions(Collections.emptyList());
+        timeline.setSegmentStatus(Map.of(TransactionStatus.PENDING, SegmentStatus.CIRCUIT_OPEN));
+        when(transactionService.fetchTimeline("123456", "PENDING", 10)).thenReturn(Mono.just(timeline));
+
+        ResponseEntity<TimelineDTO> responseEntity = transactionController.getTransactionTimeline("123456", "PENDING", 10).block();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, responseEntity.getStatusCode());
+        assertEquals(timeline, responseEntity.getBody());
+    }
+
+    /**
+     * Test case verifying that the passthrough view returns the spliced bytes as JSON.
+     */
+    @Test
+    public void testGetPassthroughTransactions() {
+        byte[] body = "{\"success\":[],\"failure\":[],\"pending\":[]}".getBytes();
+        when(transactionService.fetchTransactionsPassthrough("123456", "ALL"))
+                .thenReturn(Mono.just(new PassthroughTransactionsDTO(body, Map.of(TransactionStatus.SUCCESS, SegmentStatus.OK))));
+
+        ResponseEntity<byte[]> responseEntity = transactionController.getPassthroughTransactions("123456", "ALL").block();
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, responseEntity.getHeaders().getContentType());
+        assertSame(body, responseEntity.getBody());
+    }
 }
@@ -0,0 +1,180 @@
+package com.example.mainserver.factory;
+
+import com.example.mainserver.config.BackendEndpointProperties;
+import com.example.mainserver.model.TransactionStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test class for {@link BackendEndpointRegistry}.
+ */
+public class BackendEndpointRegistryTest {
+
+    /**
+     * Fake clock in nanoseconds.
+     */
+    private final AtomicLong now = new AtomicLong();
+
+    /**
+     * Instance of {@link BackendEndpointRegistry} to be tested.
+     */
+    private BackendEndpointRegistry registry;
+
+    /**
+     * Registers two success replicas.
+     */
+    @BeforeEach
+    public void setUp() {
+        registry = new BackendEndpointRegistry(new BackendEndpointProperties(), now::get);
+        registry.update(TransactionStatus.SUCCESS, List.of("http://host-a:8080", "http://host-b:8080/"));
+    }
+
+    /**
+     * Test case verifying that the configured single replica of a backend kind is always chosen.
+     */
+    @Test
+    public void testChoose_DefaultSingleReplica() {
+        assertEquals("http://localhost:8082", registry.choose(TransactionStatus.PENDING).getBaseUrl());
+    }
+
+    /**
+     * Test case verifying that the replica with the lower average latency wins.
+     */
+    @Test
+    public void testChoose_PrefersLowerLatency() {
+        BackendEndpoint a = registry.getEndpoints(TransactionStatus.SUCCESS).get(0);
+        BackendEndpoint b = registry.getEndpoints(TransactionStatus.SUCCESS).get(1);
+        a.recordLatency(100_000_000L);
+        b.recordLatency(1_000_000L);
+
+        for (int i = 0; i < 20; i++) {
+            assertSame(b, registry.choose(TransactionStatus.SUCCESS));
+        }
+    }
+
+    /**
+     * Test case verifying that outstanding requests make an equally fast replica more expensive.
+     */
+    @Test
+    public void testChoose_PrefersFewerOutstanding() {
+        BackendEndpoint a = registry.getEndpoints(TransactionStatus.SUCCESS).get(0);
+        BackendEndpoint b = registry.getEndpoints(TransactionStatus.SUCCESS).get(1);
+        a.recordLatency(10_000_000L);
+        b.recordLatency(10_000_000L);
+        Disposable inFlight = a.track(Mono.never()).subscribe();
+
+        assertEquals(1, a.getOutstanding());
+        assertSame(b, registry.choose(TransactionStatus.SUCCESS));
+
+        inFlight.dispose();
+        assertEquals(0, a.getOutstanding());
+    }
+
+    /**
+     * Test case verifying that a replica without latency history is costed like its sampled peers rather than as
+     * free, so it stops winning once it has more outstanding requests.
+     */
+    @Test
+    public void testChoose_UnsampledReplicaCostsPeerMedian() {
+        BackendEndpoint a = registry.getEndpoints(TransactionStatus.SUCCESS).get(0);
+        BackendEndpoint b = registry.getEndpoints(TransactionStatus.SUCCESS).get(1);
+        a.recordLatency(10_000_000L);
+        Disposable inFlight = b.track(Mono.never()).subscribe();
+
+        assertFalse(b.isSampled());
+        for (int i = 0; i < 20; i++) {
+            assertSame(a, registry.choose(TransactionStatus.SUCCESS));
+        }
+
+        inFlight.dispose();
+    }
+
+    /**
+     * Test case verifying that a tracked call feeds its latency into the moving average.
+     */
+    @Test
+    public void testTrack_RecordsLatency() {
+        BackendEndpoint a = registry.getEndpoints(TransactionStatus.SUCCESS).get(0);
+
+        a.track(Mono.fromCallable(() -> now.addAndGet(5_000_000L))).block();
+
+        assertEquals(0, a.getOutstanding());
+        assertEquals(5_000_000.0, a.getEwmaNanos(), 1.0);
+    }
+
+    /**
+     * Test case verifying that a failing call is recorded with the failure penalty.
+     */
+    @Test
+    public void testTrack_PenalizesFailures() {
+        BackendEndpoint a = registry.getEndpoints(TransactionStatus.SUCCESS).get(0);
+
+        assertThrows(IllegalStateException.class,
+                () -> a.track(Mono.error(new IllegalStateException("refused"))).block());
+
+        assertEquals(1_000_000_000.0, a.getEwmaNanos(), 1.0);
+    }
+
+    /**
+     * Test case verifying that replicas kept across an update retain their state and URLs are normalized.
+     */
+    @Test
+    public void testUpdate_KeepsExistingReplicas() {
+        BackendEndpoint b = registry.getEndpoints(TransactionStatus.SUCCESS).get(1);
+        assertEquals("http://host-b:8080", b.getBaseUrl());
+
+        List<BackendEndpoint> updated = registry.update(TransactionStatus.SUCCESS,
+                List.of("http://host-b:8080", "http://host-c:8080"));
+
+        assertEquals(2, updated.size());
+        assertSame(b, updated.get(0));
+        assertTrue(registry.getEndpoints(TransactionStatus.SUCCESS).stream()
+                .noneMatch(endpoint -> endpoint.getBaseUrl().equals("http://host-a:8080")));
+    }
+
+    /**
+     * Test case verifying that invalid replica lists are rejected.
+     */
+    @Test
+    public void testUpdate_RejectsInvalidReplicas() {
+        assertThrows(IllegalArgumentException.class, () -> registry.update(TransactionStatus.SUCCESS, List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.update(TransactionStatus.SUCCESS, List.of("localhost:8080")));
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.update(TransactionStatus.SUCCESS, List.of("ftp://host-a:8080")));
+        assertEquals(2, registry.getEndpoints(TransactionStatus.SUCCESS).size());
+    }
+
+    /**
+     * Test case verifying that several backend kinds are replaced together, and that none is when one list is
+     * invalid.
+     */
+    @Test
+    public void testUpdateAll_AppliesEveryListOrNone() {
+        assertThrows(IllegalArgumentException.class, () -> registry.updateAll(Map.of(
+                TransactionStatus.SUCCESS, List.of("http://host-c:8080"),
+                TransactionStatus.PENDING, List.of("localhost:8082"))));
+        assertEquals(2, registry.getEndpoints(TransactionStatus.SUCCESS).size());
+        assertEquals("http://localhost:8082", registry.choose(TransactionStatus.PENDING).getBaseUrl());
+
+        registry.updateAll(Map.of(
+                TransactionStatus.SUCCESS, List.of("http://host-c:8080"),
+                TransactionStatus.PENDING, List.of("http://host-d:8082")));
+
+        assertEquals("http://host-c:8080", registry.choose(TransactionStatus.SUCCESS).getBaseUrl());
+        assertEquals("http://host-d:8082", registry.choose(TransactionStatus.PENDING).getBaseUrl());
+        assertEquals("http://localhost:8081", registry.choose(TransactionStatus.FAILURE).getBaseUrl());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.mainserver.factory;
+
+import com.example.mainserver.config.BackendEndpointProperties;
+import com.example.mainserver.model.TransactionStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test class for {@link BackendEndpointReloader}.
+ */
+public class BackendEndpointReloaderTest {
+
+    /**
+     * Directory holding the replicas file.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * The replicas file.
+     */
+    private Path file;
+
+    /**
+     * Registry updated by the reloader.
+     */
+    private BackendEndpointRegistry registry;
+
+    /**
+     * Events published by the reloader.
+     */
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+
+    /**
+     * Instance of {@link BackendEndpointReloader} to be tested.
+     */
+    private BackendEndpointReloader reloader;
+
+    /**
+     * Creates a reloader watching a replicas file in the temporary directory.
+     */
+    @BeforeEach
+    public void setUp() {
+        file = directory.resolve("replicas.properties");
+        BackendEndpointProperties properties = new BackendEndpointProperties();
+        properties.setReplicasFile(file.toString());
+        registry = new BackendEndpointRegistry(properties);
+        reloader = new BackendEndpointReloader(registry, properties, events::add);
+    }
+
+    /**
+     * Writes the replicas file and gives it a distinct modification time.
+     *
+     * @param content The file's content.
+     * @param seconds The modification time in seconds since the epoch.
+     * @throws IOException If the file cannot be written.
+     */
+    private void write(String content, long seconds) throws IOException {
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(seconds * 1000));
+    }
+
+    /**
+     * Test case verifying that the listed backend kinds get the file's replicas once, the others keep theirs, and
+     * that the reload is announced.
+     */
+    @Test
+    public void testReload_AppliesChangedFileOnce() throws IOException {
+        write("success=http://host-a:8080, http://host-b:8080\n", 1);
+
+        assertTrue(reloader.reload());
+        assertFalse(reloader.reload());
+
+        assertEquals(List.of("http://host-a:8080", "http://host-b:8080"), registry.getEndpoints(TransactionStatus.SUCCESS)
+                .stream().map(BackendEndpoint::getBaseUrl).toList());
+        assertEquals("http://localhost:8081", registry.choose(TransactionStatus.FAILURE).getBaseUrl());
+        assertEquals(List.of(new BackendEndpointReloader.ReplicasReloaded(Set.of(TransactionStatus.SUCCESS))), events);
+    }
+
+    /**
+     * Test case verifying that a file with an invalid entry is not applied at all, and that it is applied once
+     * corrected.
+     */
+    @Test
+    public void testReload_KeepsReplicasOnInvalidFile() throws IOException {
+        write("success=http://host-a:8080\npending=localhost:8082\n", 1);
+
+        assertFalse(reloader.reload());
+        assertEquals("http://localhost:8080", registry.choose(TransactionStatus.SUCCESS).getBaseUrl());
+        assertEquals(List.of(), events);
+
+        write("success=http://host-a:8080\npending=http://host-c:8082\n", 2);
+
+        assertTrue(reloader.reload());
+        assertEquals("http://host-a:8080", registry.choose(TransactionStatus.SUCCESS).getBaseUrl());
+        assertEquals("http://host-c:8082", registry.choose(TransactionStatus.PENDING).getBaseUrl());
+    }
+
+    /**
+     * Test case verifying that a missing file leaves the configured replicas in place.
+     */
+    @Test
+    public void testReload_IgnoresMissingFile() {
+        assertFalse(reloader.reload());
+        assertEquals("http://localhost:8080", registry.choose(TransactionStatus.SUCCESS).getBaseUrl());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.mainserver.factory;
+
+import com.example.mainserver.config.BulkheadProperties;
+import com.example.mainserver.model.TransactionStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * JUnit test class for {@link BulkheadExecutors}.
+ */
+public class BulkheadExecutorsTest {
+
+    /**
+     * Latch holding the pending backend's calls until the test releases them.
+     */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    /**
+     * Instance of {@link BulkheadExecutors} to be tested.
+     */
+    private BulkheadExecutors bulkheadExecutors;
+
+    /**
+     * Creates executors whose pending pool holds one running and one queued call.
+     */
+    @BeforeEach
+    public void setUp() {
+        BulkheadProperties properties = new BulkheadProperties();
+        BulkheadProperties.Pool pending = new BulkheadProperties.Pool();
+        pending.setCorePoolSize(1);
+        pending.setMaxPoolSize(1);
+        pending.setQueueCapacity(1);
+        properties.getPools().put(TransactionStatus.PENDING, pending);
+        bulkheadExecutors = new BulkheadExecutors(properties);
+    }
+
+    /**
+     * Releases blocked calls and stops the executors.
+     */
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        bulkheadExecutors.shutdown();
+    }
+
+    /**
+     * Test case verifying that a saturated backend rejects extra calls without affecting the other backends.
+     *
+     * @throws InterruptedException if the current thread was interrupted while waiting
+     */
+    @Test
+    public void testSaturatedBulkheadRejectsOnlyItsOwnCalls() throws InterruptedException {
+        Executor pending = bulkheadExecutors.getExecutor(TransactionStatus.PENDING);
+        CountDownLatch started = new CountDownLatch(1);
+        pending.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        started.await();
+        pending.execute(this::awaitRelease);
+
+        assertThrows(RejectedExecutionException.class, () -> pending.execute(this::awaitRelease));
+
+        CountDownLatch successRan = new CountDownLatch(1);
+        bulkheadExecutors.getExecutor(TransactionStatus.SUCCESS).execute(successRan::countDown);
+        successRan.await();
+
+        assertNotSame(pending, bulkheadExecutors.getExecutor(TransactionStatus.SUCCESS));
+        assertEquals(1, bulkheadExecutors.stats().get(TransactionStatus.PENDING).getActiveCount());
+        assertEquals(1, bulkheadExecutors.stats().get(TransactionStatus.PENDING).getQueueDepth());
+        assertEquals(1, bulkheadExecutors.stats().get(TransactionStatus.PENDING).getRejectedCount());
+        assertEquals(0, bulkheadExecutors.stats().get(TransactionStatus.SUCCESS).getRejectedCount());
+    }
+
+    /**
+     * Test case verifying that a per-backend entry binding a single setting keeps the configured defaults for the
+     * others, rather than the built-in ones.
+     */
+    @Test
+    public void testPartialPoolOverrideKeepsConfiguredDefaults() {
+        Binder binder = new Binder(new MapConfigurationPropertySource(Map.of(
+                "mainserver.bulkhead.defaults.queue-capacity", "250",
+                "mainserver.bulkhead.defaults.keep-alive", "5s",
+                "mainserver.bulkhead.pools.pending.max-pool-size", "4")));
+        BulkheadProperties properties = binder.bind("mainserver.bulkhead", BulkheadProperties.class).get();
+
+        BulkheadProperties.Pool pending = properties.poolFor(TransactionStatus.PENDING);
+        assertEquals(4, pending.getMaxPoolSize());
+        assertEquals(250, pending.getQueueCapacity());
+        assertEquals(Duration.ofSeconds(5), pending.getKeepAlive());
+        assertEquals(8, pending.getCorePoolSize());
+        assertEquals(false, pending.getVirtualThreads());
+        assertEquals(16, properties.poolFor(TransactionStatus.SUCCESS).getMaxPoolSize());
+    }
+
+    /**
+     * Blocks the calling thread until the test releases it.
+     */
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.mainserver.factory;
+
+import com.example.mainserver.config.ResilienceProperties;
+import com.example.mainserver.model.TransactionStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test class for {@link CircuitBreaker}.
+ */
+public class CircuitBreakerTest {
+
+    /**
+     * Fake clock in nanoseconds.
+     */
+    private final AtomicLong now = new AtomicLong();
+
+    /**
+     * Instance of {@link CircuitBreaker} to be tested: opens at 50% failures over the last 4 calls, for 10s,
+     * and closes after 2 successful trial calls.
+     */
+    private CircuitBreaker breaker;
+
+    /**
+     * Creates the circuit breaker under test.
+     */
+    @BeforeEach
+    public void setUp() {
+        ResilienceProperties.Backend settings = new ResilienceProperties().getDefaults();
+        settings.setMinimumCalls(4);
+        settings.setWindowSize(4);
+        settings.setHalfOpenCalls(2);
+        breaker = new CircuitBreaker(settings, now::get);
+    }
+
+    /**
+     * Records one call with the given outcome.
+     *
+     * @param failure Whether the call failed.
+     */
+    private void call(boolean failure) {
+        assertTrue(breaker.tryAcquire());
+        if (failure) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+    }
+
+    /**
+     * Test case verifying that the circuit stays closed until the window holds the minimum number of calls.
+     */
+    @Test
+    public void testStaysClosedBelowMinimumCalls() {
+        call(true);
+        call(true);
+        call(true);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    /**
+     * Test case verifying that old outcomes slide out of the window.
+     */
+    @Test
+    public void testWindowSlides() {
+        call(true);
+        call(false);
+        call(false);
+        call(false);
+        call(true);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        call(true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    /**
+     * Test case verifying the open, half-open and closed cycle.
+     */
+    @Test
+    public void testOpenHalfOpenClose() {
+        call(false);
+        call(false);
+        call(true);
+        call(true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        now.addAndGet(10_000_000_001L);
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.onSuccess();
+        breaker.release();
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    /**
+     * Test case verifying that a failed trial call opens the circuit again.
+     */
+    @Test
+    public void testHalfOpenFailureReopens() {
+        for (int i = 0; i < 4; i++) {
+            call(true);
+        }
+        now.addAndGet(10_000_000_001L);
+
+        call(true);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1L, breaker.stats().get("rejectedCount"));
+    }
+
+    /**
+     * Test case verifying that a per-backend entry binding a single setting keeps the configured defaults for the
+     * others, rather than the built-in ones.
+     */
+    @Test
+    public void testPartialBackendOverrideKeepsConfiguredDefaults() {
+        Binder binder = new Binder(new MapConfigurationPropertySource(Map.of(
+                "mainserver.resilience.defaults.minimum-calls", "5",
+                "mainserver.resilience.defaults.open-duration", "30s",
+                "mainserver.resilience.backends.pending.deadline", "500ms")));
+        ResilienceProperties properties = binder.bind("mainserver.resilience", ResilienceProperties.class).get();
+
+        ResilienceProperties.Backend pending = properties.backendFor(TransactionStatus.PENDING);
+        assertEquals(Duration.ofMillis(500), pending.getDeadline());
+        assertEquals(5, pending.getMinimumCalls());
+        assertEquals(Duration.ofSeconds(30), pending.getOpenDuration());
+        assertEquals(50, pending.getFailureRateThreshold());
+        assertEquals(Duration.ofSeconds(2), properties.backendFor(TransactionStatus.SUCCESS).getDeadline());
+    }
+}
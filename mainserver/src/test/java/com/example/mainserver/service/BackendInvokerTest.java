@@ -0,0 +1,209 @@
+package com.example.mainserver.service;
+
+import com.example.mainserver.config.BackendEndpointProperties;
+import com.example.mainserver.config.HedgingProperties;
+import com.example.mainserver.factory.BackendEndpoint;
+import com.example.mainserver.factory.BackendEndpointRegistry;
+import com.example.mainserver.model.TransactionStatus;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test class for {@link BackendInvoker}.
+ */
+public class BackendInvokerTest {
+
+    /**
+     * Registry holding two success replicas.
+     */
+    private BackendEndpointRegistry registry;
+
+    /**
+     * Hedging settings that hedge after 50ms without needing latency history.
+     */
+    private HedgingProperties properties;
+
+    /**
+     * Number of attempts sent by the test's request function.
+     */
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    /**
+     * Sets up the registry and hedging settings.
+     */
+    @BeforeEach
+    public void setUp() {
+        registry = new BackendEndpointRegistry(new BackendEndpointProperties());
+        registry.update(TransactionStatus.SUCCESS, List.of("http://host-a:8080", "http://host-b:8080"));
+        properties = new HedgingProperties();
+        properties.setEnabled(true);
+        properties.setMinSamples(0);
+        properties.setMinDelay(Duration.ofMillis(50));
+        properties.setBudgetPercent(100);
+    }
+
+    /**
+     * Request function whose first attempt stalls and whose later attempts answer immediately.
+     *
+     * @param endpoint The chosen replica.
+     * @return The attempt.
+     */
+    private Mono<String> firstAttemptSlow(BackendEndpoint endpoint) {
+        return attempts.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofSeconds(5)).map(tick -> "slow")
+                : Mono.just("fast");
+    }
+
+    /**
+     * Test case verifying that calls are sent once when hedging is disabled.
+     */
+    @Test
+    public void testInvoke_HedgingDisabled() {
+        properties.setEnabled(false);
+        BackendInvoker invoker = new BackendInvoker(registry, properties, new SimpleMeterRegistry());
+
+        String result = invoker.invoke(TransactionStatus.SUCCESS,
+                endpoint -> Mono.delay(Duration.ofMillis(150)).map(tick -> "primary").doOnSubscribe(s -> attempts.incrementAndGet()))
+                .block();
+
+        assertEquals("primary", result);
+        assertEquals(1, attempts.get());
+        assertEquals(0L, invoker.stats().get(TransactionStatus.SUCCESS).get("hedgesSent"));
+    }
+
+    /**
+     * Test case verifying that a slow call is hedged to the other replica and the hedge's reply wins.
+     */
+    @Test
+    public void testInvoke_HedgeWins() {
+        BackendInvoker invoker = new BackendInvoker(registry, properties, new SimpleMeterRegistry());
+
+        String result = invoker.invoke(TransactionStatus.SUCCESS, this::firstAttemptSlow).block(Duration.ofSeconds(2));
+
+        assertEquals("fast", result);
+        assertEquals(2, attempts.get());
+        assertEquals(1L, invoker.stats().get(TransactionStatus.SUCCESS).get("hedgesSent"));
+        assertEquals(1L, invoker.stats().get(TransactionStatus.SUCCESS).get("hedgesWon"));
+        for (BackendEndpoint endpoint : registry.getEndpoints(TransactionStatus.SUCCESS)) {
+            assertEquals(0, endpoint.getOutstanding());
+        }
+    }
+
+    /**
+     * Test case verifying that the primary attempt and the hedge both see the caller's subscriber context.
+     */
+    @Test
+    public void testInvoke_AttemptsKeepCallerContext() {
+        BackendInvoker invoker = new BackendInvoker(registry, properties, new SimpleMeterRegistry());
+        List<String> traces = new CopyOnWriteArrayList<>();
+
+        String result = invoker.invoke(TransactionStatus.SUCCESS, endpoint -> Mono.deferContextual(context -> {
+                    traces.add(context.getOrDefault("trace", "none"));
+                    return firstAttemptSlow(endpoint);
+                }))
+                .contextWrite(Context.of("trace", "abc"))
+                .block(Duration.ofSeconds(2));
+
+        assertEquals("fast", result);
+        assertEquals(List.of("abc", "abc"), traces);
+    }
+
+    /**
+     * Test case verifying that a hedged call is timed once, as a whole, and that the hedge is counted.
+     */
+    @Test
+    public void testInvoke_PublishesMetrics() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BackendInvoker invoker = new BackendInvoker(registry, properties, meterRegistry);
+
+        invoker.invoke(TransactionStatus.SUCCESS, this::firstAttemptSlow).block(Duration.ofSeconds(2));
+
+        Timer calls = meterRegistry.get("mainserver.backend.requests")
+                .tags("backend", "success", "type", "call", "outcome", "success").timer();
+        assertEquals(1, calls.count());
+        assertTrue(calls.totalTime(TimeUnit.MILLISECONDS) >= 50);
+        assertEquals(1.0, meterRegistry.get("mainserver.backend.hedges").tags("backend", "success", "result", "won")
+                .functionCounter().count());
+    }
+
+    /**
+     * Test case verifying that the request timers of every backend kind, type of request and outcome are
+     * registered once, up front, and reused by every request.
+     */
+    @Test
+    public void testRequestTimersAreRegisteredOnce() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BackendInvoker invoker = new BackendInvoker(registry, properties, meterRegistry);
+        int timers = TransactionStatus.values().length * 3 * 3;
+        assertEquals(timers, meterRegistry.find("mainserver.backend.requests").timers().size());
+
+        invoker.bulk(TransactionStatus.PENDING, endpoint -> Mono.just("bulk")).block();
+        invoker.bulk(TransactionStatus.PENDING, endpoint -> Mono.just("bulk")).block();
+
+        assertEquals(timers, meterRegistry.find("mainserver.backend.requests").timers().size());
+        assertEquals(2, meterRegistry.get("mainserver.backend.requests")
+                .tags("backend", "pending", "type", "bulk", "outcome", "success").timer().count());
+    }
+
+    /**
+     * Test case verifying that no hedge is sent once the hedge budget is spent.
+     */
+    @Test
+    public void testInvoke_BudgetExhausted() {
+        properties.setBudgetPercent(0);
+        BackendInvoker invoker = new BackendInvoker(registry, properties, new SimpleMeterRegistry());
+
+        String result = invoker.invoke(TransactionStatus.SUCCESS,
+                endpoint -> Mono.delay(Duration.ofMillis(150)).map(tick -> "primary-" + attempts.incrementAndGet()))
+                .block(Duration.ofSeconds(2));
+
+        assertEquals("primary-1", result);
+        assertEquals(0L, invoker.stats().get(TransactionStatus.SUCCESS).get("hedgesSent"));
+    }
+
+    /**
+     * Test case verifying that a primary failing before the hedge delay fails the call without a hedge.
+     */
+    @Test
+    public void testInvoke_PrimaryFailsFast() {
+        BackendInvoker invoker = new BackendInvoker(registry, properties, new SimpleMeterRegistry());
+
+        Mono<String> call = invoker.invoke(TransactionStatus.SUCCESS, endpoint -> {
+            attempts.incrementAndGet();
+            return Mono.error(new IllegalStateException("refused"));
+        });
+
+        assertThrows(IllegalStateException.class, () -> call.block(Duration.ofSeconds(2)));
+        assertEquals(1, attempts.get());
+        assertEquals(0L, invoker.stats().get(TransactionStatus.SUCCESS).get("hedgesSent"));
+    }
+
+    /**
+     * Test case verifying that the latency window reads percentiles from its most recent samples.
+     */
+    @Test
+    public void testLatencyWindow_Percentile() {
+        BackendInvoker.LatencyWindow window = new BackendInvoker.LatencyWindow(100);
+        for (int i = 1; i <= 200; i++) {
+            window.record(i);
+        }
+
+        assertEquals(100, window.size());
+        assertEquals(195, window.percentile(0.95));
+        assertEquals(101, window.percentile(0));
+    }
+}
@@ -2,12 +2,19 @@ package com.example.mainserver.service;
 
 import com.example.mainserver.dto.ConsolidatedTransactionDTO;
 import com.example.mainserver.dto.SuccessTransactionDTO;
+import com.example.mainserver.config.BackendEndpointProperties;
+import com.example.mainserver.config.HedgingProperties;
+import com.example.mainserver.factory.BackendEndpointRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
@@ -16,6 +23,7 @@ import java.util.Collections;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * JUnit test class for {@link BackendServer1}.
@@ -47,6 +55,14 @@ public class BackendServer1Test {
     @Mock
     private WebClient webClient;
 
+    /**
+     * Invoker sending every request to the single default replica, with hedging disabled.
+     */
+    @Spy
+    private BackendInvoker backendInvoker = new BackendInvoker(
+            new BackendEndpointRegistry(new BackendEndpointProperties()), new HedgingProperties(),
+            new SimpleMeterRegistry());
+
     /**
      * Instance of {@link BackendServer1} to be tested.
      */
@@ -72,7 +88,7 @@ public class BackendServer1Test {
         SuccessTransactionDTO successTransactionDTO = new SuccessTransactionDTO();
         successTransactionDTO.setAccountNumber("123");
         successTransactionDTO.setSuccess(Collections.emptyList());
-        when(responseSpec.bodyToMono(SuccessTransactionDTO.class)).thenReturn(Mono.just(successTransactionDTO));
+        when(responseSpec.toEntity(SuccessTransactionDTO.class)).thenReturn(Mono.just(ResponseEntity.ok(successTransactionDTO)));
 
         ConsolidatedTransactionDTO result = backendServer.getTransactions("123");
 
@@ -81,4 +97,16 @@ public class BackendServer1Test {
         assertEquals(Collections.emptyList(), result.getPending());
     }
 
+    /**
+     * Test case verifying that a revalidation sends the cached entity tag and completes empty on 304 Not Modified.
+     */
+    @Test
+    public void testGetTransactions_NotModified() {
+
+        when(requestHeadersSpec.ifNoneMatch("\"v1\"")).thenReturn(requestHeadersSpec);
+        when(responseSpec.toEntity(SuccessTransactionDTO.class))
+                .thenReturn(Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"v1\"").build()));
+
+        assertNull(backendServer.getTransactionsReactive("123", "\"v1\"").block());
+    }
 }
@@ -2,12 +2,18 @@ package com.example.mainserver.service;
 
 import com.example.mainserver.dto.FailureTransactionDTO;
 import com.example.mainserver.dto.ConsolidatedTransactionDTO;
+import com.example.mainserver.config.BackendEndpointProperties;
+import com.example.mainserver.config.HedgingProperties;
+import com.example.mainserver.factory.BackendEndpointRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
@@ -47,6 +53,14 @@ public class BackendServer2Test {
     @Mock
     private WebClient webClient;
 
+    /**
+     * Invoker sending every request to the single default replica, with hedging disabled.
+     */
+    @Spy
+    private BackendInvoker backendInvoker = new BackendInvoker(
+            new BackendEndpointRegistry(new BackendEndpointProperties()), new HedgingProperties(),
+            new SimpleMeterRegistry());
+
     /**
      * Instance of {@link BackendServer2} to be tested.
      */
@@ -72,7 +86,7 @@ public class BackendServer2Test {
         FailureTransactionDTO failureTransactionDTO = new FailureTransactionDTO();
         failureTransactionDTO.setAccountNumber("123");
         failureTransactionDTO.setFailure(Collections.emptyList());
-        when(responseSpec.bodyToMono(FailureTransactionDTO.class)).thenReturn(Mono.just(failureTransactionDTO));
+        when(responseSpec.toEntity(FailureTransactionDTO.class)).thenReturn(Mono.just(ResponseEntity.ok(failureTransactionDTO)));
 
         ConsolidatedTransactionDTO result = backendServer.getTransactions("123");
 
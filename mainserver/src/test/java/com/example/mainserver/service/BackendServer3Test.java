@@ -2,12 +2,18 @@ package com.example.mainserver.service;
 
 import com.example.mainserver.dto.PendingTransactionDTO;
 import com.example.mainserver.dto.ConsolidatedTransactionDTO;
+import com.example.mainserver.config.BackendEndpointProperties;
+import com.example.mainserver.config.HedgingProperties;
+import com.example.mainserver.factory.BackendEndpointRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
@@ -47,6 +53,14 @@ public class BackendServer3Test {
     @Mock
     private WebClient webClient;
 
+    /**
+     * Invoker sending every request to the single default replica, with hedging disabled.
+     */
+    @Spy
+    private BackendInvoker backendInvoker = new BackendInvoker(
+            new BackendEndpointRegistry(new BackendEndpointProperties()), new HedgingProperties(),
+            new SimpleMeterRegistry());
+
     /**
      * Instance of {@link BackendServer3} to be tested.
      */
@@ -72,7 +86,7 @@ public class BackendServer3Test {
         PendingTransactionDTO pendingTransactionDTO = new PendingTransactionDTO();
         pendingTransactionDTO.setAccountNumber("123");
         pendingTransactionDTO.setPending(Collections.emptyList());
-        when(responseSpec.bodyToMono(PendingTransactionDTO.class)).thenReturn(Mono.just(pendingTransactionDTO));
+        when(responseSpec.toEntity(PendingTransactionDTO.class)).thenReturn(Mono.just(ResponseEntity.ok(pendingTransactionDTO)));
 
         ConsolidatedTransactionDTO result = backendServer.getTransactions("123");
         assertEquals(Collections.emptyList(), result.getSuccess());
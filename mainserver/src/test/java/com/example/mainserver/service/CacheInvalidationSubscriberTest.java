@@ -0,0 +1,219 @@
+package com.example.mainserver.service;
+
+import com.example.mainserver.cache.TransactionCache;
+import com.example.mainserver.config.BackendEndpointProperties;
+import com.example.mainserver.config.HedgingProperties;
+import com.example.mainserver.config.InvalidationProperties;
+import com.example.mainserver.config.NearCacheProperties;
+import com.example.mainserver.dto.TransactionDTO;
+import com.example.mainserver.factory.BackendEndpoint;
+import com.example.mainserver.factory.BackendEndpointRegistry;
+import com.example.mainserver.factory.BackendEndpointReloader;
+import com.example.mainserver.factory.TransactionFactory;
+import com.example.mainserver.model.TransactionStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * JUnit test class for {@link CacheInvalidationSubscriber}.
+ */
+public class CacheInvalidationSubscriberTest {
+
+    /**
+     * Feed served by the stub on its first connection; later connections receive an empty feed.
+     */
+    private volatile String firstFeed;
+
+    /**
+     * The {@code Last-Event-ID} header of every connection to the stub, "none" when absent.
+     */
+    private final List<String> lastEventIds = new CopyOnWriteArrayList<>();
+
+    /**
+     * Local stub of a Backend Server 1 replica serving its change feed.
+     */
+    private DisposableServer server;
+
+    /**
+     * The near cache invalidated by the subscriber.
+     */
+    private TransactionCache cache;
+
+    /**
+     * Instance of {@link CacheInvalidationSubscriber} to be tested.
+     */
+    private CacheInvalidationSubscriber subscriber;
+
+    /**
+     * Registry holding the stub replica.
+     */
+    private BackendEndpointRegistry registry;
+
+    /**
+     * The stub replica's endpoint.
+     */
+    private BackendEndpoint endpoint;
+
+    /**
+     * Starts the stub replica and creates a subscriber reconnecting to it quickly.
+     */
+    @BeforeEach
+    public void setUp() {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/backendserver1/success/changes", (request, response) -> {
+                    lastEventIds.add(request.requestHeaders().get("Last-Event-ID", "none"));
+                    String feed = lastEventIds.size() == 1 ? firstFeed : "";
+                    return response.header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_EVENT_STREAM_VALUE)
+                            .sendString(Mono.just(feed));
+                }))
+                .bindNow();
+
+        BackendEndpointProperties endpointProperties = new BackendEndpointProperties();
+        endpointProperties.getReplicas().put(TransactionStatus.SUCCESS, List.of("http://localhost:" + server.port()));
+        registry = new BackendEndpointRegistry(endpointProperties);
+        endpoint = registry.getEndpoints(TransactionStatus.SUCCESS).get(0);
+        BackendInvoker invoker = new BackendInvoker(registry, new HedgingProperties(), new SimpleMeterRegistry());
+        BackendServer1 backendServer1 = new BackendServer1(WebClient.create(), invoker);
+        TransactionFactory transactionFactory = new TransactionFactory(backendServer1, mock(BackendServer.class), mock(BackendServer.class));
+
+        InvalidationProperties properties = new InvalidationProperties();
+        properties.setEnabled(true);
+        properties.setReconnectDelay(Duration.ofMillis(20));
+        cache = new TransactionCache(new NearCacheProperties());
+        subscriber = new CacheInvalidationSubscriber(transactionFactory, registry, cache, properties);
+
+        for (String accountNumber : List.of("123", "456")) {
+            cache.putSegment(accountNumber, TransactionStatus.SUCCESS, List.of(new TransactionDTO()));
+            cache.putSegment(accountNumber, TransactionStatus.FAILURE, List.of(new TransactionDTO()));
+        }
+    }
+
+    /**
+     * Stops the stub replica.
+     */
+    @AfterEach
+    public void tearDown() {
+        server.disposeNow();
+    }
+
+    /**
+     * Test case verifying that a change event invalidates only the written account's segment of the replica's
+     * status, and that the feed is resumed after the last event received when it ends.
+     */
+    @Test
+    public void testChangeEventInvalidatesWrittenAccountAndFeedResumes() {
+        firstFeed = "id:e-1\nevent:change\ndata:123\n\n";
+        Disposable subscription = subscriber.follow(TransactionStatus.SUCCESS, endpoint).subscribe();
+        try {
+            awaitTrue(() -> lastEventIds.size() >= 2);
+        } finally {
+            subscription.dispose();
+        }
+
+        assertFalse(isCached("123", TransactionStatus.SUCCESS));
+        assertTrue(isCached("456", TransactionStatus.SUCCESS));
+        assertTrue(isCached("123", TransactionStatus.FAILURE));
+        assertEquals(List.of("none", "e-1"), lastEventIds.subList(0, 2));
+        Map<String, Number> stats = subscriber.stats();
+        assertEquals(1L, stats.get("changeEvents"));
+        assertTrue(stats.get("reconnects").longValue() >= 1);
+    }
+
+    /**
+     * Test case verifying that a reset event invalidates every segment of the replica's status and no other.
+     */
+    @Test
+    public void testResetEventInvalidatesWholeStatus() {
+        firstFeed = "id:e-7\nevent:reset\ndata:\n\n";
+        Disposable subscription = subscriber.follow(TransactionStatus.SUCCESS, endpoint).subscribe();
+        try {
+            awaitTrue(() -> lastEventIds.size() >= 2);
+        } finally {
+            subscription.dispose();
+        }
+
+        assertFalse(isCached("123", TransactionStatus.SUCCESS));
+        assertFalse(isCached("456", TransactionStatus.SUCCESS));
+        assertTrue(isCached("123", TransactionStatus.FAILURE));
+        assertTrue(isCached("456", TransactionStatus.FAILURE));
+        assertEquals("e-7", lastEventIds.get(1));
+        assertEquals(1L, subscriber.stats().get("resetEvents"));
+    }
+
+    /**
+     * Test case verifying that a reload opens the feeds of added replicas and closes those of removed ones, keeping
+     * the feeds of the replicas that remain.
+     */
+    @Test
+    public void testReloadFollowsAddedAndRemovedReplicas() {
+        firstFeed = "";
+        subscriber.start();
+        try {
+            assertEquals(3, subscriber.stats().get("feeds"));
+
+            String stub = endpoint.getBaseUrl();
+            registry.update(TransactionStatus.SUCCESS, List.of(stub, "http://localhost:1"));
+            subscriber.onReplicasReloaded(new BackendEndpointReloader.ReplicasReloaded(Set.of(TransactionStatus.SUCCESS)));
+            assertEquals(4, subscriber.stats().get("feeds"));
+
+            registry.update(TransactionStatus.SUCCESS, List.of("http://localhost:1"));
+            subscriber.onReplicasReloaded(new BackendEndpointReloader.ReplicasReloaded(Set.of(TransactionStatus.SUCCESS)));
+            assertEquals(3, subscriber.stats().get("feeds"));
+        } finally {
+            subscriber.stop();
+        }
+        assertEquals(0, subscriber.stats().get("feeds"));
+    }
+
+    /**
+     * Indicates whether a segment is cached.
+     *
+     * @param accountNumber The account number.
+     * @param status        The segment's status.
+     * @return {@code true} if the segment is cached.
+     */
+    private boolean isCached(String accountNumber, TransactionStatus status) {
+        return cache.getSegments(accountNumber, EnumSet.of(status)).segments().containsKey(status);
+    }
+
+    /**
+     * Waits up to five seconds for a condition to hold.
+     *
+     * @param condition The condition.
+     */
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 5 seconds");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.mainserver.service;
+
+import com.example.mainserver.model.TransactionStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * JUnit test class for {@link FanOutPlanner}.
+ */
+public class FanOutPlannerTest {
+
+    /**
+     * Instance of {@link FanOutPlanner} to be tested.
+     */
+    private final FanOutPlanner planner = new FanOutPlanner();
+
+    /**
+     * Test case verifying that "ALL" plans a call to every backend server.
+     */
+    @Test
+    public void testPlanAll() {
+        assertEquals(EnumSet.allOf(TransactionStatus.class), planner.plan("all"));
+    }
+
+    /**
+     * Test case verifying that a single status plans exactly one backend call.
+     */
+    @Test
+    public void testPlanSingleStatus() {
+        assertEquals(EnumSet.of(TransactionStatus.FAILURE), planner.plan("FAILURE"));
+    }
+
+    /**
+     * Test case verifying that a subset is deduplicated and kept in backend order.
+     */
+    @Test
+    public void testPlanSubset() {
+        Set<TransactionStatus> plan = planner.plan("pending, SUCCESS,pending");
+
+        assertEquals(EnumSet.of(TransactionStatus.SUCCESS, TransactionStatus.PENDING), plan);
+        assertEquals(TransactionStatus.SUCCESS, plan.iterator().next());
+    }
+
+    /**
+     * Test case verifying that unknown or empty status expressions are rejected.
+     */
+    @Test
+    public void testPlanInvalidStatus() {
+        assertThrows(IllegalArgumentException.class, () -> planner.plan("SUCCESS,UNKNOWN"));
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(" "));
+        assertThrows(IllegalArgumentException.class, () -> planner.plan("SUCCESS,"));
+    }
+}
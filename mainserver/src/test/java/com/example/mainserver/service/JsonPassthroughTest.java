@@ -0,0 +1,85 @@
+package com.example.mainserver.service;
+
+import com.example.mainserver.dto.ConsolidatedTransactionDTO;
+import com.example.mainserver.dto.TransactionDTO;
+import com.example.mainserver.model.SegmentStatus;
+import com.example.mainserver.model.TransactionStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * JUnit test class for {@link JsonPassthrough}.
+ */
+public class JsonPassthroughTest {
+
+    /**
+     * Test case verifying that the array is copied byte for byte, even when split across buffers and preceded by
+     * other fields holding nested values and non-ASCII text.
+     */
+    @Test
+    public void testArrayFieldCopiesRawBytes() {
+        String array = "[ {\"transactionId\":\"T1\",\"amount\":\"10\",\"date\":\"01-01-2024\",\"status\":\"success\"},{\"transactionId\":\"Té\"} ]";
+        String body = "{\"accountNumber\":\"123€\",\"meta\":{\"success\":[1]},\"success\":" + array + ",\"nextCursor\":null}";
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        DefaultDataBufferFactory factory = DefaultDataBufferFactory.sharedInstance;
+        Flux<DataBuffer> chunks = Flux.just(factory.wrap(Arrays.copyOfRange(bytes, 0, 20)),
+                factory.wrap(Arrays.copyOfRange(bytes, 20, bytes.length)));
+
+        byte[] extracted = JsonPassthrough.arrayField(chunks, "success").block();
+
+        assertEquals(array, new String(extracted, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Test case verifying that a missing or null field is an empty segment and a malformed body is rejected.
+     */
+    @Test
+    public void testArrayFieldMissingOrMalformed() {
+        DefaultDataBufferFactory factory = DefaultDataBufferFactory.sharedInstance;
+
+        assertEquals("[]", new String(JsonPassthrough.arrayField(
+                factory.wrap("{\"accountNumber\":\"123\"}".getBytes(StandardCharsets.UTF_8)), "failure"), StandardCharsets.UTF_8));
+        assertEquals("[]", new String(JsonPassthrough.arrayField(
+                factory.wrap("{\"failure\":null}".getBytes(StandardCharsets.UTF_8)), "failure"), StandardCharsets.UTF_8));
+        assertThrows(IllegalStateException.class, () -> JsonPassthrough.arrayField(
+                factory.wrap("{\"failure\":[{\"transactionId\":}]}".getBytes(StandardCharsets.UTF_8)), "failure"));
+        assertThrows(IllegalStateException.class, () -> JsonPassthrough.arrayField(
+                factory.wrap("[]".getBytes(StandardCharsets.UTF_8)), "failure"));
+    }
+
+    /**
+     * Test case verifying that the spliced envelope is the same JSON as the encoded {@link ConsolidatedTransactionDTO}.
+     */
+    @Test
+    public void testEnvelopeMatchesConsolidatedDTO() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setTransactionId("T1");
+        transaction.setDate("01-01-2024");
+        Map<TransactionStatus, SegmentStatus> outcomes = new EnumMap<>(TransactionStatus.class);
+        outcomes.put(TransactionStatus.SUCCESS, SegmentStatus.OK);
+        outcomes.put(TransactionStatus.PENDING, SegmentStatus.TIMED_OUT);
+        ConsolidatedTransactionDTO consolidated = new ConsolidatedTransactionDTO(
+                List.of(transaction), Collections.emptyList(), Collections.emptyList());
+        consolidated.setSegmentStatus(outcomes);
+
+        Map<TransactionStatus, byte[]> segments = new EnumMap<>(TransactionStatus.class);
+        segments.put(TransactionStatus.SUCCESS, objectMapper.writeValueAsBytes(List.of(transaction)));
+        byte[] envelope = JsonPassthrough.envelope(segments, outcomes);
+
+        assertEquals(objectMapper.writeValueAsString(consolidated), new String(envelope, StandardCharsets.UTF_8));
+    }
+}
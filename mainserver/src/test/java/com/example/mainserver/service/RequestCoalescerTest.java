@@ -0,0 +1,75 @@
+package com.example.mainserver.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * JUnit test class for {@link RequestCoalescer}.
+ */
+public class RequestCoalescerTest {
+
+    /**
+     * Instance of {@link RequestCoalescer} to be tested.
+     */
+    private final RequestCoalescer<String, String> coalescer = new RequestCoalescer<>();
+
+    /**
+     * Test case verifying that concurrent requests for the same key share one fetch and its result.
+     */
+    @Test
+    public void testConcurrentRequestsShareOneFetch() {
+        AtomicInteger fetches = new AtomicInteger();
+        Sinks.One<String> backend = Sinks.one();
+
+        Mono<String> first = coalescer.coalesce("123", () -> {
+            fetches.incrementAndGet();
+            return backend.asMono();
+        }).cache();
+        Mono<String> second = coalescer.coalesce("123", () -> {
+            fetches.incrementAndGet();
+            return backend.asMono();
+        }).cache();
+        first.subscribe();
+        second.subscribe();
+
+        assertEquals(1, coalescer.inFlightCount());
+        backend.tryEmitValue("result");
+
+        assertSame(first.block(), second.block());
+        assertEquals(1, fetches.get());
+        assertEquals(1, coalescer.joinedCount());
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    /**
+     * Test case verifying that a request arriving after completion starts a fresh fetch.
+     */
+    @Test
+    public void testCompletedFetchIsNotReused() {
+        AtomicInteger fetches = new AtomicInteger();
+
+        coalescer.coalesce("123", () -> Mono.just("v" + fetches.incrementAndGet())).block();
+        String second = coalescer.coalesce("123", () -> Mono.just("v" + fetches.incrementAndGet())).block();
+
+        assertEquals("v2", second);
+        assertEquals(2, coalescer.startedCount());
+    }
+
+    /**
+     * Test case verifying that a failed fetch is propagated and then forgotten.
+     */
+    @Test
+    public void testFailedFetchIsPropagated() {
+        Mono<String> failing = coalescer.coalesce("123", () -> Mono.error(new IllegalStateException("down")));
+
+        assertThrows(IllegalStateException.class, failing::block);
+        assertEquals(0, coalescer.inFlightCount());
+    }
+}
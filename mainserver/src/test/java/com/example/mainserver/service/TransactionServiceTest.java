@@ -1,18 +1,59 @@
 package com.example.mainserver.service;
 
+import com.example.mainserver.cache.TransactionCache;
+import com.example.mainserver.config.BatchProperties;
+import com.example.mainserver.config.BulkheadProperties;
+import com.example.mainserver.config.FanOutProperties;
+import com.example.mainserver.config.NearCacheProperties;
+import com.example.mainserver.config.PagingProperties;
+import com.example.mainserver.config.ResilienceProperties;
+import com.example.mainserver.factory.BulkheadExecutors;
+import com.example.mainserver.factory.CircuitBreakers;
 import com.example.mainserver.factory.TransactionFactory;
+import com.example.mainserver.dto.BatchAccountResultDTO;
 import com.example.mainserver.dto.ConsolidatedTransactionDTO;
+import com.example.mainserver.dto.PassthroughTransactionsDTO;
+import com.example.mainserver.dto.StreamedTransactionDTO;
+import com.example.mainserver.dto.TimelineDTO;
+import com.example.mainserver.dto.TransactionDTO;
+import com.example.mainserver.model.Consistency;
+import com.example.mainserver.model.PageCursor;
+import com.example.mainserver.model.SegmentStatus;
+import com.example.mainserver.model.TransactionStatus;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -33,10 +74,39 @@ public class TransactionServiceTest {
     @Mock
     private BackendServer backendServerMock;
 
+    /**
+     * Fan-out properties shared with the service under test.
+     */
+    private FanOutProperties fanOutProperties;
+
+    /**
+     * Deadline and circuit breaker properties shared with the service under test.
+     */
+    private ResilienceProperties resilienceProperties;
+
+    /**
+     * Batch query properties shared with the service under test.
+     */
+    private BatchProperties batchProperties;
+
+    /**
+     * Manually advanced time source of the near cache, in nanoseconds.
+     */
+    private final AtomicLong now = new AtomicLong();
+
+    /**
+     * Registry receiving the service's timers.
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * Registry observing the stages of a query, timing them into {@link #meterRegistry}.
+     */
+    private ObservationRegistry observationRegistry;
+
     /**
      * Instance of {@link TransactionService} to be tested.
      */
-    @InjectMocks
     private TransactionService transactionService;
 
     /**
@@ -45,16 +115,43 @@ public class TransactionServiceTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        fanOutProperties = new FanOutProperties();
+        resilienceProperties = new ResilienceProperties();
+        resilienceProperties.getDefaults().setMinimumCalls(2);
+        batchProperties = new BatchProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        transactionService = newTransactionService();
     }
 
     /**
-     * Test case for fetching transactions for all statuses.
+     * Creates the service under test from the current properties.
      *
-     * @throws ExecutionException   if the computation threw an exception
-     * @throws InterruptedException if the current thread was interrupted while waiting
+     * @return The transaction service.
+     */
+    private TransactionService newTransactionService() {
+        return newTransactionService(new BulkheadExecutors(new BulkheadProperties()));
+    }
+
+    /**
+     * Creates the service under test from the current properties and the given bulkheads.
+     *
+     * @param bulkheadExecutors The bulkhead executors of the backend servers.
+     * @return The transaction service.
+     */
+    private TransactionService newTransactionService(BulkheadExecutors bulkheadExecutors) {
+        return new TransactionService(backendServerFactory, new FanOutPlanner(),
+                bulkheadExecutors, new TransactionCache(new NearCacheProperties(), now::get),
+                fanOutProperties, new CircuitBreakers(resilienceProperties, now::get), resilienceProperties,
+                batchProperties, new PagingProperties(), meterRegistry, observationRegistry);
+    }
+
+    /**
+     * Test case for fetching transactions for all statuses.
      */
     @Test
-    public void testFetchTransactionsForAllStatus() throws ExecutionException, InterruptedException {
+    public void testFetchTransactionsForAllStatus() {
 
         String accountNumber = "123456";
         String status = "ALL";
@@ -63,44 +160,697 @@ public class TransactionServiceTest {
         ConsolidatedTransactionDTO successTransactions = new ConsolidatedTransactionDTO();
         ConsolidatedTransactionDTO failureTransactions = new ConsolidatedTransactionDTO();
 
-        when(backendServerFactory.getBackendServer("PENDING")).thenReturn(backendServerMock);
-        when(backendServerFactory.getBackendServer("SUCCESS")).thenReturn(backendServerMock);
-        when(backendServerFactory.getBackendServer("FAILURE")).thenReturn(backendServerMock);
+        when(backendServerFactory.getBackendServer(TransactionStatus.PENDING)).thenReturn(backendServerMock);
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerFactory.getBackendServer(TransactionStatus.FAILURE)).thenReturn(backendServerMock);
 
-        when(backendServerMock.getTransactions(accountNumber)).thenReturn(pendingTransactions, successTransactions, failureTransactions);
+        when(backendServerMock.getTransactionsReactive(accountNumber))
+                .thenReturn(Mono.just(successTransactions), Mono.just(failureTransactions), Mono.just(pendingTransactions));
 
-        CompletableFuture<ConsolidatedTransactionDTO> result = transactionService.fetchTransactions(accountNumber, status);
+        ConsolidatedTransactionDTO result = transactionService.fetchTransactions(accountNumber, status).block();
 
         ConsolidatedTransactionDTO expectedResult = new ConsolidatedTransactionDTO(
-                successTransactions.getSuccess(),
-                failureTransactions.getFailure(),
-                pendingTransactions.getPending()
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Collections.emptyList()
         );
 
-        assertEquals(expectedResult, result.get());
+        assertEquals(expectedResult, result);
+
+    }
+
+    /**
+     * Test case verifying that a fetch is timed end to end, and that a repeated fetch served from the near cache
+     * records a cache lookup but no backend fetch.
+     */
+    @Test
+    public void testFetchIsTimedEndToEndAndPerStage() {
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerMock.getTransactionsReactive("123456")).thenReturn(Mono.just(new ConsolidatedTransactionDTO()));
+
+        transactionService.fetchTransactions("123456", "SUCCESS").block();
+        transactionService.fetchTransactions("123456", "SUCCESS").block();
+
+        assertEquals(2, meterRegistry.get("mainserver.transactions")
+                .tags("operation", "fetch", "outcome", "success").timer().count());
+        assertEquals(2, meterRegistry.get("mainserver.transactions.stage").tag("stage", "cache_lookup").timer().count());
+        assertEquals(1, meterRegistry.get("mainserver.transactions.stage").tag("stage", "backend_fetch").timer().count());
+        assertEquals(2, meterRegistry.get("mainserver.transactions.stage").tag("stage", "assemble").timer().count());
+    }
+
+    /**
+     * Test case verifying that the end-to-end timers of every operation and outcome are registered once, up front,
+     * and reused by every query.
+     */
+    @Test
+    public void testOperationTimersAreRegisteredOnce() {
+        int timers = 6 * 3;
+        assertEquals(timers, meterRegistry.find("mainserver.transactions").timers().size());
+
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerMock.getTransactionsReactive("123456")).thenReturn(Mono.just(new ConsolidatedTransactionDTO()));
+        transactionService.fetchTransactions("123456", "SUCCESS").block();
+        transactionService.fetchTransactions("123456", "SUCCESS").block();
+
+        assertEquals(timers, meterRegistry.find("mainserver.transactions").timers().size());
+        assertEquals(2, meterRegistry.get("mainserver.transactions")
+                .tags("operation", "fetch", "outcome", "success").timer().count());
+    }
+
+    /**
+     * Test case verifying that a blocking backend call runs on the bulkhead thread inside the {@code backend_fetch}
+     * stage, so its client span joins the query's trace, and that the wait for the thread is observed.
+     */
+    @Test
+    public void testBlockingFetchCarriesTheTraceContextOntoTheBulkheadThread() {
+        fanOutProperties.setMode(FanOutProperties.Mode.BLOCKING);
+        AtomicReference<Observation> current = new AtomicReference<>();
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerMock.getTransactions(eq("123456"), any(Duration.class))).thenAnswer(invocation -> {
+            current.set(observationRegistry.getCurrentObservation());
+            return new ConsolidatedTransactionDTO();
+        });
 
+        transactionService.fetchTransactions("123456", "SUCCESS").block();
+
+        assertEquals("backend_fetch", current.get().getContextView().getContextualName());
+        assertEquals(1, meterRegistry.get("mainserver.transactions.stage").tag("stage", "bulkhead_queue").timer().count());
+    }
+
+    /**
+     * Test case for fetching transactions for all statuses through the blocking fan-out strategy.
+     */
+    @Test
+    public void testFetchTransactionsForAllStatusBlockingMode() {
+
+        String accountNumber = "123456";
+        fanOutProperties.setMode(FanOutProperties.Mode.BLOCKING);
+
+        ConsolidatedTransactionDTO transactions = new ConsolidatedTransactionDTO();
+
+        when(backendServerFactory.getBackendServer(TransactionStatus.PENDING)).thenReturn(backendServerMock);
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerFactory.getBackendServer(TransactionStatus.FAILURE)).thenReturn(backendServerMock);
+        when(backendServerMock.getTransactions(eq(accountNumber), any(Duration.class))).thenReturn(transactions);
+
+        ConsolidatedTransactionDTO result = transactionService.fetchTransactions(accountNumber, "ALL").block();
+
+        assertEquals(new ConsolidatedTransactionDTO(Collections.emptyList(), Collections.emptyList(), Collections.emptyList()), result);
     }
 
     /**
      * Test case for fetching transactions for a specific status.
-     *
-     * @throws ExecutionException   if the computation threw an exception
-     * @throws InterruptedException if the current thread was interrupted while waiting
      */
     @Test
-    public void testFetchTransactionsForSpecificStatus() throws ExecutionException, InterruptedException {
+    public void testFetchTransactionsForSpecificStatus() {
 
         String accountNumber = "123456";
         String status = "SOME_STATUS";
 
         ConsolidatedTransactionDTO pendingTransactions = new ConsolidatedTransactionDTO(/* provide pending data */);
-        ConsolidatedTransactionDTO successTransactions = new ConsolidatedTransactionDTO(/* provide success data */);
-        ConsolidatedTransactionDTO failureTransactions = new ConsolidatedTransactionDTO(/* provide failure data */);
 
         when(backendServerFactory.getBackendServer(status)).thenReturn(backendServerMock);
 
-        when(backendServerMock.getTransactions(accountNumber)).thenReturn(pendingTransactions, successTransactions, failureTransactions);
+        when(backendServerMock.getTransactionsReactive(accountNumber)).thenReturn(Mono.just(pendingTransactions));
 
         assertThrows(IllegalArgumentException.class, () -> transactionService.fetchTransactions(accountNumber,status));
     }
+
+    /**
+     * Test case verifying that a single-status request calls only the owning backend server, exactly once.
+     */
+    @Test
+    public void testFetchTransactionsForSingleStatusCallsBackendOnce() {
+
+        String accountNumber = "123456";
+        List<TransactionDTO> success = List.of(new TransactionDTO());
+
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerMock.getTransactionsReactive(accountNumber)).thenReturn(Mono.just(
+                new ConsolidatedTransactionDTO(success, Collections.emptyList(), Collections.emptyList())));
+
+        ConsolidatedTransactionDTO result = transactionService.fetchTransactions(accountNumber, "success").block();
+
+        assertEquals(new ConsolidatedTransactionDTO(success, Collections.emptyList(), Collections.emptyList()), result);
+        verify(backendServerMock, times(1)).getTransactionsReactive(accountNumber);
+        verify(backendServerFactory, never()).getBackendServer(TransactionStatus.FAILURE);
+        verify(backendServerFactory, never()).getBackendServer(TransactionStatus.PENDING);
+    }
+
+    /**
+     * Test case for fetching a subset of statuses, which must skip the backend server that was not requested.
+     */
+    @Test
+    public void testFetchTransactionsForStatusSubset() {
+
+        String accountNumber = "123456";
+        List<TransactionDTO> success = List.of(new TransactionDTO());
+        List<TransactionDTO> pending = List.of(new TransactionDTO(), new TransactionDTO());
+
+        BackendServer pendingServer = mock(BackendServer.class);
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerFactory.getBackendServer(TransactionStatus.PENDING)).thenReturn(pendingServer);
+        when(backendServerMock.getTransactionsReactive(accountNumber)).thenReturn(Mono.just(
+                new ConsolidatedTransactionDTO(success, Collections.emptyList(), Collections.emptyList())));
+        when(pendingServer.getTransactionsReactive(accountNumber)).thenReturn(Mono.just(
+                new ConsolidatedTransactionDTO(Collections.emptyList(), Collections.emptyList(), pending)));
+
+        ConsolidatedTransactionDTO result = transactionService.fetchTransactions(accountNumber, "SUCCESS,PENDING").block();
+
+        assertEquals(new ConsolidatedTransactionDTO(success, Collections.emptyList(), pending), result);
+        verify(backendServerFactory, never()).getBackendServer(TransactionStatus.FAILURE);
+    }
+
+    /**
+     * Test case verifying that a cached ALL result answers a later single-status request without a backend call.
+     */
+    @Test
+    public void testCachedAllResultServesSingleStatus() {
+
+        String accountNumber = "123456";
+        List<TransactionDTO> success = List.of(new TransactionDTO());
+
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerFactory.getBackendServer(TransactionStatus.FAILURE)).thenReturn(backendServerMock);
+        when(backendServerFactory.getBackendServer(TransactionStatus.PENDING)).thenReturn(backendServerMock);
+        when(backendServerMock.getTransactionsReactive(accountNumber)).thenReturn(Mono.just(
+                new ConsolidatedTransactionDTO(success, Collections.emptyList(), Collections.emptyList())));
+
+        transactionService.fetchTransactions(accountNumber, "ALL").block();
+        ConsolidatedTransactionDTO result = transactionService.fetchTransactions(accountNumber, "SUCCESS").block();
+
+        assertEquals(new ConsolidatedTransactionDTO(success, Collections.emptyList(), Collections.emptyList()), result);
+        verify(backendServerMock, times(3)).getTransactionsReactive(accountNumber);
+    }
+
+    /**
+     * Test case verifying that an expired segment inside the grace window is served immediately while a
+     * background refresh replaces it.
+     */
+    @Test
+    public void testStaleSegmentIsServedWhileRefreshing() {
+
+        String accountNumber = "123456";
+        List<TransactionDTO> before = List.of(new TransactionDTO());
+        List<TransactionDTO> after = List.of(new TransactionDTO(), new TransactionDTO());
+
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerMock.getTransactionsReactive(accountNumber)).thenReturn(
+                Mono.just(new ConsolidatedTransactionDTO(before, Collections.emptyList(), Collections.emptyList())),
+                Mono.just(new ConsolidatedTransactionDTO(after, Collections.emptyList(), Collections.emptyList())));
+
+        transactionService.fetchTransactions(accountNumber, "SUCCESS").block();
+        now.addAndGet(new NearCacheProperties().getDefaultTtl().plusSeconds(1).toNanos());
+
+        ConsolidatedTransactionDTO stale = transactionService.fetchTransactions(accountNumber, "SUCCESS").block();
+        ConsolidatedTransactionDTO refreshed = transactionService.fetchTransactions(accountNumber, "SUCCESS").block();
+
+        assertEquals(before, stale.getSuccess());
+        assertEquals(after, refreshed.getSuccess());
+        verify(backendServerMock, times(2)).getTransactionsReactive(accountNumber);
+    }
+
+    /**
+     * Test case verifying that a stale segment cached with an entity tag is revalidated, that a backend reporting
+     * it unchanged keeps the cached transactions without sending them again, and that the revalidation does not
+     * renew the segment's time-to-live.
+     */
+    @Test
+    public void testStaleSegmentIsRevalidatedWithETag() {
+
+        String accountNumber = "123456";
+        List<TransactionDTO> cached = List.of(new TransactionDTO());
+        ConsolidatedTransactionDTO tagged = new ConsolidatedTransactionDTO(cached, Collections.emptyList(), Collections.emptyList());
+        tagged.setSegmentETags(Map.of(TransactionStatus.SUCCESS, "\"v1\""));
+
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerMock.getTransactionsReactive(accountNumber)).thenReturn(Mono.just(tagged));
+        when(backendServerMock.getTransactionsReactive(accountNumber, "\"v1\"")).thenReturn(Mono.empty());
+
+        transactionService.fetchTransactions(accountNumber, "SUCCESS").block();
+        now.addAndGet(new NearCacheProperties().getDefaultTtl().plusSeconds(1).toNanos());
+
+        ConsolidatedTransactionDTO stale = transactionService.fetchTransactions(accountNumber, "SUCCESS").block();
+        ConsolidatedTransactionDTO revalidated = transactionService.fetchTransactions(accountNumber, "SUCCESS").block();
+
+        assertEquals(cached, stale.getSuccess());
+        assertEquals(cached, revalidated.getSuccess());
+        verify(backendServerMock, times(1)).getTransactionsReactive(accountNumber);
+        verify(backendServerMock, times(2)).getTransactionsReactive(accountNumber, "\"v1\"");
+
+        now.addAndGet(new NearCacheProperties().getStaleGrace().toNanos());
+        transactionService.fetchTransactions(accountNumber, "SUCCESS").block();
+
+        verify(backendServerMock, times(2)).getTransactionsReactive(accountNumber);
+    }
+
+    /**
+     * Test case verifying that the fresh consistency level bypasses cached segments.
+     */
+    @Test
+    public void testFreshConsistencyBypassesCache() {
+
+        String accountNumber = "123456";
+
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerMock.getTransactionsReactive(accountNumber)).thenReturn(Mono.just(
+                new ConsolidatedTransactionDTO(Collections.emptyList(), Collections.emptyList(), Collections.emptyList())));
+
+        transactionService.fetchTransactions(accountNumber, "SUCCESS").block();
+        transactionService.fetchTransactions(accountNumber, "SUCCESS", Consistency.FRESH).block();
+
+        verify(backendServerMock, times(2)).getTransactionsReactive(accountNumber);
+    }
+
+    /**
+     * Test case verifying that a backend missing its deadline yields a partial result with the other segments.
+     */
+    @Test
+    public void testSlowBackendTimesOutIntoPartialResult() {
+
+        String accountNumber = "123456";
+        List<TransactionDTO> success = List.of(new TransactionDTO());
+        ResilienceProperties.Backend pendingSettings = new ResilienceProperties.Backend();
+        pendingSettings.setDeadline(Duration.ofMillis(100));
+        resilienceProperties.getBackends().put(TransactionStatus.PENDING, pendingSettings);
+        transactionService = newTransactionService();
+
+        BackendServer pendingServer = mock(BackendServer.class);
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerFactory.getBackendServer(TransactionStatus.PENDING)).thenReturn(pendingServer);
+        when(backendServerMock.getTransactionsReactive(accountNumber)).thenReturn(Mono.just(
+                new ConsolidatedTransactionDTO(success, Collections.emptyList(), Collections.emptyList())));
+        when(pendingServer.getTransactionsReactive(accountNumber)).thenReturn(Mono.never());
+
+        ConsolidatedTransactionDTO result = transactionService.fetchTransactions(accountNumber, "SUCCESS,PENDING")
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(new ConsolidatedTransactionDTO(success, Collections.emptyList(), Collections.emptyList()), result);
+        assertEquals(Map.of(TransactionStatus.SUCCESS, SegmentStatus.OK, TransactionStatus.PENDING, SegmentStatus.TIMED_OUT),
+                result.getSegmentStatus());
+
+        transactionService.fetchTransactions(accountNumber, "PENDING").block(Duration.ofSeconds(5));
+        verify(pendingServer, times(2)).getTransactionsReactive(accountNumber);
+    }
+
+    /**
+     * Test case verifying that repeated failures open the backend's circuit so it is no longer called.
+     */
+    @Test
+    public void testFailingBackendOpensCircuit() {
+
+        String accountNumber = "123456";
+
+        when(backendServerFactory.getBackendServer(TransactionStatus.FAILURE)).thenReturn(backendServerMock);
+        when(backendServerMock.getTransactionsReactive(accountNumber))
+                .thenReturn(Mono.error(new IllegalStateException("Backend down")));
+
+        ConsolidatedTransactionDTO first = transactionService.fetchTransactions(accountNumber, "FAILURE").block();
+        transactionService.fetchTransactions(accountNumber, "FAILURE").block();
+        ConsolidatedTransactionDTO third = transactionService.fetchTransactions(accountNumber, "FAILURE").block();
+
+        assertEquals(SegmentStatus.FAILED, first.getSegmentStatus().get(TransactionStatus.FAILURE));
+        assertEquals(SegmentStatus.CIRCUIT_OPEN, third.getSegmentStatus().get(TransactionStatus.FAILURE));
+        assertEquals(Collections.emptyList(), third.getFailure());
+        verify(backendServerMock, times(2)).getTransactionsReactive(accountNumber);
+
+        now.addAndGet(resilienceProperties.getDefaults().getOpenDuration().plusSeconds(1).toNanos());
+        when(backendServerMock.getTransactionsReactive(accountNumber)).thenReturn(Mono.just(
+                new ConsolidatedTransactionDTO(Collections.emptyList(), Collections.emptyList(), Collections.emptyList())));
+        ConsolidatedTransactionDTO trial = transactionService.fetchTransactions(accountNumber, "FAILURE").block();
+
+        assertEquals(SegmentStatus.OK, trial.getSegmentStatus().get(TransactionStatus.FAILURE));
+    }
+
+    /**
+     * Test case verifying that a backend rejecting an account it does not know (4xx) marks the segment as not found,
+     * neither degrading the response nor counting against the backend's circuit.
+     */
+    @Test
+    public void testUnknownAccountIsNotFoundRatherThanFailed() {
+
+        String accountNumber = "123456";
+
+        when(backendServerFactory.getBackendServer(TransactionStatus.FAILURE)).thenReturn(backendServerMock);
+        when(backendServerMock.getTransactionsReactive(accountNumber)).thenReturn(Mono.error(
+                WebClientResponseException.create(400, "Bad Request", null, null, null)));
+
+        for (int i = 0; i < 3; i++) {
+            ConsolidatedTransactionDTO result = transactionService.fetchTransactions(accountNumber, "FAILURE").block();
+
+            assertEquals(SegmentStatus.NOT_FOUND, result.getSegmentStatus().get(TransactionStatus.FAILURE));
+            assertFalse(result.isFullyDegraded());
+        }
+        verify(backendServerMock, times(3)).getTransactionsReactive(accountNumber);
+    }
+
+    /**
+     * Test case verifying that a call rejected by the backend's full bulkhead marks the segment as rejected without
+     * counting against the backend's circuit, so the backend is called again once the bulkhead has room.
+     */
+    @Test
+    public void testFullBulkheadIsRejectedWithoutOpeningCircuit() {
+
+        String accountNumber = "123456";
+        AtomicBoolean full = new AtomicBoolean(true);
+        BulkheadExecutors bulkheadExecutors = mock(BulkheadExecutors.class);
+        when(bulkheadExecutors.getExecutor(TransactionStatus.FAILURE)).thenReturn(command -> {
+            if (full.get()) {
+                throw new RejectedExecutionException("Bulkhead full");
+            }
+            command.run();
+        });
+        fanOutProperties.setMode(FanOutProperties.Mode.BLOCKING);
+        transactionService = newTransactionService(bulkheadExecutors);
+
+        when(backendServerFactory.getBackendServer(TransactionStatus.FAILURE)).thenReturn(backendServerMock);
+        when(backendServerMock.getTransactions(eq(accountNumber), any(Duration.class))).thenReturn(
+                new ConsolidatedTransactionDTO(Collections.emptyList(), Collections.emptyList(), Collections.emptyList()));
+
+        for (int i = 0; i < 3; i++) {
+            ConsolidatedTransactionDTO result = transactionService.fetchTransactions(accountNumber, "FAILURE").block();
+
+            assertEquals(SegmentStatus.REJECTED, result.getSegmentStatus().get(TransactionStatus.FAILURE));
+            assertTrue(result.isFullyDegraded());
+        }
+        verify(backendServerMock, never()).getTransactions(eq(accountNumber), any(Duration.class));
+
+        full.set(false);
+        ConsolidatedTransactionDTO result = transactionService.fetchTransactions(accountNumber, "FAILURE").block();
+
+        assertEquals(SegmentStatus.OK, result.getSegmentStatus().get(TransactionStatus.FAILURE));
+        verify(backendServerMock).getTransactions(eq(accountNumber), any(Duration.class));
+    }
+
+    /**
+     * Test case verifying that streamed transactions are tagged with their status and each segment ends with its outcome.
+     */
+    @Test
+    public void testStreamTransactionsTagsRecordsAndEndsEachSegment() {
+
+        String accountNumber = "123456";
+        TransactionDTO first = new TransactionDTO();
+        TransactionDTO second = new TransactionDTO();
+        BackendServer failureServer = mock(BackendServer.class);
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerFactory.getBackendServer(TransactionStatus.FAILURE)).thenReturn(failureServer);
+        when(backendServerMock.streamTransactions(accountNumber, false)).thenReturn(Flux.just(first, second));
+        when(failureServer.streamTransactions(accountNumber, false)).thenReturn(Flux.error(new IllegalStateException("Backend down")));
+
+        List<StreamedTransactionDTO> records = transactionService.streamTransactions(accountNumber, "SUCCESS,FAILURE")
+                .collectList().block(Duration.ofSeconds(5));
+
+        List<StreamedTransactionDTO> success = records.stream()
+                .filter(record -> record.getStatus() == TransactionStatus.SUCCESS).toList();
+        assertEquals(3, success.size());
+        assertSame(first, success.get(0).getTransaction());
+        assertSame(second, success.get(1).getTransaction());
+        assertNull(success.get(0).getSegmentStatus());
+        assertEquals(SegmentStatus.OK, success.get(2).getSegmentStatus());
+
+        List<StreamedTransactionDTO> failure = records.stream()
+                .filter(record -> record.getStatus() == TransactionStatus.FAILURE).toList();
+        assertEquals(1, failure.size());
+        assertNull(failure.get(0).getTransaction());
+        assertEquals(SegmentStatus.FAILED, failure.get(0).getSegmentStatus());
+        verify(backendServerMock, never()).getTransactionsReactive(any());
+    }
+
+    /**
+     * Test case verifying that a stream stalling for longer than the deadline ends its segment as timed out.
+     */
+    @Test
+    public void testStalledStreamEndsSegmentAsTimedOut() {
+
+        String accountNumber = "123456";
+        TransactionDTO delivered = new TransactionDTO();
+        resilienceProperties.getDefaults().setDeadline(Duration.ofMillis(100));
+        transactionService = newTransactionService();
+
+        when(backendServerFactory.getBackendServer(TransactionStatus.PENDING)).thenReturn(backendServerMock);
+        when(backendServerMock.streamTransactions(accountNumber, false)).thenReturn(Flux.concat(Flux.just(delivered), Flux.never()));
+
+        List<StreamedTransactionDTO> records = transactionService.streamTransactions(accountNumber, "PENDING")
+                .collectList().block(Duration.ofSeconds(5));
+
+        assertEquals(2, records.size());
+        assertSame(delivered, records.get(0).getTransaction());
+        assertEquals(SegmentStatus.TIMED_OUT, records.get(1).getSegmentStatus());
+    }
+
+    /**
+     * Test case verifying that an invalid status is rejected before any backend is streamed from.
+     */
+    @Test
+    public void testStreamTransactionsRejectsInvalidStatus() {
+        assertThrows(IllegalArgumentException.class, () -> transactionService.streamTransactions("123456", "UNKNOWN"));
+        verify(backendServerFactory, never()).getBackendServer(any(TransactionStatus.class));
+    }
+
+    /**
+     * Test case verifying that a batch sends one request per backend and chunk, and marks unknown accounts.
+     */
+    @Test
+    public void testFetchTransactionsBatchChunksPerBackend() {
+
+        batchProperties.setChunkSize(2);
+        TransactionDTO transaction = new TransactionDTO();
+        BackendServer pendingServer = mock(BackendServer.class);
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerFactory.getBackendServer(TransactionStatus.PENDING)).thenReturn(pendingServer);
+        when(backendServerMock.getTransactionsBatch(List.of("111111", "222222"))).thenReturn(Mono.just(Map.of(
+                "111111", new BatchAccountResultDTO(true, List.of(transaction)),
+                "222222", new BatchAccountResultDTO(false, Collections.emptyList()))));
+        when(backendServerMock.getTransactionsBatch(List.of("333333"))).thenReturn(Mono.just(Map.of(
+                "333333", new BatchAccountResultDTO(true, Collections.emptyList()))));
+        when(pendingServer.getTransactionsBatch(any())).thenReturn(Mono.error(new IllegalStateException("Backend down")));
+
+        Map<String, ConsolidatedTransactionDTO> results = transactionService.fetchTransactionsBatch(
+                List.of("111111", "222222", "111111", "333333"), "SUCCESS,PENDING").block(Duration.ofSeconds(5));
+
+        assertEquals(List.of("111111", "222222", "333333"), List.copyOf(results.keySet()));
+        assertEquals(List.of(transaction), results.get("111111").getSuccess());
+        assertEquals(Map.of(TransactionStatus.SUCCESS, SegmentStatus.OK, TransactionStatus.PENDING, SegmentStatus.FAILED),
+                results.get("111111").getSegmentStatus());
+        assertEquals(SegmentStatus.NOT_FOUND, results.get("222222").getSegmentStatus().get(TransactionStatus.SUCCESS));
+        assertEquals(SegmentStatus.OK, results.get("333333").getSegmentStatus().get(TransactionStatus.SUCCESS));
+        verify(backendServerMock, times(2)).getTransactionsBatch(any());
+        verify(pendingServer, times(2)).getTransactionsBatch(any());
+        verify(backendServerMock, never()).getTransactionsReactive(any());
+    }
+
+    /**
+     * Test case verifying that a batch exceeding the configured maximum is rejected before any backend is called.
+     */
+    @Test
+    public void testFetchTransactionsBatchRejectsTooManyAccounts() {
+        batchProperties.setMaxAccounts(1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.fetchTransactionsBatch(List.of("111111", "222222"), "ALL"));
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.fetchTransactionsBatch(Collections.emptyList(), "ALL"));
+        verify(backendServerFactory, never()).getBackendServer(any(TransactionStatus.class));
+    }
+
+    /**
+     * Test case verifying that the merged cursor advances each store independently and ends once all are exhausted.
+     */
+    @Test
+    public void testFetchTransactionsPageMergesStoreCursors() {
+
+        String accountNumber = "123456";
+        TransactionDTO success = new TransactionDTO();
+        TransactionDTO firstFailure = new TransactionDTO();
+        TransactionDTO secondFailure = new TransactionDTO();
+        BackendServer failureServer = mock(BackendServer.class);
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerFactory.getBackendServer(TransactionStatus.FAILURE)).thenReturn(failureServer);
+        when(backendServerMock.getTransactionsPage(accountNumber, 1, null)).thenReturn(Mono.just(
+                new ConsolidatedTransactionDTO(List.of(success), Collections.emptyList(), Collections.emptyList())));
+        ConsolidatedTransactionDTO failurePage = new ConsolidatedTransactionDTO(
+                Collections.emptyList(), List.of(firstFailure), Collections.emptyList());
+        failurePage.setNextCursor("MQ");
+        when(failureServer.getTransactionsPage(accountNumber, 1, null)).thenReturn(Mono.just(failurePage));
+        when(failureServer.getTransactionsPage(accountNumber, 1, "MQ")).thenReturn(Mono.just(
+                new ConsolidatedTransactionDTO(Collections.emptyList(), List.of(secondFailure), Collections.emptyList())));
+
+        ConsolidatedTransactionDTO first = transactionService.fetchTransactionsPage(accountNumber, "SUCCESS,FAILURE", 1, null)
+                .block(Duration.ofSeconds(5));
+        ConsolidatedTransactionDTO second = transactionService.fetchTransactionsPage(accountNumber, "SUCCESS,FAILURE", 1,
+                first.getNextCursor()).block(Duration.ofSeconds(5));
+
+        assertEquals(List.of(success), first.getSuccess());
+        assertEquals(List.of(firstFailure), first.getFailure());
+        assertEquals(Collections.emptyList(), second.getSuccess());
+        assertEquals(List.of(secondFailure), second.getFailure());
+        assertNull(second.getNextCursor());
+        verify(backendServerMock, times(1)).getTransactionsPage(any(), eq(1), any());
+    }
+
+    /**
+     * Test case verifying that following the cursor ends for an account one of the requested stores does not know,
+     * instead of asking that store for its first page forever.
+     */
+    @Test
+    public void testFetchTransactionsPageEndsForAccountUnknownToOneStore() {
+
+        String accountNumber = "123456";
+        BackendServer failureServer = mock(BackendServer.class);
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerFactory.getBackendServer(TransactionStatus.FAILURE)).thenReturn(failureServer);
+        ConsolidatedTransactionDTO successPage = new ConsolidatedTransactionDTO(
+                List.of(new TransactionDTO()), Collections.emptyList(), Collections.emptyList());
+        successPage.setNextCursor("MQ");
+        when(backendServerMock.getTransactionsPage(accountNumber, 1, null)).thenReturn(Mono.just(successPage));
+        when(backendServerMock.getTransactionsPage(accountNumber, 1, "MQ")).thenReturn(Mono.just(
+                new ConsolidatedTransactionDTO(List.of(new TransactionDTO()), Collections.emptyList(), Collections.emptyList())));
+        when(failureServer.getTransactionsPage(accountNumber, 1, null)).thenReturn(Mono.error(
+                WebClientResponseException.create(400, "Bad Request", null, null, null)));
+
+        String cursor = null;
+        int pages = 0;
+        do {
+            ConsolidatedTransactionDTO page = transactionService.fetchTransactionsPage(accountNumber, "SUCCESS,FAILURE", 1,
+                    cursor).block(Duration.ofSeconds(5));
+            if (pages == 0) {
+                assertEquals(SegmentStatus.NOT_FOUND, page.getSegmentStatus().get(TransactionStatus.FAILURE));
+            }
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null && pages < 10);
+
+        assertNull(cursor);
+        assertEquals(2, pages);
+        verify(failureServer, times(1)).getTransactionsPage(any(), eq(1), any());
+    }
+
+    /**
+     * Test case verifying that a store missing its deadline keeps its position in the merged cursor.
+     */
+    @Test
+    public void testFetchTransactionsPageKeepsPositionOfDegradedStore() {
+
+        String accountNumber = "123456";
+        resilienceProperties.getDefaults().setDeadline(Duration.ofMillis(100));
+        transactionService = newTransactionService();
+        when(backendServerFactory.getBackendServer(TransactionStatus.PENDING)).thenReturn(backendServerMock);
+        when(backendServerMock.getTransactionsPage(accountNumber, 10, null)).thenReturn(Mono.never());
+
+        ConsolidatedTransactionDTO page = transactionService.fetchTransactionsPage(accountNumber, "PENDING", 10, null)
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(SegmentStatus.TIMED_OUT, page.getSegmentStatus().get(TransactionStatus.PENDING));
+        assertEquals(PageCursor.start().encode(), page.getNextCursor());
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.fetchTransactionsPage(accountNumber, "PENDING", 10, "%%%"));
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.fetchTransactionsPage(accountNumber, "PENDING", 0, null));
+    }
+
+    /**
+     * Test case verifying that the timeline interleaves the date-ordered backend streams newest first.
+     */
+    @Test
+    public void testFetchTimelineMergesStoresNewestFirst() {
+
+        String accountNumber = "123456";
+        BackendServer failureServer = mock(BackendServer.class);
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerFactory.getBackendServer(TransactionStatus.FAILURE)).thenReturn(failureServer);
+        when(backendServerMock.streamTransactions(accountNumber, true))
+                .thenReturn(Flux.just(dated("S1", "02-01-2024"), dated("S2", "30-12-2023")));
+        when(failureServer.streamTransactions(accountNumber, true))
+                .thenReturn(Flux.just(dated("F1", "31-12-2023"), dated("F2", "15-06-2022")));
+
+        TimelineDTO timeline = transactionService.fetchTimeline(accountNumber, "SUCCESS,FAILURE", null)
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(List.of("S1", "F1", "S2", "F2"), timeline.getTransactions().stream()
+                .map(record -> record.getTransaction().getTransactionId()).toList());
+        assertEquals(TransactionStatus.FAILURE, timeline.getTransactions().get(1).getStatus());
+        assertEquals(Map.of(TransactionStatus.SUCCESS, SegmentStatus.OK, TransactionStatus.FAILURE, SegmentStatus.OK),
+                timeline.getSegmentStatus());
+        assertFalse(timeline.isFullyDegraded());
+    }
+
+    /**
+     * Test case verifying that {@code top} stops reading once enough transactions are merged, cancelling the streams.
+     */
+    @Test
+    public void testFetchTimelineTopCancelsBackendStreams() {
+
+        String accountNumber = "123456";
+        AtomicBoolean cancelled = new AtomicBoolean();
+        when(backendServerFactory.getBackendServer(TransactionStatus.PENDING)).thenReturn(backendServerMock);
+        when(backendServerMock.streamTransactions(accountNumber, true)).thenReturn(
+                Flux.concat(Flux.just(dated("P1", "02-01-2024"), dated("P2", "01-01-2024")), Flux.<TransactionDTO>never())
+                        .doOnCancel(() -> cancelled.set(true)));
+
+        TimelineDTO timeline = transactionService.fetchTimeline(accountNumber, "PENDING", 1).block(Duration.ofSeconds(5));
+
+        assertEquals(1, timeline.getTransactions().size());
+        assertEquals("P1", timeline.getTransactions().get(0).getTransaction().getTransactionId());
+        assertTrue(cancelled.get());
+        assertThrows(IllegalArgumentException.class, () -> transactionService.fetchTimeline(accountNumber, "PENDING", 0));
+    }
+
+    /**
+     * Test case verifying that a failing store is left out of the timeline and flagged instead of failing it.
+     */
+    @Test
+    public void testFetchTimelineFlagsDegradedStore() {
+
+        String accountNumber = "123456";
+        BackendServer pendingServer = mock(BackendServer.class);
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerFactory.getBackendServer(TransactionStatus.PENDING)).thenReturn(pendingServer);
+        when(backendServerMock.streamTransactions(accountNumber, true)).thenReturn(Flux.just(dated("S1", "02-01-2024")));
+        when(pendingServer.streamTransactions(accountNumber, true)).thenReturn(Flux.error(new IllegalStateException("Backend down")));
+
+        TimelineDTO timeline = transactionService.fetchTimeline(accountNumber, "SUCCESS,PENDING", null)
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(1, timeline.getTransactions().size());
+        assertEquals(SegmentStatus.FAILED, timeline.getSegmentStatus().get(TransactionStatus.PENDING));
+        assertFalse(timeline.isFullyDegraded());
+    }
+
+    /**
+     * Test case verifying that passthrough splices the backends' arrays without decoding them and flags a degraded store.
+     */
+    @Test
+    public void testFetchTransactionsPassthroughSplicesBackendArrays() {
+
+        String accountNumber = "123456";
+        BackendServer failureServer = mock(BackendServer.class);
+        when(backendServerFactory.getBackendServer(TransactionStatus.SUCCESS)).thenReturn(backendServerMock);
+        when(backendServerFactory.getBackendServer(TransactionStatus.FAILURE)).thenReturn(failureServer);
+        when(backendServerMock.getTransactionsRaw(accountNumber))
+                .thenReturn(Mono.just("[{\"transactionId\":\"T1\"}]".getBytes(StandardCharsets.UTF_8)));
+        when(failureServer.getTransactionsRaw(accountNumber)).thenReturn(Mono.error(new IllegalStateException("Backend down")));
+
+        PassthroughTransactionsDTO result = transactionService.fetchTransactionsPassthrough(accountNumber, "SUCCESS,FAILURE")
+                .block(Duration.ofSeconds(5));
+
+        assertEquals("{\"success\":[{\"transactionId\":\"T1\"}],\"failure\":[],\"pending\":[],"
+                        + "\"segmentStatus\":{\"SUCCESS\":\"ok\",\"FAILURE\":\"failed\"}}",
+                new String(result.getBody(), StandardCharsets.UTF_8));
+        assertFalse(result.isFullyDegraded());
+        verify(backendServerMock, never()).getTransactionsReactive(any());
+    }
+
+    /**
+     * Creates a transaction with the given identifier and {@code dd-MM-yyyy} date.
+     *
+     * @param transactionId The transaction identifier.
+     * @param date          The transaction date.
+     * @return The transaction.
+     */
+    private static TransactionDTO dated(String transactionId, String date) {
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setTransactionId(transactionId);
+        transaction.setDate(date);
+        return transaction;
+    }
 }